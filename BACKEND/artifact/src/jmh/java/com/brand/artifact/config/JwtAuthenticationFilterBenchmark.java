@@ -0,0 +1,106 @@
+package com.brand.artifact.config;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.brand.artifact.constant.AuthMode;
+import com.brand.artifact.constant.Role;
+import com.brand.artifact.dto.projection.UserStatus;
+import com.brand.artifact.service.TokenBlacklistService;
+import com.brand.artifact.service.TokenRevocationService;
+import com.brand.artifact.service.UserStatusService;
+import com.brand.artifact.utils.JwtUtil;
+import com.brand.artifact.utils.JwtUtilBenchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+
+/**
+ * Toàn bộ doFilterInternal ở chế độ STATELESS, các service phía sau (Redis, DB)
+ * được thay bằng stub trả kết quả ngay để chỉ đo phần việc của filter.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class JwtAuthenticationFilterBenchmark {
+
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> { };
+
+    private JwtAuthenticationFilter filter;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @Setup
+    public void setup() {
+        JwtUtil jwtUtil = JwtUtilBenchmark.newJwtUtil(10_000);
+        String accessToken = jwtUtil.generateAccessToken("user-id", "benchmark", "benchmark@example.com", "USER", 0L);
+        UserStatus status = new UserStatus("user-id", "benchmark", Role.USER, true);
+
+        filter = new JwtAuthenticationFilter();
+        ReflectionTestUtils.setField(filter, "jwtUtil", jwtUtil);
+        ReflectionTestUtils.setField(filter, "tokenBlacklistService", new TokenBlacklistService() {
+            @Override
+            public void blacklistToken(String token, long ttlMillis) {
+            }
+
+            @Override
+            public boolean isTokenBlacklisted(String token) {
+                return false;
+            }
+
+            @Override
+            public void cleanupExpiredTokens() {
+            }
+        });
+        ReflectionTestUtils.setField(filter, "tokenRevocationService", new TokenRevocationService() {
+            @Override
+            public long currentEpoch(String userId) {
+                return 0L;
+            }
+
+            @Override
+            public void revokeAllSessions(String userId) {
+            }
+
+            @Override
+            public boolean isRevoked(String userId, long sessionEpoch) {
+                return false;
+            }
+        });
+        ReflectionTestUtils.setField(filter, "userStatusService", new UserStatusService() {
+            @Override
+            public Optional<UserStatus> getStatus(String userId) {
+                return Optional.of(status);
+            }
+
+            @Override
+            public void evict(String userId) {
+            }
+        });
+        ReflectionTestUtils.setField(filter, "authMode", AuthMode.STATELESS);
+        filter.setMeterRegistry(new SimpleMeterRegistry());
+
+        request = new MockHttpServletRequest("GET", "/api/users/me");
+        request.addHeader("Authorization", "Bearer " + accessToken);
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public Object doFilterInternal() throws Exception {
+        SecurityContextHolder.clearContext();
+        filter.doFilterInternal(request, response, NO_OP_CHAIN);
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
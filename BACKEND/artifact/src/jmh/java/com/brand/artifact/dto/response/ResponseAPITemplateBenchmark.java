@@ -0,0 +1,76 @@
+package com.brand.artifact.dto.response;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Serialize response bằng ObjectMapper cấu hình giống Spring MVC (JavaTimeModule, ISO date)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ResponseAPITemplateBenchmark {
+
+    private ObjectMapper objectMapper;
+    private ResponseAPITemplate<UserLoginResponse> loginResponse;
+    private ResponseAPITemplate<List<UserInfoResponse>> userListResponse;
+
+    @Setup
+    public void setup() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        loginResponse = ResponseAPITemplate.<UserLoginResponse>builder()
+                .result(UserLoginResponse.builder()
+                        .userId("7f1c2a9e-4d4b-4a8e-9a51-0f6a3c2b1d00")
+                        .username("benchmark")
+                        .email("benchmark@example.com")
+                        .tokenType("Bearer")
+                        .accessToken("eyJhbGciOiJIUzI1NiJ9." + "a".repeat(220) + ".signature")
+                        .accessTokenExpiresIn(900_000)
+                        .refreshToken("eyJhbGciOiJIUzI1NiJ9." + "b".repeat(140) + ".signature")
+                        .refreshTokenExpiresIn(604_800_000)
+                        .build())
+                .build();
+
+        userListResponse = ResponseAPITemplate.<List<UserInfoResponse>>builder()
+                .result(IntStream.range(0, 20)
+                        .mapToObj(i -> UserInfoResponse.builder()
+                                .infoId("info-" + i)
+                                .firstName("Nguyễn")
+                                .lastName("Văn " + i)
+                                .phone("09000000" + i)
+                                .createdAt(LocalDateTime.now())
+                                .updatedAt(LocalDateTime.now())
+                                .username("user" + i)
+                                .email("user" + i + "@example.com")
+                                .dob(LocalDate.of(2000, 1, 1))
+                                .build())
+                        .toList())
+                .build();
+    }
+
+    @Benchmark
+    public byte[] serializeLoginResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(loginResponse);
+    }
+
+    @Benchmark
+    public byte[] serializeUserList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(userListResponse);
+    }
+}
@@ -0,0 +1,40 @@
+package com.brand.artifact.service;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.brand.artifact.utils.JwtUtil;
+import com.brand.artifact.utils.JwtUtilBenchmark;
+
+/**
+ * HMAC digest của refresh token, chạy trên mọi lần refresh/logout
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class RefreshTokenHashBenchmark {
+
+    private RefreshTokenServiceImpl refreshTokenService;
+    private String refreshToken;
+
+    @Setup
+    public void setup() {
+        JwtUtil jwtUtil = JwtUtilBenchmark.newJwtUtil(0);
+        refreshTokenService = new RefreshTokenServiceImpl(null, null, jwtUtil,
+                "a-string-secret-at-least-256-bits-long-for-jwt-token-generation",
+                "a-string-secret-at-least-256-bits-long-for-jwt-token-generation", false, "");
+        refreshToken = jwtUtil.generateRefreshToken("user-id", "benchmark", 0L);
+    }
+
+    @Benchmark
+    public String hashToken() {
+        return refreshTokenService.hashToken(refreshToken);
+    }
+}
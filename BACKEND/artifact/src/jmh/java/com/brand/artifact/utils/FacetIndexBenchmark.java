@@ -0,0 +1,72 @@
+package com.brand.artifact.utils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.brand.artifact.constant.Size;
+import com.brand.artifact.dto.projection.ProductFacetRow;
+import com.brand.artifact.dto.response.ProductFacetResponse;
+
+/**
+ * Độ trễ lọc + đếm facet theo kích thước catalog (mỗi sản phẩm 4-8 variant)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FacetIndexBenchmark {
+
+    private static final String[] COLORS = { "Đen", "Trắng", "Xanh Navy", "Đỏ", "Be", "Xám", "Nâu", "Hồng" };
+    private static final long[] PRICES = { 99_000, 199_000, 350_000, 499_000, 790_000, 1_290_000, 2_500_000 };
+
+    @Param({ "10000", "100000" })
+    private int products;
+
+    private FacetIndex index;
+    private List<String> categories;
+
+    @Setup
+    public void setup() {
+        index = new FacetIndex(new long[] { 200_000, 500_000, 1_000_000, 2_000_000 });
+        Random random = new Random(42);
+        Size[] sizes = Size.values();
+        for (int i = 0; i < products; i++) {
+            String productId = "product-" + i;
+            String categoryId = "category-" + (i % 40);
+            int variants = 4 + random.nextInt(5);
+            List<ProductFacetRow> rows = new ArrayList<>(variants);
+            for (int v = 0; v < variants; v++) {
+                rows.add(new ProductFacetRow(productId, categoryId, sizes[random.nextInt(sizes.length)],
+                        COLORS[random.nextInt(COLORS.length)], BigDecimal.valueOf(PRICES[random.nextInt(PRICES.length)]),
+                        random.nextInt(4) == 0 ? 0 : random.nextInt(50)));
+            }
+            index.upsert(productId, rows);
+        }
+        categories = new ArrayList<>();
+        for (int c = 0; c < 10; c++) {
+            categories.add("category-" + c);
+        }
+    }
+
+    @Benchmark
+    public ProductFacetResponse noFilter() {
+        return index.query(null, null, null, null, false, 20);
+    }
+
+    @Benchmark
+    public ProductFacetResponse sidebarFilter() {
+        return index.query(List.of("M", "L"), List.of("den", "xanh-navy"), List.of("200000-500000"), categories,
+                true, 20);
+    }
+}
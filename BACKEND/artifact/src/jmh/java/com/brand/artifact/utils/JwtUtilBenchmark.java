@@ -0,0 +1,57 @@
+package com.brand.artifact.utils;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Phát hành và verify access token. claimsCacheMaxSize = 0 đo chi phí verify chữ ký thật,
+ * giá trị khác đo đường đi khi claims đã có trong cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class JwtUtilBenchmark {
+
+    @Param({ "0", "10000" })
+    private long claimsCacheMaxSize;
+
+    private JwtUtil jwtUtil;
+    private String accessToken;
+
+    @Setup
+    public void setup() {
+        jwtUtil = newJwtUtil(claimsCacheMaxSize);
+        accessToken = jwtUtil.generateAccessToken("user-id", "benchmark", "benchmark@example.com", "USER", 0L);
+    }
+
+    @Benchmark
+    public String generateAccessToken() {
+        return jwtUtil.generateAccessToken("user-id", "benchmark", "benchmark@example.com", "USER", 0L);
+    }
+
+    @Benchmark
+    public boolean validateAccessToken() {
+        return jwtUtil.validateAccessToken(accessToken);
+    }
+
+    public static JwtUtil newJwtUtil(long claimsCacheMaxSize) {
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "accessSecret",
+                "a-string-secret-at-least-256-bits-long-for-jwt-token-generation");
+        ReflectionTestUtils.setField(jwtUtil, "refreshSecret", "");
+        ReflectionTestUtils.setField(jwtUtil, "accessExpirationMs", 900_000L);
+        ReflectionTestUtils.setField(jwtUtil, "refreshExpirationMs", 604_800_000L);
+        ReflectionTestUtils.setField(jwtUtil, "claimsCacheMaxSize", claimsCacheMaxSize);
+        jwtUtil.init();
+        return jwtUtil;
+    }
+}
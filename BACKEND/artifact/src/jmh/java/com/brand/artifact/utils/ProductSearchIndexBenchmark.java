@@ -0,0 +1,62 @@
+package com.brand.artifact.utils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.brand.artifact.dto.projection.ProductSearchDocument;
+import com.brand.artifact.dto.projection.ProductSummary;
+
+/**
+ * Độ trễ search theo kích thước catalog (mục tiêu: dưới 1ms)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ProductSearchIndexBenchmark {
+
+    private static final String[] NAMES = { "Áo thun", "Áo sơ mi", "Quần jean", "Quần short", "Váy đầm",
+            "Áo khoác", "Giày thể thao", "Túi xách", "Mũ lưỡi trai", "Đồng hồ" };
+    private static final String[] ADJECTIVES = { "nam", "nữ", "trẻ em", "oversize", "cotton", "basic",
+            "cao cấp", "form rộng", "slim fit", "họa tiết" };
+    private static final String[] COLORS = { "đen", "trắng", "xanh", "đỏ", "be", "xám", "nâu", "hồng" };
+
+    @Param({ "10000", "100000" })
+    private int products;
+
+    private ProductSearchIndex index;
+
+    @Setup
+    public void setup() {
+        index = new ProductSearchIndex();
+        Random random = new Random(42);
+        for (int i = 0; i < products; i++) {
+            String name = NAMES[random.nextInt(NAMES.length)] + " " + ADJECTIVES[random.nextInt(ADJECTIVES.length)]
+                    + " " + COLORS[random.nextInt(COLORS.length)] + " " + i;
+            index.upsert(new ProductSearchDocument("product-" + i, name, "Chất liệu thoáng mát, dễ phối đồ",
+                    "category-" + (i % 20), NAMES[i % NAMES.length], null, BigDecimal.valueOf(199_000),
+                    null, false, LocalDateTime.now()));
+        }
+    }
+
+    @Benchmark
+    public List<ProductSummary> selectiveQuery() {
+        return index.search("ao thun oversize den", 20);
+    }
+
+    @Benchmark
+    public List<ProductSummary> prefixQuery() {
+        return index.search("quan je", 20);
+    }
+}
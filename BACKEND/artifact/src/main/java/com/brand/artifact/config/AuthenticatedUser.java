@@ -0,0 +1,30 @@
+package com.brand.artifact.config;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import lombok.Getter;
+
+/**
+ * Principal của request đã xác thực, mang theo userId để không phải tra cứu lại theo username
+ */
+@Getter
+public class AuthenticatedUser extends User {
+
+    private final String userId;
+
+    public AuthenticatedUser(String userId, String username, String password, boolean enabled,
+            Collection<? extends GrantedAuthority> authorities) {
+        super(username, password, enabled, true, true, enabled, authorities);
+        this.userId = userId;
+    }
+
+    public static AuthenticatedUser fromClaims(String userId, String username, String role) {
+        return new AuthenticatedUser(userId, username, "", true,
+                List.of(new SimpleGrantedAuthority("ROLE_" + role)));
+    }
+}
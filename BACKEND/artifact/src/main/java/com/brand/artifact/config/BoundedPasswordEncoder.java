@@ -0,0 +1,131 @@
+package com.brand.artifact.config;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.brand.artifact.exception.ServiceBusyException;
+
+/**
+ * Chạy BCrypt trên một pool riêng có giới hạn thay vì trên thread của Tomcat.
+ * Khi pool và hàng đợi đã đầy thì từ chối ngay (503 + Retry-After) để một đợt login
+ * dồn dập không chiếm hết request thread của các API khác.
+ *
+ * timeoutMs là thời gian tối đa chờ trong hàng đợi: BCrypt không dừng được giữa chừng
+ * (interrupt không có tác dụng), nên lượt hash đã bắt đầu luôn được đợi chạy xong
+ * thay vì bỏ lại một thread vẫn bận và trả 503.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder, DisposableBean {
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMs;
+    private final long retryAfterSeconds;
+    private final AtomicLong rejectedCount = new AtomicLong();
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int poolSize, int queueCapacity,
+            long timeoutMs, long retryAfterSeconds) {
+        this.delegate = delegate;
+        this.timeoutMs = timeoutMs;
+        this.retryAfterSeconds = retryAfterSeconds;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                poolSize, poolSize,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(queueCapacity, 1)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return execute(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return execute(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    public ThreadPoolExecutor getExecutor() {
+        return executor;
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    private <T> T execute(Callable<T> task) {
+        AtomicBoolean started = new AtomicBoolean();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                started.set(true);
+                return task.call();
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedCount.incrementAndGet();
+            throw new ServiceBusyException(retryAfterSeconds);
+        }
+
+        try {
+            return unwrap(() -> future.get(timeoutMs, TimeUnit.MILLISECONDS));
+        } catch (TimeoutException e) {
+            // Còn trong hàng đợi: huỷ để không chạy nữa
+            if (!started.get() && future.cancel(false)) {
+                rejectedCount.incrementAndGet();
+                throw new ServiceBusyException(retryAfterSeconds);
+            }
+            // Đã bắt đầu hash: đợi nốt, tối đa thêm một lần hash
+            try {
+                return unwrap(future::get);
+            } catch (TimeoutException impossible) {
+                throw new IllegalStateException(impossible);
+            }
+        }
+    }
+
+    private <T> T unwrap(FutureResult<T> result) throws TimeoutException {
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceBusyException(retryAfterSeconds);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    @FunctionalInterface
+    private interface FutureResult<T> {
+        T get() throws InterruptedException, ExecutionException, TimeoutException;
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+}
@@ -2,9 +2,14 @@ package com.brand.artifact.config;
 
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -13,9 +18,17 @@ import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import com.brand.artifact.constant.AuthMode;
+import com.brand.artifact.dto.projection.UserStatus;
 import com.brand.artifact.service.CustomUserDetailsService;
 import com.brand.artifact.service.TokenBlacklistService;
+import com.brand.artifact.service.TokenRevocationService;
+import com.brand.artifact.service.UserStatusService;
 import com.brand.artifact.utils.JwtUtil;
+import com.brand.artifact.utils.VerifiedToken;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -34,6 +47,47 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private TokenBlacklistService tokenBlacklistService;
 
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private UserStatusService userStatusService;
+
+    @Value("${app.security.auth-mode:DATABASE}")
+    private AuthMode authMode;
+
+    private static final String OUTCOME_AUTHENTICATED = "authenticated";
+    private static final String OUTCOME_BLACKLISTED = "blacklisted";
+    private static final String OUTCOME_INVALID = "invalid";
+    private static final String OUTCOME_REVOKED = "revoked";
+    private static final String OUTCOME_REJECTED = "rejected";
+
+    private Map<String, Timer> filterTimers;
+    private Timer jwtParseTimer;
+    private Timer blacklistCheckTimer;
+
+    @Autowired
+    public void setMeterRegistry(MeterRegistry meterRegistry) {
+        Map<String, Timer> timers = new HashMap<>();
+        for (String outcome : List.of(OUTCOME_AUTHENTICATED, OUTCOME_BLACKLISTED, OUTCOME_INVALID,
+                OUTCOME_REVOKED, OUTCOME_REJECTED)) {
+            timers.put(outcome, Timer.builder("auth.filter")
+                    .description("Time spent authenticating bearer tokens in JwtAuthenticationFilter")
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+        this.filterTimers = timers;
+        this.jwtParseTimer = Timer.builder("auth.jwt.parse")
+                .description("Access token parsing and signature verification")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.blacklistCheckTimer = Timer.builder("auth.blacklist.check")
+                .description("Token blacklist lookups")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
     // Danh sách các path cần BỎ QUA JWT filter (OAuth2 paths)
     private static final List<String> EXCLUDED_PATHS = Arrays.asList(
             "/oauth2/",
@@ -65,41 +119,79 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             return;
         }
 
-        final String jwt = authHeader.substring(7);
-        
+        long start = System.nanoTime();
+        String outcome = authenticate(authHeader.substring(7));
+        filterTimers.get(outcome).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * Xác thực bearer token và đặt authentication vào SecurityContext nếu hợp lệ.
+     * Trả về kết quả (outcome) dùng làm tag cho metric.
+     */
+    private String authenticate(String jwt) {
         // Kiểm tra token có bị blacklist không
-        if (tokenBlacklistService.isTokenBlacklisted(jwt)) {
-            filterChain.doFilter(request, response);
-            return;
+        long blacklistStart = System.nanoTime();
+        boolean blacklisted = tokenBlacklistService.isTokenBlacklisted(jwt);
+        blacklistCheckTimer.record(System.nanoTime() - blacklistStart, TimeUnit.NANOSECONDS);
+        if (blacklisted) {
+            return OUTCOME_BLACKLISTED;
         }
 
-        // Validate access token
-        if (!jwtUtil.isAccessToken(jwt) || !jwtUtil.validateAccessToken(jwt)) {
-            filterChain.doFilter(request, response);
-            return;
+        // Parse + verify access token đúng một lần
+        long parseStart = System.nanoTime();
+        Optional<VerifiedToken> verifiedToken = jwtUtil.parseAccessToken(jwt);
+        jwtParseTimer.record(System.nanoTime() - parseStart, TimeUnit.NANOSECONDS);
+        if (verifiedToken.isEmpty()) {
+            return OUTCOME_INVALID;
         }
 
-        try {
-            String username = jwtUtil.getUsernameFromToken(jwt);
-            
-            // Nếu chưa có authentication trong context, tạo mới
-            if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+        // Token phát hành trước lần "đăng xuất mọi thiết bị" gần nhất (epoch cũ hơn)
+        if (tokenRevocationService.isRevoked(verifiedToken.get().userId(), verifiedToken.get().sessionEpoch())) {
+            return OUTCOME_REVOKED;
+        }
 
-                if (jwtUtil.validateAccessToken(jwt, userDetails.getUsername())) {
-                    UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                            userDetails,
-                            null,
-                            userDetails.getAuthorities()
-                    );
+        // Nếu chưa có authentication trong context, tạo mới
+        if (SecurityContextHolder.getContext().getAuthentication() == null) {
+            UserDetails userDetails = resolveUser(verifiedToken.get());
+            if (userDetails == null || !userDetails.isEnabled()) {
+                return OUTCOME_REJECTED;
+            }
+            UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                    userDetails,
+                    null,
+                    userDetails.getAuthorities()
+            );
 
-                    SecurityContextHolder.getContext().setAuthentication(authToken);
-                }
+            SecurityContextHolder.getContext().setAuthentication(authToken);
+        }
+        return OUTCOME_AUTHENTICATED;
+    }
+
+    private UserDetails resolveUser(VerifiedToken token) {
+        String username = token.subject();
+        if (username == null) {
+            return null;
+        }
+
+        if (authMode == AuthMode.DATABASE) {
+            try {
+                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                return username.equals(userDetails.getUsername()) ? userDetails : null;
+            } catch (UsernameNotFoundException ignored) {
+                // Username không tồn tại, bỏ qua
+                return null;
             }
-        } catch (UsernameNotFoundException ignored) {
-            // Username không tồn tại, bỏ qua
         }
 
-        filterChain.doFilter(request, response);
+        // STATELESS: principal dựng từ claims, chỉ đối chiếu trạng thái user qua cache.
+        // Token có role cũ (user bị đổi quyền) hoặc user bị khoá sẽ bị từ chối.
+        return userStatusService.getStatus(token.userId())
+                .filter(UserStatus::active)
+                .filter(status -> username.equals(status.username()))
+                .filter(status -> status.role() != null && status.role().name().equals(token.role()))
+                .map(status -> AuthenticatedUser.fromClaims(token.userId(), username, token.role()))
+                .orElse(null);
     }
-}
\ No newline at end of file
+}
@@ -1,19 +1,101 @@
 package com.brand.artifact.config;
 
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import lombok.extern.slf4j.Slf4j;
+
 /**
  * Password Encoder Configuration
  * Separated to avoid circular dependency with SecurityConfig
  */
+@Slf4j
 @Configuration
 public class PasswordEncoderConfig {
-    
+
+    private static final int MIN_STRENGTH = 4;
+    private static final int MAX_STRENGTH = 16;
+    private static final int CALIBRATION_ROUNDS = 3;
+
+    @Value("${app.security.password.bcrypt.strength:10}")
+    private int strength;
+
+    // > 0: chọn strength lớn nhất mà một lần encode vẫn dưới mức này (đo lúc khởi động)
+    @Value("${app.security.password.bcrypt.target-latency-ms:0}")
+    private long targetLatencyMs;
+
+    // Strength thấp nhất được phép khi tự chọn theo latency
+    @Value("${app.security.password.bcrypt.min-strength:10}")
+    private int minStrength;
+
+    // 0 = số CPU
+    @Value("${app.security.password.pool.size:0}")
+    private int poolSize;
+
+    @Value("${app.security.password.pool.queue-capacity:64}")
+    private int queueCapacity;
+
+    @Value("${app.security.password.pool.timeout-ms:5000}")
+    private long timeoutMs;
+
+    @Value("${app.security.password.pool.retry-after-seconds:2}")
+    private long retryAfterSeconds;
+
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(ObjectProvider<MeterRegistry> meterRegistry) {
+        int effectiveStrength = targetLatencyMs > 0 ? calibrateStrength() : strength;
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(
+                new BCryptPasswordEncoder(effectiveStrength), threads, queueCapacity, timeoutMs, retryAfterSeconds);
+        meterRegistry.ifAvailable(registry -> bindMetrics(encoder, registry));
+        log.info("Password hashing: BCrypt strength {}, {} threads, queue capacity {}",
+                effectiveStrength, threads, queueCapacity);
+        return encoder;
+    }
+
+    /**
+     * Đo thời gian encode với strength tăng dần, dừng khi vượt target.
+     * Hash cũ vẫn verify được vì strength được lưu trong chính chuỗi BCrypt.
+     */
+    private int calibrateStrength() {
+        int floor = Math.max(MIN_STRENGTH, Math.min(minStrength, MAX_STRENGTH));
+        int chosen = floor;
+        for (int candidate = floor; candidate <= MAX_STRENGTH; candidate++) {
+            long elapsedMs = measureEncodeMillis(new BCryptPasswordEncoder(candidate));
+            if (elapsedMs > targetLatencyMs) {
+                break;
+            }
+            chosen = candidate;
+        }
+        log.info("Calibrated BCrypt strength {} for target latency {} ms", chosen, targetLatencyMs);
+        return chosen;
+    }
+
+    private long measureEncodeMillis(BCryptPasswordEncoder encoder) {
+        // Lần đầu để warm-up, lấy thời gian nhỏ nhất của các lần sau
+        encoder.encode("calibration");
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < CALIBRATION_ROUNDS; i++) {
+            long start = System.nanoTime();
+            encoder.encode("calibration");
+            best = Math.min(best, (System.nanoTime() - start) / 1_000_000);
+        }
+        return best;
+    }
+
+    private void bindMetrics(BoundedPasswordEncoder encoder, MeterRegistry registry) {
+        new ExecutorServiceMetrics(encoder.getExecutor(), "password-hashing", Tags.empty()).bindTo(registry);
+        FunctionCounter.builder("password.hashing.rejected", encoder, BoundedPasswordEncoder::getRejectedCount)
+                .description("Password hashing requests rejected because the pool was saturated")
+                .register(registry);
     }
 }
@@ -0,0 +1,53 @@
+package com.brand.artifact.config;
+
+import java.io.IOException;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Ghi số câu SQL mỗi request vào metric http.server.requests.queries, tag theo route.
+ * Chạy trước mọi filter khác (kể cả security filter chain) nên query của filter
+ * (tra user trong JwtAuthenticationFilter...) cũng được đếm, không chỉ query của controller.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class QueryCountFilter extends OncePerRequestFilter {
+
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        QueryCountStatementInspector.reset();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            // Route do DispatcherServlet ghi lại, request không tới controller (401, 404...) thì là UNKNOWN
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            DistributionSummary.builder("http.server.requests.queries")
+                    .description("SQL statements executed per request")
+                    .tag("method", request.getMethod())
+                    .tag("uri", pattern != null ? pattern.toString() : "UNKNOWN")
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(QueryCountStatementInspector.current());
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.brand.artifact.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Đếm số câu SQL Hibernate chuẩn bị trên thread hiện tại (theo từng request).
+ * Đăng ký qua spring.jpa.properties.hibernate.session_factory.statement_inspector.
+ */
+public class QueryCountStatementInspector implements StatementInspector {
+
+    private static final ThreadLocal<int[]> COUNT = ThreadLocal.withInitial(() -> new int[1]);
+
+    @Override
+    public String inspect(String sql) {
+        COUNT.get()[0]++;
+        return sql;
+    }
+
+    public static void reset() {
+        COUNT.get()[0] = 0;
+    }
+
+    public static int current() {
+        return COUNT.get()[0];
+    }
+}
@@ -0,0 +1,38 @@
+package com.brand.artifact.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import com.brand.artifact.service.CategoryTreeServiceImpl;
+import com.brand.artifact.service.SecondLevelCacheServiceImpl;
+import com.brand.artifact.service.TokenBlacklistServiceImpl;
+import com.brand.artifact.service.TokenRevocationServiceImpl;
+import com.brand.artifact.service.UserStatusServiceImpl;
+
+/**
+ * Redis pub/sub để đồng bộ cache local giữa các node
+ */
+@Configuration
+public class RedisConfig {
+
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(
+            RedisConnectionFactory connectionFactory,
+            TokenBlacklistServiceImpl tokenBlacklistService,
+            TokenRevocationServiceImpl tokenRevocationService,
+            CategoryTreeServiceImpl categoryTreeService,
+            SecondLevelCacheServiceImpl secondLevelCacheService,
+            UserStatusServiceImpl userStatusService) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(tokenBlacklistService, new ChannelTopic(TokenBlacklistServiceImpl.CHANNEL));
+        container.addMessageListener(tokenRevocationService, new ChannelTopic(TokenRevocationServiceImpl.CHANNEL));
+        container.addMessageListener(categoryTreeService, new ChannelTopic(CategoryTreeServiceImpl.CHANNEL));
+        container.addMessageListener(secondLevelCacheService, new ChannelTopic(SecondLevelCacheServiceImpl.CHANNEL));
+        container.addMessageListener(userStatusService, new ChannelTopic(UserStatusServiceImpl.CHANNEL));
+        return container;
+    }
+}
@@ -0,0 +1,500 @@
+package com.brand.artifact.config;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.PathContainer;
+import org.springframework.lang.NonNull;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import com.brand.artifact.event.CatalogChangedEvent;
+import com.brand.artifact.event.RemoteCatalogChangedEvent;
+import com.brand.artifact.event.StockChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Cache response đã serialize (kèm bản gzip) cho các route GET public của catalog.
+ * Cache hit được ghi thẳng ra output stream, không qua controller và Jackson.
+ *
+ * - key: path + query đã chuẩn hoá (tham số sắp theo tên)
+ * - TTL theo route, giới hạn tổng số byte (Caffeine tự evict)
+ * - nhiều request cùng key lúc cache miss thì chỉ một request chạy controller, các request khác chờ
+ *   và dùng chung kết quả, kể cả khi kết quả là lỗi (không cache nhưng cũng không chạy lại controller)
+ * - sản phẩm thay đổi chỉ làm mất hiệu lực trang chi tiết của sản phẩm đó và các route danh sách; route chỉ chứa
+ *   category và trang chi tiết của sản phẩm khác được giữ. Category thay đổi thì xoá toàn bộ.
+ *   Mỗi entry mang số thứ tự lúc bắt đầu build, invalidate chỉ ghi mốc nên không phải duyệt cache;
+ *   entry cũ hơn mốc bị bỏ khi được đọc tới (hoặc khi hết TTL)
+ * - thay đổi trên node khác đến qua RemoteCatalogChangedEvent (Redis pub/sub của second-level cache và cây category)
+ *
+ * Chỉ cache response 200 không có Set-Cookie / Cache-Control private, nên route được cấu hình
+ * phải trả cùng nội dung cho mọi user.
+ */
+@Component
+public class ResponseCacheFilter extends OncePerRequestFilter {
+
+    static final String CACHE_HEADER = "X-Cache";
+    // Tên path variable của trang chi tiết sản phẩm (GET /api/products/{productId})
+    static final String PRODUCT_ID_VARIABLE = "productId";
+    // Header của response được lưu lại; CORS / security header do các filter trước ghi cho từng request
+    private static final List<String> CACHED_HEADERS = List.of(
+            HttpHeaders.ETAG, HttpHeaders.LAST_MODIFIED, HttpHeaders.CACHE_CONTROL);
+
+    private final boolean enabled;
+    private final List<Route> routes;
+    private final List<PathPattern> categoryOnlyRoutes;
+    private final int gzipMinBytes;
+    private final long singleFlightTimeoutMs;
+
+    private final Cache<String, CachedResponse> cache;
+    private final Map<String, CompletableFuture<CachedResponse>> inFlight = new ConcurrentHashMap<>();
+    // Mỗi lần invalidate lấy một số thứ tự; response bắt đầu build trước lần invalidate
+    // ảnh hưởng tới nó thì không được ghi vào cache
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong allInvalidatedAt = new AtomicLong();
+    private final AtomicLong listsInvalidatedAt = new AtomicLong();
+    // productId -> lần invalidate gần nhất; phải sống lâu hơn TTL dài nhất của entry
+    private final Cache<String, Long> productInvalidatedAt;
+
+    private final Counter hits;
+    private final Counter coalesced;
+    private final Counter misses;
+    private final Counter uncacheable;
+
+    public ResponseCacheFilter(
+            @Value("${app.response-cache.enabled:true}") boolean enabled,
+            @Value("${app.response-cache.routes:/api/categories/**=300,/api/products/**=30}") String[] routes,
+            @Value("${app.response-cache.category-only-routes:/api/categories,/api/categories/tree,/api/categories/slug/**}")
+            String[] categoryOnlyRoutes,
+            @Value("${app.response-cache.max-size-mb:64}") long maxSizeMb,
+            @Value("${app.response-cache.gzip-min-bytes:1024}") int gzipMinBytes,
+            @Value("${app.response-cache.single-flight-timeout-ms:5000}") long singleFlightTimeoutMs,
+            MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.routes = parseRoutes(routes);
+        PathPatternParser parser = new PathPatternParser();
+        this.categoryOnlyRoutes = Arrays.stream(categoryOnlyRoutes)
+                .map(String::trim)
+                .filter(route -> !route.isEmpty())
+                .map(parser::parse)
+                .toList();
+        this.gzipMinBytes = gzipMinBytes;
+        this.singleFlightTimeoutMs = singleFlightTimeoutMs;
+        this.productInvalidatedAt = Caffeine.newBuilder()
+                .expireAfterWrite(this.routes.stream().map(Route::ttl).max(Duration::compareTo).orElse(Duration.ZERO)
+                        .plusMinutes(1))
+                .build();
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxSizeMb * 1024 * 1024)
+                .weigher((String key, CachedResponse entry) -> entry.weight(key))
+                .expireAfter(Expiry.<String, CachedResponse>creating((key, entry) -> entry.ttl()))
+                .build();
+
+        this.hits = resultCounter(meterRegistry, "hit");
+        this.coalesced = resultCounter(meterRegistry, "coalesced");
+        this.misses = resultCounter(meterRegistry, "miss");
+        this.uncacheable = resultCounter(meterRegistry, "uncacheable");
+    }
+
+    private static Counter resultCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("http.response.cache")
+                .description("Public GET responses by how the response cache served them")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    // Mỗi route dạng "pattern=ttlSeconds"
+    private static List<Route> parseRoutes(String[] routes) {
+        PathPatternParser parser = new PathPatternParser();
+        List<Route> parsed = new ArrayList<>();
+        for (String route : routes) {
+            int separator = route.lastIndexOf('=');
+            if (route.isBlank() || separator <= 0) {
+                throw new IllegalArgumentException("Response cache route must be pattern=ttlSeconds: " + route);
+            }
+            parsed.add(new Route(parser.parse(route.substring(0, separator).trim()),
+                    Duration.ofSeconds(Long.parseLong(route.substring(separator + 1).trim()))));
+        }
+        return List.copyOf(parsed);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !"GET".equals(request.getMethod()) || route(request).isEmpty();
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        String key = key(request);
+        CachedResponse cached = cache.getIfPresent(key);
+        if (cached != null) {
+            if (!invalidatedSince(cached.scope(), cached.version())) {
+                hits.increment();
+                write(cached, request, response, "HIT");
+                return;
+            }
+            cache.asMap().remove(key, cached);
+        }
+
+        CompletableFuture<CachedResponse> flight = new CompletableFuture<>();
+        CompletableFuture<CachedResponse> leader = inFlight.putIfAbsent(key, flight);
+        if (leader != null) {
+            CachedResponse shared = await(leader);
+            if (shared != null) {
+                coalesced.increment();
+                write(shared, request, response, "HIT");
+                return;
+            }
+            // Request dẫn đầu quá lâu hoặc response không dùng chung được (Set-Cookie, redirect...), tự xử lý
+            uncacheable.increment();
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        try {
+            flight.complete(fetch(key, route(request).orElseThrow(), request, response, filterChain));
+        } catch (IOException | ServletException | RuntimeException e) {
+            // Các request đang chờ nhận cùng lỗi thay vì chạy lại controller
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    /**
+     * Sản phẩm thay đổi: chỉ trang chi tiết của nó và các danh sách có thể đổi.
+     * Category thay đổi: danh sách, cây category, breadcrumb... đều có thể đổi nên xoá toàn bộ.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.categoryId() == null && event.productId() != null) {
+            invalidateProduct(event.productId());
+        } else {
+            invalidateAll();
+        }
+    }
+
+    /**
+     * Node khác thay đổi catalog: cây category / second-level cache của node này đã được làm mới trước khi event tới
+     */
+    @EventListener
+    public void onRemoteCatalogChanged(RemoteCatalogChangedEvent event) {
+        if (event.productId() != null) {
+            invalidateProduct(event.productId());
+        } else {
+            invalidateAll();
+        }
+    }
+
+    /**
+     * Tồn kho thay đổi: chỉ trang chi tiết hiển thị tồn kho, danh sách không đổi.
+     * Facet còn hàng được cập nhật bất đồng bộ nên response facet trong cache được phép trễ tới hết TTL.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        event.productIds().forEach(this::invalidateProductDetail);
+    }
+
+    public void invalidateAll() {
+        // Thứ tự quan trọng: đánh dấu trước để response đang build dở không ghi đè lại
+        allInvalidatedAt.accumulateAndGet(sequence.incrementAndGet(), Math::max);
+        cache.invalidateAll();
+    }
+
+    // Chỉ ghi mốc, không duyệt cache: entry của sản phẩm và các danh sách build trước mốc bị bỏ khi được đọc tới
+    public void invalidateProduct(String productId) {
+        long marker = sequence.incrementAndGet();
+        productInvalidatedAt.asMap().merge(productId, marker, Math::max);
+        listsInvalidatedAt.accumulateAndGet(marker, Math::max);
+    }
+
+    public void invalidateProductDetail(String productId) {
+        productInvalidatedAt.asMap().merge(productId, sequence.incrementAndGet(), Math::max);
+    }
+
+    private CachedResponse fetch(String key, Route route, HttpServletRequest request, HttpServletResponse response,
+            FilterChain filterChain) throws ServletException, IOException {
+        long startedAt = sequence.get();
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        // Luôn lấy body đầy đủ để cache, If-None-Match của client được kiểm tra lúc ghi response
+        filterChain.doFilter(new UnconditionalRequest(request), wrapper);
+
+        if (!isShareable(wrapper)) {
+            uncacheable.increment();
+            wrapper.copyBodyToResponse();
+            return null;
+        }
+        Scope scope = scope(request);
+        CachedResponse entry = CachedResponse.of(wrapper, route.ttl(), gzipMinBytes, scope, startedAt);
+        if (!entry.isCacheable()) {
+            // Lỗi: không cache nhưng vẫn trả cho các request đang chờ
+            uncacheable.increment();
+            wrapper.copyBodyToResponse();
+            return entry;
+        }
+        misses.increment();
+        // Invalidate chen giữa lúc kiểm tra và lúc ghi thì entry bị bỏ ở lần đọc sau
+        if (!invalidatedSince(scope, startedAt)) {
+            cache.put(key, entry);
+        }
+        write(entry, request, response, "MISS");
+        return entry;
+    }
+
+    private boolean invalidatedSince(Scope scope, long startedAt) {
+        long invalidatedAt = allInvalidatedAt.get();
+        if (scope.productId() != null) {
+            Long productMarker = productInvalidatedAt.getIfPresent(scope.productId());
+            invalidatedAt = Math.max(invalidatedAt, productMarker == null ? 0 : productMarker);
+        } else if (!scope.categoryOnly()) {
+            invalidatedAt = Math.max(invalidatedAt, listsInvalidatedAt.get());
+        }
+        return invalidatedAt > startedAt;
+    }
+
+    // Phân loại theo handler đã xử lý request (path variable) và danh sách route chỉ chứa category
+    private Scope scope(HttpServletRequest request) {
+        if (request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE) instanceof Map<?, ?> variables
+                && variables.get(PRODUCT_ID_VARIABLE) instanceof String productId) {
+            return new Scope(productId, false);
+        }
+        PathContainer path = PathContainer.parsePath(path(request));
+        return new Scope(null, categoryOnlyRoutes.stream().anyMatch(pattern -> pattern.matches(path)));
+    }
+
+    private CachedResponse await(CompletableFuture<CachedResponse> leader) throws ServletException, IOException {
+        try {
+            return leader.get(singleFlightTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (TimeoutException e) {
+            return null;
+        } catch (ExecutionException e) {
+            coalesced.increment();
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            if (cause instanceof ServletException servlet) {
+                throw servlet;
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new ServletException(cause);
+        }
+    }
+
+    // Response dùng chung được cho mọi request cùng key: 200 có body, hoặc lỗi; không phụ thuộc user
+    private static boolean isShareable(ContentCachingResponseWrapper response) {
+        if (response.getHeader(HttpHeaders.SET_COOKIE) != null) {
+            return false;
+        }
+        String cacheControl = response.getHeader(HttpHeaders.CACHE_CONTROL);
+        if (cacheControl != null && (cacheControl.contains("private") || cacheControl.contains("no-store"))) {
+            return false;
+        }
+        if (response.getStatus() == HttpStatus.OK.value()) {
+            return response.getContentType() != null && response.getContentSize() > 0;
+        }
+        return response.getStatus() >= HttpStatus.BAD_REQUEST.value();
+    }
+
+    private void write(CachedResponse entry, HttpServletRequest request, HttpServletResponse response,
+            String source) throws IOException {
+        response.setHeader(CACHE_HEADER, source);
+        entry.headers().forEach(response::setHeader);
+        if (!entry.isCacheable()) {
+            writeError(entry, response);
+            return;
+        }
+        // Response không qua controller nên tự kiểm tra If-None-Match / If-Modified-Since
+        if ((entry.etag() != null || entry.lastModified() >= 0)
+                && new ServletWebRequest(request, response).checkNotModified(entry.etag(), entry.lastModified())) {
+            return;
+        }
+
+        boolean gzip = entry.gzipBody() != null && acceptsGzip(request);
+        byte[] body = gzip ? entry.gzipBody() : entry.body();
+        if (entry.gzipBody() != null) {
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(entry.contentType());
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private static void writeError(CachedResponse entry, HttpServletResponse response) throws IOException {
+        if (entry.body().length == 0) {
+            // Lỗi do sendError: để container render trang lỗi như với request dẫn đầu
+            response.sendError(entry.status());
+            return;
+        }
+        response.setStatus(entry.status());
+        if (entry.contentType() != null) {
+            response.setContentType(entry.contentType());
+        }
+        response.setContentLength(entry.body().length);
+        response.getOutputStream().write(entry.body());
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    private Optional<Route> route(HttpServletRequest request) {
+        PathContainer path = PathContainer.parsePath(path(request));
+        return routes.stream().filter(route -> route.pattern().matches(path)).findFirst();
+    }
+
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    // Tham số sắp theo tên để ?a=1&b=2 và ?b=2&a=1 dùng chung một entry, tham số rỗng bị bỏ qua
+    static String key(HttpServletRequest request) {
+        StringBuilder key = new StringBuilder(path(request));
+        char separator = '?';
+        for (Map.Entry<String, String[]> parameter : new TreeMap<>(request.getParameterMap()).entrySet()) {
+            for (String value : parameter.getValue()) {
+                if (value == null || value.isEmpty()) {
+                    continue;
+                }
+                key.append(separator).append(parameter.getKey()).append('=').append(value);
+                separator = '&';
+            }
+        }
+        return key.toString();
+    }
+
+    private record Route(PathPattern pattern, Duration ttl) {
+    }
+
+    // productId: trang chi tiết của một sản phẩm; categoryOnly: không chứa dữ liệu sản phẩm
+    private record Scope(String productId, boolean categoryOnly) {
+    }
+
+    // Ẩn header điều kiện để controller không trả 304 cho request sẽ được dùng để lấp cache
+    private static final class UnconditionalRequest extends HttpServletRequestWrapper {
+
+        private UnconditionalRequest(HttpServletRequest request) {
+            super(request);
+        }
+
+        private static boolean isConditional(String name) {
+            return HttpHeaders.IF_NONE_MATCH.equalsIgnoreCase(name)
+                    || HttpHeaders.IF_MODIFIED_SINCE.equalsIgnoreCase(name);
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return isConditional(name) ? null : super.getHeader(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            return isConditional(name) ? Collections.emptyEnumeration() : super.getHeaders(name);
+        }
+
+        @Override
+        public long getDateHeader(String name) {
+            return isConditional(name) ? -1 : super.getDateHeader(name);
+        }
+    }
+
+    private record CachedResponse(int status, String contentType, Map<String, String> headers, String etag,
+            long lastModified, byte[] body, byte[] gzipBody, Duration ttl, Scope scope, long version) {
+
+        static CachedResponse of(ContentCachingResponseWrapper response, Duration ttl, int gzipMinBytes, Scope scope,
+                long version) throws IOException {
+            Map<String, String> headers = new LinkedHashMap<>();
+            for (String name : CACHED_HEADERS) {
+                String value = response.getHeader(name);
+                if (value != null) {
+                    headers.put(name, value);
+                }
+            }
+            HttpHeaders parsed = new HttpHeaders();
+            headers.forEach(parsed::set);
+            byte[] body = response.getContentAsByteArray();
+            boolean ok = response.getStatus() == HttpStatus.OK.value();
+            return new CachedResponse(response.getStatus(), response.getContentType(), Map.copyOf(headers),
+                    parsed.getETag(), parsed.getLastModified(), body,
+                    ok && body.length >= gzipMinBytes ? gzip(body) : null, ttl, scope, version);
+        }
+
+        boolean isCacheable() {
+            return status == HttpStatus.OK.value();
+        }
+
+        private static byte[] gzip(byte[] body) throws IOException {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(body.length / 4 + 64);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                gzip.write(body);
+            }
+            return compressed.toByteArray();
+        }
+
+        int weight(String key) {
+            return key.length() * 2 + body.length + (gzipBody == null ? 0 : gzipBody.length) + 256;
+        }
+    }
+}
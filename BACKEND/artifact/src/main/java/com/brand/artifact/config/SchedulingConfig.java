@@ -0,0 +1,12 @@
+package com.brand.artifact.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Bật @Scheduled cho các job bảo trì nền
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
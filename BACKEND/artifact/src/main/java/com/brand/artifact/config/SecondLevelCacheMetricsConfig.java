@@ -0,0 +1,39 @@
+package com.brand.artifact.config;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Tỉ lệ hit của từng region second-level cache.
+ * Số hit/miss/put tuyệt đối đã có trong hibernate.second.level.cache.* (hibernate-micrometer).
+ */
+@Configuration
+public class SecondLevelCacheMetricsConfig {
+
+    @Bean
+    public MeterBinder secondLevelCacheHitRatio(EntityManagerFactory entityManagerFactory) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        return registry -> {
+            for (String region : statistics.getSecondLevelCacheRegionNames()) {
+                Gauge.builder("hibernate.second.level.cache.hit.ratio", statistics, stats -> hitRatio(stats, region))
+                        .description("Hits / (hits + misses) of the region since startup")
+                        .tag("region", region)
+                        .register(registry);
+            }
+        };
+    }
+
+    private static double hitRatio(Statistics statistics, String region) {
+        CacheRegionStatistics regionStatistics = statistics.getDomainDataRegionStatistics(region);
+        long hits = regionStatistics.getHitCount();
+        long lookups = hits + regionStatistics.getMissCount();
+        return lookups == 0 ? Double.NaN : (double) hits / lookups;
+    }
+}
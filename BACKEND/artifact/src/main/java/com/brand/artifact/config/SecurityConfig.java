@@ -82,6 +82,8 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.GET, "/api/categories/**").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/test/public").permitAll()
                         .requestMatchers("/api/home").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/api/flash-sale/**").permitAll()
+                        .requestMatchers("/actuator/health").permitAll()
                         
                         // OAuth2 endpoints - CHO PHÉP tất cả để Spring OAuth2 xử lý
                         .requestMatchers("/oauth2/**").permitAll()
@@ -98,6 +100,8 @@ public class SecurityConfig {
                         .requestMatchers("/api/profile/**").hasRole("USER")
                         .requestMatchers("/api/reviews/**").hasRole("USER")
                         .requestMatchers("/api/admin/**").hasRole("ADMIN")
+                        // Metrics (kể cả /actuator/prometheus) lộ route, lỗi, số user... nên chỉ ADMIN được đọc
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
                         .requestMatchers("/api/staff/**").hasAnyRole("STAFF", "ADMIN")
                         
                         .anyRequest().authenticated()
@@ -0,0 +1,55 @@
+package com.brand.artifact.config;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+
+/**
+ * Bọc DataSource bằng datasource-proxy để ghi slow-query log (thay cho spring.jpa.show-sql).
+ * Proxy của repository được thêm advice ghi nhận method đang chạy để log biết câu SQL đến từ đâu.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "app.datasource.slow-query-log.enabled", havingValue = "true", matchIfMissing = true)
+public class SlowQueryLogConfig {
+
+    @Bean
+    static BeanPostProcessor slowQueryLogPostProcessor(Environment environment) {
+        SlowQueryLogger slowQueryLogger = new SlowQueryLogger(
+                environment.getProperty("app.datasource.slow-query-log.threshold-ms", Long.class, 200L),
+                environment.getProperty("app.datasource.slow-query-log.sample-rate", Double.class, 0.0),
+                environment.getProperty("app.datasource.slow-query-log.log-parameters", Boolean.class, true),
+                environment.getProperty("app.datasource.slow-query-log.max-parameter-length", Integer.class, 64));
+
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> repositoryFactory) {
+                    repositoryFactory.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                            (proxyFactory, repositoryInformation) -> proxyFactory.addAdvice(
+                                    slowQueryLogger.repositoryMethodTracker(
+                                            repositoryInformation.getRepositoryInterface()))));
+                }
+                return bean;
+            }
+
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource) {
+                    return ProxyDataSourceBuilder.create(dataSource)
+                            .name(beanName)
+                            .listener(slowQueryLogger)
+                            .proxyResultSet(slowQueryLogger)
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,228 @@
+package com.brand.artifact.config;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.ttddyy.dsproxy.ConnectionInfo;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import net.ttddyy.dsproxy.proxy.ProxyConfig;
+import net.ttddyy.dsproxy.proxy.ResultSetProxyLogic;
+import net.ttddyy.dsproxy.proxy.ResultSetProxyLogicFactory;
+
+/**
+ * Log câu SQL chạy lâu hơn threshold (kèm bind parameter, thời gian, số dòng và repository method
+ * đã gọi), cộng thêm một tỉ lệ nhỏ câu nhanh được lấy mẫu. Ghi qua logger "slow-query",
+ * appender async trong logback-spring.xml nên không chặn request thread.
+ *
+ * Với SELECT, số dòng chỉ biết được khi đọc hết ResultSet nên entry được ghi lúc ResultSet đóng.
+ * Câu nhanh không được lấy mẫu không tạo entry nào.
+ */
+public class SlowQueryLogger implements QueryExecutionListener, ResultSetProxyLogicFactory {
+
+    private static final Logger log = LoggerFactory.getLogger("slow-query");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    // ResultSet vừa được bọc trên thread này, afterQuery sẽ gắn câu SQL vào nó
+    private final ThreadLocal<CountingResultSetLogic> lastResultSet = new ThreadLocal<>();
+    // Repository method đang chạy trên thread này, null khi câu SQL không đi qua repository
+    private final ThreadLocal<String> currentRepositoryMethod = new ThreadLocal<>();
+
+    private final long thresholdMs;
+    private final double sampleRate;
+    private final boolean logParameters;
+    private final int maxParameterLength;
+
+    public SlowQueryLogger(long thresholdMs, double sampleRate, boolean logParameters, int maxParameterLength) {
+        this.thresholdMs = thresholdMs;
+        this.sampleRate = sampleRate;
+        this.logParameters = logParameters;
+        this.maxParameterLength = maxParameterLength;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        lastResultSet.remove();
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        CountingResultSetLogic resultSet = lastResultSet.get();
+        lastResultSet.remove();
+
+        long elapsedMs = execInfo.getElapsedTime();
+        boolean slow = elapsedMs >= thresholdMs;
+        boolean sampled = !slow && sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate;
+        if (resultSet != null) {
+            // Quyết định log khi ResultSet đóng (thời gian đọc dữ liệu cũng được tính)
+            resultSet.track(queryInfoList, repositoryMethod(), elapsedMs, sampled);
+            return;
+        }
+        if (slow || sampled) {
+            write(new Entry(queryInfoList, repositoryMethod(), elapsedMs, sampled), updateCount(execInfo.getResult()), 0);
+        }
+    }
+
+    /**
+     * Advice cho proxy của repository: ghi nhận method đang chạy để log biết câu SQL đến từ đâu
+     */
+    public MethodInterceptor repositoryMethodTracker(Class<?> repositoryInterface) {
+        Map<Method, String> names = new ConcurrentHashMap<>();
+        return invocation -> {
+            String previous = currentRepositoryMethod.get();
+            currentRepositoryMethod.set(names.computeIfAbsent(invocation.getMethod(),
+                    method -> repositoryInterface.getSimpleName() + "." + method.getName()));
+            try {
+                return invocation.proceed();
+            } finally {
+                if (previous == null) {
+                    currentRepositoryMethod.remove();
+                } else {
+                    currentRepositoryMethod.set(previous);
+                }
+            }
+        };
+    }
+
+    @Override
+    public ResultSetProxyLogic create(ResultSet resultSet, ConnectionInfo connectionInfo, ProxyConfig proxyConfig) {
+        CountingResultSetLogic logic = new CountingResultSetLogic(resultSet);
+        lastResultSet.set(logic);
+        return logic;
+    }
+
+    private void write(Entry entry, long rows, long fetchMs) {
+        long totalMs = entry.elapsedMs + fetchMs;
+        if (totalMs < thresholdMs && !entry.sampled) {
+            return;
+        }
+        if (entry.sampled && totalMs < thresholdMs) {
+            log.info("sampled_query elapsed_ms={} fetch_ms={} rows={} repository={} sql=\"{}\" params={}",
+                    entry.elapsedMs, fetchMs, rows, entry.repositoryMethod, sql(entry), parameters(entry));
+        } else {
+            log.warn("slow_query elapsed_ms={} fetch_ms={} rows={} repository={} sql=\"{}\" params={}",
+                    entry.elapsedMs, fetchMs, rows, entry.repositoryMethod, sql(entry), parameters(entry));
+        }
+    }
+
+    private String repositoryMethod() {
+        String method = currentRepositoryMethod.get();
+        // Câu SQL không đi qua repository (DDL, lazy load, TransactionTemplate...)
+        return method != null ? method : "-";
+    }
+
+    private static long updateCount(Object result) {
+        if (result instanceof Integer count) {
+            return count;
+        }
+        if (result instanceof Long count) {
+            return count;
+        }
+        if (result instanceof int[] counts) {
+            long total = 0;
+            for (int count : counts) {
+                total += Math.max(count, 0);
+            }
+            return total;
+        }
+        return -1;
+    }
+
+    private static String sql(Entry entry) {
+        List<String> statements = new ArrayList<>();
+        for (QueryInfo queryInfo : entry.queries) {
+            statements.add(WHITESPACE.matcher(queryInfo.getQuery()).replaceAll(" ").trim());
+        }
+        return String.join("; ", statements);
+    }
+
+    private String parameters(Entry entry) {
+        if (!logParameters) {
+            return "[hidden]";
+        }
+        List<List<String>> batches = new ArrayList<>();
+        for (QueryInfo queryInfo : entry.queries) {
+            for (List<ParameterSetOperation> operations : queryInfo.getParametersList()) {
+                List<String> values = new ArrayList<>();
+                for (ParameterSetOperation operation : operations) {
+                    Object[] args = operation.getArgs();
+                    values.add(args.length > 1 ? truncate(String.valueOf(args[1])) : "null");
+                }
+                batches.add(values);
+            }
+        }
+        return batches.size() == 1 ? batches.get(0).toString() : batches.toString();
+    }
+
+    private String truncate(String value) {
+        return value.length() > maxParameterLength ? value.substring(0, maxParameterLength) + "..." : value;
+    }
+
+    private record Entry(List<QueryInfo> queries, String repositoryMethod, long elapsedMs, boolean sampled) {
+    }
+
+    /**
+     * Đếm số dòng đã đọc và ghi entry khi ResultSet đóng, chỉ khi câu SQL chậm hoặc được lấy mẫu
+     */
+    private final class CountingResultSetLogic implements ResultSetProxyLogic {
+        private final ResultSet resultSet;
+        private final long createdAt = System.nanoTime();
+        private long rows;
+        private boolean closed;
+        // Câu SQL đã tạo ra ResultSet này, null nếu ResultSet không đến từ một câu query được theo dõi
+        private List<QueryInfo> queries;
+        private String repositoryMethod;
+        private long elapsedMs;
+        private boolean sampled;
+
+        private CountingResultSetLogic(ResultSet resultSet) {
+            this.resultSet = resultSet;
+        }
+
+        private void track(List<QueryInfo> queries, String repositoryMethod, long elapsedMs, boolean sampled) {
+            this.queries = queries;
+            this.repositoryMethod = repositoryMethod;
+            this.elapsedMs = elapsedMs;
+            this.sampled = sampled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if ("getTarget".equals(name) && (args == null || args.length == 0)) {
+                return resultSet;
+            }
+
+            Object result;
+            try {
+                result = method.invoke(resultSet, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+
+            if ("next".equals(name) && Boolean.TRUE.equals(result)) {
+                rows++;
+            } else if ("close".equals(name) && !closed) {
+                closed = true;
+                long fetchMs = (System.nanoTime() - createdAt) / 1_000_000;
+                if (queries != null && (elapsedMs + fetchMs >= thresholdMs || sampled)) {
+                    write(new Entry(queries, repositoryMethod, elapsedMs, sampled), rows, fetchMs);
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -14,6 +14,7 @@ import org.springframework.stereotype.Component;
 import com.brand.artifact.entity.User;
 import com.brand.artifact.repository.UserRepository;
 import com.brand.artifact.service.RefreshTokenService;
+import com.brand.artifact.service.TokenRevocationService;
 import com.brand.artifact.utils.JwtUtil;
 
 import jakarta.servlet.ServletException;
@@ -25,6 +26,7 @@ public class OAuth2SuccessHandler extends SimpleUrlAuthenticationSuccessHandler
 
     @Autowired private JwtUtil jwtUtil;
     @Autowired private RefreshTokenService refreshTokenService;
+    @Autowired private TokenRevocationService tokenRevocationService;
     @Autowired private UserRepository userRepository;
 
     // Có thể cấu hình redirect FE qua biến môi trường
@@ -38,10 +40,11 @@ public class OAuth2SuccessHandler extends SimpleUrlAuthenticationSuccessHandler
         String userId = String.valueOf(principal.getAttributes().get("userId"));
         User user = userRepository.findById(userId).orElseThrow();
 
+        long sessionEpoch = tokenRevocationService.currentEpoch(user.getUserId());
         String accessToken = jwtUtil.generateAccessToken(
-                user.getUserId(), user.getUsername(), user.getEmail(), user.getRole().name());
+                user.getUserId(), user.getUsername(), user.getEmail(), user.getRole().name(), sessionEpoch);
 
-        String refreshToken = jwtUtil.generateRefreshToken(user.getUserId(), user.getUsername());
+        String refreshToken = jwtUtil.generateRefreshToken(user.getUserId(), user.getUsername(), sessionEpoch);
         LocalDateTime refreshExpiry = jwtUtil.extractExpiration(refreshToken);
 
         // Revoke toàn bộ refresh cũ và lưu refresh mới
@@ -0,0 +1,8 @@
+package com.brand.artifact.constant;
+
+public enum AuthMode {
+    // Principal dựng từ claims của access token, chỉ kiểm tra trạng thái user qua cache
+    STATELESS,
+    // Load user từ database cho mỗi request
+    DATABASE
+}
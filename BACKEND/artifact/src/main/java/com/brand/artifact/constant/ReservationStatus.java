@@ -0,0 +1,8 @@
+package com.brand.artifact.constant;
+
+public enum ReservationStatus {
+    HELD,       // Đang giữ hàng, chờ thanh toán
+    CONFIRMED,  // Đã đặt hàng, tồn kho đã trừ hẳn
+    RELEASED,   // Người mua huỷ, hàng đã trả lại kho
+    EXPIRED     // Quá hạn giữ, hàng đã trả lại kho
+}
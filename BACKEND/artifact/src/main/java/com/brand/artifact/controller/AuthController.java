@@ -67,4 +67,14 @@ public class AuthController {
                 .result("User logged out")
                 .build();
     }
+
+    @PostMapping("/logout-all")
+    public ResponseAPITemplate<String> logoutAllSessions(@RequestBody @Valid LogoutRequest request) {
+        authService.logoutAllSessions(request);
+        return ResponseAPITemplate.<String>builder()
+                .code(200)
+                .message("Logged out from all devices successfully")
+                .result("All sessions revoked")
+                .build();
+    }
 }
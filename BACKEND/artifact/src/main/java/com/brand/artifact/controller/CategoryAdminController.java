@@ -0,0 +1,64 @@
+package com.brand.artifact.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.brand.artifact.dto.projection.CategoryView;
+import com.brand.artifact.dto.request.CategoryRequest;
+import com.brand.artifact.dto.response.ResponseAPITemplate;
+import com.brand.artifact.service.CategoryAdminService;
+
+import jakarta.validation.Valid;
+
+@RestController
+@RequestMapping("/api/admin/categories")
+@PreAuthorize("hasRole('ADMIN')")
+public class CategoryAdminController {
+
+    @Autowired
+    private CategoryAdminService categoryAdminService;
+
+    @PostMapping
+    public ResponseAPITemplate<CategoryView> createCategory(@Valid @RequestBody CategoryRequest request) {
+        return ResponseAPITemplate.<CategoryView>builder()
+                .code(200)
+                .message("Tạo danh mục thành công")
+                .result(categoryAdminService.createCategory(request))
+                .build();
+    }
+
+    @PutMapping("/{categoryId}")
+    public ResponseAPITemplate<CategoryView> updateCategory(@PathVariable String categoryId,
+            @Valid @RequestBody CategoryRequest request) {
+        return ResponseAPITemplate.<CategoryView>builder()
+                .code(200)
+                .message("Cập nhật danh mục thành công")
+                .result(categoryAdminService.updateCategory(categoryId, request))
+                .build();
+    }
+
+    @DeleteMapping("/{categoryId}")
+    public ResponseAPITemplate<Void> deleteCategory(@PathVariable String categoryId) {
+        categoryAdminService.deleteCategory(categoryId);
+        return ResponseAPITemplate.<Void>builder()
+                .code(200)
+                .message("Xoá danh mục thành công")
+                .build();
+    }
+
+    @PostMapping("/closure/rebuild")
+    public ResponseAPITemplate<Integer> rebuildClosure() {
+        return ResponseAPITemplate.<Integer>builder()
+                .code(200)
+                .message("Build lại closure table thành công")
+                .result(categoryAdminService.rebuildClosure())
+                .build();
+    }
+}
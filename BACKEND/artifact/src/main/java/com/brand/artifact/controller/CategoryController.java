@@ -0,0 +1,95 @@
+package com.brand.artifact.controller;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import com.brand.artifact.dto.projection.CategoryView;
+import com.brand.artifact.dto.projection.ProductSummary;
+import com.brand.artifact.dto.response.CategoryDetailResponse;
+import com.brand.artifact.dto.response.CategoryTreeNode;
+import com.brand.artifact.dto.response.CursorPage;
+import com.brand.artifact.dto.response.ResponseAPITemplate;
+import com.brand.artifact.dto.response.Versioned;
+import com.brand.artifact.service.CatalogVersionService;
+import com.brand.artifact.service.ProductCatalogService;
+import com.brand.artifact.utils.ETags;
+
+@RestController
+@RequestMapping("/api/categories")
+public class CategoryController {
+
+    @Autowired
+    private ProductCatalogService productCatalogService;
+
+    @Autowired
+    private CatalogVersionService catalogVersionService;
+
+    // Category ít đổi nên cache lâu hơn sản phẩm
+    @Value("${app.catalog.http-cache.categories-max-age-seconds:300}")
+    private long categoriesMaxAgeSeconds;
+
+    @Value("${app.catalog.http-cache.products-max-age-seconds:30}")
+    private long productsMaxAgeSeconds;
+
+    @GetMapping
+    public ResponseEntity<ResponseAPITemplate<List<CategoryView>>> listCategories() {
+        Versioned<List<CategoryView>> categories = productCatalogService.listCategories();
+        return ETags.ok(ResponseAPITemplate.<List<CategoryView>>builder()
+                .code(200)
+                .message("Lấy danh sách danh mục thành công")
+                .result(categories.body())
+                .build(), categories.etag(), categories.lastModified(), categoriesMaxAgeSeconds);
+    }
+
+    @GetMapping("/tree")
+    public ResponseEntity<ResponseAPITemplate<List<CategoryTreeNode>>> getCategoryTree() {
+        Versioned<List<CategoryTreeNode>> tree = productCatalogService.getCategoryTree();
+        return ETags.ok(ResponseAPITemplate.<List<CategoryTreeNode>>builder()
+                .code(200)
+                .message("Lấy cây danh mục thành công")
+                .result(tree.body())
+                .build(), tree.etag(), tree.lastModified(), categoriesMaxAgeSeconds);
+    }
+
+    @GetMapping("/slug/{slug}")
+    public ResponseEntity<ResponseAPITemplate<CategoryDetailResponse>> getCategoryBySlug(@PathVariable String slug) {
+        Versioned<CategoryDetailResponse> category = productCatalogService.getCategoryBySlug(slug);
+        return ETags.ok(ResponseAPITemplate.<CategoryDetailResponse>builder()
+                .code(200)
+                .message("Lấy thông tin danh mục thành công")
+                .result(category.body())
+                .build(), category.etag(), category.lastModified(), categoriesMaxAgeSeconds);
+    }
+
+    // Cùng cách tính ETag với /api/products: theo thế hệ catalog, kiểm tra trước khi query
+    @GetMapping("/{categoryId}/products")
+    public ResponseEntity<ResponseAPITemplate<CursorPage<ProductSummary>>> listProducts(
+            @PathVariable String categoryId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            WebRequest request) {
+        Long generation = catalogVersionService.current();
+        String etag = generation == null ? null : ETags.weak(generation);
+        ResponseEntity<ResponseAPITemplate<CursorPage<ProductSummary>>> notModified =
+                ETags.notModified(request, etag, productsMaxAgeSeconds);
+        if (notModified != null) {
+            return notModified;
+        }
+        CursorPage<ProductSummary> page = productCatalogService.listProducts(categoryId, cursor, size);
+        return ETags.ok(ResponseAPITemplate.<CursorPage<ProductSummary>>builder()
+                .code(200)
+                .message("Lấy danh sách sản phẩm thành công")
+                .result(page)
+                .build(), etag != null ? etag : ETags.weak(page.getItems(), page.getNextCursor()), null,
+                productsMaxAgeSeconds);
+    }
+}
@@ -0,0 +1,42 @@
+package com.brand.artifact.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.brand.artifact.dto.response.FlashSaleStockResponse;
+import com.brand.artifact.dto.response.ResponseAPITemplate;
+import com.brand.artifact.service.FlashSaleService;
+
+@RestController
+@RequestMapping("/api/admin/flash-sale")
+@PreAuthorize("hasRole('ADMIN')")
+public class FlashSaleAdminController {
+
+    @Autowired
+    private FlashSaleService flashSaleService;
+
+    // Không truyền units: đưa toàn bộ tồn kho vào flash sale
+    @PostMapping("/{productItemId}/start")
+    public ResponseAPITemplate<FlashSaleStockResponse> startSale(@PathVariable String productItemId,
+            @RequestParam(required = false) Integer units) {
+        return ResponseAPITemplate.<FlashSaleStockResponse>builder()
+                .code(200)
+                .message("Bắt đầu flash sale thành công")
+                .result(flashSaleService.startSale(productItemId, units))
+                .build();
+    }
+
+    @PostMapping("/{productItemId}/end")
+    public ResponseAPITemplate<FlashSaleStockResponse> endSale(@PathVariable String productItemId) {
+        return ResponseAPITemplate.<FlashSaleStockResponse>builder()
+                .code(200)
+                .message("Kết thúc flash sale thành công")
+                .result(flashSaleService.endSale(productItemId))
+                .build();
+    }
+}
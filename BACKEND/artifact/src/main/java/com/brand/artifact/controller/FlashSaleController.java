@@ -0,0 +1,50 @@
+package com.brand.artifact.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.brand.artifact.config.AuthenticatedUser;
+import com.brand.artifact.dto.request.FlashSaleClaimRequest;
+import com.brand.artifact.dto.response.FlashSaleClaimResponse;
+import com.brand.artifact.dto.response.FlashSaleStockResponse;
+import com.brand.artifact.dto.response.ResponseAPITemplate;
+import com.brand.artifact.service.FlashSaleService;
+
+import jakarta.validation.Valid;
+
+@RestController
+@RequestMapping("/api/flash-sale")
+public class FlashSaleController {
+
+    @Autowired
+    private FlashSaleService flashSaleService;
+
+    @GetMapping("/{productItemId}")
+    public ResponseAPITemplate<FlashSaleStockResponse> getStock(@PathVariable String productItemId) {
+        return ResponseAPITemplate.<FlashSaleStockResponse>builder()
+                .code(200)
+                .message("Lấy tồn kho flash sale thành công")
+                .result(flashSaleService.getStock(productItemId))
+                .build();
+    }
+
+    @PostMapping("/{productItemId}/claims")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseAPITemplate<FlashSaleClaimResponse> claim(@PathVariable String productItemId,
+            @Valid @RequestBody FlashSaleClaimRequest request,
+            @AuthenticationPrincipal AuthenticatedUser user) {
+        return ResponseAPITemplate.<FlashSaleClaimResponse>builder()
+                .code(200)
+                .message("Đặt mua flash sale thành công, đơn hàng đang được tạo")
+                .result(flashSaleService.claim(user.getUserId(), productItemId, request.getQuantity(),
+                        request.getAddressId()))
+                .build();
+    }
+}
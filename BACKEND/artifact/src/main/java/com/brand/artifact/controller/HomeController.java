@@ -1,10 +1,40 @@
 package com.brand.artifact.controller;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.brand.artifact.dto.response.HomeResponse;
+import com.brand.artifact.dto.response.ResponseAPITemplate;
+import com.brand.artifact.dto.response.Versioned;
+import com.brand.artifact.service.HomeService;
+import com.brand.artifact.utils.ETags;
+
 @RestController
-@RequestMapping("/home")
+@RequestMapping("/api/home")
 public class HomeController {
 
+    @Autowired
+    private HomeService homeService;
+
+    @Value("${app.home.max-age-seconds:30}")
+    private long maxAgeSeconds;
+
+    @GetMapping
+    public ResponseEntity<ResponseAPITemplate<HomeResponse>> getHome() {
+        Versioned<HomeResponse> home = homeService.getHome();
+        ResponseAPITemplate<HomeResponse> body = ResponseAPITemplate.<HomeResponse>builder()
+                .code(200)
+                .message("Lấy dữ liệu trang chủ thành công")
+                .result(home.body())
+                .build();
+        // Snapshot rỗng (chưa build được lần nào): không để trình duyệt/CDN giữ trang trống
+        if (home.etag() == null) {
+            return ETags.noStore(body);
+        }
+        return ETags.ok(body, home.etag(), home.lastModified(), maxAgeSeconds);
+    }
 }
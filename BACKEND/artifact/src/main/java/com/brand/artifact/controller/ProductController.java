@@ -0,0 +1,126 @@
+package com.brand.artifact.controller;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import com.brand.artifact.dto.projection.ProductSummary;
+import com.brand.artifact.dto.request.ProductFacetRequest;
+import com.brand.artifact.dto.response.CursorPage;
+import com.brand.artifact.dto.response.ProductDetailResponse;
+import com.brand.artifact.dto.response.ProductFacetResponse;
+import com.brand.artifact.dto.response.ResponseAPITemplate;
+import com.brand.artifact.dto.response.Versioned;
+import com.brand.artifact.service.CatalogVersionService;
+import com.brand.artifact.service.ProductCatalogService;
+import com.brand.artifact.service.ProductFacetService;
+import com.brand.artifact.service.ProductSearchService;
+import com.brand.artifact.utils.ETags;
+
+@RestController
+@RequestMapping("/api/products")
+public class ProductController {
+
+    @Autowired
+    private ProductCatalogService productCatalogService;
+
+    @Autowired
+    private ProductSearchService productSearchService;
+
+    @Autowired
+    private ProductFacetService productFacetService;
+
+    @Autowired
+    private CatalogVersionService catalogVersionService;
+
+    // Cache-Control max-age theo từng route (giây), CDN/trình duyệt dùng lại response trong khoảng này
+    @Value("${app.catalog.http-cache.products-max-age-seconds:30}")
+    private long productsMaxAgeSeconds;
+
+    @Value("${app.catalog.http-cache.product-detail-max-age-seconds:60}")
+    private long productDetailMaxAgeSeconds;
+
+    @Value("${app.catalog.http-cache.search-max-age-seconds:30}")
+    private long searchMaxAgeSeconds;
+
+    @Value("${app.catalog.http-cache.facets-max-age-seconds:30}")
+    private long facetsMaxAgeSeconds;
+
+    // ETag theo thế hệ catalog nên If-None-Match khớp thì trả 304 trước khi query;
+    // chưa có thế hệ (Redis lỗi) thì ETag theo nội dung các dòng. Không có timestamp chung nên không có Last-Modified
+    @GetMapping
+    public ResponseEntity<ResponseAPITemplate<CursorPage<ProductSummary>>> listProducts(
+            @RequestParam(required = false) String categoryId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            WebRequest request) {
+        Long generation = catalogVersionService.current();
+        String etag = generation == null ? null : ETags.weak(generation);
+        ResponseEntity<ResponseAPITemplate<CursorPage<ProductSummary>>> notModified =
+                ETags.notModified(request, etag, productsMaxAgeSeconds);
+        if (notModified != null) {
+            return notModified;
+        }
+        CursorPage<ProductSummary> page = productCatalogService.listProducts(categoryId, cursor, size);
+        return ETags.ok(ResponseAPITemplate.<CursorPage<ProductSummary>>builder()
+                .code(200)
+                .message("Lấy danh sách sản phẩm thành công")
+                .result(page)
+                .build(), etag != null ? etag : ETags.weak(page.getItems(), page.getNextCursor()), null,
+                productsMaxAgeSeconds);
+    }
+
+    // Search/facet đọc index trong bộ nhớ của node, ETag theo version của index đó
+    @GetMapping("/search")
+    public ResponseEntity<ResponseAPITemplate<List<ProductSummary>>> searchProducts(@RequestParam("q") String query,
+            @RequestParam(required = false) Integer limit, WebRequest request) {
+        String etag = ETags.weak(productSearchService.version());
+        ResponseEntity<ResponseAPITemplate<List<ProductSummary>>> notModified =
+                ETags.notModified(request, etag, searchMaxAgeSeconds);
+        if (notModified != null) {
+            return notModified;
+        }
+        List<ProductSummary> results = productSearchService.search(query, limit);
+        return ETags.ok(ResponseAPITemplate.<List<ProductSummary>>builder()
+                .code(200)
+                .message("Tìm kiếm sản phẩm thành công")
+                .result(results)
+                .build(), etag, null, searchMaxAgeSeconds);
+    }
+
+    @GetMapping("/facets")
+    public ResponseEntity<ResponseAPITemplate<ProductFacetResponse>> filterProducts(
+            @ModelAttribute ProductFacetRequest request, WebRequest webRequest) {
+        String etag = ETags.weak(productFacetService.version());
+        ResponseEntity<ResponseAPITemplate<ProductFacetResponse>> notModified =
+                ETags.notModified(webRequest, etag, facetsMaxAgeSeconds);
+        if (notModified != null) {
+            return notModified;
+        }
+        ProductFacetResponse facets = productFacetService.filter(request);
+        return ETags.ok(ResponseAPITemplate.<ProductFacetResponse>builder()
+                .code(200)
+                .message("Lọc sản phẩm thành công")
+                .result(facets)
+                .build(), etag, null, facetsMaxAgeSeconds);
+    }
+
+    @GetMapping("/{productId}")
+    public ResponseEntity<ResponseAPITemplate<ProductDetailResponse>> getProduct(@PathVariable String productId) {
+        Versioned<ProductDetailResponse> product = productCatalogService.getProduct(productId);
+        return ETags.ok(ResponseAPITemplate.<ProductDetailResponse>builder()
+                .code(200)
+                .message("Lấy thông tin sản phẩm thành công")
+                .result(product.body())
+                .build(), product.etag(), product.lastModified(), productDetailMaxAgeSeconds);
+    }
+}
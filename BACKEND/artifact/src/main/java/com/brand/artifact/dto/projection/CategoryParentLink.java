@@ -0,0 +1,4 @@
+package com.brand.artifact.dto.projection;
+
+public record CategoryParentLink(String categoryId, String parentCategoryId) {
+}
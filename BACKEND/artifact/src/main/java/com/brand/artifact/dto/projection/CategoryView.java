@@ -0,0 +1,11 @@
+package com.brand.artifact.dto.projection;
+
+public record CategoryView(
+        String categoryId,
+        String categoryName,
+        String slug,
+        String imageUrl,
+        String parentCategoryId,
+        Integer sortOrder
+) {
+}
@@ -0,0 +1,18 @@
+package com.brand.artifact.dto.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Phần thông tin chung của trang chi tiết sản phẩm
+ */
+public record ProductDetailView(
+        String productId,
+        String productName,
+        String description,
+        String categoryId,
+        String categoryName,
+        Boolean isFeatured,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt
+) {
+}
@@ -0,0 +1,18 @@
+package com.brand.artifact.dto.projection;
+
+import java.math.BigDecimal;
+
+import com.brand.artifact.constant.Size;
+
+/**
+ * Một variant của sản phẩm dùng cho facet index (các cột variant null nếu sản phẩm chưa có variant)
+ */
+public record ProductFacetRow(
+        String productId,
+        String categoryId,
+        Size size,
+        String color,
+        BigDecimal price,
+        Integer stockQuantity
+) {
+}
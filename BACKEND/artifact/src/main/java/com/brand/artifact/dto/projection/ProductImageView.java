@@ -0,0 +1,4 @@
+package com.brand.artifact.dto.projection;
+
+public record ProductImageView(String imageUrl, Integer sortOrder, Boolean isPrimary) {
+}
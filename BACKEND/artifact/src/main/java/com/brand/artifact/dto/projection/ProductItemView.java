@@ -0,0 +1,15 @@
+package com.brand.artifact.dto.projection;
+
+import java.math.BigDecimal;
+
+import com.brand.artifact.constant.Size;
+
+public record ProductItemView(
+        String productItemId,
+        String sku,
+        BigDecimal price,
+        Integer stockQuantity,
+        Size size,
+        String color
+) {
+}
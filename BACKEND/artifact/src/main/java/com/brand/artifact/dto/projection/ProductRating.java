@@ -0,0 +1,8 @@
+package com.brand.artifact.dto.projection;
+
+public record ProductRating(
+        String productId,
+        Double averageRating,
+        Long reviewCount
+) {
+}
@@ -0,0 +1,25 @@
+package com.brand.artifact.dto.projection;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Dữ liệu của một sản phẩm đưa vào search index (text để index + phần hiển thị kết quả)
+ */
+public record ProductSearchDocument(
+        String productId,
+        String productName,
+        String description,
+        String categoryId,
+        String categoryName,
+        String parentCategoryName,
+        BigDecimal minPrice,
+        String imageUrl,
+        Boolean isFeatured,
+        LocalDateTime createdAt
+) {
+
+    public ProductSummary toSummary() {
+        return new ProductSummary(productId, productName, categoryId, categoryName, minPrice, imageUrl, isFeatured, createdAt);
+    }
+}
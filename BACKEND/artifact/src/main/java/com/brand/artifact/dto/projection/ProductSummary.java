@@ -0,0 +1,19 @@
+package com.brand.artifact.dto.projection;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Một dòng trong danh sách sản phẩm, đọc thẳng bằng constructor expression (không load entity)
+ */
+public record ProductSummary(
+        String productId,
+        String productName,
+        String categoryId,
+        String categoryName,
+        BigDecimal minPrice,
+        String imageUrl,
+        Boolean isFeatured,
+        LocalDateTime createdAt
+) {
+}
@@ -0,0 +1,11 @@
+package com.brand.artifact.dto.projection;
+
+/**
+ * Một dòng của lượt giữ hàng, kèm productId để báo catalog thay đổi
+ */
+public record ReservationLine(
+        String productItemId,
+        String productId,
+        Integer quantity
+) {
+}
@@ -0,0 +1,13 @@
+package com.brand.artifact.dto.projection;
+
+import com.brand.artifact.constant.Role;
+
+/**
+ * Trạng thái tối thiểu của user cần cho việc xác thực stateless
+ */
+public record UserStatus(String userId, String username, Role role, Boolean isActive) {
+
+    public boolean active() {
+        return Boolean.TRUE.equals(isActive);
+    }
+}
@@ -0,0 +1,34 @@
+package com.brand.artifact.dto.request;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryRequest {
+
+    @NotBlank(message = "Tên danh mục không được để trống")
+    @Size(max = 100, message = "Tên danh mục tối đa 100 ký tự")
+    private String categoryName;
+
+    @NotBlank(message = "Slug không được để trống")
+    @Pattern(regexp = "^[a-z0-9]+(-[a-z0-9]+)*$", message = "Slug chỉ gồm chữ thường, số và dấu gạch ngang")
+    private String slug;
+
+    @Size(max = 500, message = "Mô tả tối đa 500 ký tự")
+    private String description;
+
+    private String imageUrl;
+
+    private Integer sortOrder;
+
+    // null = category gốc
+    private String parentCategoryId;
+
+    private Boolean isActive = true;
+}
@@ -0,0 +1,21 @@
+package com.brand.artifact.dto.request;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FlashSaleClaimRequest {
+
+    @NotNull(message = "Số lượng không được để trống")
+    @Positive(message = "Số lượng phải lớn hơn 0")
+    private Integer quantity;
+
+    @NotBlank(message = "Địa chỉ giao hàng không được để trống")
+    private String addressId;
+}
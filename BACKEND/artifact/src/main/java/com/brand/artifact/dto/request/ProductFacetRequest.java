@@ -0,0 +1,26 @@
+package com.brand.artifact.dto.request;
+
+import java.util.List;
+
+import com.brand.artifact.constant.Size;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Bộ lọc của sidebar: trong cùng một facet là OR, giữa các facet là AND
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductFacetRequest {
+    private List<Size> size;
+    // Giá trị đã bỏ dấu ("den", "xanh-navy") như trong FacetCount.value
+    private List<String> color;
+    // Khoảng giá dạng "200000-500000", "2000000-"
+    private List<String> price;
+    private String categoryId;
+    private Boolean inStock;
+    private Integer limit;
+}
@@ -0,0 +1,20 @@
+package com.brand.artifact.dto.response;
+
+import java.util.List;
+
+import com.brand.artifact.dto.projection.CategoryView;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CategoryDetailResponse {
+    private CategoryTreeNode category;
+    // Từ category gốc tới category hiện tại
+    private List<CategoryView> breadcrumbs;
+}
@@ -0,0 +1,20 @@
+package com.brand.artifact.dto.response;
+
+import java.util.List;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Một node của cây category (immutable, được build sẵn trong snapshot để trả thẳng cho menu)
+ */
+@Value
+@Builder
+public class CategoryTreeNode {
+    String categoryId;
+    String categoryName;
+    String slug;
+    String imageUrl;
+    Integer sortOrder;
+    List<CategoryTreeNode> children;
+}
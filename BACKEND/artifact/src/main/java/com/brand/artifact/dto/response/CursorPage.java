@@ -0,0 +1,26 @@
+package com.brand.artifact.dto.response;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Một trang theo kiểu seek pagination: không có tổng số phần tử/tổng số trang,
+ * client gửi lại nextCursor để lấy trang tiếp theo
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CursorPage<T> {
+    private List<T> items;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor;
+}
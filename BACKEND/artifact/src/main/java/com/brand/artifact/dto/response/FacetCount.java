@@ -0,0 +1,7 @@
+package com.brand.artifact.dto.response;
+
+/**
+ * Số sản phẩm khớp nếu chọn thêm giá trị này (các facet khác giữ nguyên bộ lọc)
+ */
+public record FacetCount(String value, String label, int count) {
+}
@@ -0,0 +1,19 @@
+package com.brand.artifact.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FlashSaleClaimResponse {
+    private String claimId;
+    // Đơn hàng được ghi bất đồng bộ với số đơn này
+    private String orderNumber;
+    private String productItemId;
+    private Integer quantity;
+    private Long remaining;
+}
@@ -0,0 +1,16 @@
+package com.brand.artifact.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FlashSaleStockResponse {
+    private String productItemId;
+    private boolean active;
+    private Long remaining;
+}
@@ -0,0 +1,26 @@
+package com.brand.artifact.dto.response;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.brand.artifact.dto.projection.CategoryView;
+import com.brand.artifact.dto.projection.ProductSummary;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class HomeResponse {
+    private List<ProductSummary> featuredProducts;
+    // Category gốc đang active
+    private List<CategoryView> categories;
+    private List<ProductSummary> newArrivals;
+    private List<RatedProduct> topRated;
+    // Thời điểm build snapshot
+    private LocalDateTime generatedAt;
+}
@@ -0,0 +1,31 @@
+package com.brand.artifact.dto.response;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.brand.artifact.dto.projection.ProductImageView;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductDetailResponse {
+    private String productId;
+    private String productName;
+    private String description;
+    private String categoryId;
+    private String categoryName;
+    private Boolean isFeatured;
+    private BigDecimal minPrice;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private String primaryImageUrl;
+    private List<ProductImageView> images;
+    private VariantMatrix variants;
+}
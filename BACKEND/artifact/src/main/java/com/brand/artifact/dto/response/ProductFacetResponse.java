@@ -0,0 +1,21 @@
+package com.brand.artifact.dto.response;
+
+import java.util.List;
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductFacetResponse {
+    private int total;
+    // Tối đa limit sản phẩm khớp bộ lọc (theo thứ tự trong index)
+    private List<String> productIds;
+    // size / color / price / category / availability -> số đếm từng giá trị
+    private Map<String, List<FacetCount>> facets;
+}
@@ -0,0 +1,9 @@
+package com.brand.artifact.dto.response;
+
+import com.brand.artifact.dto.projection.ProductSummary;
+
+/**
+ * Sản phẩm kèm điểm đánh giá trung bình, dùng cho mục "đánh giá cao" trên trang chủ
+ */
+public record RatedProduct(ProductSummary product, Double averageRating, Long reviewCount) {
+}
@@ -0,0 +1,24 @@
+package com.brand.artifact.dto.response;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import com.brand.artifact.constant.ReservationStatus;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockReservationResponse {
+    private String reservationId;
+    private ReservationStatus status;
+    // Hết hạn mà chưa xác nhận thì hàng tự trả lại kho
+    private LocalDateTime expiresAt;
+    // productItemId -> số lượng đang giữ
+    private Map<String, Integer> quantities;
+}
@@ -0,0 +1,9 @@
+package com.brand.artifact.dto.response;
+
+import java.math.BigDecimal;
+
+/**
+ * Một ô của ma trận size x màu
+ */
+public record VariantCell(String productItemId, String sku, BigDecimal price, Integer stockQuantity) {
+}
@@ -0,0 +1,24 @@
+package com.brand.artifact.dto.response;
+
+import java.util.List;
+
+import com.brand.artifact.constant.Size;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Ma trận variant của sản phẩm: cells.get(i).get(j) là variant có sizes[i] và colors[j], null nếu không bán.
+ * Variant không có size nằm ở hàng cuối với sizes[i] = null
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class VariantMatrix {
+    private List<Size> sizes;
+    private List<String> colors;
+    private List<List<VariantCell>> cells;
+}
@@ -0,0 +1,9 @@
+package com.brand.artifact.dto.response;
+
+import java.time.Instant;
+
+/**
+ * Dữ liệu kèm ETag và Last-Modified đã tính sẵn, controller trả 304 mà không cần serialize body
+ */
+public record Versioned<T>(T body, String etag, Instant lastModified) {
+}
@@ -3,13 +3,19 @@ package com.brand.artifact.entity;
 import java.time.LocalDateTime;
 import java.util.List;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 import org.hibernate.annotations.UuidGenerator;
 
+import com.brand.artifact.entity.listener.CatalogEntityListener;
+
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
@@ -24,6 +30,11 @@ import lombok.Setter;
 
 @Entity
 @Table(name = "categories")
+@EntityListeners(CatalogEntityListener.class)
+@Cacheable
+// Category hiếm khi đổi và không có ghi tranh chấp: không cần soft lock của READ_WRITE,
+// entry bị xoá sau commit (READ_ONLY không dùng được vì admin vẫn sửa category)
+@Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE, region = "catalog-category")
 @Getter
 @Setter
 @NoArgsConstructor
@@ -72,6 +83,7 @@ public class Category {
     @JoinColumn(name = "parent_category_id")
     private Category parentCategory;
     
+    @Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE, region = "catalog-category-children")
     @OneToMany(mappedBy = "parentCategory", fetch = FetchType.LAZY, cascade = CascadeType.ALL)
     private List<Category> subCategories;
 
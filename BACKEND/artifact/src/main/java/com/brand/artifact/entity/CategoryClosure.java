@@ -0,0 +1,53 @@
+package com.brand.artifact.entity;
+
+import java.io.Serializable;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Closure table của cây category: mỗi cặp (tổ tiên, hậu duệ) một dòng, kể cả (x, x) với depth = 0.
+ * Cả cây con của một category là các dòng có cùng ancestorId, không cần duyệt đệ quy.
+ * Được CategoryAdminService cập nhật cùng transaction khi thêm/di chuyển/xoá category.
+ */
+@Entity
+@Table(name = CategoryClosure.TABLE, indexes = {
+        @Index(name = "idx_category_closure_descendant", columnList = "descendant_id, ancestor_id")
+})
+@IdClass(CategoryClosure.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryClosure {
+
+    public static final String TABLE = "category_closure";
+
+    @Id
+    @Column(name = "ancestor_id", length = 36)
+    private String ancestorId;
+
+    @Id
+    @Column(name = "descendant_id", length = 36)
+    private String descendantId;
+
+    @Column(name = "depth", nullable = false)
+    private int depth;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String ancestorId;
+        private String descendantId;
+    }
+}
@@ -19,6 +19,9 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
+import jakarta.persistence.NamedSubgraph;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
@@ -33,8 +36,16 @@ import lombok.Setter;
 @Getter
 @Setter
 @Table(name = "orders")
+@NamedEntityGraph(name = Order.GRAPH_WITH_ITEMS,
+        attributeNodes = @NamedAttributeNode(value = "items", subgraph = "items"),
+        subgraphs = @NamedSubgraph(name = "items", attributeNodes = @NamedAttributeNode("productItem")))
+@NamedEntityGraph(name = Order.GRAPH_WITH_PAYMENTS,
+        attributeNodes = @NamedAttributeNode("payments"))
 @Builder
 public class Order {
+    public static final String GRAPH_WITH_ITEMS = "Order.withItems";
+    public static final String GRAPH_WITH_PAYMENTS = "Order.withPayments";
+
     @Id
     @UuidGenerator
     @Column(name = "id")
@@ -3,16 +3,26 @@ package com.brand.artifact.entity;
 import java.time.LocalDateTime;
 import java.util.List;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 import org.hibernate.annotations.UuidGenerator;
 
+import com.brand.artifact.entity.listener.CatalogEntityListener;
+
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
@@ -22,13 +32,31 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Entity
-@Table(name = "products")
+// Index theo đúng thứ tự sắp xếp của danh sách sản phẩm (seek pagination)
+@Table(name = "products", indexes = {
+        @Index(name = "idx_products_active_created", columnList = "is_active, created_at, product_id"),
+        @Index(name = "idx_products_category_active_created", columnList = "category_id, is_active, created_at, product_id")
+})
+@EntityListeners(CatalogEntityListener.class)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "catalog-product")
+@NamedEntityGraph(name = Product.GRAPH_WITH_CATEGORY,
+        attributeNodes = @NamedAttributeNode("category"))
+@NamedEntityGraph(name = Product.GRAPH_WITH_IMAGES,
+        attributeNodes = { @NamedAttributeNode("category"), @NamedAttributeNode("images") })
+@NamedEntityGraph(name = Product.GRAPH_WITH_ITEMS,
+        attributeNodes = { @NamedAttributeNode("category"), @NamedAttributeNode("productItems") })
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class Product {
+    // Fetch plan theo use case, mặc định mọi quan hệ đều LAZY
+    public static final String GRAPH_WITH_CATEGORY = "Product.withCategory";
+    public static final String GRAPH_WITH_IMAGES = "Product.withImages";
+    public static final String GRAPH_WITH_ITEMS = "Product.withItems";
+
     @Id
     @UuidGenerator
     private String productId;
@@ -39,13 +67,15 @@ public class Product {
     @Column(length = 512)
     private String description;
 
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "catalog-product-images")
     @OneToMany(mappedBy = "product", cascade = CascadeType.ALL)
     private List<ProductImage> images;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "category_id")
     private Category category;
 
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "catalog-product-items")
     @OneToMany(mappedBy = "product", cascade = CascadeType.ALL)
     private List<ProductItem> productItems;
 
@@ -1,9 +1,15 @@
 package com.brand.artifact.entity;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.UuidGenerator;
 
+import com.brand.artifact.entity.listener.CatalogEntityListener;
+
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
@@ -17,6 +23,9 @@ import lombok.Setter;
 
 @Entity
 @Table(name = "product_images")
+@EntityListeners(CatalogEntityListener.class)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "catalog-product-image")
 @Getter 
 @Setter
 @NoArgsConstructor
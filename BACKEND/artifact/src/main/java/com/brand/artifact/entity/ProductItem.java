@@ -3,12 +3,17 @@ package com.brand.artifact.entity;
 import java.math.BigDecimal;
 import java.util.List;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.UuidGenerator;
 
 import com.brand.artifact.constant.Size;
+import com.brand.artifact.entity.listener.CatalogEntityListener;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.FetchType;
@@ -25,6 +30,9 @@ import lombok.Setter;
 
 @Entity
 @Table(name = "product_items")
+@EntityListeners(CatalogEntityListener.class)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "catalog-product-item")
 @Getter
 @Setter
 @NoArgsConstructor
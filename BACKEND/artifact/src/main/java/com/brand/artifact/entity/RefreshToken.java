@@ -8,6 +8,7 @@ import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
@@ -18,7 +19,10 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Entity
-@Table(name = "refresh_tokens")
+@Table(name = "refresh_tokens", indexes = {
+        @Index(name = "idx_refresh_tokens_expires_at", columnList = "expires_at"),
+        @Index(name = "idx_refresh_tokens_revoked_created_at", columnList = "is_revoked, created_at")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -31,6 +35,7 @@ public class RefreshToken {
     @Column(name = "id")
     private String id;
 
+    // HMAC-SHA-256 (hex) của refresh token, không lưu token gốc
     @Column(name = "token", nullable = false, unique = true, length = 512)
     private String token;
 
@@ -8,9 +8,12 @@ import org.hibernate.annotations.UuidGenerator;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -20,12 +23,16 @@ import lombok.Setter;
 
 @Entity
 @Table(name = "reviews")
+@NamedEntityGraph(name = Review.GRAPH_WITH_USER,
+        attributeNodes = @NamedAttributeNode("user"))
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class Review {
+    public static final String GRAPH_WITH_USER = "Review.withUser";
+
     @Id
     @UuidGenerator
     private String reviewId;
@@ -42,12 +49,12 @@ public class Review {
     private LocalDateTime updatedAt;
 
     // Review gắn với OrderItem
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "order_item_id")
     private OrderItem orderItem;
 
     // Cũng gắn với User (người viết review)
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     private User user;
 }
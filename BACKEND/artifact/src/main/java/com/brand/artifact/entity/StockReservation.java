@@ -0,0 +1,71 @@
+package com.brand.artifact.entity;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+import org.hibernate.annotations.UuidGenerator;
+
+import com.brand.artifact.constant.ReservationStatus;
+
+import jakarta.persistence.CascadeType;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.OneToMany;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Lượt giữ hàng cho một giỏ hàng: tồn kho đã được trừ lúc tạo,
+ * được trả lại khi huỷ hoặc quá expiresAt mà chưa xác nhận.
+ */
+@Entity
+@Table(name = "stock_reservations", indexes = {
+        @Index(name = "idx_stock_reservations_status_expires_at", columnList = "status, expires_at")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockReservation {
+
+    @Id
+    @UuidGenerator
+    @Column(name = "id")
+    private String reservationId;
+
+    // Không ràng buộc khoá ngoại: khách chưa đăng nhập cũng giữ hàng được
+    @Column(name = "user_id", length = 36)
+    private String userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    @Builder.Default
+    private ReservationStatus status = ReservationStatus.HELD;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @OneToMany(mappedBy = "reservation", cascade = CascadeType.ALL)
+    @Builder.Default
+    private List<StockReservationItem> items = new ArrayList<>();
+}
@@ -7,14 +7,18 @@ import org.hibernate.annotations.UuidGenerator;
 
 import com.brand.artifact.constant.AuthProvider;
 import com.brand.artifact.constant.Role;
+import com.brand.artifact.entity.listener.UserEntityListener;
 
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.Id;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.OneToOne;
 import jakarta.persistence.Table;
@@ -27,12 +31,17 @@ import lombok.Setter;
 
 @Entity
 @Table(name = "users")
+@EntityListeners(UserEntityListener.class)
+@NamedEntityGraph(name = User.GRAPH_WITH_USER_INFO,
+        attributeNodes = @NamedAttributeNode("userInfo"))
 @Getter
 @Setter
 @AllArgsConstructor
 @NoArgsConstructor
 @Builder
 public class User {
+    public static final String GRAPH_WITH_USER_INFO = "User.withUserInfo";
+
     @Id
     @UuidGenerator
     @Column(name = "id")
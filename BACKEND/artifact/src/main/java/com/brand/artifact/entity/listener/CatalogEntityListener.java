@@ -0,0 +1,50 @@
+package com.brand.artifact.entity.listener;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+
+import com.brand.artifact.entity.Category;
+import com.brand.artifact.entity.Product;
+import com.brand.artifact.entity.ProductImage;
+import com.brand.artifact.entity.ProductItem;
+import com.brand.artifact.event.CatalogChangedEvent;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * JPA listener cho Product, ProductItem, ProductImage và Category.
+ * Bulk update bằng JPQL không đi qua listener, nơi gọi phải tự publish event.
+ */
+public class CatalogEntityListener {
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onCatalogChanged(Object entity) {
+        CatalogChangedEvent event = toEvent(entity);
+        if (event != null) {
+            eventPublisher.publishEvent(event);
+        }
+    }
+
+    private static CatalogChangedEvent toEvent(Object entity) {
+        if (entity instanceof Product product) {
+            return CatalogChangedEvent.product(product.getProductId());
+        }
+        if (entity instanceof ProductItem item && item.getProduct() != null) {
+            return CatalogChangedEvent.product(item.getProduct().getProductId());
+        }
+        if (entity instanceof ProductImage image && image.getProduct() != null) {
+            return CatalogChangedEvent.product(image.getProduct().getProductId());
+        }
+        if (entity instanceof Category category) {
+            return CatalogChangedEvent.category(category.getCategoryId());
+        }
+        return null;
+    }
+}
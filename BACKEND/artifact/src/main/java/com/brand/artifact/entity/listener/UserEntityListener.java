@@ -0,0 +1,25 @@
+package com.brand.artifact.entity.listener;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+
+import com.brand.artifact.entity.User;
+import com.brand.artifact.event.UserChangedEvent;
+
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * JPA listener cho User, được Hibernate khởi tạo qua Spring nên có thể inject bean
+ */
+public class UserEntityListener {
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @PostUpdate
+    @PostRemove
+    public void onUserChanged(User user) {
+        eventPublisher.publishEvent(new UserChangedEvent(user.getUserId()));
+    }
+}
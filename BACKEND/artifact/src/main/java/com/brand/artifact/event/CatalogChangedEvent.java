@@ -0,0 +1,16 @@
+package com.brand.artifact.event;
+
+/**
+ * Phát ra khi dữ liệu hiển thị của catalog thay đổi: một sản phẩm (kể cả item, ảnh)
+ * hoặc một category (ảnh hưởng tới mọi sản phẩm thuộc category đó)
+ */
+public record CatalogChangedEvent(String productId, String categoryId) {
+
+    public static CatalogChangedEvent product(String productId) {
+        return new CatalogChangedEvent(productId, null);
+    }
+
+    public static CatalogChangedEvent category(String categoryId) {
+        return new CatalogChangedEvent(null, categoryId);
+    }
+}
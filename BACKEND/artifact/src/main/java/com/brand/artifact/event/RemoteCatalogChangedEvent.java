@@ -0,0 +1,18 @@
+package com.brand.artifact.event;
+
+/**
+ * Phát ra trên node này khi node khác báo catalog thay đổi qua Redis pub/sub, sau khi cache nguồn của node
+ * (second-level cache, cây category) đã được làm mới. Cache dẫn xuất (response, chi tiết sản phẩm)
+ * xoá entry theo event này; không gửi lại lên Redis.
+ * productId null: category thay đổi, mọi dữ liệu dẫn xuất từ cây category đều có thể đổi
+ */
+public record RemoteCatalogChangedEvent(String productId) {
+
+    public static RemoteCatalogChangedEvent product(String productId) {
+        return new RemoteCatalogChangedEvent(productId);
+    }
+
+    public static RemoteCatalogChangedEvent categories() {
+        return new RemoteCatalogChangedEvent(null);
+    }
+}
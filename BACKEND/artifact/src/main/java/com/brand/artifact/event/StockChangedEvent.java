@@ -0,0 +1,21 @@
+package com.brand.artifact.event;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Phát ra khi chỉ tồn kho của variant thay đổi (giữ hàng, trả kho, flash sale): chỉ dữ liệu có chứa tồn kho
+ * (chi tiết sản phẩm, facet còn hàng, variant trong second-level cache) phải làm mới,
+ * khác với CatalogChangedEvent làm mới mọi thứ của sản phẩm.
+ * remote: nhận từ node khác qua Redis pub/sub, không gửi lại
+ */
+public record StockChangedEvent(Set<String> productIds, Set<String> productItemIds, boolean remote) {
+
+    public static StockChangedEvent of(Collection<String> productIds, Collection<String> productItemIds) {
+        return new StockChangedEvent(Set.copyOf(productIds), Set.copyOf(productItemIds), false);
+    }
+
+    public static StockChangedEvent remote(Collection<String> productIds, Collection<String> productItemIds) {
+        return new StockChangedEvent(Set.copyOf(productIds), Set.copyOf(productItemIds), true);
+    }
+}
@@ -0,0 +1,7 @@
+package com.brand.artifact.event;
+
+/**
+ * Phát ra khi một User được cập nhật hoặc xoá (role, isActive, ...)
+ */
+public record UserChangedEvent(String userId) {
+}
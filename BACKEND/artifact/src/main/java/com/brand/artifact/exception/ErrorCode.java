@@ -9,6 +9,7 @@ import lombok.Getter;
 public enum ErrorCode {
     UNKNOWN_ERROR(5000, "Unknown error", HttpStatus.INTERNAL_SERVER_ERROR),
 	FILE_SERVICE_ERROR(5001, "File service error", HttpStatus.INTERNAL_SERVER_ERROR),
+	SERVICE_BUSY(5002, "Server is busy, please try again later", HttpStatus.SERVICE_UNAVAILABLE),
 	INVALID_KEY(1000, "Invalid key", HttpStatus.BAD_REQUEST),
 	UNAUTHENTICATED(1001, "Unauthenticated", HttpStatus.UNAUTHORIZED),
 	UNAUTHORIZED(1002, "You do not have permission", HttpStatus.FORBIDDEN),
@@ -26,12 +27,21 @@ public enum ErrorCode {
 	DELIVERY_INFOR_NOT_FOUND(4001, "Delivery Information not found", HttpStatus.NOT_FOUND),
 	DELIVERY_INFOR_NOT_EXIST(4002, "Delivery Information not exist", HttpStatus.BAD_REQUEST),
   	INSUFFICIENT_STOCK(2002, "Not enough in stock", HttpStatus.BAD_REQUEST),
+	RESERVATION_NOT_FOUND(2003, "Stock reservation not found", HttpStatus.NOT_FOUND),
+	RESERVATION_NOT_ACTIVE(2004, "Stock reservation has expired or was already completed", HttpStatus.BAD_REQUEST),
+	INVALID_QUANTITY(2005, "Quantity must be greater than 0", HttpStatus.BAD_REQUEST),
+	FLASH_SALE_NOT_ACTIVE(2006, "Flash sale is not active for this item", HttpStatus.BAD_REQUEST),
+	FLASH_SALE_LIMIT_EXCEEDED(2007, "Quantity exceeds the flash sale limit per order", HttpStatus.BAD_REQUEST),
 	ADDRESS_NOT_FOUND(4003, "Address not found", HttpStatus.NOT_FOUND),
 	PASSWORD_MISMATCH(1010, "Password and Confirm Password do not match", HttpStatus.BAD_REQUEST), 
 	USER_INFO_NOT_FOUND(1011, "User information not found", HttpStatus.NOT_FOUND),
 	INVALID_TOKEN(1012, "Invalid or expired token", HttpStatus.UNAUTHORIZED),
 	TOKEN_EXPIRED(1013, "Token has expired", HttpStatus.UNAUTHORIZED),
-	GOOGLE_LOGIN_FAILED(1014, "Google login failed", HttpStatus.UNAUTHORIZED);
+	GOOGLE_LOGIN_FAILED(1014, "Google login failed", HttpStatus.UNAUTHORIZED),
+	INVALID_CURSOR(1015, "Invalid page cursor", HttpStatus.BAD_REQUEST),
+	CATEGORY_CYCLE(1016, "Category cannot be moved under itself or its subcategories", HttpStatus.BAD_REQUEST),
+	CATEGORY_HAS_PRODUCTS(1017, "Category still has products", HttpStatus.BAD_REQUEST),
+	CATEGORY_SLUG_EXISTED(1018, "Category slug existed", HttpStatus.BAD_REQUEST);
 
 
     public static ErrorCode getPASSWORD_MISMATCH() {
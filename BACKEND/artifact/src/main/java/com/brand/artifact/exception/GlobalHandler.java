@@ -2,18 +2,33 @@ package com.brand.artifact.exception;
 
 import java.nio.file.AccessDeniedException;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
 import com.brand.artifact.dto.response.ResponseAPITemplate;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
 @RestControllerAdvice
 public class GlobalHandler {
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Đếm lỗi theo ErrorCode, xem qua metric app.errors
+    private void countError(ErrorCode errorCode) {
+        meterRegistry.counter("app.errors",
+                "error_code", errorCode.name(),
+                "status", Integer.toString(errorCode.getHttpStatusCode().value())).increment();
+    }
+
     private ResponseEntity<ResponseAPITemplate<String>> handleException (Exception e, HttpStatus status) {
 		return ResponseEntity.status(status)
 				.body(ResponseAPITemplate.<String>builder()
@@ -25,8 +40,30 @@ public class GlobalHandler {
 
     @ExceptionHandler(WebServerException.class)
 	public ResponseEntity<ResponseAPITemplate<String>> handleWebServerException(WebServerException e) {
+		countError(e.getErrorCode());
 		return handleException(e, HttpStatus.resolve(e.getErrorCode().getHttpStatusCode().value()));
 	}
+	@ExceptionHandler(ServiceBusyException.class)
+	public ResponseEntity<ResponseAPITemplate<String>> handleServiceBusyException(ServiceBusyException e) {
+		countError(e.getErrorCode());
+		return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+				.header(HttpHeaders.RETRY_AFTER, Long.toString(e.getRetryAfterSeconds()))
+				.body(ResponseAPITemplate.<String>builder()
+                        .code(HttpStatus.SERVICE_UNAVAILABLE.value())
+                        .message(e.getMessage())
+                        .result(null)
+                        .build());
+	}
+	// DaoAuthenticationProvider bọc mọi lỗi khi tra user (kể cả lần hash chống timing attack) vào
+	// InternalAuthenticationServiceException, pool BCrypt đầy thì vẫn phải trả 503 + Retry-After
+	@ExceptionHandler(InternalAuthenticationServiceException.class)
+	public ResponseEntity<ResponseAPITemplate<String>> handleInternalAuthenticationServiceException(
+			InternalAuthenticationServiceException e) {
+		if (e.getCause() instanceof ServiceBusyException busy) {
+			return handleServiceBusyException(busy);
+		}
+		return handleException(e);
+	}
 	@ExceptionHandler(IllegalArgumentException.class)
 	public ResponseEntity<ResponseAPITemplate<String>> handleWebServerException(IllegalArgumentException e) {
 		return handleException(e, HttpStatus.BAD_REQUEST);
@@ -38,6 +75,7 @@ public class GlobalHandler {
 	@ExceptionHandler(Exception.class)
 	public ResponseEntity<ResponseAPITemplate<String>> handleException(Exception e) {
 		log.error("Unexpected exception", e);
+		countError(ErrorCode.UNKNOWN_ERROR);
 		return handleException(e, HttpStatus.INTERNAL_SERVER_ERROR);
 	}
 
@@ -0,0 +1,16 @@
+package com.brand.artifact.exception;
+
+import lombok.Getter;
+
+/**
+ * Server đang quá tải, client nên thử lại sau retryAfterSeconds giây (503 + Retry-After)
+ */
+@Getter
+public class ServiceBusyException extends WebServerException {
+    private final long retryAfterSeconds;
+
+    public ServiceBusyException(long retryAfterSeconds) {
+        super(ErrorCode.SERVICE_BUSY);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,62 @@
+package com.brand.artifact.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.brand.artifact.entity.CategoryClosure;
+
+import jakarta.persistence.QueryHint;
+
+@Repository
+public interface CategoryClosureRepository extends JpaRepository<CategoryClosure, CategoryClosure.Key> {
+
+    @Query("SELECT cc.descendantId FROM CategoryClosure cc WHERE cc.ancestorId = :categoryId")
+    List<String> findSubtreeIds(@Param("categoryId") String categoryId);
+
+    @Query("SELECT cc.ancestorId FROM CategoryClosure cc WHERE cc.descendantId = :categoryId AND cc.depth > 0")
+    List<String> findAncestorIds(@Param("categoryId") String categoryId);
+
+    boolean existsByAncestorIdAndDescendantId(String ancestorId, String descendantId);
+
+    @Query("SELECT COUNT(cc) FROM CategoryClosure cc WHERE cc.depth = 0")
+    long countSelfLinks();
+
+    // Khai báo bảng bị ghi, nếu không Hibernate xoá toàn bộ second-level cache sau mỗi câu native
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = CategoryClosure.TABLE))
+    @Query(value = "INSERT INTO category_closure (ancestor_id, descendant_id, depth) VALUES (:ancestorId, :descendantId, :depth)",
+            nativeQuery = true)
+    int insertLink(@Param("ancestorId") String ancestorId, @Param("descendantId") String descendantId,
+            @Param("depth") int depth);
+
+    /**
+     * Nối cả cây con của categoryId vào dưới parentId: mọi tổ tiên của parent (kể cả parent)
+     * x mọi hậu duệ của category (kể cả chính nó)
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = CategoryClosure.TABLE))
+    @Query(value = "INSERT INTO category_closure (ancestor_id, descendant_id, depth) "
+            + "SELECT sup.ancestor_id, sub.descendant_id, sup.depth + sub.depth + 1 "
+            + "FROM category_closure sup CROSS JOIN category_closure sub "
+            + "WHERE sup.descendant_id = :parentId AND sub.ancestor_id = :categoryId",
+            nativeQuery = true)
+    int linkSubtree(@Param("parentId") String parentId, @Param("categoryId") String categoryId);
+
+    // Id được truyền vào thay vì subquery vì MySQL không cho DELETE đọc lại chính bảng đó
+    @Modifying
+    @Query("DELETE FROM CategoryClosure cc WHERE cc.descendantId IN :descendantIds AND cc.ancestorId IN :ancestorIds")
+    int unlink(@Param("ancestorIds") Collection<String> ancestorIds,
+            @Param("descendantIds") Collection<String> descendantIds);
+
+    @Modifying
+    @Query("DELETE FROM CategoryClosure cc WHERE cc.descendantId = :categoryId OR cc.ancestorId = :categoryId")
+    int deleteLinksOf(@Param("categoryId") String categoryId);
+}
@@ -4,8 +4,11 @@ import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import com.brand.artifact.dto.projection.CategoryParentLink;
+import com.brand.artifact.dto.projection.CategoryView;
 import com.brand.artifact.entity.Category;
 
 @Repository
@@ -16,4 +19,16 @@ public interface CategoryRepository extends JpaRepository<Category, String> {
     boolean existsBySlug(String slug);
     List<Category> findByParentCategoryIsNull();
     List<Category> findByParentCategory_CategoryId(String parentCategoryId);
+
+    @Query("SELECT new com.brand.artifact.dto.projection.CategoryView("
+            + "c.categoryId, c.categoryName, c.slug, c.imageUrl, parent.categoryId, c.sortOrder) "
+            + "FROM Category c LEFT JOIN c.parentCategory parent "
+            + "WHERE c.isActive = true ORDER BY c.sortOrder, c.categoryName")
+    List<CategoryView> findActiveViews();
+
+    @Query("SELECT new com.brand.artifact.dto.projection.CategoryParentLink(c.categoryId, parent.categoryId) "
+            + "FROM Category c LEFT JOIN c.parentCategory parent")
+    List<CategoryParentLink> findAllParentLinks();
+
+    boolean existsByParentCategory_CategoryId(String parentCategoryId);
 }
\ No newline at end of file
@@ -1,8 +1,10 @@
 package com.brand.artifact.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -24,4 +26,13 @@ public interface OrderRepository extends JpaRepository<Order, String> {
     List<Order> findByUserOrderByOrderDateDesc(@Param("user") User user);
 
     Optional<Order> findByOrderNumber(String orderNumber);
-}
\ No newline at end of file
+
+    @EntityGraph(Order.GRAPH_WITH_ITEMS)
+    Optional<Order> findWithItemsByOrderId(String orderId);
+
+    @EntityGraph(Order.GRAPH_WITH_PAYMENTS)
+    Optional<Order> findWithPaymentsByOrderId(String orderId);
+
+    @Query("SELECT o.orderNumber FROM Order o WHERE o.orderNumber IN :orderNumbers")
+    List<String> findExistingOrderNumbers(@Param("orderNumbers") Collection<String> orderNumbers);
+}
@@ -1,9 +1,11 @@
 package com.brand.artifact.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -31,4 +33,27 @@ public interface ProductItemRepository extends JpaRepository<ProductItem, String
 
     @Query("SELECT pi FROM ProductItem pi WHERE pi.product = :product AND pi.stockQuantity > 0")
     List<ProductItem> findAvailableVariantsByProduct(@Param("product") Product product);
-}
\ No newline at end of file
+
+    @Query("SELECT pi.productItemId FROM ProductItem pi WHERE pi.product.productId = :productId")
+    List<String> findIdsByProductId(@Param("productId") String productId);
+
+    @Query("SELECT DISTINCT pi.product.productId FROM ProductItem pi WHERE pi.productItemId IN :productItemIds")
+    List<String> findProductIdsByItemIds(@Param("productItemIds") Collection<String> productItemIds);
+
+    // Đọc thẳng từ database, không qua second-level cache
+    @Query("SELECT pi.stockQuantity FROM ProductItem pi WHERE pi.productItemId = :productItemId")
+    Optional<Integer> findStockQuantity(@Param("productItemId") String productItemId);
+
+    // ===== Tồn kho: một câu lệnh có điều kiện, không đọc rồi ghi =====
+
+    // Không đủ hàng thì không dòng nào bị update (trả về 0), hai người mua không thể cùng lấy một món cuối
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE ProductItem pi SET pi.stockQuantity = pi.stockQuantity - :quantity "
+            + "WHERE pi.productItemId = :productItemId AND pi.stockQuantity >= :quantity")
+    int decrementStock(@Param("productItemId") String productItemId, @Param("quantity") int quantity);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE ProductItem pi SET pi.stockQuantity = pi.stockQuantity + :quantity "
+            + "WHERE pi.productItemId = :productItemId")
+    int incrementStock(@Param("productItemId") String productItemId, @Param("quantity") int quantity);
+}
@@ -1,12 +1,25 @@
 package com.brand.artifact.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.brand.artifact.dto.projection.ProductDetailView;
+import com.brand.artifact.dto.projection.ProductFacetRow;
+import com.brand.artifact.dto.projection.ProductImageView;
+import com.brand.artifact.dto.projection.ProductItemView;
+import com.brand.artifact.dto.projection.ProductSearchDocument;
+import com.brand.artifact.dto.projection.ProductSummary;
 import com.brand.artifact.entity.Category;
 import com.brand.artifact.entity.Product;
 
@@ -16,6 +29,114 @@ public interface ProductRepository extends JpaRepository<Product, String> {
     List<Product> findByCategory(Category category);
     List<Product> findByProductNameContainingIgnoreCase(String productName); 
     List<Product> findByCategoryAndIsActiveTrue(Category category);
+    @EntityGraph(Product.GRAPH_WITH_CATEGORY)
     List<Product> findByIsFeaturedTrue();
+    @EntityGraph(Product.GRAPH_WITH_CATEGORY)
     Page<Product> findByProductNameContainingIgnoreCaseAndIsActiveTrue(String productName, Pageable pageable);
+
+    @EntityGraph(Product.GRAPH_WITH_IMAGES)
+    Optional<Product> findWithImagesByProductId(String productId);
+
+    @EntityGraph(Product.GRAPH_WITH_ITEMS)
+    Optional<Product> findWithItemsByProductId(String productId);
+
+    // ===== Catalog (read model): chỉ select các cột cần hiển thị, không load entity =====
+
+    String SUMMARY_SELECT = "SELECT new com.brand.artifact.dto.projection.ProductSummary("
+            + "p.productId, p.productName, c.categoryId, c.categoryName, "
+            + "(SELECT MIN(pi.price) FROM ProductItem pi WHERE pi.product = p), "
+            + "(SELECT MIN(img.imageUrl) FROM ProductImage img WHERE img.product = p AND img.isPrimary = true), "
+            + "p.isFeatured, p.createdAt) "
+            + "FROM Product p LEFT JOIN p.category c ";
+    // Seek theo (createdAt, productId) giảm dần: trang sâu tốn như trang đầu, không cần COUNT
+    String SEEK_CONDITION = "AND (p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.productId < :productId)) ";
+    String SEEK_ORDER = "ORDER BY p.createdAt DESC, p.productId DESC";
+
+    @Query(SUMMARY_SELECT + "WHERE p.isActive = true " + SEEK_ORDER)
+    List<ProductSummary> findActiveSummaries(Limit limit);
+
+    @Query(SUMMARY_SELECT + "WHERE p.isActive = true " + SEEK_CONDITION + SEEK_ORDER)
+    List<ProductSummary> findActiveSummariesAfter(@Param("createdAt") LocalDateTime createdAt,
+            @Param("productId") String productId, Limit limit);
+
+    @Query(SUMMARY_SELECT + "WHERE p.isActive = true AND p.isFeatured = true " + SEEK_ORDER)
+    List<ProductSummary> findFeaturedSummaries(Limit limit);
+
+    @Query(SUMMARY_SELECT + "WHERE p.isActive = true AND p.productId IN :productIds")
+    List<ProductSummary> findActiveSummariesByIds(@Param("productIds") Collection<String> productIds);
+
+    // Giống CategoryTree: category ẩn làm ẩn cả cây con của nó (kể cả chính category đó)
+    String SUBTREE_VISIBLE = "AND NOT EXISTS (SELECT 1 FROM CategoryClosure up, CategoryClosure down, Category hidden "
+            + "WHERE up.descendantId = c.categoryId AND down.ancestorId = :categoryId "
+            + "AND down.descendantId = up.ancestorId AND hidden.categoryId = up.ancestorId AND hidden.isActive = false) ";
+
+    // Sản phẩm trong cả cây con của category: một join với closure table thay vì duyệt từng cấp
+    String SUBTREE_JOIN = "JOIN CategoryClosure cc ON cc.descendantId = c.categoryId "
+            + "WHERE cc.ancestorId = :categoryId AND p.isActive = true " + SUBTREE_VISIBLE;
+
+    @Query(SUMMARY_SELECT + SUBTREE_JOIN + SEEK_ORDER)
+    List<ProductSummary> findActiveSummariesInSubtree(@Param("categoryId") String categoryId, Limit limit);
+
+    @Query(SUMMARY_SELECT + SUBTREE_JOIN + SEEK_CONDITION + SEEK_ORDER)
+    List<ProductSummary> findActiveSummariesInSubtreeAfter(@Param("categoryId") String categoryId,
+            @Param("createdAt") LocalDateTime createdAt, @Param("productId") String productId, Limit limit);
+
+    // Phân trang theo offset cho màn hình quản trị (cần tổng số dòng)
+    @Query(value = SUMMARY_SELECT + SUBTREE_JOIN + "ORDER BY p.createdAt DESC, p.productId DESC",
+            countQuery = "SELECT COUNT(p) FROM Product p JOIN p.category c " + SUBTREE_JOIN)
+    Page<ProductSummary> findActiveSummariesInSubtree(@Param("categoryId") String categoryId, Pageable pageable);
+
+    boolean existsByCategory_CategoryId(String categoryId);
+
+    @Query("SELECT new com.brand.artifact.dto.projection.ProductDetailView("
+            + "p.productId, p.productName, p.description, c.categoryId, c.categoryName, p.isFeatured, p.createdAt, p.updatedAt) "
+            + "FROM Product p LEFT JOIN p.category c WHERE p.productId = :productId AND p.isActive = true")
+    Optional<ProductDetailView> findActiveDetailView(@Param("productId") String productId);
+
+    @Query("SELECT new com.brand.artifact.dto.projection.ProductImageView(img.imageUrl, img.sortOrder, img.isPrimary) "
+            + "FROM ProductImage img WHERE img.product.productId = :productId ORDER BY img.sortOrder")
+    List<ProductImageView> findImageViews(@Param("productId") String productId);
+
+    @Query("SELECT img.imageId FROM ProductImage img WHERE img.product.productId = :productId")
+    List<String> findImageIds(@Param("productId") String productId);
+
+    @Query("SELECT new com.brand.artifact.dto.projection.ProductItemView("
+            + "pi.productItemId, pi.sku, pi.price, pi.stockQuantity, pi.size, pi.color) "
+            + "FROM ProductItem pi WHERE pi.product.productId = :productId ORDER BY pi.price, pi.sku")
+    List<ProductItemView> findItemViews(@Param("productId") String productId);
+
+    // ===== Search index =====
+
+    String SEARCH_DOCUMENT_SELECT = "SELECT new com.brand.artifact.dto.projection.ProductSearchDocument("
+            + "p.productId, p.productName, p.description, c.categoryId, c.categoryName, parent.categoryName, "
+            + "(SELECT MIN(pi.price) FROM ProductItem pi WHERE pi.product = p), "
+            + "(SELECT MIN(img.imageUrl) FROM ProductImage img WHERE img.product = p AND img.isPrimary = true), "
+            + "p.isFeatured, p.createdAt) "
+            + "FROM Product p LEFT JOIN p.category c LEFT JOIN c.parentCategory parent ";
+
+    // Load từng lô theo khoá chính để build index mà không giữ cả bảng trong một result set
+    @Query(SEARCH_DOCUMENT_SELECT + "WHERE p.isActive = true AND p.productId > :afterId ORDER BY p.productId")
+    List<ProductSearchDocument> findSearchDocumentsAfter(@Param("afterId") String afterId, Limit limit);
+
+    @Query(SEARCH_DOCUMENT_SELECT + "WHERE p.isActive = true AND p.productId = :productId")
+    Optional<ProductSearchDocument> findSearchDocument(@Param("productId") String productId);
+
+    @Query(SEARCH_DOCUMENT_SELECT + "WHERE p.isActive = true AND p.productId IN :productIds")
+    List<ProductSearchDocument> findSearchDocuments(@Param("productIds") Collection<String> productIds);
+
+    @Query("SELECT p.productId FROM Product p JOIN p.category c LEFT JOIN c.parentCategory parent "
+            + "WHERE c.categoryId = :categoryId OR parent.categoryId = :categoryId")
+    List<String> findIdsByCategoryOrParent(@Param("categoryId") String categoryId);
+
+    // ===== Facet index =====
+
+    @Query("SELECT p.productId FROM Product p WHERE p.isActive = true AND p.productId > :afterId ORDER BY p.productId")
+    List<String> findActiveIdsAfter(@Param("afterId") String afterId, Limit limit);
+
+    // Mỗi variant một dòng, sản phẩm chưa có variant vẫn có một dòng với các cột variant null
+    @Query("SELECT new com.brand.artifact.dto.projection.ProductFacetRow("
+            + "p.productId, c.categoryId, pi.size, pi.color, pi.price, pi.stockQuantity) "
+            + "FROM Product p LEFT JOIN p.category c LEFT JOIN p.productItems pi "
+            + "WHERE p.isActive = true AND p.productId IN :productIds")
+    List<ProductFacetRow> findFacetRows(@Param("productIds") Collection<String> productIds);
 }
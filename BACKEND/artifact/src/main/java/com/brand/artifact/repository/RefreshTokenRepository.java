@@ -4,7 +4,11 @@ import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.brand.artifact.entity.RefreshToken;
@@ -17,4 +21,22 @@ public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Stri
     List<RefreshToken> findByUser_UserId(String userId);
     void deleteByUser(User user);
     long deleteByExpiresAtBefore(LocalDateTime dateTime);
+
+    // Revoke toàn bộ token của user bằng một câu UPDATE thay vì load từng entity
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE RefreshToken rt SET rt.revoked = true WHERE rt.user.userId = :userId AND rt.revoked = false")
+    int revokeAllByUserId(@Param("userId") String userId);
+
+    // Bản ghi cũ lưu dạng BCrypt (bắt đầu bằng "$2"), chưa được chuyển sang HMAC
+    @Query("SELECT rt FROM RefreshToken rt WHERE rt.user.userId = :userId AND rt.revoked = false AND rt.token LIKE '$2%'")
+    List<RefreshToken> findLegacyActiveTokensByUserId(@Param("userId") String userId);
+
+    // Chỉ lấy id theo từng lô nhỏ để job dọn dẹp không giữ lock lâu.
+    // Tách hai câu (không dùng OR) để mỗi câu dùng được index riêng của nó
+    @Query("SELECT rt.id FROM RefreshToken rt WHERE rt.expiresAt < :now")
+    List<String> findExpiredIds(@Param("now") LocalDateTime now, Pageable pageable);
+
+    @Query("SELECT rt.id FROM RefreshToken rt WHERE rt.revoked = true AND rt.createdAt < :revokedBefore")
+    List<String> findRevokedIdsCreatedBefore(@Param("revokedBefore") LocalDateTime revokedBefore,
+            Pageable pageable);
 }
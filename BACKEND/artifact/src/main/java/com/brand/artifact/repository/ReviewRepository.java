@@ -2,9 +2,14 @@ package com.brand.artifact.repository;
 
 import java.util.List;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.brand.artifact.dto.projection.ProductRating;
 import com.brand.artifact.entity.OrderItem;
 import com.brand.artifact.entity.Review;
 import com.brand.artifact.entity.User;
@@ -12,7 +17,16 @@ import com.brand.artifact.entity.User;
 @Repository
 public interface ReviewRepository extends JpaRepository<Review, String> {
     List<Review> findByUser(User user);
+    @EntityGraph(Review.GRAPH_WITH_USER)
     List<Review> findByOrderItem(OrderItem orderItem);
     List<Review> findByRating(Integer rating);
     List<Review> findByRatingGreaterThanEqual(Integer rating);
-}
\ No newline at end of file
+
+    // Điểm trung bình theo sản phẩm (review gắn với order item -> variant -> sản phẩm)
+    @Query("SELECT new com.brand.artifact.dto.projection.ProductRating(p.productId, AVG(r.rating), COUNT(r)) "
+            + "FROM Review r JOIN r.orderItem oi JOIN oi.productItem pi JOIN pi.product p "
+            + "WHERE p.isActive = true AND r.rating IS NOT NULL "
+            + "GROUP BY p.productId HAVING COUNT(r) >= :minReviews "
+            + "ORDER BY AVG(r.rating) DESC, COUNT(r) DESC, p.productId")
+    List<ProductRating> findTopRatedProducts(@Param("minReviews") long minReviews, Limit limit);
+}
@@ -0,0 +1,56 @@
+package com.brand.artifact.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.brand.artifact.dto.projection.ReservationLine;
+import com.brand.artifact.entity.StockReservation;
+
+/**
+ * Chuyển trạng thái bằng update có điều kiện (status = HELD): mỗi lượt giữ hàng chỉ được
+ * xác nhận hoặc trả kho đúng một lần, kể cả khi nhiều node cùng quét hết hạn.
+ */
+@Repository
+public interface StockReservationRepository extends JpaRepository<StockReservation, String> {
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE StockReservation r SET r.status = com.brand.artifact.constant.ReservationStatus.CONFIRMED, "
+            + "r.updatedAt = :now "
+            + "WHERE r.reservationId = :reservationId "
+            + "AND r.status = com.brand.artifact.constant.ReservationStatus.HELD AND r.expiresAt > :now")
+    int confirmHeld(@Param("reservationId") String reservationId, @Param("now") LocalDateTime now);
+
+    // Huỷ được cả lượt đã quá hạn nhưng chưa bị quét, miễn là chưa trả kho
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE StockReservation r SET r.status = com.brand.artifact.constant.ReservationStatus.RELEASED, "
+            + "r.updatedAt = :now "
+            + "WHERE r.reservationId = :reservationId "
+            + "AND r.status = com.brand.artifact.constant.ReservationStatus.HELD")
+    int releaseHeld(@Param("reservationId") String reservationId, @Param("now") LocalDateTime now);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE StockReservation r SET r.status = com.brand.artifact.constant.ReservationStatus.EXPIRED, "
+            + "r.updatedAt = :now "
+            + "WHERE r.reservationId = :reservationId "
+            + "AND r.status = com.brand.artifact.constant.ReservationStatus.HELD AND r.expiresAt <= :now")
+    int expireHeld(@Param("reservationId") String reservationId, @Param("now") LocalDateTime now);
+
+    @Query("SELECT r.reservationId FROM StockReservation r "
+            + "WHERE r.status = com.brand.artifact.constant.ReservationStatus.HELD AND r.expiresAt <= :now "
+            + "ORDER BY r.expiresAt")
+    List<String> findExpiredIds(@Param("now") LocalDateTime now, Limit limit);
+
+    // Sắp theo productItemId để trả kho cũng khoá các dòng theo cùng thứ tự với lúc trừ
+    @Query("SELECT new com.brand.artifact.dto.projection.ReservationLine("
+            + "pi.productItemId, pi.product.productId, i.quantity) "
+            + "FROM StockReservationItem i JOIN i.productItem pi "
+            + "WHERE i.reservation.reservationId = :reservationId ORDER BY pi.productItemId")
+    List<ReservationLine> findLines(@Param("reservationId") String reservationId);
+}
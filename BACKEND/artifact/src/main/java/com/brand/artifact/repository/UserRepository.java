@@ -1,10 +1,15 @@
 package com.brand.artifact.repository;
 
+import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.brand.artifact.dto.projection.UserStatus;
 import com.brand.artifact.entity.User;
 
 @Repository
@@ -15,4 +20,25 @@ public interface UserRepository extends JpaRepository<User, String> {
     boolean existsByEmail(String email);
     Optional<User> findByResetToken(String resetToken);
     Optional<User> findByEmailAndIsActiveTrue(String email);
+    List<User> findAllByUsernameOrEmail(String username, String email);
+
+    // User + UserInfo trong một câu LEFT JOIN
+    @EntityGraph(User.GRAPH_WITH_USER_INFO)
+    Optional<User> findWithUserInfoByUserId(String userId);
+
+    /**
+     * Tìm user theo username hoặc email trong một truy vấn (cả hai cột đều có unique index).
+     * Nếu login khớp username của user này và email của user khác thì ưu tiên username.
+     */
+    default Optional<User> findByUsernameOrEmail(String login) {
+        List<User> users = findAllByUsernameOrEmail(login, login);
+        return users.stream()
+                .filter(user -> login.equals(user.getUsername()))
+                .findFirst()
+                .or(() -> users.stream().findFirst());
+    }
+
+    @Query("SELECT new com.brand.artifact.dto.projection.UserStatus(u.userId, u.username, u.role, u.isActive) "
+            + "FROM User u WHERE u.userId = :userId")
+    Optional<UserStatus> findStatusByUserId(@Param("userId") String userId);
 }
@@ -17,4 +17,6 @@ public interface AuthService {
     TokenRefreshResponse refreshToken(RefreshTokenRequest request);
 
     void logout(LogoutRequest request);
+
+    void logoutAllSessions(LogoutRequest request);
 }
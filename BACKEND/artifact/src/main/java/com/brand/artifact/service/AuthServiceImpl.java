@@ -1,7 +1,6 @@
 package com.brand.artifact.service;
 
 import java.time.LocalDateTime;
-import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -22,6 +21,7 @@ import com.brand.artifact.exception.ErrorCode;
 import com.brand.artifact.exception.WebServerException;
 import com.brand.artifact.repository.UserRepository;
 import com.brand.artifact.utils.JwtUtil;
+import com.brand.artifact.utils.VerifiedToken;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -45,6 +45,9 @@ public class AuthServiceImpl implements AuthService {
     @Autowired
     private TokenBlacklistService tokenBlacklistService;
 
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
     @Override
     public UserRegisterResponse registerUser(UserRegisterRequest request) {
         if (existsByUsername(request.getUsername())) {
@@ -75,29 +78,25 @@ public class AuthServiceImpl implements AuthService {
 
     @Override
     public UserLoginResponse authenticateUser(UserLoginRequest request) {
-        Optional<User> userOpt = findByUsername(request.getUsername());
-        if (userOpt.isEmpty()) {
-            userOpt = findByEmail(request.getUsername());
-        }
-        if (userOpt.isEmpty()) {
-            throw new WebServerException(ErrorCode.UNAUTHENTICATED);
-        }
-
-        User user = userOpt.get();
+        User user = userRepository.findByUsernameOrEmail(request.getUsername())
+                .orElseThrow(() -> new WebServerException(ErrorCode.UNAUTHENTICATED));
         if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
             throw new WebServerException(ErrorCode.UNAUTHENTICATED);
         }
 
+        long sessionEpoch = tokenRevocationService.currentEpoch(user.getUserId());
         String accessToken = jwtUtil.generateAccessToken(
                 user.getUserId(),
                 user.getUsername(),
                 user.getEmail(),
-                user.getRole().name()
+                user.getRole().name(),
+                sessionEpoch
         );
 
         String refreshToken = jwtUtil.generateRefreshToken(
                 user.getUserId(),
-                user.getUsername()
+                user.getUsername(),
+                sessionEpoch
         );
 
         refreshTokenService.revokeAllTokensForUser(user);
@@ -119,30 +118,40 @@ public class AuthServiceImpl implements AuthService {
     @Override
     public TokenRefreshResponse refreshToken(RefreshTokenRequest request) {
         String refreshTokenValue = request.getToken();
-        if (!jwtUtil.validateRefreshToken(refreshTokenValue)) {
+        VerifiedToken verifiedToken = jwtUtil.parseRefreshToken(refreshTokenValue)
+                .orElseThrow(() -> new WebServerException(ErrorCode.INVALID_TOKEN));
+        if (tokenRevocationService.isRevoked(verifiedToken.userId(), verifiedToken.sessionEpoch())) {
             throw new WebServerException(ErrorCode.INVALID_TOKEN);
         }
 
         RefreshToken storedToken = refreshTokenService.findByToken(refreshTokenValue)
                 .orElseThrow(() -> new WebServerException(ErrorCode.INVALID_TOKEN));
 
-        if (storedToken.isRevoked() || storedToken.getExpiresAt().isBefore(LocalDateTime.now())) {
+        if (storedToken.isRevoked()) {
+            // Token đã rotate / thu hồi bị gửi lại: có thể đã bị lộ, nơi đặt xử lý phát hiện dùng lại
+            log.warn("Revoked refresh token replayed for user {}", verifiedToken.userId());
+            throw new WebServerException(ErrorCode.TOKEN_EXPIRED);
+        }
+        if (storedToken.getExpiresAt().isBefore(LocalDateTime.now())) {
             refreshTokenService.revokeToken(storedToken);
             throw new WebServerException(ErrorCode.TOKEN_EXPIRED);
         }
 
         User user = storedToken.getUser();
 
+        long sessionEpoch = tokenRevocationService.currentEpoch(user.getUserId());
         String accessToken = jwtUtil.generateAccessToken(
                 user.getUserId(),
                 user.getUsername(),
                 user.getEmail(),
-                user.getRole().name()
+                user.getRole().name(),
+                sessionEpoch
         );
 
         String newRefreshToken = jwtUtil.generateRefreshToken(
                 user.getUserId(),
-                user.getUsername()
+                user.getUsername(),
+                sessionEpoch
         );
         LocalDateTime newRefreshExpiry = jwtUtil.extractExpiration(newRefreshToken);
         refreshTokenService.rotateToken(storedToken, newRefreshToken, newRefreshExpiry);
@@ -174,6 +183,17 @@ public class AuthServiceImpl implements AuthService {
         }
     }
 
+    @Override
+    public void logoutAllSessions(LogoutRequest request) {
+        VerifiedToken verifiedToken = jwtUtil.parseRefreshToken(request.getRefreshToken())
+                .orElseThrow(() -> new WebServerException(ErrorCode.INVALID_TOKEN));
+        if (tokenRevocationService.isRevoked(verifiedToken.userId(), verifiedToken.sessionEpoch())) {
+            throw new WebServerException(ErrorCode.INVALID_TOKEN);
+        }
+        // Một lệnh ghi duy nhất: mọi access/refresh token mang epoch hiện tại đều mất hiệu lực
+        tokenRevocationService.revokeAllSessions(verifiedToken.userId());
+    }
+
     private boolean existsByUsername(String username) {
         return userRepository.existsByUsername(username);
     }
@@ -181,12 +201,4 @@ public class AuthServiceImpl implements AuthService {
     private boolean existsByEmail(String email) {
         return userRepository.existsByEmail(email);
     }
-
-    private Optional<User> findByUsername(String username) {
-        return userRepository.findByUsername(username);
-    }
-
-    private Optional<User> findByEmail(String email) {
-        return userRepository.findByEmail(email);
-    }
 }
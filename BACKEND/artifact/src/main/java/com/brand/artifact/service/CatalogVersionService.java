@@ -0,0 +1,6 @@
+package com.brand.artifact.service;
+
+public interface CatalogVersionService {
+    // null khi chưa đọc được từ Redis: caller tự tính ETag theo nội dung
+    Long current();
+}
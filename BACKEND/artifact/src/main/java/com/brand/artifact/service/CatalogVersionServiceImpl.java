@@ -0,0 +1,70 @@
+package com.brand.artifact.service;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.brand.artifact.event.CatalogChangedEvent;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Số thế hệ của catalog dùng chung mọi node (INCR trên Redis sau mỗi thay đổi đã commit),
+ * để danh sách sản phẩm có ETag trước khi query và 304 không phải đọc dòng nào.
+ *
+ * Giá trị được cache local và đọc lại định kỳ, nên node khác thấy thế hệ mới chậm tối đa
+ * refresh-interval-ms (trong lúc đó vẫn trả dữ liệu mới từ database, chỉ ETag cũ hơn).
+ * Lỗi Redis thì trả null: controller quay về ETag theo nội dung thay vì trả 304 sai.
+ */
+@Slf4j
+@Service
+public class CatalogVersionServiceImpl implements CatalogVersionService {
+
+    public static final String KEY = "catalog:generation";
+
+    private final RedisTemplate<String, String> redisTemplate;
+
+    private volatile Long generation;
+
+    public CatalogVersionServiceImpl(RedisTemplate<String, String> redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public Long current() {
+        return generation;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        refresh();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        try {
+            generation = redisTemplate.opsForValue().increment(KEY);
+        } catch (Exception e) {
+            generation = null;
+            log.warn("Unable to bump catalog generation, falling back to content ETags", e);
+        }
+    }
+
+    @Scheduled(
+            fixedDelayString = "${app.catalog.version.refresh-interval-ms:1000}",
+            initialDelayString = "${app.catalog.version.refresh-interval-ms:1000}")
+    public void refresh() {
+        try {
+            // Khởi tạo theo thời gian (không từ 0) để Redis mất key không làm thế hệ cũ lặp lại
+            redisTemplate.opsForValue().setIfAbsent(KEY, Long.toString(System.currentTimeMillis()));
+            String value = redisTemplate.opsForValue().get(KEY);
+            generation = value == null ? null : Long.valueOf(value);
+        } catch (Exception e) {
+            generation = null;
+            log.debug("Unable to read catalog generation", e);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.brand.artifact.service;
+
+import com.brand.artifact.dto.projection.CategoryView;
+import com.brand.artifact.dto.request.CategoryRequest;
+
+public interface CategoryAdminService {
+    CategoryView createCategory(CategoryRequest request);
+    CategoryView updateCategory(String categoryId, CategoryRequest request);
+    void deleteCategory(String categoryId);
+    int rebuildClosure();
+}
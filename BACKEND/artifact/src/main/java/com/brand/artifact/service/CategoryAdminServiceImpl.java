@@ -0,0 +1,185 @@
+package com.brand.artifact.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.brand.artifact.dto.projection.CategoryParentLink;
+import com.brand.artifact.dto.projection.CategoryView;
+import com.brand.artifact.dto.request.CategoryRequest;
+import com.brand.artifact.entity.Category;
+import com.brand.artifact.exception.ErrorCode;
+import com.brand.artifact.exception.WebServerException;
+import com.brand.artifact.repository.CategoryClosureRepository;
+import com.brand.artifact.repository.CategoryRepository;
+import com.brand.artifact.repository.ProductRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Thêm/sửa/di chuyển/xoá category, closure table được cập nhật trong cùng transaction
+ */
+@Slf4j
+@Service
+@Transactional
+public class CategoryAdminServiceImpl implements CategoryAdminService {
+
+    private final CategoryRepository categoryRepository;
+    private final CategoryClosureRepository closureRepository;
+    private final ProductRepository productRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public CategoryAdminServiceImpl(CategoryRepository categoryRepository, CategoryClosureRepository closureRepository,
+            ProductRepository productRepository, TransactionTemplate transactionTemplate) {
+        this.categoryRepository = categoryRepository;
+        this.closureRepository = closureRepository;
+        this.productRepository = productRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Override
+    public CategoryView createCategory(CategoryRequest request) {
+        if (categoryRepository.existsBySlug(request.getSlug())) {
+            throw new WebServerException(ErrorCode.CATEGORY_SLUG_EXISTED);
+        }
+        Category parent = findParent(request.getParentCategoryId());
+        Category category = Category.builder()
+                .categoryName(request.getCategoryName())
+                .slug(request.getSlug())
+                .description(request.getDescription())
+                .imageUrl(request.getImageUrl())
+                .sortOrder(request.getSortOrder())
+                .parentCategory(parent)
+                .isActive(request.getIsActive() == null || request.getIsActive())
+                .build();
+        categoryRepository.saveAndFlush(category);
+
+        closureRepository.insertLink(category.getCategoryId(), category.getCategoryId(), 0);
+        if (parent != null) {
+            closureRepository.linkSubtree(parent.getCategoryId(), category.getCategoryId());
+        }
+        return toView(category);
+    }
+
+    @Override
+    public CategoryView updateCategory(String categoryId, CategoryRequest request) {
+        Category category = categoryRepository.findById(categoryId)
+                .orElseThrow(() -> new WebServerException(ErrorCode.CATEGORY_NOT_FOUND));
+        if (!Objects.equals(category.getSlug(), request.getSlug()) && categoryRepository.existsBySlug(request.getSlug())) {
+            throw new WebServerException(ErrorCode.CATEGORY_SLUG_EXISTED);
+        }
+
+        String currentParentId = category.getParentCategory() == null ? null : category.getParentCategory().getCategoryId();
+        String newParentId = request.getParentCategoryId();
+        if (!Objects.equals(currentParentId, newParentId)) {
+            Category newParent = findParent(newParentId);
+            // Không được chuyển category vào dưới chính nó hoặc cây con của nó
+            if (newParent != null && closureRepository.existsByAncestorIdAndDescendantId(categoryId, newParentId)) {
+                throw new WebServerException(ErrorCode.CATEGORY_CYCLE);
+            }
+            moveSubtree(categoryId, newParentId);
+            category.setParentCategory(newParent);
+        }
+
+        category.setCategoryName(request.getCategoryName());
+        category.setSlug(request.getSlug());
+        category.setDescription(request.getDescription());
+        category.setImageUrl(request.getImageUrl());
+        category.setSortOrder(request.getSortOrder());
+        if (request.getIsActive() != null) {
+            category.setIsActive(request.getIsActive());
+        }
+        return toView(categoryRepository.save(category));
+    }
+
+    @Override
+    public void deleteCategory(String categoryId) {
+        Category category = categoryRepository.findById(categoryId)
+                .orElseThrow(() -> new WebServerException(ErrorCode.CATEGORY_NOT_FOUND));
+        if (categoryRepository.existsByParentCategory_CategoryId(categoryId)) {
+            throw new WebServerException(ErrorCode.CATEGORY_HAS_CHILDREN);
+        }
+        if (productRepository.existsByCategory_CategoryId(categoryId)) {
+            throw new WebServerException(ErrorCode.CATEGORY_HAS_PRODUCTS);
+        }
+        // Category lá: chỉ còn các dòng mà nó là hậu duệ
+        closureRepository.deleteLinksOf(categoryId);
+        categoryRepository.delete(category);
+    }
+
+    /**
+     * Build lại toàn bộ closure table từ cột parent_category_id (backfill dữ liệu cũ / sửa lệch)
+     */
+    @Override
+    public int rebuildClosure() {
+        Map<String, String> parents = new HashMap<>();
+        for (CategoryParentLink link : categoryRepository.findAllParentLinks()) {
+            parents.put(link.categoryId(), link.parentCategoryId());
+        }
+
+        closureRepository.deleteAllInBatch();
+        int rows = 0;
+        for (String categoryId : parents.keySet()) {
+            Set<String> visited = new HashSet<>();
+            String ancestor = categoryId;
+            int depth = 0;
+            // Dừng nếu dữ liệu có vòng lặp cha-con
+            while (ancestor != null && visited.add(ancestor)) {
+                closureRepository.insertLink(ancestor, categoryId, depth++);
+                rows++;
+                ancestor = parents.get(ancestor);
+            }
+        }
+        return rows;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            Integer rows = transactionTemplate.execute(status ->
+                    closureRepository.countSelfLinks() == categoryRepository.count() ? null : rebuildClosure());
+            if (rows != null) {
+                log.info("Rebuilt category closure table with {} rows", rows);
+            }
+        } catch (Exception e) {
+            log.warn("Unable to verify category closure table", e);
+        }
+    }
+
+    // Cắt cây con khỏi tổ tiên cũ rồi nối vào dưới parent mới
+    private void moveSubtree(String categoryId, String newParentId) {
+        List<String> subtree = closureRepository.findSubtreeIds(categoryId);
+        List<String> oldAncestors = new ArrayList<>(closureRepository.findAncestorIds(categoryId));
+        if (!oldAncestors.isEmpty()) {
+            closureRepository.unlink(oldAncestors, subtree);
+        }
+        if (newParentId != null) {
+            closureRepository.linkSubtree(newParentId, categoryId);
+        }
+    }
+
+    private Category findParent(String parentCategoryId) {
+        if (parentCategoryId == null || parentCategoryId.isBlank()) {
+            return null;
+        }
+        return categoryRepository.findById(parentCategoryId)
+                .orElseThrow(() -> new WebServerException(ErrorCode.CATEGORY_NOT_FOUND));
+    }
+
+    private static CategoryView toView(Category category) {
+        return new CategoryView(category.getCategoryId(), category.getCategoryName(), category.getSlug(),
+                category.getImageUrl(),
+                category.getParentCategory() == null ? null : category.getParentCategory().getCategoryId(),
+                category.getSortOrder());
+    }
+}
@@ -0,0 +1,8 @@
+package com.brand.artifact.service;
+
+import com.brand.artifact.utils.CategoryTree;
+
+public interface CategoryTreeService {
+    CategoryTree getTree();
+    void refresh();
+}
@@ -0,0 +1,99 @@
+package com.brand.artifact.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.brand.artifact.event.CatalogChangedEvent;
+import com.brand.artifact.event.RemoteCatalogChangedEvent;
+import com.brand.artifact.repository.CategoryRepository;
+import com.brand.artifact.utils.CategoryTree;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Giữ snapshot cây category trong bộ nhớ, đọc không bao giờ chạm database.
+ * Khi category thay đổi, snapshot mới được build bằng một query rồi thay thế nguyên khối,
+ * các node khác được báo qua Redis pub/sub để tự build lại rồi báo cho cache dẫn xuất trên node đó.
+ * Snapshot được build khi khởi tạo bean (trước khi nhận request) và build lại định kỳ
+ * để bù message pub/sub bị mất; request không bao giờ phải chờ build.
+ */
+@Slf4j
+@Service
+public class CategoryTreeServiceImpl implements CategoryTreeService, MessageListener {
+
+    public static final String CHANNEL = "category:events";
+
+    // Bỏ qua message do chính node này gửi
+    private final String nodeId = UUID.randomUUID().toString();
+    private final CategoryRepository categoryRepository;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private volatile CategoryTree tree;
+
+    public CategoryTreeServiceImpl(
+            CategoryRepository categoryRepository,
+            RedisTemplate<String, String> redisTemplate,
+            ApplicationEventPublisher eventPublisher) {
+        this.categoryRepository = categoryRepository;
+        this.redisTemplate = redisTemplate;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    public CategoryTree getTree() {
+        CategoryTree current = tree;
+        // Lần build đầu lỗi thì trả cây rỗng, lần build định kỳ sau sẽ thử lại
+        return current != null ? current : CategoryTree.empty();
+    }
+
+    @Override
+    @Scheduled(
+            fixedDelayString = "${app.catalog.category-tree.refresh-interval-ms:300000}",
+            initialDelayString = "${app.catalog.category-tree.refresh-interval-ms:300000}")
+    public synchronized void refresh() {
+        try {
+            tree = CategoryTree.build(categoryRepository.findActiveViews());
+            log.debug("Rebuilt category tree snapshot with {} categories", tree.size());
+        } catch (Exception e) {
+            log.warn("Unable to rebuild category tree, keeping the previous snapshot", e);
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        refresh();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.categoryId() == null) {
+            return;
+        }
+        refresh();
+        try {
+            redisTemplate.convertAndSend(CHANNEL, nodeId);
+        } catch (Exception e) {
+            // Node khác vẫn giữ snapshot cũ cho tới lần thay đổi sau
+            log.warn("Unable to publish category tree invalidation", e);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        if (!nodeId.equals(new String(message.getBody(), StandardCharsets.UTF_8))) {
+            // Build lại trước rồi mới báo: cache dẫn xuất lấp lại từ cây mới chứ không phải cây cũ
+            refresh();
+            eventPublisher.publishEvent(RemoteCatalogChangedEvent.categories());
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.brand.artifact.service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Một lượt mua flash sale đã thắng, nằm trong hàng đợi chờ ghi thành đơn hàng.
+ * Mã hoá thành chuỗi để dùng chung cho hàng đợi Redis và hàng đợi local.
+ * attempts là số lần ghi riêng lượt này đã lỗi, dùng để chuyển sang dead-letter thay vì thử mãi.
+ */
+public record FlashSaleClaim(
+        String claimId,
+        String userId,
+        String productItemId,
+        int quantity,
+        LocalDateTime claimedAt,
+        String addressId,
+        int attempts
+) {
+
+    private static final String SEPARATOR = "|";
+    private static final String ORDER_NUMBER_PREFIX = "FS-";
+
+    // Số đơn suy ra từ claimId: ghi lại một lượt đã ghi rồi sẽ bị bỏ qua thay vì tạo đơn trùng
+    public String orderNumber() {
+        return ORDER_NUMBER_PREFIX + claimId;
+    }
+
+    public FlashSaleClaim nextAttempt() {
+        return new FlashSaleClaim(claimId, userId, productItemId, quantity, claimedAt, addressId, attempts + 1);
+    }
+
+    // addressId do client gửi nên để cuối, có chứa ký tự phân cách cũng không làm lệch các trường khác
+    public String encode() {
+        return String.join(SEPARATOR, claimId, userId, productItemId, String.valueOf(quantity),
+                String.valueOf(claimedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()),
+                String.valueOf(attempts), addressId);
+    }
+
+    public static FlashSaleClaim decode(String value) {
+        String[] parts = value.split("\\" + SEPARATOR, 7);
+        if (parts.length != 7) {
+            throw new IllegalArgumentException("Malformed flash sale claim: " + value);
+        }
+        return new FlashSaleClaim(parts[0], parts[1], parts[2], Integer.parseInt(parts[3]),
+                LocalDateTime.ofInstant(Instant.ofEpochMilli(Long.parseLong(parts[4])), ZoneId.systemDefault()),
+                parts[6], Integer.parseInt(parts[5]));
+    }
+}
@@ -0,0 +1,310 @@
+package com.brand.artifact.service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.brand.artifact.constant.OrderStatus;
+import com.brand.artifact.entity.Address;
+import com.brand.artifact.entity.Order;
+import com.brand.artifact.entity.OrderItem;
+import com.brand.artifact.entity.ProductItem;
+import com.brand.artifact.event.StockChangedEvent;
+import com.brand.artifact.repository.AddressRepository;
+import com.brand.artifact.repository.OrderRepository;
+import com.brand.artifact.repository.ProductItemRepository;
+import com.brand.artifact.repository.UserRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Ghi các lượt mua flash sale thành Order/OrderItem theo lô, mỗi lô một transaction,
+ * nên MySQL chỉ nhận vài lệnh insert gộp thay vì một transaction cho mỗi người mua.
+ * Tồn kho đã được trừ lúc bắt đầu sale nên ở đây không update stock_quantity.
+ *
+ * Số đơn suy ra từ claimId: lô bị ghi lại sau lỗi sẽ bỏ qua các đơn đã có.
+ * Chỉ lượt mua không hợp lệ (địa chỉ không thuộc người mua, SKU đã bị xoá) mới được trả số lượng về bộ đếm,
+ * hoặc về database nếu sale đã kết thúc. Lỗi tạm thời khi ghi (database tạm ngừng, deadlock, timeout...)
+ * không huỷ lượt mua: các lượt đó được đưa lại vào hàng đợi và ghi lại sau với backoff tăng dần.
+ * Lượt mua tự nó lỗi khi ghi riêng (vi phạm ràng buộc...) thì chuyển sang dead-letter ngay,
+ * lỗi tạm thời quá max-attempts lần cũng vậy, và số lượng được trả lại: một lượt hỏng không chặn cả hàng đợi.
+ *
+ * Lượt mua chỉ được acknowledge sau khi đơn đã commit; lượt còn trong danh sách đang xử lý
+ * (node dừng giữa chừng, không đưa lại được hàng đợi) được recover ở lần flush đầu tiên và sau mỗi lần lỗi đó.
+ */
+@Slf4j
+@Component
+public class FlashSaleOrderWriter {
+
+    private final FlashSaleStockCounter stockCounter;
+    private final OrderRepository orderRepository;
+    private final ProductItemRepository productItemRepository;
+    private final AddressRepository addressRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int batchSize;
+    private final long initialBackoffMs;
+    private final long maxBackoffMs;
+    private final int maxAttempts;
+
+    // Chỉ đọc/ghi trong flush() (synchronized)
+    private long backoffMs;
+    private long retryAt;
+    private boolean recoverPending = true;
+
+    public FlashSaleOrderWriter(
+            FlashSaleStockCounter stockCounter,
+            OrderRepository orderRepository,
+            ProductItemRepository productItemRepository,
+            AddressRepository addressRepository,
+            UserRepository userRepository,
+            TransactionTemplate transactionTemplate,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${app.flash-sale.writer.batch-size:200}") int batchSize,
+            @Value("${app.flash-sale.writer.initial-backoff-ms:500}") long initialBackoffMs,
+            @Value("${app.flash-sale.writer.max-backoff-ms:30000}") long maxBackoffMs,
+            @Value("${app.flash-sale.writer.max-attempts:5}") int maxAttempts) {
+        this.stockCounter = stockCounter;
+        this.orderRepository = orderRepository;
+        this.productItemRepository = productItemRepository;
+        this.addressRepository = addressRepository;
+        this.userRepository = userRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.batchSize = Math.max(batchSize, 1);
+        this.initialBackoffMs = Math.max(initialBackoffMs, 1);
+        this.maxBackoffMs = Math.max(maxBackoffMs, this.initialBackoffMs);
+        this.maxAttempts = Math.max(maxAttempts, 1);
+    }
+
+    /**
+     * Ghi hết hàng đợi hiện có, trả về số đơn đã tạo
+     */
+    @Scheduled(fixedDelayString = "${app.flash-sale.writer.interval-ms:200}")
+    public synchronized int flush() {
+        if (System.currentTimeMillis() < retryAt) {
+            return 0;
+        }
+        if (recoverPending && !recover()) {
+            backOff();
+            return 0;
+        }
+        int written = 0;
+        while (true) {
+            List<FlashSaleClaim> batch = stockCounter.poll(batchSize);
+            if (batch.isEmpty()) {
+                break;
+            }
+            BatchOutcome outcome = writeBatch(batch);
+            written += outcome.written();
+            settle(batch, outcome);
+            if (!outcome.retry().isEmpty() || !outcome.failed().isEmpty()) {
+                backOff();
+                return written;
+            }
+            if (batch.size() < batchSize) {
+                break;
+            }
+        }
+        backoffMs = 0;
+        return written;
+    }
+
+    private BatchOutcome writeBatch(List<FlashSaleClaim> batch) {
+        List<FlashSaleClaim> rejected;
+        try {
+            rejected = transactionTemplate.execute(status -> write(batch));
+        } catch (RuntimeException e) {
+            if (isTransient(e)) {
+                // Database tạm thời lỗi: giữ nguyên cả lô để ghi lại sau, không thử từng lượt
+                // Lỗi của database chứ không phải của từng lượt nên không tính vào attempts
+                log.warn("Unable to write flash sale batch of {} claims, requeueing", batch.size(), e);
+                return new BatchOutcome(0, batch, List.of(), List.of());
+            }
+            // Một lượt lỗi không được chặn cả lô: ghi lại từng lượt trong transaction riêng
+            log.warn("Unable to write flash sale batch of {} claims, retrying one by one", batch.size(), e);
+            return writeOneByOne(batch);
+        }
+        return new BatchOutcome(batch.size() - rejected.size(), giveBack(rejected), List.of(), List.of());
+    }
+
+    private BatchOutcome writeOneByOne(List<FlashSaleClaim> batch) {
+        int written = 0;
+        List<FlashSaleClaim> retry = new ArrayList<>();
+        List<FlashSaleClaim> failed = new ArrayList<>();
+        List<FlashSaleClaim> dead = new ArrayList<>();
+        for (FlashSaleClaim claim : batch) {
+            try {
+                List<FlashSaleClaim> rejected = transactionTemplate.execute(status -> write(List.of(claim)));
+                if (rejected.isEmpty()) {
+                    written++;
+                } else {
+                    retry.addAll(giveBack(rejected));
+                }
+            } catch (RuntimeException e) {
+                if (isTransient(e) && claim.attempts() + 1 < maxAttempts) {
+                    // Người mua đã nhận số đơn: lỗi tạm thời không phải lý do huỷ lượt mua, giữ lại để ghi lại sau
+                    log.warn("Unable to write flash sale claim {} (attempt {}), requeueing", claim.claimId(),
+                            claim.attempts() + 1, e);
+                    failed.add(claim);
+                } else {
+                    log.error("Unable to write flash sale claim {} after {} attempts, moving it to the dead-letter list",
+                            claim.claimId(), claim.attempts() + 1, e);
+                    // Chưa trả được số lượng thì giữ lại hàng đợi, lần sau lại thử chuyển sang dead-letter
+                    if (giveBack(List.of(claim)).isEmpty()) {
+                        dead.add(claim);
+                    } else {
+                        retry.add(claim);
+                    }
+                }
+            }
+        }
+        return new BatchOutcome(written, retry, failed, dead);
+    }
+
+    // Trả về các lượt mua không ghi được đơn
+    private List<FlashSaleClaim> write(List<FlashSaleClaim> claims) {
+        Set<String> existing = new HashSet<>(orderRepository.findExistingOrderNumbers(
+                claims.stream().map(FlashSaleClaim::orderNumber).toList()));
+        Map<String, ProductItem> items = productItemRepository
+                .findAllById(claims.stream().map(FlashSaleClaim::productItemId).collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(ProductItem::getProductItemId, Function.identity()));
+        Map<String, Address> addresses = addressRepository
+                .findAllById(claims.stream().map(FlashSaleClaim::addressId).collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(Address::getAddressId, Function.identity()));
+
+        List<Order> orders = new ArrayList<>();
+        List<FlashSaleClaim> rejected = new ArrayList<>();
+        for (FlashSaleClaim claim : claims) {
+            if (existing.contains(claim.orderNumber())) {
+                continue;
+            }
+            ProductItem item = items.get(claim.productItemId());
+            Address address = addresses.get(claim.addressId());
+            if (item == null || address == null || !address.getUser().getUserId().equals(claim.userId())) {
+                rejected.add(claim);
+                continue;
+            }
+            BigDecimal subtotal = item.getPrice().multiply(BigDecimal.valueOf(claim.quantity()));
+            Order order = Order.builder()
+                    .orderNumber(claim.orderNumber())
+                    .orderDate(claim.claimedAt())
+                    .status(OrderStatus.PENDING)
+                    .subtotal(subtotal)
+                    .shippingFee(BigDecimal.ZERO)
+                    .total(subtotal)
+                    .shippingAddress(address)
+                    .user(userRepository.getReferenceById(claim.userId()))
+                    .build();
+            order.setItems(List.of(OrderItem.builder()
+                    .order(order)
+                    .productItem(item)
+                    .quantity(claim.quantity())
+                    .unitPrice(item.getPrice().doubleValue())
+                    .totalPrice(subtotal.doubleValue())
+                    .build()));
+            orders.add(order);
+        }
+        orderRepository.saveAll(orders);
+        return rejected;
+    }
+
+    // Chỉ dành cho lượt mua bị từ chối hẳn; trả về các lượt chưa trả được số lượng để thử lại sau
+    private List<FlashSaleClaim> giveBack(List<FlashSaleClaim> rejected) {
+        List<FlashSaleClaim> failed = new ArrayList<>();
+        for (FlashSaleClaim claim : rejected) {
+            try {
+                giveBack(claim);
+            } catch (RuntimeException e) {
+                log.warn("Unable to return units of rejected flash sale claim {}, requeueing", claim.claimId(), e);
+                failed.add(claim);
+            }
+        }
+        return failed;
+    }
+
+    private void giveBack(FlashSaleClaim claim) {
+        log.warn("Rejected flash sale claim {} for {}, returning {} units", claim.claimId(), claim.productItemId(),
+                claim.quantity());
+        if (stockCounter.release(claim.productItemId(), claim.quantity())) {
+            return;
+        }
+        // Sale đã kết thúc, trả thẳng về database
+        transactionTemplate.executeWithoutResult(status -> {
+            if (productItemRepository.incrementStock(claim.productItemId(), claim.quantity()) > 0) {
+                eventPublisher.publishEvent(StockChangedEvent.of(
+                        productItemRepository.findProductIdsByItemIds(List.of(claim.productItemId())),
+                        List.of(claim.productItemId())));
+            }
+        });
+    }
+
+    // Chuyển các lượt chưa xong đi trước, phần còn lại (đã commit hoặc đã trả số lượng) mới acknowledge
+    private void settle(List<FlashSaleClaim> batch, BatchOutcome outcome) {
+        Set<String> pending = new HashSet<>();
+        Stream.of(outcome.retry(), outcome.failed(), outcome.dead())
+                .forEach(claims -> claims.forEach(claim -> pending.add(claim.claimId())));
+        try {
+            stockCounter.requeue(outcome.retry(), false);
+            stockCounter.requeue(outcome.failed(), true);
+            stockCounter.deadLetter(outcome.dead());
+            stockCounter.acknowledge(batch.stream().filter(claim -> !pending.contains(claim.claimId())).toList());
+        } catch (RuntimeException e) {
+            // Các lượt vẫn nằm trong danh sách đang xử lý, lần flush sau đưa lại hàng đợi
+            log.error("Unable to settle flash sale claims {}", batch.stream().map(FlashSaleClaim::claimId).toList(), e);
+            recoverPending = true;
+        }
+    }
+
+    // Chỉ gọi trong flush(): không có lượt nào của node đang được ghi nên mọi lượt còn trong danh sách đều bị bỏ dở
+    private boolean recover() {
+        try {
+            long recovered = stockCounter.recover();
+            if (recovered > 0) {
+                log.warn("Requeued {} flash sale claims left in processing", recovered);
+            }
+            recoverPending = false;
+            return true;
+        } catch (RuntimeException e) {
+            log.error("Unable to recover flash sale claims left in processing", e);
+            return false;
+        }
+    }
+
+    // Lùi thời điểm ghi kế tiếp, gấp đôi sau mỗi lần lỗi liên tiếp
+    private void backOff() {
+        backoffMs = backoffMs == 0 ? initialBackoffMs : Math.min(backoffMs * 2, maxBackoffMs);
+        retryAt = System.currentTimeMillis() + backoffMs;
+    }
+
+    private static boolean isTransient(Throwable e) {
+        return e instanceof TransientDataAccessException
+                || e instanceof RecoverableDataAccessException
+                || e instanceof DataAccessResourceFailureException
+                || e instanceof TransactionException;
+    }
+
+    // retry: đưa lại hàng đợi nguyên trạng, failed: đưa lại và tính một lần thử, dead: đã trả số lượng
+    private record BatchOutcome(int written, List<FlashSaleClaim> retry, List<FlashSaleClaim> failed,
+            List<FlashSaleClaim> dead) {
+    }
+}
@@ -0,0 +1,24 @@
+package com.brand.artifact.service;
+
+import com.brand.artifact.dto.response.FlashSaleClaimResponse;
+import com.brand.artifact.dto.response.FlashSaleStockResponse;
+
+public interface FlashSaleService {
+
+    /**
+     * Chuyển units (null: toàn bộ tồn kho) từ database sang bộ đếm flash sale
+     */
+    FlashSaleStockResponse startSale(String productItemId, Integer units);
+
+    /**
+     * Kết thúc flash sale, số lượng chưa bán được trả lại database
+     */
+    FlashSaleStockResponse endSale(String productItemId);
+
+    FlashSaleStockResponse getStock(String productItemId);
+
+    /**
+     * Mua trên bộ đếm, không chạm database; đơn hàng được ghi sau bởi FlashSaleOrderWriter
+     */
+    FlashSaleClaimResponse claim(String userId, String productItemId, int quantity, String addressId);
+}
@@ -0,0 +1,148 @@
+package com.brand.artifact.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.brand.artifact.dto.response.FlashSaleClaimResponse;
+import com.brand.artifact.dto.response.FlashSaleStockResponse;
+import com.brand.artifact.event.StockChangedEvent;
+import com.brand.artifact.exception.ErrorCode;
+import com.brand.artifact.exception.WebServerException;
+import com.brand.artifact.repository.ProductItemRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Flash sale cho SKU nóng: khi bắt đầu, tồn kho được chuyển hẳn từ database sang bộ đếm
+ * (Redis hoặc local) nên lượt mua chỉ là một thao tác nguyên tử trên bộ đếm, không lock dòng nào trong MySQL.
+ * Trong lúc sale, stock_quantity của SKU chỉ còn phần không đưa vào sale, checkout thường
+ * (StockReservationService) không thể bán trùng số lượng đang nằm trong bộ đếm.
+ * Khi kết thúc, số chưa bán được trả lại database.
+ */
+@Slf4j
+@Service
+public class FlashSaleServiceImpl implements FlashSaleService {
+
+    private final FlashSaleStockCounter stockCounter;
+    private final ProductItemRepository productItemRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int maxQuantityPerClaim;
+
+    public FlashSaleServiceImpl(
+            FlashSaleStockCounter stockCounter,
+            ProductItemRepository productItemRepository,
+            TransactionTemplate transactionTemplate,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${app.flash-sale.max-quantity-per-claim:2}") int maxQuantityPerClaim) {
+        this.stockCounter = stockCounter;
+        this.productItemRepository = productItemRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.maxQuantityPerClaim = Math.max(maxQuantityPerClaim, 1);
+    }
+
+    @Override
+    public FlashSaleStockResponse startSale(String productItemId, Integer units) {
+        Integer moved = transactionTemplate.execute(status -> {
+            int stock = productItemRepository.findStockQuantity(productItemId)
+                    .orElseThrow(() -> new WebServerException(ErrorCode.PRODUCT_NOT_FOUND));
+            int requested = units == null ? stock : units;
+            if (requested <= 0) {
+                throw new WebServerException(units == null ? ErrorCode.INSUFFICIENT_STOCK : ErrorCode.INVALID_QUANTITY);
+            }
+            if (productItemRepository.decrementStock(productItemId, requested) == 0) {
+                throw new WebServerException(ErrorCode.INSUFFICIENT_STOCK);
+            }
+            return requested;
+        });
+
+        // Database đã trừ rồi mới nạp bộ đếm: lỗi giữa chừng chỉ làm thiếu hàng để bán, không bán quá
+        try {
+            stockCounter.load(productItemId, moved);
+        } catch (RuntimeException e) {
+            restock(productItemId, moved);
+            throw e;
+        }
+        publishStockChanged(productItemId);
+        log.info("Flash sale started for {} with {} units", productItemId, moved);
+        return getStock(productItemId);
+    }
+
+    @Override
+    public FlashSaleStockResponse endSale(String productItemId) {
+        long remaining = stockCounter.drain(productItemId);
+        if (remaining == FlashSaleStockCounter.NOT_ACTIVE) {
+            throw new WebServerException(ErrorCode.FLASH_SALE_NOT_ACTIVE);
+        }
+        if (remaining > 0) {
+            try {
+                restock(productItemId, (int) remaining);
+            } catch (RuntimeException e) {
+                // Không mất hàng: mở lại bộ đếm để kết thúc lại sau
+                stockCounter.load(productItemId, (int) remaining);
+                throw e;
+            }
+        }
+        publishStockChanged(productItemId);
+        log.info("Flash sale ended for {}, {} unsold units returned to stock", productItemId, remaining);
+        return FlashSaleStockResponse.builder()
+                .productItemId(productItemId)
+                .active(false)
+                .remaining(remaining)
+                .build();
+    }
+
+    @Override
+    public FlashSaleStockResponse getStock(String productItemId) {
+        long remaining = stockCounter.remaining(productItemId);
+        boolean active = remaining != FlashSaleStockCounter.NOT_ACTIVE;
+        return FlashSaleStockResponse.builder()
+                .productItemId(productItemId)
+                .active(active)
+                .remaining(active ? remaining : 0)
+                .build();
+    }
+
+    @Override
+    public FlashSaleClaimResponse claim(String userId, String productItemId, int quantity, String addressId) {
+        if (quantity <= 0) {
+            throw new WebServerException(ErrorCode.INVALID_QUANTITY);
+        }
+        if (quantity > maxQuantityPerClaim) {
+            throw new WebServerException(ErrorCode.FLASH_SALE_LIMIT_EXCEEDED);
+        }
+        FlashSaleClaim claim = new FlashSaleClaim(UUID.randomUUID().toString(), userId, productItemId, quantity,
+                LocalDateTime.now(), addressId, 0);
+        long remaining = stockCounter.claim(claim);
+        if (remaining == FlashSaleStockCounter.NOT_ACTIVE) {
+            throw new WebServerException(ErrorCode.FLASH_SALE_NOT_ACTIVE);
+        }
+        if (remaining < 0) {
+            throw new WebServerException(ErrorCode.INSUFFICIENT_STOCK);
+        }
+        return FlashSaleClaimResponse.builder()
+                .claimId(claim.claimId())
+                .orderNumber(claim.orderNumber())
+                .productItemId(productItemId)
+                .quantity(quantity)
+                .remaining(remaining)
+                .build();
+    }
+
+    private void restock(String productItemId, int units) {
+        transactionTemplate.executeWithoutResult(
+                status -> productItemRepository.incrementStock(productItemId, units));
+    }
+
+    private void publishStockChanged(String productItemId) {
+        eventPublisher.publishEvent(StockChangedEvent.of(
+                productItemRepository.findProductIdsByItemIds(List.of(productItemId)), List.of(productItemId)));
+    }
+}
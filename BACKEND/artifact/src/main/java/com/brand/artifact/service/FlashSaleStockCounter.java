@@ -0,0 +1,67 @@
+package com.brand.artifact.service;
+
+import java.util.List;
+
+/**
+ * Bộ đếm tồn kho flash sale ngoài database, kèm hàng đợi các lượt mua đã thắng.
+ * Trừ kho và xếp hàng là một thao tác nguyên tử: không có lượt thắng nào không được ghi đơn.
+ *
+ * Lượt mua lấy ra khỏi hàng đợi nằm trong danh sách đang xử lý của node cho tới khi được acknowledge,
+ * đưa lại hàng đợi hoặc chuyển sang dead-letter: node dừng giữa chừng thì recover() đưa chúng lại hàng đợi.
+ */
+public interface FlashSaleStockCounter {
+
+    long NOT_ACTIVE = -2;
+    long SOLD_OUT = -1;
+
+    /**
+     * Nạp thêm số lượng cho SKU, bật flash sale nếu chưa bật
+     */
+    void load(String productItemId, int units);
+
+    /**
+     * Trừ số lượng và xếp lượt mua vào hàng đợi; trả về số còn lại, SOLD_OUT hoặc NOT_ACTIVE
+     */
+    long claim(FlashSaleClaim claim);
+
+    /**
+     * Trả số lượng của lượt mua không ghi được đơn; false nếu flash sale đã kết thúc
+     */
+    boolean release(String productItemId, int units);
+
+    /**
+     * Kết thúc flash sale, trả về số lượng chưa bán (NOT_ACTIVE nếu chưa bật)
+     */
+    long drain(String productItemId);
+
+    /**
+     * Số lượng còn lại, NOT_ACTIVE nếu SKU không trong flash sale
+     */
+    long remaining(String productItemId);
+
+    /**
+     * Chuyển tối đa max lượt mua từ hàng đợi sang danh sách đang xử lý của node
+     */
+    List<FlashSaleClaim> poll(int max);
+
+    /**
+     * Bỏ các lượt mua đã xử lý xong (đơn đã commit hoặc đã trả số lượng) khỏi danh sách đang xử lý
+     */
+    void acknowledge(List<FlashSaleClaim> claims);
+
+    /**
+     * Đưa các lượt mua đang xử lý trở lại hàng đợi; countAttempt tăng attempts của từng lượt
+     */
+    void requeue(List<FlashSaleClaim> claims, boolean countAttempt);
+
+    /**
+     * Chuyển các lượt mua không thể ghi đơn sang dead-letter để đối soát tay
+     */
+    void deadLetter(List<FlashSaleClaim> claims);
+
+    /**
+     * Đưa các lượt mua còn nằm trong danh sách đang xử lý (node dừng giữa chừng) lại đầu hàng đợi,
+     * trả về số lượt đã đưa lại
+     */
+    long recover();
+}
@@ -0,0 +1,9 @@
+package com.brand.artifact.service;
+
+import com.brand.artifact.dto.response.HomeResponse;
+import com.brand.artifact.dto.response.Versioned;
+
+public interface HomeService {
+    Versioned<HomeResponse> getHome();
+    void refresh();
+}
@@ -0,0 +1,231 @@
+package com.brand.artifact.service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.brand.artifact.dto.projection.CategoryView;
+import com.brand.artifact.dto.projection.ProductRating;
+import com.brand.artifact.dto.projection.ProductSummary;
+import com.brand.artifact.dto.response.HomeResponse;
+import com.brand.artifact.dto.response.RatedProduct;
+import com.brand.artifact.dto.response.Versioned;
+import com.brand.artifact.event.CatalogChangedEvent;
+import com.brand.artifact.repository.ProductRepository;
+import com.brand.artifact.repository.ReviewRepository;
+import com.brand.artifact.utils.ETags;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Trang chủ được build sẵn thành một snapshot trong bộ nhớ và thay thế nguyên khối, request không chạm database.
+ *
+ * Các mục được load song song, mỗi mục một virtual thread; chỉ một lần build chạy tại một thời điểm.
+ * Mỗi mục chạy trong transaction read-only có timeout, Spring gắn thời gian còn lại vào từng query
+ * (jakarta.persistence.query.timeout) nên query treo bị database huỷ thay vì giữ connection.
+ * Catalog thay đổi chỉ đánh dấu snapshot cũ, lần kiểm tra kế tiếp mới build lại
+ * nên nhiều thay đổi liên tiếp chỉ tốn một lần build. Thay đổi trên node khác được bắt ở lần build định kỳ.
+ */
+@Slf4j
+@Service
+public class HomeServiceImpl implements HomeService {
+
+    private final ProductRepository productRepository;
+    private final ReviewRepository reviewRepository;
+    private final CategoryTreeService categoryTreeService;
+    private final int sectionSize;
+    private final long minReviews;
+    private final long loadTimeoutMs;
+    private final TransactionTemplate sectionTransaction;
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    // Catalog đã thay đổi kể từ lần build gần nhất
+    private final AtomicBoolean dirty = new AtomicBoolean();
+
+    private volatile Versioned<HomeResponse> snapshot;
+
+    public HomeServiceImpl(
+            ProductRepository productRepository,
+            ReviewRepository reviewRepository,
+            CategoryTreeService categoryTreeService,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.home.section-size:12}") int sectionSize,
+            @Value("${app.home.top-rated.min-reviews:3}") long minReviews,
+            @Value("${app.home.load-timeout-ms:10000}") long loadTimeoutMs) {
+        this.productRepository = productRepository;
+        this.reviewRepository = reviewRepository;
+        this.categoryTreeService = categoryTreeService;
+        this.sectionSize = sectionSize;
+        this.minReviews = minReviews;
+        this.loadTimeoutMs = loadTimeoutMs;
+        this.sectionTransaction = new TransactionTemplate(transactionManager);
+        this.sectionTransaction.setReadOnly(true);
+        // Timeout của transaction tính theo giây, làm tròn lên để không ngắn hơn load-timeout-ms
+        this.sectionTransaction.setTimeout((int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(loadTimeoutMs + 999)));
+    }
+
+    @Override
+    public Versioned<HomeResponse> getHome() {
+        Versioned<HomeResponse> current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        // Chưa có snapshot (trước ApplicationReadyEvent): một request build, các request khác chờ rồi dùng chung
+        refreshLock.lock();
+        try {
+            if (snapshot == null) {
+                build();
+            }
+        } finally {
+            refreshLock.unlock();
+        }
+        return snapshot;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        refresh();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        dirty.set(true);
+    }
+
+    @Scheduled(fixedDelayString = "${app.home.dirty-check-interval-ms:5000}")
+    public void refreshIfChanged() {
+        if (dirty.get()) {
+            refresh();
+        }
+    }
+
+    @Override
+    @Scheduled(
+            fixedDelayString = "${app.home.refresh-interval-ms:60000}",
+            initialDelayString = "${app.home.refresh-interval-ms:60000}")
+    public void refresh() {
+        if (!refreshLock.tryLock()) {
+            return;
+        }
+        try {
+            build();
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    // Gọi khi đang giữ refreshLock
+    private void build() {
+        long startedAt = System.currentTimeMillis();
+        // Xoá cờ trước khi load: thay đổi xảy ra trong lúc load sẽ đánh dấu lại
+        dirty.set(false);
+        try {
+            HomeResponse home = load();
+            String etag = ETags.weak(home.getFeaturedProducts(), home.getCategories(), home.getNewArrivals(),
+                    home.getTopRated());
+            Versioned<HomeResponse> previous = snapshot;
+            // Nội dung không đổi thì giữ snapshot cũ để Last-Modified không nhảy
+            if (previous == null || !etag.equals(previous.etag())) {
+                snapshot = new Versioned<>(home, etag, home.getGeneratedAt().atZone(ZoneId.systemDefault()).toInstant());
+            }
+            log.debug("Rebuilt home page snapshot in {} ms", System.currentTimeMillis() - startedAt);
+        } catch (Exception e) {
+            log.warn("Unable to rebuild home page snapshot, keeping the previous one", e);
+            dirty.set(true);
+            if (snapshot == null) {
+                // Không để mọi request đều thử lại database, trả trang rỗng tới lần build sau.
+                // Không có ETag / Last-Modified: controller trả no-store để trang rỗng không bị cache
+                snapshot = new Versioned<>(emptyHome(), null, null);
+            }
+        }
+    }
+
+    /**
+     * Các mục được load song song; mục nào lỗi hoặc quá hạn thì huỷ các mục còn lại.
+     * Executor được đóng trước khi trả về nên không có thread nào sống lâu hơn lần build.
+     */
+    private HomeResponse load() throws InterruptedException, ExecutionException, TimeoutException {
+        // Category đã có sẵn trong snapshot cây, không cần query
+        List<CategoryView> categories = categoryTreeService.getTree().all().stream()
+                .filter(category -> category.parentCategoryId() == null)
+                .toList();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<List<ProductSummary>> featured = executor.submit(() -> sectionTransaction.execute(
+                    status -> productRepository.findFeaturedSummaries(Limit.of(sectionSize))));
+            Future<List<ProductSummary>> newArrivals = executor.submit(() -> sectionTransaction.execute(
+                    status -> productRepository.findActiveSummaries(Limit.of(sectionSize))));
+            Future<List<RatedProduct>> topRated = executor.submit(
+                    () -> sectionTransaction.execute(status -> loadTopRated()));
+
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(loadTimeoutMs);
+            try {
+                return HomeResponse.builder()
+                        .featuredProducts(List.copyOf(await(featured, deadline)))
+                        .categories(categories)
+                        .newArrivals(List.copyOf(await(newArrivals, deadline)))
+                        .topRated(await(topRated, deadline))
+                        .generatedAt(LocalDateTime.now())
+                        .build();
+            } catch (InterruptedException | ExecutionException | TimeoutException e) {
+                executor.shutdownNow();
+                throw e;
+            }
+        }
+    }
+
+    private static <T> T await(Future<T> future, long deadline)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        return future.get(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+    }
+
+    private List<RatedProduct> loadTopRated() {
+        List<ProductRating> ratings = reviewRepository.findTopRatedProducts(minReviews, Limit.of(sectionSize));
+        if (ratings.isEmpty()) {
+            return List.of();
+        }
+        Map<String, ProductSummary> summaries = productRepository
+                .findActiveSummariesByIds(ratings.stream().map(ProductRating::productId).toList())
+                .stream()
+                .collect(Collectors.toMap(ProductSummary::productId, Function.identity()));
+        return ratings.stream()
+                .map(rating -> {
+                    ProductSummary summary = summaries.get(rating.productId());
+                    return summary == null ? null
+                            : new RatedProduct(summary, rating.averageRating(), rating.reviewCount());
+                })
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    private static HomeResponse emptyHome() {
+        return HomeResponse.builder()
+                .featuredProducts(List.of())
+                .categories(List.of())
+                .newArrivals(List.of())
+                .topRated(List.of())
+                .generatedAt(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,131 @@
+package com.brand.artifact.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bộ đếm trong bộ nhớ cho môi trường một node (dev, test): chỉ đúng khi mọi lượt mua đi qua node này,
+ * hàng đợi mất khi node dừng nên không cần danh sách đang xử lý, acknowledge và recover không làm gì.
+ *
+ * Bộ đếm bị đóng bằng giá trị âm trước khi bỏ khỏi map: lượt mua đang giữ tham chiếu cũ
+ * sẽ thấy flash sale đã kết thúc chứ không trừ vào số lượng đã trả về database.
+ */
+@Component
+@ConditionalOnProperty(name = "app.flash-sale.counter", havingValue = "local")
+public class LocalFlashSaleStockCounter implements FlashSaleStockCounter {
+
+    private final Map<String, AtomicLong> stocks = new ConcurrentHashMap<>();
+    private final Queue<FlashSaleClaim> queue = new ConcurrentLinkedQueue<>();
+    private final Queue<FlashSaleClaim> deadLetters = new ConcurrentLinkedQueue<>();
+
+    @Override
+    public void load(String productItemId, int units) {
+        while (true) {
+            AtomicLong stock = stocks.computeIfAbsent(productItemId, id -> new AtomicLong());
+            long current = stock.get();
+            if (current >= 0 && stock.compareAndSet(current, current + units)) {
+                return;
+            }
+            if (current < 0) {
+                // Bộ đếm cũ vừa bị đóng, tạo bộ đếm mới
+                stocks.remove(productItemId, stock);
+            }
+        }
+    }
+
+    @Override
+    public long claim(FlashSaleClaim claim) {
+        AtomicLong stock = stocks.get(claim.productItemId());
+        if (stock == null) {
+            return NOT_ACTIVE;
+        }
+        while (true) {
+            long current = stock.get();
+            if (current < 0) {
+                return NOT_ACTIVE;
+            }
+            if (current < claim.quantity()) {
+                return SOLD_OUT;
+            }
+            if (stock.compareAndSet(current, current - claim.quantity())) {
+                queue.add(claim);
+                return current - claim.quantity();
+            }
+        }
+    }
+
+    @Override
+    public boolean release(String productItemId, int units) {
+        AtomicLong stock = stocks.get(productItemId);
+        if (stock == null) {
+            return false;
+        }
+        while (true) {
+            long current = stock.get();
+            if (current < 0) {
+                return false;
+            }
+            if (stock.compareAndSet(current, current + units)) {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public long drain(String productItemId) {
+        AtomicLong stock = stocks.remove(productItemId);
+        if (stock == null) {
+            return NOT_ACTIVE;
+        }
+        long remaining = stock.getAndSet(NOT_ACTIVE);
+        return remaining < 0 ? NOT_ACTIVE : remaining;
+    }
+
+    @Override
+    public long remaining(String productItemId) {
+        AtomicLong stock = stocks.get(productItemId);
+        long current = stock == null ? NOT_ACTIVE : stock.get();
+        return current < 0 ? NOT_ACTIVE : current;
+    }
+
+    @Override
+    public List<FlashSaleClaim> poll(int max) {
+        List<FlashSaleClaim> claims = new ArrayList<>();
+        FlashSaleClaim claim;
+        while (claims.size() < max && (claim = queue.poll()) != null) {
+            claims.add(claim);
+        }
+        return claims;
+    }
+
+    @Override
+    public void acknowledge(List<FlashSaleClaim> claims) {
+    }
+
+    @Override
+    public void requeue(List<FlashSaleClaim> claims, boolean countAttempt) {
+        claims.forEach(claim -> queue.add(countAttempt ? claim.nextAttempt() : claim));
+    }
+
+    @Override
+    public void deadLetter(List<FlashSaleClaim> claims) {
+        deadLetters.addAll(claims);
+    }
+
+    @Override
+    public long recover() {
+        return 0;
+    }
+
+    List<FlashSaleClaim> deadLetters() {
+        return List.copyOf(deadLetters);
+    }
+}
@@ -0,0 +1,19 @@
+package com.brand.artifact.service;
+
+import java.util.List;
+
+import com.brand.artifact.dto.projection.CategoryView;
+import com.brand.artifact.dto.projection.ProductSummary;
+import com.brand.artifact.dto.response.CategoryDetailResponse;
+import com.brand.artifact.dto.response.CategoryTreeNode;
+import com.brand.artifact.dto.response.CursorPage;
+import com.brand.artifact.dto.response.ProductDetailResponse;
+import com.brand.artifact.dto.response.Versioned;
+
+public interface ProductCatalogService {
+    CursorPage<ProductSummary> listProducts(String categoryId, String cursor, Integer size);
+    Versioned<ProductDetailResponse> getProduct(String productId);
+    Versioned<List<CategoryView>> listCategories();
+    Versioned<List<CategoryTreeNode>> getCategoryTree();
+    Versioned<CategoryDetailResponse> getCategoryBySlug(String slug);
+}
@@ -0,0 +1,237 @@
+package com.brand.artifact.service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.brand.artifact.constant.Size;
+import com.brand.artifact.dto.projection.CategoryView;
+import com.brand.artifact.dto.projection.ProductDetailView;
+import com.brand.artifact.dto.projection.ProductImageView;
+import com.brand.artifact.dto.projection.ProductItemView;
+import com.brand.artifact.dto.projection.ProductSummary;
+import com.brand.artifact.dto.response.CategoryDetailResponse;
+import com.brand.artifact.dto.response.CategoryTreeNode;
+import com.brand.artifact.dto.response.CursorPage;
+import com.brand.artifact.dto.response.ProductDetailResponse;
+import com.brand.artifact.dto.response.VariantCell;
+import com.brand.artifact.dto.response.VariantMatrix;
+import com.brand.artifact.dto.response.Versioned;
+import com.brand.artifact.event.CatalogChangedEvent;
+import com.brand.artifact.event.RemoteCatalogChangedEvent;
+import com.brand.artifact.event.StockChangedEvent;
+import com.brand.artifact.exception.ErrorCode;
+import com.brand.artifact.exception.WebServerException;
+import com.brand.artifact.repository.ProductRepository;
+import com.brand.artifact.utils.CategoryTree;
+import com.brand.artifact.utils.ETags;
+import com.brand.artifact.utils.KeysetCursor;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Đọc catalog cho trang public: chỉ dùng projection, danh sách phân trang theo cursor,
+ * chi tiết sản phẩm được cache theo productId
+ */
+@Service
+@Transactional(readOnly = true)
+public class ProductCatalogServiceImpl implements ProductCatalogService {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryTreeService categoryTreeService;
+
+    @Value("${app.catalog.page-size.default:20}")
+    private int defaultPageSize;
+
+    @Value("${app.catalog.page-size.max:100}")
+    private int maxPageSize;
+
+    @Value("${app.catalog.product-detail-cache.max-size:10000}")
+    private long productDetailCacheMaxSize;
+
+    @Value("${app.catalog.product-detail-cache.ttl-seconds:60}")
+    private long productDetailCacheTtlSeconds;
+
+    // productId -> chi tiết sản phẩm đã build sẵn, kèm ETag
+    private Cache<String, Versioned<ProductDetailResponse>> productDetailCache;
+
+    @PostConstruct
+    void init() {
+        productDetailCache = Caffeine.newBuilder()
+                .maximumSize(productDetailCacheMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(productDetailCacheTtlSeconds))
+                .build();
+    }
+
+    @Override
+    public CursorPage<ProductSummary> listProducts(String categoryId, String cursor, Integer size) {
+        int pageSize = size == null ? defaultPageSize : Math.min(Math.max(size, 1), maxPageSize);
+        // Lấy dư một dòng để biết còn trang sau hay không (thay cho COUNT)
+        Limit limit = Limit.of(pageSize + 1);
+        KeysetCursor after = (cursor == null || cursor.isBlank()) ? null : KeysetCursor.decode(cursor);
+        // Lọc theo category gồm cả sản phẩm của mọi category con (join closure table)
+        boolean bySubtree = categoryId != null && !categoryId.isBlank();
+        if (bySubtree && !categoryTreeService.getTree().contains(categoryId)) {
+            throw new WebServerException(ErrorCode.CATEGORY_NOT_FOUND);
+        }
+
+        List<ProductSummary> rows;
+        if (after == null) {
+            rows = bySubtree
+                    ? productRepository.findActiveSummariesInSubtree(categoryId, limit)
+                    : productRepository.findActiveSummaries(limit);
+        } else {
+            rows = bySubtree
+                    ? productRepository.findActiveSummariesInSubtreeAfter(categoryId, after.createdAt(), after.id(), limit)
+                    : productRepository.findActiveSummariesAfter(after.createdAt(), after.id(), limit);
+        }
+
+        boolean hasNext = rows.size() > pageSize;
+        List<ProductSummary> items = hasNext ? rows.subList(0, pageSize) : rows;
+        String nextCursor = null;
+        if (hasNext) {
+            ProductSummary last = items.get(items.size() - 1);
+            nextCursor = new KeysetCursor(last.createdAt(), last.productId()).encode();
+        }
+
+        return CursorPage.<ProductSummary>builder()
+                .items(List.copyOf(items))
+                .size(items.size())
+                .hasNext(hasNext)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    @Override
+    public Versioned<ProductDetailResponse> getProduct(String productId) {
+        return productDetailCache.get(productId, this::loadProduct);
+    }
+
+    // Số query cố định: sản phẩm + category, ảnh, variant (không lazy load)
+    private Versioned<ProductDetailResponse> loadProduct(String productId) {
+        ProductDetailView detail = productRepository.findActiveDetailView(productId)
+                .orElseThrow(() -> new WebServerException(ErrorCode.PRODUCT_NOT_FOUND));
+        List<ProductImageView> images = productRepository.findImageViews(productId);
+        List<ProductItemView> items = productRepository.findItemViews(productId);
+
+        ProductDetailResponse response = ProductDetailResponse.builder()
+                .productId(detail.productId())
+                .productName(detail.productName())
+                .description(detail.description())
+                .categoryId(detail.categoryId())
+                .categoryName(detail.categoryName())
+                .isFeatured(detail.isFeatured())
+                .minPrice(items.stream().map(ProductItemView::price).filter(Objects::nonNull)
+                        .min(BigDecimal::compareTo).orElse(null))
+                .createdAt(detail.createdAt())
+                .updatedAt(detail.updatedAt())
+                .primaryImageUrl(images.stream().filter(image -> Boolean.TRUE.equals(image.isPrimary()))
+                        .findFirst().or(() -> images.stream().findFirst())
+                        .map(ProductImageView::imageUrl).orElse(null))
+                .images(List.copyOf(images))
+                .variants(toVariantMatrix(items))
+                .build();
+        // ETag theo nội dung các projection, giống nhau trên mọi node. Không có Last-Modified:
+        // giá/tồn kho của variant không làm đổi updatedAt của sản phẩm, còn thời điểm build thì mỗi node một khác
+        return new Versioned<>(response, ETags.weak(detail, images, items), null);
+    }
+
+    // Size theo thứ tự enum, variant không có size (dữ liệu cũ) nằm ở hàng null cuối cùng;
+    // màu theo thứ tự xuất hiện (item đã được sắp theo giá)
+    static VariantMatrix toVariantMatrix(List<ProductItemView> items) {
+        List<Size> sizes = items.stream().map(ProductItemView::size)
+                .distinct().sorted(Comparator.nullsLast(Comparator.naturalOrder())).toList();
+        List<String> colors = items.stream().map(item -> item.color() == null ? "" : item.color())
+                .distinct().toList();
+
+        VariantCell[][] cells = new VariantCell[sizes.size()][colors.size()];
+        for (ProductItemView item : items) {
+            int row = sizes.indexOf(item.size());
+            int column = colors.indexOf(item.color() == null ? "" : item.color());
+            // Trùng size + màu thì giữ item rẻ nhất
+            if (cells[row][column] == null) {
+                cells[row][column] = new VariantCell(item.productItemId(), item.sku(), item.price(),
+                        item.stockQuantity());
+            }
+        }
+        return VariantMatrix.builder()
+                .sizes(sizes)
+                .colors(colors)
+                .cells(Arrays.stream(cells).map(Arrays::asList).map(Collections::unmodifiableList).toList())
+                .build();
+    }
+
+    /**
+     * Sản phẩm thay đổi thì bỏ entry của nó, category thay đổi (đổi tên) thì bỏ toàn bộ.
+     * Node khác nhận thay đổi qua pub/sub của second-level cache / cây category (onRemoteCatalogChanged).
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.productId() != null) {
+            productDetailCache.invalidate(event.productId());
+        }
+        if (event.categoryId() != null) {
+            productDetailCache.invalidateAll();
+        }
+    }
+
+    // Chi tiết sản phẩm hiển thị tồn kho của từng variant; cả sự kiện từ node khác
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void onStockChanged(StockChangedEvent event) {
+        productDetailCache.invalidateAll(event.productIds());
+    }
+
+    @EventListener
+    public void onRemoteCatalogChanged(RemoteCatalogChangedEvent event) {
+        if (event.productId() != null) {
+            productDetailCache.invalidate(event.productId());
+        } else {
+            productDetailCache.invalidateAll();
+        }
+    }
+
+    @Override
+    public Versioned<List<CategoryView>> listCategories() {
+        CategoryTree tree = categoryTreeService.getTree();
+        return new Versioned<>(tree.all(), tree.etag(), tree.builtAt());
+    }
+
+    @Override
+    public Versioned<List<CategoryTreeNode>> getCategoryTree() {
+        CategoryTree tree = categoryTreeService.getTree();
+        return new Versioned<>(tree.roots(), tree.etag(), tree.builtAt());
+    }
+
+    // ETag lấy theo cả cây: breadcrumbs đổi khi category cha đổi
+    @Override
+    public Versioned<CategoryDetailResponse> getCategoryBySlug(String slug) {
+        CategoryTree tree = categoryTreeService.getTree();
+        String categoryId = tree.resolveSlug(slug)
+                .orElseThrow(() -> new WebServerException(ErrorCode.CATEGORY_NOT_FOUND));
+        CategoryDetailResponse response = CategoryDetailResponse.builder()
+                .category(tree.node(categoryId).orElseThrow())
+                .breadcrumbs(tree.breadcrumbs(categoryId))
+                .build();
+        return new Versioned<>(response, tree.etag(), tree.builtAt());
+    }
+}
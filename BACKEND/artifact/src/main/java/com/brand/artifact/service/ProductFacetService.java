@@ -0,0 +1,12 @@
+package com.brand.artifact.service;
+
+import com.brand.artifact.dto.request.ProductFacetRequest;
+import com.brand.artifact.dto.response.ProductFacetResponse;
+
+public interface ProductFacetService {
+    ProductFacetResponse filter(ProductFacetRequest request);
+    void reindexProduct(String productId);
+    void rebuild();
+    // Đổi mỗi khi index hoặc cây category thay đổi, dùng làm ETag trước khi lọc
+    String version();
+}
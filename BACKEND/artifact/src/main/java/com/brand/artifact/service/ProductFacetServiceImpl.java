@@ -0,0 +1,247 @@
+package com.brand.artifact.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.brand.artifact.constant.Size;
+import com.brand.artifact.dto.projection.CategoryView;
+import com.brand.artifact.dto.projection.ProductFacetRow;
+import com.brand.artifact.dto.request.ProductFacetRequest;
+import com.brand.artifact.dto.response.FacetCount;
+import com.brand.artifact.dto.response.ProductFacetResponse;
+import com.brand.artifact.event.CatalogChangedEvent;
+import com.brand.artifact.event.StockChangedEvent;
+import com.brand.artifact.exception.ErrorCode;
+import com.brand.artifact.exception.WebServerException;
+import com.brand.artifact.repository.ProductRepository;
+import com.brand.artifact.utils.CategoryTree;
+import com.brand.artifact.utils.FacetIndex;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Lọc sản phẩm theo size, màu, khoảng giá, category và tình trạng còn hàng bằng bitmap trong bộ nhớ.
+ * Cách đồng bộ giống ProductSearchServiceImpl: build khi khởi động, cập nhật từng sản phẩm
+ * khi catalog thay đổi, build lại định kỳ và áp dụng lại các sản phẩm thay đổi trong lúc build.
+ * Tồn kho đổi liên tục khi đặt hàng nên được gom lại và cập nhật bất đồng bộ, bộ lọc còn hàng có thể trễ một chút.
+ */
+@Slf4j
+@Service
+public class ProductFacetServiceImpl implements ProductFacetService {
+
+    private final ProductRepository productRepository;
+    private final CategoryTreeService categoryTreeService;
+    private final long[] priceBounds;
+    private final int batchSize;
+    private final int defaultLimit;
+    private final int maxLimit;
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private final ExecutorService reindexExecutor = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("facet-reindex").daemon().factory());
+    // Sản phẩm đổi tồn kho chưa cập nhật vào index; chỉ một lượt cập nhật chờ chạy tại một thời điểm
+    private final Set<String> pendingStockChanges = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean stockDrainScheduled = new AtomicBoolean();
+
+    // Index nằm riêng trên từng node nên version gồm id của node và số lần index đổi
+    private final String nodeId = UUID.randomUUID().toString();
+    private final AtomicLong modifications = new AtomicLong();
+
+    private volatile FacetIndex index;
+    // Id sản phẩm thay đổi trong lúc build lại, null khi không build
+    private volatile Set<String> changedDuringRebuild;
+
+    public ProductFacetServiceImpl(
+            ProductRepository productRepository,
+            CategoryTreeService categoryTreeService,
+            @Value("${app.catalog.facets.price-bands:200000,500000,1000000,2000000}") long[] priceBounds,
+            @Value("${app.catalog.facets.rebuild-batch-size:1000}") int batchSize,
+            @Value("${app.catalog.facets.limit.default:20}") int defaultLimit,
+            @Value("${app.catalog.facets.limit.max:100}") int maxLimit) {
+        this.productRepository = productRepository;
+        this.categoryTreeService = categoryTreeService;
+        this.priceBounds = priceBounds;
+        this.batchSize = batchSize;
+        this.defaultLimit = defaultLimit;
+        this.maxLimit = maxLimit;
+        this.index = new FacetIndex(priceBounds);
+    }
+
+    @Override
+    public ProductFacetResponse filter(ProductFacetRequest request) {
+        CategoryTree tree = categoryTreeService.getTree();
+        List<String> categoryIds = null;
+        if (request.getCategoryId() != null && !request.getCategoryId().isBlank()) {
+            if (!tree.contains(request.getCategoryId())) {
+                throw new WebServerException(ErrorCode.CATEGORY_NOT_FOUND);
+            }
+            categoryIds = tree.descendantIds(request.getCategoryId());
+        }
+        List<String> sizes = request.getSize() == null ? null
+                : request.getSize().stream().map(Size::name).toList();
+        List<String> colors = request.getColor() == null ? null
+                : request.getColor().stream().map(FacetIndex::colorKey).toList();
+        int limit = request.getLimit() == null ? defaultLimit : Math.min(Math.max(request.getLimit(), 0), maxLimit);
+
+        ProductFacetResponse response = index.query(sizes, colors, request.getPrice(), categoryIds,
+                Boolean.TRUE.equals(request.getInStock()), limit);
+
+        // Tên category lấy từ cây category, bỏ các category không còn hiển thị
+        Map<String, List<FacetCount>> facets = response.getFacets();
+        facets.put(FacetIndex.CATEGORY, facets.get(FacetIndex.CATEGORY).stream()
+                .filter(count -> tree.contains(count.value()))
+                .map(count -> new FacetCount(count.value(),
+                        tree.get(count.value()).map(CategoryView::categoryName).orElse(count.value()),
+                        count.count()))
+                .toList());
+        return response;
+    }
+
+    @Override
+    public void reindexProduct(String productId) {
+        if (productId == null) {
+            return;
+        }
+        // Thứ tự quan trọng: ghi nhận trước khi đọc database để lần áp dụng lại sau khi đổi index đọc bản mới hơn
+        Set<String> changed = changedDuringRebuild;
+        if (changed != null) {
+            changed.add(productId);
+        }
+        apply(index, productId, productRepository.findFacetRows(List.of(productId)));
+        modifications.incrementAndGet();
+    }
+
+    @Override
+    public String version() {
+        // Lọc theo category dùng cây hiện tại (category con), đổi cây cũng phải đổi version
+        return nodeId + ":" + modifications.get() + ":" + categoryTreeService.getTree().etag();
+    }
+
+    // Đổi tên hay di chuyển category không làm đổi category của sản phẩm, chỉ cần theo dõi sản phẩm
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.productId() != null) {
+            reindexProduct(event.productId());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        pendingStockChanges.addAll(event.productIds());
+        if (stockDrainScheduled.compareAndSet(false, true)) {
+            reindexExecutor.execute(this::drainStockChanges);
+        }
+    }
+
+    private void drainStockChanges() {
+        // Bỏ cờ trước khi lấy danh sách: thay đổi đến sau đó hoặc được lấy ở lượt này hoặc lên lịch lượt mới
+        stockDrainScheduled.set(false);
+        List<String> productIds = new ArrayList<>();
+        for (String productId : pendingStockChanges) {
+            if (pendingStockChanges.remove(productId)) {
+                productIds.add(productId);
+            }
+        }
+        if (productIds.isEmpty()) {
+            return;
+        }
+        Set<String> changed = changedDuringRebuild;
+        if (changed != null) {
+            changed.addAll(productIds);
+        }
+        try {
+            reapply(index, productIds);
+        } catch (Exception e) {
+            // Lần build lại định kỳ sẽ sửa index
+            log.warn("Unable to update stock of {} products in the facet index", productIds.size(), e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        reindexExecutor.shutdownNow();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    @Override
+    @Scheduled(
+            fixedDelayString = "${app.catalog.facets.rebuild-interval-ms:3600000}",
+            initialDelayString = "${app.catalog.facets.rebuild-interval-ms:3600000}")
+    public void rebuild() {
+        if (!rebuildLock.tryLock()) {
+            return;
+        }
+        long startedAt = System.currentTimeMillis();
+        FacetIndex next = new FacetIndex(priceBounds);
+        Set<String> changed = ConcurrentHashMap.newKeySet();
+        changedDuringRebuild = changed;
+        try {
+            String afterId = "";
+            List<String> ids;
+            do {
+                ids = productRepository.findActiveIdsAfter(afterId, Limit.of(batchSize));
+                if (!ids.isEmpty()) {
+                    productRepository.findFacetRows(ids).stream()
+                            .collect(Collectors.groupingBy(ProductFacetRow::productId))
+                            .forEach(next::upsert);
+                    afterId = ids.get(ids.size() - 1);
+                }
+            } while (ids.size() == batchSize);
+            index = next;
+            modifications.incrementAndGet();
+            changedDuringRebuild = null;
+            // Thay đổi sau thời điểm này ghi thẳng vào index mới; những thay đổi trước đó đọc lại từ database
+            reapply(next, changed);
+            log.info("Rebuilt product facet index with {} products in {} ms ({} changed during rebuild)",
+                    next.size(), System.currentTimeMillis() - startedAt, changed.size());
+        } catch (Exception e) {
+            log.warn("Unable to rebuild product facet index, keeping the previous one", e);
+        } finally {
+            changedDuringRebuild = null;
+            rebuildLock.unlock();
+        }
+    }
+
+    private void reapply(FacetIndex target, Collection<String> productIds) {
+        List<String> ids = new ArrayList<>(productIds);
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            List<String> chunk = ids.subList(from, Math.min(from + batchSize, ids.size()));
+            Map<String, List<ProductFacetRow>> rows = productRepository.findFacetRows(chunk).stream()
+                    .collect(Collectors.groupingBy(ProductFacetRow::productId));
+            // Sản phẩm không còn trong kết quả (đã ẩn/xoá) thì bị bỏ khỏi index
+            chunk.forEach(productId -> apply(target, productId, rows.getOrDefault(productId, List.of())));
+            modifications.incrementAndGet();
+        }
+    }
+
+    private static void apply(FacetIndex target, String productId, List<ProductFacetRow> rows) {
+        if (rows.isEmpty()) {
+            target.remove(productId);
+        } else {
+            target.upsert(productId, rows);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.brand.artifact.service;
+
+import java.util.List;
+
+import com.brand.artifact.dto.projection.ProductSummary;
+
+public interface ProductSearchService {
+    List<ProductSummary> search(String query, Integer limit);
+    void reindexProduct(String productId);
+    void rebuild();
+    // Đổi mỗi khi index đang phục vụ thay đổi, dùng làm ETag trước khi search
+    String version();
+}
@@ -0,0 +1,192 @@
+package com.brand.artifact.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.brand.artifact.dto.projection.ProductSearchDocument;
+import com.brand.artifact.dto.projection.ProductSummary;
+import com.brand.artifact.event.CatalogChangedEvent;
+import com.brand.artifact.repository.ProductRepository;
+import com.brand.artifact.utils.ProductSearchIndex;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Tìm kiếm sản phẩm hoàn toàn trong bộ nhớ (không query MySQL khi search).
+ * Index được build khi khởi động, cập nhật từng sản phẩm khi catalog thay đổi
+ * và build lại định kỳ để bắt các thay đổi không đi qua JPA (bulk update, node khác).
+ *
+ * Sản phẩm thay đổi trong lúc build lại được ghi nhận và áp dụng lại lên index mới sau khi đổi,
+ * nên bản build (có thể đọc dữ liệu cũ) không ghi đè thay đổi mới hơn.
+ */
+@Slf4j
+@Service
+public class ProductSearchServiceImpl implements ProductSearchService {
+
+    private final ProductRepository productRepository;
+    private final int batchSize;
+    private final int defaultLimit;
+    private final int maxLimit;
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    // Category thay đổi có thể kéo theo hàng nghìn sản phẩm, không reindex trên thread của request
+    private final ExecutorService reindexExecutor = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("search-reindex").daemon().factory());
+
+    // Index nằm riêng trên từng node nên version gồm id của node và số lần index đổi
+    private final String nodeId = UUID.randomUUID().toString();
+    private final AtomicLong modifications = new AtomicLong();
+
+    private volatile ProductSearchIndex index = new ProductSearchIndex();
+    // Id sản phẩm thay đổi trong lúc build lại, null khi không build
+    private volatile Set<String> changedDuringRebuild;
+
+    public ProductSearchServiceImpl(
+            ProductRepository productRepository,
+            @Value("${app.catalog.search.rebuild-batch-size:1000}") int batchSize,
+            @Value("${app.catalog.search.limit.default:20}") int defaultLimit,
+            @Value("${app.catalog.search.limit.max:50}") int maxLimit) {
+        this.productRepository = productRepository;
+        this.batchSize = batchSize;
+        this.defaultLimit = defaultLimit;
+        this.maxLimit = maxLimit;
+    }
+
+    @Override
+    public List<ProductSummary> search(String query, Integer limit) {
+        if (query == null || query.isBlank()) {
+            return List.of();
+        }
+        int size = limit == null ? defaultLimit : Math.min(Math.max(limit, 1), maxLimit);
+        return index.search(query, size);
+    }
+
+    @Override
+    public void reindexProduct(String productId) {
+        if (productId == null) {
+            return;
+        }
+        // Thứ tự quan trọng: ghi nhận trước khi đọc database để lần áp dụng lại sau khi đổi index đọc bản mới hơn
+        markChanged(List.of(productId));
+        apply(index, productId, productRepository.findSearchDocument(productId).orElse(null));
+        modifications.incrementAndGet();
+    }
+
+    @Override
+    public String version() {
+        return nodeId + ":" + modifications.get();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.productId() != null) {
+            reindexProduct(event.productId());
+        }
+        if (event.categoryId() != null) {
+            String categoryId = event.categoryId();
+            reindexExecutor.execute(() -> {
+                try {
+                    reindexProducts(productRepository.findIdsByCategoryOrParent(categoryId));
+                } catch (Exception e) {
+                    // Lần build lại định kỳ sẽ sửa index
+                    log.warn("Unable to reindex products of category {}", categoryId, e);
+                }
+            });
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        reindexExecutor.shutdownNow();
+    }
+
+    @Override
+    @Scheduled(
+            fixedDelayString = "${app.catalog.search.rebuild-interval-ms:3600000}",
+            initialDelayString = "${app.catalog.search.rebuild-interval-ms:3600000}")
+    public void rebuild() {
+        if (!rebuildLock.tryLock()) {
+            return;
+        }
+        long startedAt = System.currentTimeMillis();
+        ProductSearchIndex next = new ProductSearchIndex();
+        Set<String> changed = ConcurrentHashMap.newKeySet();
+        changedDuringRebuild = changed;
+        try {
+            String afterId = "";
+            List<ProductSearchDocument> batch;
+            do {
+                batch = productRepository.findSearchDocumentsAfter(afterId, Limit.of(batchSize));
+                batch.forEach(next::upsert);
+                if (!batch.isEmpty()) {
+                    afterId = batch.get(batch.size() - 1).productId();
+                }
+            } while (batch.size() == batchSize);
+            index = next;
+            modifications.incrementAndGet();
+            changedDuringRebuild = null;
+            // Thay đổi sau thời điểm này ghi thẳng vào index mới; những thay đổi trước đó đọc lại từ database
+            reindexProducts(changed);
+            log.info("Rebuilt product search index with {} products in {} ms ({} changed during rebuild)",
+                    next.size(), System.currentTimeMillis() - startedAt, changed.size());
+        } catch (Exception e) {
+            log.warn("Unable to rebuild product search index, keeping the previous one", e);
+        } finally {
+            changedDuringRebuild = null;
+            rebuildLock.unlock();
+        }
+    }
+
+    // Đọc lại nhiều sản phẩm theo lô thay vì mỗi sản phẩm một query
+    private void reindexProducts(Collection<String> productIds) {
+        List<String> ids = new ArrayList<>(productIds);
+        markChanged(ids);
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            List<String> chunk = ids.subList(from, Math.min(from + batchSize, ids.size()));
+            Map<String, ProductSearchDocument> documents = new HashMap<>();
+            productRepository.findSearchDocuments(chunk).forEach(document -> documents.put(document.productId(), document));
+            ProductSearchIndex target = index;
+            // Sản phẩm không còn trong kết quả (đã ẩn/xoá) thì bị bỏ khỏi index
+            chunk.forEach(productId -> apply(target, productId, documents.get(productId)));
+            modifications.incrementAndGet();
+        }
+    }
+
+    private void markChanged(Collection<String> productIds) {
+        Set<String> changed = changedDuringRebuild;
+        if (changed != null) {
+            changed.addAll(productIds);
+        }
+    }
+
+    private static void apply(ProductSearchIndex target, String productId, ProductSearchDocument document) {
+        if (document == null) {
+            target.remove(productId);
+        } else {
+            target.upsert(document);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.brand.artifact.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bộ đếm trên Redis, dùng chung cho mọi node. Trừ kho và xếp hàng nằm trong một Lua script
+ * nên Redis thực hiện nguyên tử, không cần lock.
+ * Các key cùng hash tag {flash-sale} để script chạy được trên Redis Cluster.
+ *
+ * Hàng đợi tin cậy: poll dùng LMOVE chuyển lượt mua sang danh sách đang xử lý của node
+ * (theo app.flash-sale.node-id, cố định qua các lần khởi động) và chỉ xoá khỏi đó sau khi đơn đã commit.
+ * Node dừng giữa chừng thì lần khởi động sau đưa các lượt còn trong danh sách lại hàng đợi;
+ * ghi lại một lượt đã có đơn sẽ bị bỏ qua nhờ số đơn suy ra từ claimId.
+ */
+@Component
+@ConditionalOnProperty(name = "app.flash-sale.counter", havingValue = "redis", matchIfMissing = true)
+public class RedisFlashSaleStockCounter implements FlashSaleStockCounter {
+
+    static final String STOCK_KEY_PREFIX = "{flash-sale}:stock:";
+    static final String QUEUE_KEY = "{flash-sale}:claims";
+    static final String PROCESSING_KEY_PREFIX = "{flash-sale}:processing:";
+    static final String DEAD_LETTER_KEY = "{flash-sale}:dead-letter";
+
+    private static final RedisScript<Long> CLAIM_SCRIPT = new DefaultRedisScript<>("""
+            local stock = redis.call('GET', KEYS[1])
+            if not stock then return -2 end
+            local quantity = tonumber(ARGV[1])
+            if tonumber(stock) < quantity then return -1 end
+            local remaining = redis.call('DECRBY', KEYS[1], quantity)
+            redis.call('RPUSH', KEYS[2], ARGV[2])
+            return remaining
+            """, Long.class);
+
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('EXISTS', KEYS[1]) == 0 then return -2 end
+            return redis.call('INCRBY', KEYS[1], ARGV[1])
+            """, Long.class);
+
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    private static final RedisScript<List<String>> POLL_SCRIPT = (RedisScript) new DefaultRedisScript<>("""
+            local claims = {}
+            for i = 1, tonumber(ARGV[1]) do
+                local claim = redis.call('LMOVE', KEYS[1], KEYS[2], 'LEFT', 'RIGHT')
+                if not claim then break end
+                claims[i] = claim
+            end
+            return claims
+            """, List.class);
+
+    // ARGV là từng cặp (giá trị trong danh sách đang xử lý, giá trị đưa sang danh sách đích).
+    // Lượt không còn trong danh sách đang xử lý (đã được recover) thì không đưa lại lần nữa
+    private static final RedisScript<Long> MOVE_SCRIPT = new DefaultRedisScript<>("""
+            local moved = 0
+            for i = 1, #ARGV, 2 do
+                if redis.call('LREM', KEYS[1], 1, ARGV[i]) > 0 then
+                    redis.call('RPUSH', KEYS[2], ARGV[i + 1])
+                    moved = moved + 1
+                end
+            end
+            return moved
+            """, Long.class);
+
+    private static final RedisScript<Long> ACKNOWLEDGE_SCRIPT = new DefaultRedisScript<>("""
+            for i = 1, #ARGV do
+                redis.call('LREM', KEYS[1], 1, ARGV[i])
+            end
+            return #ARGV
+            """, Long.class);
+
+    // Lấy từ cuối danh sách đang xử lý đẩy vào đầu hàng đợi nên thứ tự các lượt được giữ nguyên
+    private static final RedisScript<Long> RECOVER_SCRIPT = new DefaultRedisScript<>("""
+            local recovered = 0
+            while redis.call('LMOVE', KEYS[1], KEYS[2], 'RIGHT', 'LEFT') do
+                recovered = recovered + 1
+            end
+            return recovered
+            """, Long.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final String processingKey;
+
+    public RedisFlashSaleStockCounter(
+            RedisTemplate<String, String> redisTemplate,
+            @Value("${app.flash-sale.node-id:${HOSTNAME:local}}") String nodeId) {
+        this.redisTemplate = redisTemplate;
+        this.processingKey = PROCESSING_KEY_PREFIX + nodeId;
+    }
+
+    @Override
+    public void load(String productItemId, int units) {
+        redisTemplate.opsForValue().increment(STOCK_KEY_PREFIX + productItemId, units);
+    }
+
+    @Override
+    public long claim(FlashSaleClaim claim) {
+        Long result = redisTemplate.execute(CLAIM_SCRIPT,
+                List.of(STOCK_KEY_PREFIX + claim.productItemId(), QUEUE_KEY),
+                String.valueOf(claim.quantity()), claim.encode());
+        return result == null ? NOT_ACTIVE : result;
+    }
+
+    @Override
+    public boolean release(String productItemId, int units) {
+        Long result = redisTemplate.execute(RELEASE_SCRIPT, List.of(STOCK_KEY_PREFIX + productItemId),
+                String.valueOf(units));
+        return result != null && result >= 0;
+    }
+
+    @Override
+    public long drain(String productItemId) {
+        return parse(redisTemplate.opsForValue().getAndDelete(STOCK_KEY_PREFIX + productItemId));
+    }
+
+    @Override
+    public long remaining(String productItemId) {
+        return parse(redisTemplate.opsForValue().get(STOCK_KEY_PREFIX + productItemId));
+    }
+
+    @Override
+    public List<FlashSaleClaim> poll(int max) {
+        List<String> values = redisTemplate.execute(POLL_SCRIPT, List.of(QUEUE_KEY, processingKey),
+                String.valueOf(max));
+        return values == null ? List.of() : values.stream().map(FlashSaleClaim::decode).toList();
+    }
+
+    @Override
+    public void acknowledge(List<FlashSaleClaim> claims) {
+        if (!claims.isEmpty()) {
+            redisTemplate.execute(ACKNOWLEDGE_SCRIPT, List.of(processingKey),
+                    claims.stream().map(FlashSaleClaim::encode).toArray());
+        }
+    }
+
+    @Override
+    public void requeue(List<FlashSaleClaim> claims, boolean countAttempt) {
+        move(claims, QUEUE_KEY, countAttempt);
+    }
+
+    @Override
+    public void deadLetter(List<FlashSaleClaim> claims) {
+        move(claims, DEAD_LETTER_KEY, false);
+    }
+
+    @Override
+    public long recover() {
+        Long recovered = redisTemplate.execute(RECOVER_SCRIPT, List.of(processingKey, QUEUE_KEY));
+        return recovered == null ? 0 : recovered;
+    }
+
+    private void move(List<FlashSaleClaim> claims, String targetKey, boolean countAttempt) {
+        if (claims.isEmpty()) {
+            return;
+        }
+        List<String> args = new ArrayList<>(claims.size() * 2);
+        for (FlashSaleClaim claim : claims) {
+            args.add(claim.encode());
+            args.add((countAttempt ? claim.nextAttempt() : claim).encode());
+        }
+        redisTemplate.execute(MOVE_SCRIPT, List.of(processingKey, targetKey), args.toArray());
+    }
+
+    private static long parse(String value) {
+        return value == null ? NOT_ACTIVE : Long.parseLong(value);
+    }
+}
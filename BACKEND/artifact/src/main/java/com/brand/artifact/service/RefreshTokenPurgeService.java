@@ -0,0 +1,9 @@
+package com.brand.artifact.service;
+
+public interface RefreshTokenPurgeService {
+
+    /**
+     * Xoá refresh token đã hết hạn hoặc đã bị revoke, trả về số bản ghi đã xoá
+     */
+    long purgeExpiredTokens();
+}
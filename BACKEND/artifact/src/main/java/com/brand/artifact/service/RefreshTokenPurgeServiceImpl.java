@@ -0,0 +1,167 @@
+package com.brand.artifact.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.brand.artifact.repository.RefreshTokenRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Job nền dọn bảng refresh_tokens: mỗi lô chỉ chọn một số id rồi xoá theo id trong
+ * transaction riêng, nên không giữ lock lâu trên bảng.
+ *
+ * Chạy được đồng thời trên nhiều node: lệnh xoá theo id là idempotent, ngoài ra
+ * node nào giữ lease trên Redis mới chạy để tránh làm trùng việc.
+ */
+@Slf4j
+@Service
+public class RefreshTokenPurgeServiceImpl implements RefreshTokenPurgeService {
+
+    static final String LEASE_KEY = "lock:refresh-token-purge";
+
+    // Chỉ xoá lease nếu vẫn là của node này; GET rồi DEL riêng lẻ có thể xoá lease node khác vừa lấy
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) end
+            return 0
+            """, Long.class);
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+    private final int maxBatches;
+    private final long pauseMs;
+    private final Duration revokedRetention;
+    private final Duration leaseTtl;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    public RefreshTokenPurgeServiceImpl(
+            RefreshTokenRepository refreshTokenRepository,
+            TransactionTemplate transactionTemplate,
+            RedisTemplate<String, String> redisTemplate,
+            @Value("${app.token.refresh.purge.enabled:true}") boolean enabled,
+            @Value("${app.token.refresh.purge.batch-size:500}") int batchSize,
+            @Value("${app.token.refresh.purge.max-batches-per-run:200}") int maxBatches,
+            @Value("${app.token.refresh.purge.pause-ms:50}") long pauseMs,
+            @Value("${app.token.refresh.purge.revoked-retention-hours:24}") long revokedRetentionHours,
+            @Value("${app.token.refresh.purge.lease-seconds:600}") long leaseSeconds) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.redisTemplate = redisTemplate;
+        this.enabled = enabled;
+        this.batchSize = Math.max(batchSize, 1);
+        this.maxBatches = Math.max(maxBatches, 1);
+        this.pauseMs = Math.max(pauseMs, 0);
+        this.revokedRetention = Duration.ofHours(Math.max(revokedRetentionHours, 0));
+        this.leaseTtl = Duration.ofSeconds(Math.max(leaseSeconds, 1));
+    }
+
+    @Scheduled(
+            fixedDelayString = "${app.token.refresh.purge.interval-ms:3600000}",
+            initialDelayString = "${app.token.refresh.purge.initial-delay-ms:60000}")
+    public void scheduledPurge() {
+        if (!enabled) {
+            return;
+        }
+        if (!acquireLease()) {
+            log.debug("Refresh token purge skipped, another node holds the lease");
+            return;
+        }
+        try {
+            purgeExpiredTokens();
+        } finally {
+            releaseLease();
+        }
+    }
+
+    @Override
+    public long purgeExpiredTokens() {
+        long start = System.nanoTime();
+        LocalDateTime now = LocalDateTime.now();
+        // Không có cột revoked_at, dùng created_at làm mốc giữ lại token đã revoke
+        LocalDateTime revokedBefore = now.minus(revokedRetention);
+        Progress progress = new Progress();
+        // Token hết hạn trước, sau đó token đã revoke quá thời gian giữ lại; chung giới hạn số lô
+        purge(page -> refreshTokenRepository.findExpiredIds(now, page), progress);
+        purge(page -> refreshTokenRepository.findRevokedIdsCreatedBefore(revokedBefore, page), progress);
+
+        long elapsedMs = Duration.ofNanos(System.nanoTime() - start).toMillis();
+        log.info("Purged {} refresh tokens in {} batches ({} ms)", progress.purged, progress.batches, elapsedMs);
+        return progress.purged;
+    }
+
+    private void purge(Function<Pageable, List<String>> purgeableIds, Progress progress) {
+        PageRequest firstBatch = PageRequest.of(0, batchSize);
+        while (progress.batches < maxBatches && !progress.interrupted) {
+            Integer deleted = transactionTemplate.execute(status -> {
+                List<String> ids = purgeableIds.apply(firstBatch);
+                if (!ids.isEmpty()) {
+                    refreshTokenRepository.deleteAllByIdInBatch(ids);
+                }
+                return ids.size();
+            });
+            if (deleted == null || deleted == 0) {
+                return;
+            }
+            progress.purged += deleted;
+            progress.batches++;
+            if (deleted < batchSize) {
+                return;
+            }
+            progress.interrupted = !pause();
+        }
+    }
+
+    // Nghỉ giữa các lô để nhường I/O và lock cho request thật
+    private boolean pause() {
+        if (pauseMs == 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(pauseMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private boolean acquireLease() {
+        try {
+            return Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(LEASE_KEY, nodeId, leaseTtl));
+        } catch (Exception e) {
+            // Không có Redis vẫn chạy được vì xoá theo id là idempotent
+            log.warn("Unable to acquire refresh token purge lease, running without it", e);
+            return true;
+        }
+    }
+
+    private void releaseLease() {
+        try {
+            redisTemplate.execute(RELEASE_SCRIPT, List.of(LEASE_KEY), nodeId);
+        } catch (Exception e) {
+            log.warn("Unable to release refresh token purge lease", e);
+        }
+    }
+
+    private static final class Progress {
+        private long purged;
+        private int batches;
+        private boolean interrupted;
+    }
+}
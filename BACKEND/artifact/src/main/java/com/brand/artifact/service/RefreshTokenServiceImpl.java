@@ -1,12 +1,19 @@
 package com.brand.artifact.service;
 
 import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Optional;
 
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -15,25 +22,61 @@ import com.brand.artifact.entity.RefreshToken;
 import com.brand.artifact.entity.User;
 import com.brand.artifact.repository.RefreshTokenRepository;
 import com.brand.artifact.utils.JwtUtil;
+import com.brand.artifact.utils.VerifiedToken;
 
-import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
+@Slf4j
 @Service
-@RequiredArgsConstructor
 @Transactional
 public class RefreshTokenServiceImpl implements RefreshTokenService {
 
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
     private final RefreshTokenRepository refreshTokenRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
+    private final boolean legacyLookupEnabled;
+    // Chỉ token phát hành trước mốc này mới có thể còn bản ghi BCrypt cũ
+    private final Instant legacyIssuedBefore;
+    private final ThreadLocal<Mac> tokenMac;
+
+    public RefreshTokenServiceImpl(
+            RefreshTokenRepository refreshTokenRepository,
+            PasswordEncoder passwordEncoder,
+            JwtUtil jwtUtil,
+            @Value("${jwt.refresh.hash-secret:}") String hashSecret,
+            @Value("${jwt.access.secret:a-string-secret-at-least-256-bits-long-for-jwt-token-generation}") String accessSecret,
+            @Value("${jwt.refresh.legacy-lookup.enabled:true}") boolean legacyLookupEnabled,
+            @Value("${jwt.refresh.legacy-lookup.issued-before:}") String legacyIssuedBefore) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.jwtUtil = jwtUtil;
+        this.legacyLookupEnabled = legacyLookupEnabled;
+        // Không cấu hình mốc: mọi token do node này phát hành đều đã lưu bằng HMAC
+        this.legacyIssuedBefore = legacyIssuedBefore == null || legacyIssuedBefore.isBlank()
+                ? Instant.now()
+                : Instant.parse(legacyIssuedBefore);
+        if (hashSecret == null || hashSecret.isBlank()) {
+            log.warn("jwt.refresh.hash-secret is not set, hashing refresh tokens with the access token secret");
+            hashSecret = accessSecret;
+        }
+        SecretKeySpec key = new SecretKeySpec(hashSecret.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM);
+        this.tokenMac = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+                mac.init(key);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HmacSHA256 algorithm not available", e);
+            }
+        });
+    }
 
     @Override
     public RefreshToken save(User user, String tokenValue, LocalDateTime expiresAt) {
-        // Hash the JWT token first to ensure it's under BCrypt's 72-byte limit
-        String hashedToken = hashToken(tokenValue);
-        String encodedToken = passwordEncoder.encode(hashedToken);
         RefreshToken refreshToken = RefreshToken.builder()
-                .token(encodedToken)
+                .token(hashToken(tokenValue))
                 .user(user)
                 .expiresAt(expiresAt)
                 .build();
@@ -41,50 +84,70 @@ public class RefreshTokenServiceImpl implements RefreshTokenService {
     }
 
     /**
-     * Hash the token using SHA-256 to ensure it's under BCrypt's 72-byte limit
+     * HMAC-SHA-256 (có key) của token, dạng hex. Deterministic nên tra cứu được
+     * bằng một truy vấn equality trên cột token (unique index), không cần BCrypt.
      */
-    private String hashToken(String token) {
-        try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] hash = digest.digest(token.getBytes(StandardCharsets.UTF_8));
-            StringBuilder hexString = new StringBuilder();
-            for (byte b : hash) {
-                String hex = Integer.toHexString(0xff & b);
-                if (hex.length() == 1) {
-                    hexString.append('0');
-                }
-                hexString.append(hex);
-            }
-            return hexString.toString();
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException("SHA-256 algorithm not available", e);
-        }
+    String hashToken(String token) {
+        Mac mac = tokenMac.get();
+        return HexFormat.of().formatHex(mac.doFinal(token.getBytes(StandardCharsets.UTF_8)));
     }
 
     @Override
-    @Transactional(readOnly = true)
+    @Transactional
     public Optional<RefreshToken> findByToken(String tokenValue) {
         if (tokenValue == null || tokenValue.isBlank()) {
             return Optional.empty();
         }
 
-        try {
-            if (!jwtUtil.isRefreshToken(tokenValue)) {
-                return Optional.empty();
-            }
+        // Trả về cả bản ghi đã revoke: caller phân biệt token bị dùng lại với token lạ
+        Optional<RefreshToken> token = refreshTokenRepository.findByToken(hashToken(tokenValue));
+        if (token.isPresent() || !legacyLookupEnabled) {
+            return token;
+        }
+        return findLegacyToken(tokenValue);
+    }
 
-            String userId = jwtUtil.getUserIdFromToken(tokenValue);
-            if (userId == null || userId.isBlank()) {
-                return Optional.empty();
-            }
+    /**
+     * Migration: các bản ghi cũ lưu BCrypt(SHA-256(token)), chỉ tra được bằng cách so khớp
+     * từng bản ghi của user. Khi khớp thì ghi đè bằng HMAC để lần sau tra cứu trực tiếp.
+     * Chỉ áp dụng cho token phát hành trước jwt.refresh.legacy-lookup.issued-before.
+     * Tắt bằng jwt.refresh.legacy-lookup.enabled=false khi bản ghi cũ đã hết hạn.
+     */
+    private Optional<RefreshToken> findLegacyToken(String tokenValue) {
+        // Token phát hành sau mốc migration chắc chắn đã lưu bằng HMAC: không tốn BCrypt cho token lạ/đã rotate
+        Optional<VerifiedToken> verified = jwtUtil.parseRefreshToken(tokenValue)
+                .filter(token -> token.userId() != null && !token.userId().isBlank())
+                .filter(token -> token.issuedAt() != null && token.issuedAt().isBefore(legacyIssuedBefore));
+        if (verified.isEmpty()) {
+            return Optional.empty();
+        }
 
-            return refreshTokenRepository.findByUser_UserId(userId).stream()
-                    .filter(candidate -> !candidate.isRevoked()
-                            && passwordEncoder.matches(hashToken(tokenValue), candidate.getToken()))
+        String legacyHash = legacyHashToken(tokenValue);
+        List<RefreshToken> candidates = refreshTokenRepository.findLegacyActiveTokensByUserId(verified.get().userId());
+        Optional<RefreshToken> match;
+        try {
+            match = candidates.stream()
+                    .filter(candidate -> passwordEncoder.matches(legacyHash, candidate.getToken()))
                     .findFirst();
-        } catch (Exception ex) {
+        } catch (IllegalArgumentException ex) {
+            // Giá trị cũ không phải hash hợp lệ của encoder
             return Optional.empty();
         }
+        match.ifPresent(legacyToken -> {
+            legacyToken.setToken(hashToken(tokenValue));
+            refreshTokenRepository.save(legacyToken);
+        });
+        return match;
+    }
+
+    // Cách hash cũ (SHA-256 hex) trước khi đưa vào BCrypt
+    private String legacyHashToken(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("SHA-256 algorithm not available", e);
+        }
     }
 
     @Override
@@ -109,12 +172,6 @@ public class RefreshTokenServiceImpl implements RefreshTokenService {
 
     @Override
     public void revokeAllTokensForUser(User user) {
-        List<RefreshToken> tokens = refreshTokenRepository.findByUser(user);
-        tokens.forEach(token -> {
-            if (!token.isRevoked()) {
-                token.setRevoked(true);
-            }
-        });
-        refreshTokenRepository.saveAll(tokens);
+        refreshTokenRepository.revokeAllByUserId(user.getUserId());
     }
 }
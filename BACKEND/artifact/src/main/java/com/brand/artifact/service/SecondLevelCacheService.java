@@ -0,0 +1,6 @@
+package com.brand.artifact.service;
+
+public interface SecondLevelCacheService {
+    void evictProduct(String productId);
+    void evictCategory(String categoryId);
+}
@@ -0,0 +1,168 @@
+package com.brand.artifact.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import org.hibernate.Cache;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.brand.artifact.entity.Category;
+import com.brand.artifact.entity.Product;
+import com.brand.artifact.entity.ProductImage;
+import com.brand.artifact.entity.ProductItem;
+import com.brand.artifact.event.CatalogChangedEvent;
+import com.brand.artifact.event.RemoteCatalogChangedEvent;
+import com.brand.artifact.event.StockChangedEvent;
+import com.brand.artifact.repository.ProductItemRepository;
+import com.brand.artifact.repository.ProductRepository;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Đồng bộ Hibernate second-level cache giữa các node không cần cache cluster.
+ * Trên node ghi, Hibernate tự cập nhật cache khi commit; các node khác nhận message
+ * qua Redis pub/sub và xoá entry của sản phẩm / category tương ứng khỏi cache local.
+ * Id variant / ảnh của sản phẩm được node ghi đọc một lần và gửi kèm message,
+ * node nhận chỉ xoá entry mà không query database, rồi báo cho cache dẫn xuất trên node đó (RemoteCatalogChangedEvent).
+ * Category thì CategoryTreeServiceImpl báo sau khi build lại cây.
+ * Tồn kho đổi chỉ cần xoá variant, message gửi kèm id sản phẩm và variant, node nhận báo lại StockChangedEvent.
+ */
+@Slf4j
+@Service
+public class SecondLevelCacheServiceImpl implements SecondLevelCacheService, MessageListener {
+
+    public static final String CHANNEL = "entity-cache:evict";
+    private static final String PRODUCT = "product";
+    private static final String CATEGORY = "category";
+    private static final String STOCK = "stock";
+
+    // Bỏ qua message do chính node này gửi
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Cache cache;
+    private final ProductRepository productRepository;
+    private final ProductItemRepository productItemRepository;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public SecondLevelCacheServiceImpl(
+            EntityManagerFactory entityManagerFactory,
+            ProductRepository productRepository,
+            ProductItemRepository productItemRepository,
+            RedisTemplate<String, String> redisTemplate,
+            ApplicationEventPublisher eventPublisher) {
+        this.cache = entityManagerFactory.getCache().unwrap(Cache.class);
+        this.productRepository = productRepository;
+        this.productItemRepository = productItemRepository;
+        this.redisTemplate = redisTemplate;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    public void evictProduct(String productId) {
+        evictProduct(productId, productItemRepository.findIdsByProductId(productId),
+                productRepository.findImageIds(productId));
+    }
+
+    private void evictProduct(String productId, List<String> itemIds, List<String> imageIds) {
+        cache.evictEntityData(Product.class, productId);
+        cache.evictCollectionData(Product.class.getName() + ".images", productId);
+        cache.evictCollectionData(Product.class.getName() + ".productItems", productId);
+        itemIds.forEach(itemId -> cache.evictEntityData(ProductItem.class, itemId));
+        imageIds.forEach(imageId -> cache.evictEntityData(ProductImage.class, imageId));
+    }
+
+    // Category ít và hiếm khi đổi, xoá cả region cho đơn giản (đổi cha thì collection của cha cũ/mới đều sai)
+    @Override
+    public void evictCategory(String categoryId) {
+        cache.evictEntityData(Category.class);
+        cache.evictCollectionData(Category.class.getName() + ".subCategories");
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.productId() != null) {
+            publishProduct(event.productId());
+        }
+        if (event.categoryId() != null) {
+            publish(CATEGORY, event.categoryId());
+        }
+    }
+
+    // Sự kiện nhận từ node khác đã được xử lý ở onMessage, không gửi lại
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        if (!event.remote() && !event.productItemIds().isEmpty()) {
+            publish(STOCK, String.join(",", event.productIds()) + ":" + String.join(",", event.productItemIds()));
+        }
+    }
+
+    /**
+     * Message dạng "nodeId:type:id" từ node khác, sản phẩm có thêm ":itemIds:imageIds" (id cách nhau bởi dấu phẩy).
+     * Message sản phẩm không kèm id (node phiên bản cũ) thì tự đọc id từ database.
+     * Message tồn kho dạng "nodeId:stock:productIds:itemIds".
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split(":", -1);
+        if (parts.length < 3 || nodeId.equals(parts[0])) {
+            return;
+        }
+        switch (parts[1]) {
+            case PRODUCT -> {
+                if (parts.length == 5) {
+                    evictProduct(parts[2], ids(parts[3]), ids(parts[4]));
+                } else {
+                    evictProduct(parts[2]);
+                }
+                eventPublisher.publishEvent(RemoteCatalogChangedEvent.product(parts[2]));
+            }
+            case CATEGORY -> evictCategory(parts[2]);
+            case STOCK -> {
+                if (parts.length != 4) {
+                    log.warn("Ignoring malformed stock cache event");
+                    return;
+                }
+                List<String> itemIds = ids(parts[3]);
+                itemIds.forEach(itemId -> cache.evictEntityData(ProductItem.class, itemId));
+                eventPublisher.publishEvent(StockChangedEvent.remote(ids(parts[2]), itemIds));
+            }
+            default -> log.warn("Ignoring malformed entity cache event: {}", parts[1]);
+        }
+    }
+
+    private void publishProduct(String productId) {
+        String itemIds;
+        String imageIds;
+        try {
+            itemIds = String.join(",", productItemRepository.findIdsByProductId(productId));
+            imageIds = String.join(",", productRepository.findImageIds(productId));
+        } catch (Exception e) {
+            // Gửi không kèm id, node nhận tự đọc
+            log.warn("Unable to load cached ids of product {}", productId, e);
+            publish(PRODUCT, productId);
+            return;
+        }
+        publish(PRODUCT, productId + ":" + itemIds + ":" + imageIds);
+    }
+
+    private static List<String> ids(String joined) {
+        return joined.isEmpty() ? List.of() : Arrays.asList(joined.split(","));
+    }
+
+    private void publish(String type, String id) {
+        try {
+            redisTemplate.convertAndSend(CHANNEL, nodeId + ":" + type + ":" + id);
+        } catch (Exception e) {
+            // Node khác giữ entry cũ tới khi hết expire-after-write của region
+            log.warn("Unable to publish entity cache eviction", e);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.brand.artifact.service;
+
+import java.util.Map;
+
+import com.brand.artifact.dto.response.StockReservationResponse;
+
+public interface StockReservationService {
+
+    /**
+     * Giữ hàng cho cả giỏ (productItemId -> số lượng): hoặc giữ đủ mọi dòng, hoặc không giữ dòng nào
+     */
+    StockReservationResponse reserve(String userId, Map<String, Integer> quantities);
+
+    /**
+     * Xác nhận lượt giữ còn hạn, tồn kho đã trừ được giữ luôn
+     */
+    void confirm(String reservationId);
+
+    /**
+     * Huỷ lượt giữ và trả hàng lại kho
+     */
+    void release(String reservationId);
+
+    /**
+     * Trả kho cho các lượt giữ đã quá hạn, trả về số lượt đã xử lý
+     */
+    int releaseExpired();
+}
@@ -0,0 +1,181 @@
+package com.brand.artifact.service;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.brand.artifact.dto.projection.ReservationLine;
+import com.brand.artifact.dto.response.StockReservationResponse;
+import com.brand.artifact.entity.StockReservation;
+import com.brand.artifact.entity.StockReservationItem;
+import com.brand.artifact.event.StockChangedEvent;
+import com.brand.artifact.exception.ErrorCode;
+import com.brand.artifact.exception.WebServerException;
+import com.brand.artifact.repository.ProductItemRepository;
+import com.brand.artifact.repository.StockReservationRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Giữ hàng không đọc-rồi-ghi: mỗi dòng là một lệnh UPDATE có điều kiện stock >= quantity,
+ * database tự xếp hàng các người mua trên cùng một dòng và không bao giờ để tồn kho âm.
+ *
+ * Cả giỏ chạy trong một transaction, các dòng luôn được trừ theo thứ tự productItemId
+ * nên hai giỏ chồng nhau chỉ chờ nhau chứ không deadlock; một dòng thiếu hàng thì rollback cả giỏ.
+ * Lượt giữ quá hạn được job nền trả lại kho; chuyển trạng thái có điều kiện status = HELD
+ * nên mỗi lượt chỉ được trả kho đúng một lần dù chạy trên nhiều node.
+ */
+@Slf4j
+@Service
+@Transactional
+public class StockReservationServiceImpl implements StockReservationService {
+
+    private final ProductItemRepository productItemRepository;
+    private final StockReservationRepository reservationRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final long holdSeconds;
+    private final int sweepBatchSize;
+
+    public StockReservationServiceImpl(
+            ProductItemRepository productItemRepository,
+            StockReservationRepository reservationRepository,
+            ApplicationEventPublisher eventPublisher,
+            TransactionTemplate transactionTemplate,
+            @Value("${app.stock.reservation.hold-seconds:900}") long holdSeconds,
+            @Value("${app.stock.reservation.sweep-batch-size:200}") int sweepBatchSize) {
+        this.productItemRepository = productItemRepository;
+        this.reservationRepository = reservationRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = transactionTemplate;
+        this.holdSeconds = Math.max(holdSeconds, 1);
+        this.sweepBatchSize = Math.max(sweepBatchSize, 1);
+    }
+
+    @Override
+    public StockReservationResponse reserve(String userId, Map<String, Integer> quantities) {
+        if (quantities == null || quantities.isEmpty()) {
+            throw new WebServerException(ErrorCode.INVALID_QUANTITY);
+        }
+        // Gộp dòng trùng và sắp theo productItemId: mọi giỏ khoá các dòng theo cùng một thứ tự
+        TreeMap<String, Integer> ordered = new TreeMap<>();
+        quantities.forEach((productItemId, quantity) -> {
+            if (productItemId == null || quantity == null || quantity <= 0) {
+                throw new WebServerException(ErrorCode.INVALID_QUANTITY);
+            }
+            ordered.merge(productItemId, quantity, Integer::sum);
+        });
+
+        for (Map.Entry<String, Integer> line : ordered.entrySet()) {
+            if (productItemRepository.decrementStock(line.getKey(), line.getValue()) == 0) {
+                // Exception làm rollback các dòng đã trừ trước đó
+                throw new WebServerException(productItemRepository.existsById(line.getKey())
+                        ? ErrorCode.INSUFFICIENT_STOCK
+                        : ErrorCode.PRODUCT_NOT_FOUND);
+            }
+        }
+
+        StockReservation reservation = StockReservation.builder()
+                .userId(userId)
+                .expiresAt(LocalDateTime.now().plusSeconds(holdSeconds))
+                .build();
+        ordered.forEach((productItemId, quantity) -> reservation.getItems().add(StockReservationItem.builder()
+                .reservation(reservation)
+                .productItem(productItemRepository.getReferenceById(productItemId))
+                .quantity(quantity)
+                .build()));
+        reservationRepository.save(reservation);
+
+        publishStockChanged(productItemRepository.findProductIdsByItemIds(ordered.keySet()), ordered.keySet());
+        return StockReservationResponse.builder()
+                .reservationId(reservation.getReservationId())
+                .status(reservation.getStatus())
+                .expiresAt(reservation.getExpiresAt())
+                .quantities(ordered)
+                .build();
+    }
+
+    @Override
+    public void confirm(String reservationId) {
+        if (reservationRepository.confirmHeld(reservationId, LocalDateTime.now()) == 0) {
+            throw notActive(reservationId);
+        }
+    }
+
+    @Override
+    public void release(String reservationId) {
+        if (reservationRepository.releaseHeld(reservationId, LocalDateTime.now()) == 0) {
+            throw notActive(reservationId);
+        }
+        restock(reservationId);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @Scheduled(
+            fixedDelayString = "${app.stock.reservation.sweep-interval-ms:30000}",
+            initialDelayString = "${app.stock.reservation.sweep-interval-ms:30000}")
+    public int releaseExpired() {
+        int released = 0;
+        while (true) {
+            LocalDateTime now = LocalDateTime.now();
+            List<String> expiredIds = reservationRepository.findExpiredIds(now, Limit.of(sweepBatchSize));
+            // Mỗi lượt một transaction riêng: lock trên các dòng tồn kho chỉ giữ trong thời gian trả một giỏ
+            int swept = 0;
+            for (String reservationId : expiredIds) {
+                Boolean expired = transactionTemplate.execute(status -> {
+                    if (reservationRepository.expireHeld(reservationId, now) == 0) {
+                        // Người mua vừa huỷ, hoặc node khác đã trả kho
+                        return false;
+                    }
+                    restock(reservationId);
+                    return true;
+                });
+                if (Boolean.TRUE.equals(expired)) {
+                    swept++;
+                }
+            }
+            released += swept;
+            // Cả lô bị xử lý ở nơi khác thì dừng, tránh quay vòng trên cùng các id
+            if (expiredIds.size() < sweepBatchSize || swept == 0) {
+                break;
+            }
+        }
+        if (released > 0) {
+            log.info("Released {} expired stock reservations", released);
+        }
+        return released;
+    }
+
+    // Gọi trong transaction, sau khi đã chuyển lượt giữ ra khỏi HELD
+    private void restock(String reservationId) {
+        List<ReservationLine> lines = reservationRepository.findLines(reservationId);
+        for (ReservationLine line : lines) {
+            productItemRepository.incrementStock(line.productItemId(), line.quantity());
+        }
+        publishStockChanged(lines.stream().map(ReservationLine::productId).toList(),
+                lines.stream().map(ReservationLine::productItemId).toList());
+    }
+
+    // UPDATE hàng loạt không qua entity listener nên tự báo; chỉ tồn kho đổi nên không dùng CatalogChangedEvent
+    private void publishStockChanged(Collection<String> productIds, Collection<String> productItemIds) {
+        eventPublisher.publishEvent(StockChangedEvent.of(productIds, productItemIds));
+    }
+
+    private WebServerException notActive(String reservationId) {
+        return new WebServerException(reservationRepository.existsById(reservationId)
+                ? ErrorCode.RESERVATION_NOT_ACTIVE
+                : ErrorCode.RESERVATION_NOT_FOUND);
+    }
+}
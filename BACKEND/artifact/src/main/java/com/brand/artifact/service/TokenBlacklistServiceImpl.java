@@ -1,31 +1,286 @@
 package com.brand.artifact.service;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.Cursor;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import lombok.RequiredArgsConstructor;
+import com.brand.artifact.utils.BloomFilter;
+import com.brand.artifact.utils.TokenDigest;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Blacklist access token trên Redis, có thêm lớp tra cứu local phía trước:
+ * - near-cache các entry blacklist gần đây (trả lời "có" không cần Redis)
+ * - Bloom filter của toàn bộ entry (trả lời "không" không cần Redis)
+ * Redis chỉ được hỏi khi Bloom filter báo "có thể có".
+ *
+ * Các node đồng bộ entry mới qua Redis pub/sub, Bloom filter được build lại từ
+ * key trên Redis khi khởi động và định kỳ (để loại bỏ entry đã hết hạn).
+ * Pub/sub có thể mất message, nên entry mới còn được ghi vào sorted set RECENT_KEY
+ * (score = thời điểm blacklist) và mỗi node đọc phần mới của nó sau mỗi sync-interval-ms:
+ * token bị blacklist trên node khác bị chặn chậm nhất sau một lần sync thay vì một lần rebuild.
+ */
 @Slf4j
 @Service
-@RequiredArgsConstructor
-public class TokenBlacklistServiceImpl implements TokenBlacklistService {
+public class TokenBlacklistServiceImpl implements TokenBlacklistService, MessageListener {
+
+    public static final String KEY_PREFIX = "blacklist:token:";
+    public static final String CHANNEL = "blacklist:events";
+    public static final String RECENT_KEY = "blacklist:recent";
+    // Đọc chồng lấn với lần sync trước: bù lệch đồng hồ giữa các node và độ trễ giữa SET và ZADD
+    private static final long SYNC_OVERLAP_MS = 10_000;
+    // JWT luôn bắt đầu bằng "eyJ" (base64 của '{"')
+    private static final String LEGACY_KEY_PATTERN = "eyJ*";
 
     private final RedisTemplate<String, String> redisTemplate;
+    private final long expectedInsertions;
+    private final double falsePositiveRate;
+    // Entry cũ hơn khoảng này đã nằm trong lần rebuild gần nhất của mọi node
+    private final long recentRetentionMs;
+
+    // digest -> thời điểm hết hạn (epoch millis)
+    private final Cache<String, Long> recentEntries;
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    private volatile BloomFilter bloomFilter;
+    // Filter đang được build lại, entry mới được ghi vào cả hai
+    private volatile BloomFilter rebuildTarget;
+    // Chưa build xong từ Redis thì không được tin Bloom filter
+    private volatile boolean ready;
+    private volatile long lastSyncedAt;
+
+    private final Timer redisLookupTimer;
+    private final Counter nearCacheHits;
+    private final Counter bloomNegatives;
+    private final Counter redisLookups;
+
+    public TokenBlacklistServiceImpl(
+            RedisTemplate<String, String> redisTemplate,
+            @Value("${app.token.blacklist.bloom.expected-insertions:100000}") long expectedInsertions,
+            @Value("${app.token.blacklist.bloom.false-positive-rate:0.001}") double falsePositiveRate,
+            @Value("${app.token.blacklist.near-cache.max-size:10000}") long nearCacheMaxSize,
+            @Value("${app.token.blacklist.bloom.rebuild-interval-ms:300000}") long rebuildIntervalMs,
+            MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        this.recentRetentionMs = 2 * rebuildIntervalMs + SYNC_OVERLAP_MS;
+        this.bloomFilter = BloomFilter.create(expectedInsertions, falsePositiveRate);
+        this.recentEntries = Caffeine.newBuilder()
+                .maximumSize(nearCacheMaxSize)
+                .expireAfter(Expiry.<String, Long>creating((digest, expiresAt) ->
+                        Duration.ofMillis(Math.max(expiresAt - System.currentTimeMillis(), 0))))
+                .build();
+
+        this.redisLookupTimer = Timer.builder("token.blacklist.redis.lookup")
+                .description("Redis round trips made by blacklist checks")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.nearCacheHits = lookupCounter(meterRegistry, "near_cache");
+        this.bloomNegatives = lookupCounter(meterRegistry, "bloom_filter");
+        this.redisLookups = lookupCounter(meterRegistry, "redis");
+    }
+
+    private static Counter lookupCounter(MeterRegistry meterRegistry, String source) {
+        return Counter.builder("token.blacklist.lookups")
+                .description("Blacklist checks by the layer that answered them")
+                .tag("source", source)
+                .register(meterRegistry);
+    }
 
     @Override
     public void blacklistToken(String token, long ttlMillis) {
-        redisTemplate.opsForValue().set(token, "blacklisted", ttlMillis, TimeUnit.MILLISECONDS);
+        String digest = TokenDigest.sha256(token);
+        redisTemplate.opsForValue().set(KEY_PREFIX + digest, "blacklisted", ttlMillis, TimeUnit.MILLISECONDS);
+        remember(digest, ttlMillis);
+        long now = System.currentTimeMillis();
+        try {
+            redisTemplate.opsForZSet().add(RECENT_KEY, digest + ":" + (now + ttlMillis), now);
+        } catch (Exception e) {
+            // Vẫn còn pub/sub và lần rebuild định kỳ
+            log.warn("Unable to record blacklist entry for sync", e);
+        }
+        try {
+            redisTemplate.convertAndSend(CHANNEL, digest + ":" + ttlMillis);
+        } catch (Exception e) {
+            // Node khác sẽ nhận được ở lần rebuild định kỳ
+            log.warn("Unable to publish blacklist entry", e);
+        }
     }
 
     @Override
     public boolean isTokenBlacklisted(String token) {
-        return Boolean.TRUE.equals(redisTemplate.hasKey(token));
+        String digest = TokenDigest.sha256(token);
+        if (recentEntries.getIfPresent(digest) != null) {
+            nearCacheHits.increment();
+            return true;
+        }
+        if (ready && !bloomFilter.mightContain(digest)) {
+            bloomNegatives.increment();
+            return false;
+        }
+
+        redisLookups.increment();
+        String key = KEY_PREFIX + digest;
+        long ttlMillis = redisLookupTimer.record(() -> ttlMillis(key));
+        // -2: key không tồn tại, -1: key không có TTL
+        if (ttlMillis == -2) {
+            return false;
+        }
+        if (ttlMillis > 0) {
+            remember(digest, ttlMillis);
+        }
+        return true;
     }
 
     @Override
     public void cleanupExpiredTokens() {
+        // Redis tự xoá key hết hạn, chỉ cần build lại Bloom filter
+        rebuild();
+    }
+
+    /**
+     * Nhận entry blacklist mới từ các node khác
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.lastIndexOf(':');
+        if (separator <= 0) {
+            return;
+        }
+        try {
+            remember(body.substring(0, separator), Long.parseLong(body.substring(separator + 1)));
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring malformed blacklist event: {}", body);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /**
+     * Đọc entry blacklist mới từ RECENT_KEY, bù cho message pub/sub bị mất
+     */
+    @Scheduled(
+            fixedDelayString = "${app.token.blacklist.sync-interval-ms:5000}",
+            initialDelayString = "${app.token.blacklist.sync-interval-ms:5000}")
+    public void sync() {
+        long now = System.currentTimeMillis();
+        try {
+            Set<String> entries = redisTemplate.opsForZSet().rangeByScore(RECENT_KEY,
+                    lastSyncedAt - SYNC_OVERLAP_MS, Double.POSITIVE_INFINITY);
+            if (entries != null) {
+                for (String entry : entries) {
+                    int separator = entry.lastIndexOf(':');
+                    long expiresAt;
+                    try {
+                        expiresAt = separator > 0 ? Long.parseLong(entry.substring(separator + 1)) : -1;
+                    } catch (NumberFormatException e) {
+                        expiresAt = -1;
+                    }
+                    // Một entry hỏng không được chặn các entry sau nó
+                    if (expiresAt < 0) {
+                        log.warn("Ignoring malformed blacklist entry: {}", entry);
+                    } else if (expiresAt > now) {
+                        remember(entry.substring(0, separator), expiresAt - now);
+                    }
+                }
+            }
+            lastSyncedAt = now;
+            redisTemplate.opsForZSet().removeRangeByScore(RECENT_KEY, 0, now - recentRetentionMs);
+        } catch (Exception e) {
+            log.warn("Unable to sync token blacklist entries", e);
+        }
+    }
+
+    @Scheduled(
+            fixedDelayString = "${app.token.blacklist.bloom.rebuild-interval-ms:300000}",
+            initialDelayString = "${app.token.blacklist.bloom.rebuild-interval-ms:300000}")
+    public void rebuild() {
+        if (!rebuildLock.tryLock()) {
+            return;
+        }
+        BloomFilter next = BloomFilter.create(expectedInsertions, falsePositiveRate);
+        rebuildTarget = next;
+        long startedAt = System.currentTimeMillis();
+        try {
+            if (!ready) {
+                migrateLegacyEntries();
+            }
+            long count = 0;
+            ScanOptions options = ScanOptions.scanOptions().match(KEY_PREFIX + "*").count(1000).build();
+            try (Cursor<String> cursor = redisTemplate.scan(options)) {
+                while (cursor.hasNext()) {
+                    next.put(cursor.next().substring(KEY_PREFIX.length()));
+                    count++;
+                }
+            }
+            bloomFilter = next;
+            ready = true;
+            // Entry ghi trước lúc bắt đầu scan đã nằm trong filter mới
+            lastSyncedAt = Math.max(lastSyncedAt, startedAt);
+            log.debug("Rebuilt token blacklist bloom filter with {} entries", count);
+        } catch (Exception e) {
+            log.warn("Unable to rebuild token blacklist bloom filter, falling back to Redis lookups", e);
+        } finally {
+            rebuildTarget = null;
+            rebuildLock.unlock();
+        }
+    }
+
+    // Phiên bản cũ dùng nguyên access token làm key, chuyển sang key theo digest
+    private void migrateLegacyEntries() {
+        ScanOptions options = ScanOptions.scanOptions().match(LEGACY_KEY_PATTERN).count(1000).build();
+        try (Cursor<String> cursor = redisTemplate.scan(options)) {
+            while (cursor.hasNext()) {
+                String token = cursor.next();
+                long ttlMillis = ttlMillis(token);
+                if (ttlMillis > 0) {
+                    redisTemplate.opsForValue().set(KEY_PREFIX + TokenDigest.sha256(token), "blacklisted",
+                            ttlMillis, TimeUnit.MILLISECONDS);
+                }
+                redisTemplate.delete(token);
+            }
+        }
+    }
+
+    // getExpire chỉ trả về null khi chạy trong pipeline / transaction, coi như key không tồn tại
+    private long ttlMillis(String key) {
+        Long ttlMillis = redisTemplate.getExpire(key, TimeUnit.MILLISECONDS);
+        return ttlMillis == null ? -2 : ttlMillis;
+    }
+
+    private void remember(String digest, long ttlMillis) {
+        recentEntries.put(digest, System.currentTimeMillis() + ttlMillis);
+        // Thứ tự quan trọng: ghi vào filter đang build trước rồi mới tới filter hiện tại
+        BloomFilter target = rebuildTarget;
+        if (target != null) {
+            target.put(digest);
+        }
+        bloomFilter.put(digest);
     }
 }
@@ -0,0 +1,7 @@
+package com.brand.artifact.service;
+
+public interface TokenRevocationService {
+    long currentEpoch(String userId);
+    void revokeAllSessions(String userId);
+    boolean isRevoked(String userId, long sessionEpoch);
+}
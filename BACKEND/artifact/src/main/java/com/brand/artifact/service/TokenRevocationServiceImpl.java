@@ -0,0 +1,130 @@
+package com.brand.artifact.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Thu hồi toàn bộ phiên của một user bằng một bộ đếm epoch trên Redis.
+ * Token (access lẫn refresh) mang epoch của user lúc phát hành; token có epoch nhỏ hơn epoch hiện tại
+ * bị coi là đã thu hồi, nên "đăng xuất mọi thiết bị" chỉ là một lệnh INCR.
+ *
+ * Epoch là bộ đếm logic nên không phụ thuộc đồng hồ của từng node. Epoch được cache local theo userId
+ * và đồng bộ giữa các node qua Redis pub/sub.
+ */
+@Slf4j
+@Service
+public class TokenRevocationServiceImpl implements TokenRevocationService, MessageListener {
+
+    public static final String KEY_PREFIX = "revoke:epoch:";
+    public static final String CHANNEL = "revoke:events";
+
+    private static final long INITIAL_EPOCH = 0L;
+    // Redis lỗi thì mỗi request đều lỗi, chỉ log cảnh báo tối đa một lần trong khoảng này
+    private static final long FAILURE_LOG_INTERVAL_MS = 10_000;
+
+    private final RedisTemplate<String, String> redisTemplate;
+    // true: Redis lỗi thì chấp nhận token (chỉ kiểm tra chữ ký/hạn); false: từ chối mọi token chưa có epoch trong cache
+    private final boolean failOpen;
+    // userId -> epoch hiện tại, token có epoch nhỏ hơn bị từ chối
+    private final LoadingCache<String, Long> epochCache;
+    private final AtomicLong lastFailureLoggedAt = new AtomicLong();
+
+    public TokenRevocationServiceImpl(
+            RedisTemplate<String, String> redisTemplate,
+            @Value("${app.token.revocation.cache-ttl-seconds:60}") long cacheTtlSeconds,
+            @Value("${app.token.revocation.cache-max-size:100000}") long cacheMaxSize,
+            @Value("${app.token.revocation.fail-open:true}") boolean failOpen) {
+        this.redisTemplate = redisTemplate;
+        this.failOpen = failOpen;
+        this.epochCache = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(cacheTtlSeconds))
+                .maximumSize(cacheMaxSize)
+                .build(this::loadEpoch);
+    }
+
+    @Override
+    public long currentEpoch(String userId) {
+        // Đọc thẳng Redis khi phát hành token: epoch cũ trong cache sẽ làm token mới bị từ chối
+        try {
+            long epoch = loadEpoch(userId);
+            return epochCache.asMap().merge(userId, epoch, Math::max);
+        } catch (RuntimeException e) {
+            // Token phát hành với epoch cũ hơn chỉ có thể bị từ chối sớm, không thể sống sót qua lần thu hồi
+            Long cached = epochCache.getIfPresent(userId);
+            logFailure("Unable to read session epoch of user " + userId, e);
+            return cached != null ? cached : INITIAL_EPOCH;
+        }
+    }
+
+    @Override
+    public void revokeAllSessions(String userId) {
+        // Key không có TTL: nếu key hết hạn, bộ đếm quay về 0 và token mang epoch cao hơn sẽ không bị thu hồi được nữa
+        Long epoch = redisTemplate.opsForValue().increment(KEY_PREFIX + userId);
+        if (epoch == null) {
+            throw new IllegalStateException("Unable to increment session epoch of user " + userId);
+        }
+        epochCache.asMap().merge(userId, epoch, Math::max);
+        try {
+            redisTemplate.convertAndSend(CHANNEL, userId + ":" + epoch);
+        } catch (Exception e) {
+            // Node khác sẽ thấy epoch mới khi entry cache của chúng hết hạn
+            log.warn("Unable to publish session revocation for user {}", userId, e);
+        }
+    }
+
+    @Override
+    public boolean isRevoked(String userId, long sessionEpoch) {
+        if (userId == null) {
+            return true;
+        }
+        try {
+            return sessionEpoch < epochCache.get(userId);
+        } catch (RuntimeException e) {
+            logFailure("Unable to check session epoch of user " + userId + ", failing "
+                    + (failOpen ? "open" : "closed"), e);
+            return !failOpen;
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.lastIndexOf(':');
+        if (separator <= 0) {
+            return;
+        }
+        try {
+            long epoch = Long.parseLong(body.substring(separator + 1));
+            epochCache.asMap().merge(body.substring(0, separator), epoch, Math::max);
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring malformed revocation event: {}", body);
+        }
+    }
+
+    private Long loadEpoch(String userId) {
+        String value = redisTemplate.opsForValue().get(KEY_PREFIX + userId);
+        return value != null ? Long.parseLong(value) : INITIAL_EPOCH;
+    }
+
+    private void logFailure(String message, RuntimeException e) {
+        long now = System.currentTimeMillis();
+        long last = lastFailureLoggedAt.get();
+        if (now - last >= FAILURE_LOG_INTERVAL_MS && lastFailureLoggedAt.compareAndSet(last, now)) {
+            log.warn(message, e);
+        } else {
+            log.debug(message, e);
+        }
+    }
+}
@@ -79,7 +79,7 @@ public class UserServiceImpl implements UserService {
     @Override
     @Transactional(readOnly = true)
     public UserInfoResponse getUserInfo(String userId) {
-        User user = userRepository.findById(userId)
+        User user = userRepository.findWithUserInfoByUserId(userId)
                 .orElseThrow(() -> new WebServerException(ErrorCode.USER_NOT_FOUND));
         if (user.getUserInfo() == null) {
             throw new WebServerException(ErrorCode.USER_INFO_NOT_FOUND);
@@ -99,7 +99,7 @@ public class UserServiceImpl implements UserService {
 
     @Override
     public UserInfoResponse updateUserInfo(String userId, UserInfoRequest userInfoRequest) {
-        User user = userRepository.findById(userId)
+        User user = userRepository.findWithUserInfoByUserId(userId)
                 .orElseThrow(() -> new WebServerException(ErrorCode.USER_NOT_FOUND));
         if (user.getUserInfo() == null) {
             user.setUserInfo(UserInfo.builder()
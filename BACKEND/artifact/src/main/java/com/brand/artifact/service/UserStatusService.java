@@ -0,0 +1,10 @@
+package com.brand.artifact.service;
+
+import java.util.Optional;
+
+import com.brand.artifact.dto.projection.UserStatus;
+
+public interface UserStatusService {
+    Optional<UserStatus> getStatus(String userId);
+    void evict(String userId);
+}
@@ -0,0 +1,84 @@
+package com.brand.artifact.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.brand.artifact.dto.projection.UserStatus;
+import com.brand.artifact.event.UserChangedEvent;
+import com.brand.artifact.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Cache nhỏ (userId -> role, isActive) để xác thực stateless không phải query DB mỗi request.
+ * Entry bị xoá ngay sau khi transaction cập nhật User commit, trên node này lẫn các node khác (Redis pub/sub).
+ * TTL chỉ là lưới an toàn khi message bị mất.
+ */
+@Slf4j
+@Service
+public class UserStatusServiceImpl implements UserStatusService, MessageListener {
+
+    public static final String CHANNEL = "user-status:evict";
+
+    private final UserRepository userRepository;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final Cache<String, Optional<UserStatus>> statusCache;
+
+    public UserStatusServiceImpl(
+            UserRepository userRepository,
+            RedisTemplate<String, String> redisTemplate,
+            @Value("${app.security.user-status-cache.ttl-seconds:30}") long ttlSeconds,
+            @Value("${app.security.user-status-cache.max-size:50000}") long maxSize) {
+        this.userRepository = userRepository;
+        this.redisTemplate = redisTemplate;
+        this.statusCache = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .maximumSize(maxSize)
+                .build();
+    }
+
+    @Override
+    public Optional<UserStatus> getStatus(String userId) {
+        if (userId == null || userId.isBlank()) {
+            return Optional.empty();
+        }
+        return statusCache.get(userId, userRepository::findStatusByUserId);
+    }
+
+    @Override
+    public void evict(String userId) {
+        if (userId != null) {
+            statusCache.invalidate(userId);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.userId() == null) {
+            return;
+        }
+        evict(event.userId());
+        try {
+            redisTemplate.convertAndSend(CHANNEL, event.userId());
+        } catch (Exception e) {
+            // Node khác giữ trạng thái cũ tới khi entry hết TTL
+            log.warn("Unable to publish user status eviction for user {}", event.userId(), e);
+        }
+    }
+
+    // Message từ chính node này chỉ làm entry vừa xoá bị xoá thêm lần nữa
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        evict(new String(message.getBody(), StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,75 @@
+package com.brand.artifact.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter thread-safe, không hỗ trợ xoá phần tử (muốn loại bỏ thì build lại filter mới).
+ * mightContain() == false nghĩa là chắc chắn không có, true nghĩa là có thể có.
+ */
+public final class BloomFilter {
+
+    private final AtomicLongArray bits;
+    private final long bitSize;
+    private final int hashFunctions;
+
+    private BloomFilter(long bitSize, int hashFunctions) {
+        this.bits = new AtomicLongArray((int) ((bitSize + 63) >>> 6));
+        this.bitSize = bitSize;
+        this.hashFunctions = hashFunctions;
+    }
+
+    public static BloomFilter create(long expectedInsertions, double falsePositiveRate) {
+        long n = Math.max(expectedInsertions, 1);
+        double p = Math.min(Math.max(falsePositiveRate, 1e-9), 0.5);
+        long m = (long) Math.ceil(-n * Math.log(p) / (Math.log(2) * Math.log(2)));
+        m = Math.max(64, Math.min(m, (long) Integer.MAX_VALUE * 64));
+        int k = Math.max(1, (int) Math.round((double) m / n * Math.log(2)));
+        return new BloomFilter(m, k);
+    }
+
+    public void put(String value) {
+        long hash1 = hash(value);
+        long hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashFunctions; i++) {
+            long index = Math.floorMod(hash1 + i * hash2, bitSize);
+            int word = (int) (index >>> 6);
+            long mask = 1L << index;
+            long current;
+            do {
+                current = bits.get(word);
+                if ((current & mask) != 0) {
+                    break;
+                }
+            } while (!bits.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    public boolean mightContain(String value) {
+        long hash1 = hash(value);
+        long hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashFunctions; i++) {
+            long index = Math.floorMod(hash1 + i * hash2, bitSize);
+            if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // FNV-1a 64-bit rồi trộn thêm để phân bố đều
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return z ^ (z >>> 33);
+    }
+}
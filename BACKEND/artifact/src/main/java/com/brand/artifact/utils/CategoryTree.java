@@ -0,0 +1,204 @@
+package com.brand.artifact.utils;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import com.brand.artifact.dto.projection.CategoryView;
+import com.brand.artifact.dto.response.CategoryTreeNode;
+
+/**
+ * Snapshot immutable của cây category đang active, build một lần từ danh sách phẳng.
+ * Category có cha không active (hoặc không tồn tại) bị coi là ẩn cùng cả nhánh con.
+ *
+ * Các category được xếp theo thứ tự duyệt cây (preorder) nên hậu duệ của một node là
+ * một đoạn liên tiếp trong danh sách, lấy ra không cần duyệt lại cây.
+ */
+public final class CategoryTree {
+
+    private static final CategoryTree EMPTY = build(List.of());
+
+    private final Map<String, CategoryView> byId;
+    private final Map<String, String> idBySlug;
+    private final Map<String, List<CategoryView>> children;
+    private final Map<String, CategoryTreeNode> nodes;
+    private final List<CategoryTreeNode> roots;
+    private final List<CategoryView> preorder;
+    private final List<String> preorderIds;
+    // categoryId -> [vị trí trong preorder, vị trí sau hậu duệ cuối cùng)
+    private final Map<String, int[]> ranges;
+    // Đổi khi nội dung cây đổi, dùng làm ETag cho các API category
+    private final String etag;
+    private final Instant builtAt;
+
+    private CategoryTree(Map<String, CategoryView> byId, Map<String, String> idBySlug,
+            Map<String, List<CategoryView>> children, Map<String, CategoryTreeNode> nodes,
+            List<CategoryTreeNode> roots, List<CategoryView> preorder, Map<String, int[]> ranges) {
+        this.byId = byId;
+        this.idBySlug = idBySlug;
+        this.children = children;
+        this.nodes = nodes;
+        this.roots = roots;
+        this.preorder = preorder;
+        this.preorderIds = preorder.stream().map(CategoryView::categoryId).toList();
+        this.ranges = ranges;
+        this.etag = ETags.weak(preorder);
+        this.builtAt = Instant.now();
+    }
+
+    public static CategoryTree empty() {
+        return EMPTY;
+    }
+
+    /**
+     * @param categories category đang active, đã sắp theo thứ tự hiển thị (sortOrder, tên)
+     */
+    public static CategoryTree build(List<CategoryView> categories) {
+        Map<String, CategoryView> all = new LinkedHashMap<>();
+        categories.forEach(category -> all.put(category.categoryId(), category));
+
+        Map<String, List<CategoryView>> childrenById = new HashMap<>();
+        List<CategoryView> rootCategories = new ArrayList<>();
+        for (CategoryView category : all.values()) {
+            if (category.parentCategoryId() == null) {
+                rootCategories.add(category);
+            } else if (all.containsKey(category.parentCategoryId())) {
+                childrenById.computeIfAbsent(category.parentCategoryId(), id -> new ArrayList<>()).add(category);
+            }
+        }
+
+        Builder builder = new Builder(childrenById);
+        List<CategoryTreeNode> roots = new ArrayList<>();
+        for (CategoryView root : rootCategories) {
+            roots.add(builder.visit(root));
+        }
+
+        Map<String, List<CategoryView>> children = new HashMap<>();
+        Map<String, String> idBySlug = new HashMap<>();
+        for (CategoryView category : builder.preorder) {
+            children.put(category.categoryId(), List.copyOf(childrenById.getOrDefault(category.categoryId(), List.of())));
+            if (category.slug() != null) {
+                idBySlug.put(category.slug(), category.categoryId());
+            }
+        }
+        Map<String, CategoryView> byId = new HashMap<>();
+        builder.preorder.forEach(category -> byId.put(category.categoryId(), category));
+
+        return new CategoryTree(Map.copyOf(byId), Map.copyOf(idBySlug), Map.copyOf(children),
+                Map.copyOf(builder.nodes), List.copyOf(roots), List.copyOf(builder.preorder),
+                Map.copyOf(builder.ranges));
+    }
+
+    public int size() {
+        return preorder.size();
+    }
+
+    public String etag() {
+        return etag;
+    }
+
+    /**
+     * Thời điểm build snapshot, dùng làm Last-Modified
+     */
+    public Instant builtAt() {
+        return builtAt;
+    }
+
+    public boolean contains(String categoryId) {
+        return categoryId != null && byId.containsKey(categoryId);
+    }
+
+    public Optional<CategoryView> get(String categoryId) {
+        return categoryId == null ? Optional.empty() : Optional.ofNullable(byId.get(categoryId));
+    }
+
+    public Optional<String> resolveSlug(String slug) {
+        return slug == null ? Optional.empty() : Optional.ofNullable(idBySlug.get(slug));
+    }
+
+    public List<CategoryTreeNode> roots() {
+        return roots;
+    }
+
+    public Optional<CategoryTreeNode> node(String categoryId) {
+        return categoryId == null ? Optional.empty() : Optional.ofNullable(nodes.get(categoryId));
+    }
+
+    public List<CategoryView> children(String categoryId) {
+        return children.getOrDefault(categoryId, List.of());
+    }
+
+    /**
+     * Toàn bộ category active theo thứ tự duyệt cây
+     */
+    public List<CategoryView> all() {
+        return preorder;
+    }
+
+    /**
+     * Đường dẫn từ gốc tới category (gồm cả category đó), rỗng nếu không tồn tại
+     */
+    public List<CategoryView> breadcrumbs(String categoryId) {
+        List<CategoryView> path = new ArrayList<>();
+        CategoryView current = categoryId == null ? null : byId.get(categoryId);
+        while (current != null) {
+            path.add(current);
+            current = current.parentCategoryId() == null ? null : byId.get(current.parentCategoryId());
+        }
+        Collections.reverse(path);
+        return List.copyOf(path);
+    }
+
+    /**
+     * Id của category và mọi hậu duệ của nó, rỗng nếu không tồn tại
+     */
+    public List<String> descendantIds(String categoryId) {
+        int[] range = categoryId == null ? null : ranges.get(categoryId);
+        return range == null ? List.of() : preorderIds.subList(range[0], range[1]);
+    }
+
+    private static final class Builder {
+        private final Map<String, List<CategoryView>> childrenById;
+        private final List<CategoryView> preorder = new ArrayList<>();
+        private final Map<String, CategoryTreeNode> nodes = new HashMap<>();
+        private final Map<String, int[]> ranges = new HashMap<>();
+        private final Set<String> visited = new HashSet<>();
+
+        private Builder(Map<String, List<CategoryView>> childrenById) {
+            this.childrenById = childrenById;
+        }
+
+        private CategoryTreeNode visit(CategoryView category) {
+            visited.add(category.categoryId());
+            int start = preorder.size();
+            preorder.add(category);
+
+            List<CategoryTreeNode> childNodes = new ArrayList<>();
+            for (CategoryView child : childrenById.getOrDefault(category.categoryId(), List.of())) {
+                // Dữ liệu lỗi (vòng lặp cha-con) thì bỏ qua nhánh đã thăm
+                if (!visited.contains(child.categoryId())) {
+                    childNodes.add(visit(child));
+                }
+            }
+            ranges.put(category.categoryId(), new int[] { start, preorder.size() });
+
+            CategoryTreeNode node = CategoryTreeNode.builder()
+                    .categoryId(category.categoryId())
+                    .categoryName(category.categoryName())
+                    .slug(category.slug())
+                    .imageUrl(category.imageUrl())
+                    .sortOrder(category.sortOrder())
+                    .children(List.copyOf(childNodes))
+                    .build();
+            nodes.put(category.categoryId(), node);
+            return node;
+        }
+    }
+}
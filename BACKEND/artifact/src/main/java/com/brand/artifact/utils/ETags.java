@@ -0,0 +1,77 @@
+package com.brand.artifact.utils;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+/**
+ * ETag yếu tính từ nội dung dữ liệu (record/projection đã có sẵn), không cần serialize body.
+ *
+ * Trả về ResponseEntity có ETag / Last-Modified thì Spring MVC tự so với If-None-Match /
+ * If-Modified-Since và trả 304 mà không gọi tới Jackson.
+ */
+public final class ETags {
+
+    private ETags() {
+    }
+
+    /**
+     * ETag yếu (W/"...") từ hash FNV-1a 64-bit của String.valueOf từng phần.
+     * Record và List có toString ổn định theo nội dung nên dùng trực tiếp được.
+     */
+    public static String weak(Object... parts) {
+        long hash = 0xcbf29ce484222325L;
+        for (Object part : parts) {
+            String value = String.valueOf(part);
+            for (int i = 0; i < value.length(); i++) {
+                hash ^= value.charAt(i);
+                hash *= 0x100000001b3L;
+            }
+            // Ngăn cách các phần để ("ab", "c") khác ("a", "bc")
+            hash ^= 0x1f;
+            hash *= 0x100000001b3L;
+        }
+        return "W/\"" + Long.toHexString(hash) + "\"";
+    }
+
+    /**
+     * 200 kèm ETag, Last-Modified (nếu có) và Cache-Control public với max-age theo route.
+     * maxAgeSeconds <= 0 thì client phải hỏi lại mỗi lần (no-cache), vẫn được 304 nếu không đổi.
+     */
+    public static <T> ResponseEntity<T> ok(T body, String etag, Instant lastModified, long maxAgeSeconds) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok().eTag(etag).cacheControl(cacheControl(maxAgeSeconds));
+        if (lastModified != null) {
+            builder.lastModified(lastModified);
+        }
+        return builder.body(body);
+    }
+
+    /**
+     * 200 với Cache-Control no-store, cho dữ liệu tạm (ví dụ snapshot rỗng khi build lỗi) không được cache
+     */
+    public static <T> ResponseEntity<T> noStore(T body) {
+        return ResponseEntity.ok().cacheControl(CacheControl.noStore()).body(body);
+    }
+
+    /**
+     * 304 khi ETag tính trước (không cần load dữ liệu) khớp If-None-Match, null nếu phải trả body.
+     * etag null (không có validator rẻ) thì luôn trả null.
+     */
+    public static <T> ResponseEntity<T> notModified(WebRequest request, String etag, long maxAgeSeconds) {
+        if (etag == null || !request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl(maxAgeSeconds))
+                .build();
+    }
+
+    private static CacheControl cacheControl(long maxAgeSeconds) {
+        return maxAgeSeconds > 0
+                ? CacheControl.maxAge(maxAgeSeconds, TimeUnit.SECONDS).cachePublic()
+                : CacheControl.noCache().cachePublic();
+    }
+}
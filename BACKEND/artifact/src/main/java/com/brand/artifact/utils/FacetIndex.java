@@ -0,0 +1,370 @@
+package com.brand.artifact.utils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.RoaringBitmap;
+
+import com.brand.artifact.constant.Size;
+import com.brand.artifact.dto.projection.ProductFacetRow;
+import com.brand.artifact.dto.response.FacetCount;
+import com.brand.artifact.dto.response.ProductFacetResponse;
+
+/**
+ * Facet index trong bộ nhớ: mỗi giá trị facet là một RoaringBitmap các sản phẩm (theo ordinal).
+ * Lọc nhiều facet là AND/OR giữa các bitmap, số đếm là andCardinality nên không phụ thuộc số variant.
+ *
+ * Sản phẩm khớp size/màu/khoảng giá nếu có ít nhất một variant khớp. Mỗi giá trị có hai bitmap:
+ * mọi variant và chỉ variant còn hàng, nên "size M còn hàng" là chính xác; tổ hợp size x màu
+ * trên cùng một variant thì không được đảm bảo.
+ */
+public final class FacetIndex {
+
+    public static final String SIZE = "size";
+    public static final String COLOR = "color";
+    public static final String PRICE = "price";
+    public static final String CATEGORY = "category";
+    public static final String AVAILABILITY = "availability";
+    public static final String IN_STOCK = "in-stock";
+
+    private final long[] priceBounds;
+    private final List<String> priceBands;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Integer> ordinals = new HashMap<>();
+    private final Map<Integer, Entry> entries = new HashMap<>();
+    private String[] productIds = new String[1024];
+    private int[] freeOrdinals = new int[16];
+    private int freeCount;
+    private int nextOrdinal;
+
+    private final RoaringBitmap all = new RoaringBitmap();
+    private final RoaringBitmap inStock = new RoaringBitmap();
+    private final Map<String, VariantBitmaps> sizes = new TreeMap<>(Comparator.comparingInt(size -> Size.valueOf(size).ordinal()));
+    private final Map<String, VariantBitmaps> colors = new TreeMap<>();
+    private final Map<String, VariantBitmaps> prices;
+    private final Map<String, RoaringBitmap> categories = new TreeMap<>();
+    private final Map<String, String> colorLabels = new HashMap<>();
+
+    /**
+     * @param priceBounds các mốc giá tăng dần, ví dụ [200000, 500000] tạo ra "0-200000", "200000-500000", "500000-"
+     */
+    public FacetIndex(long[] priceBounds) {
+        this.priceBounds = Arrays.stream(priceBounds).sorted().distinct().toArray();
+        List<String> bands = new ArrayList<>();
+        long lower = 0;
+        for (long bound : this.priceBounds) {
+            bands.add(lower + "-" + bound);
+            lower = bound;
+        }
+        bands.add(lower + "-");
+        this.priceBands = List.copyOf(bands);
+        // Giữ thứ tự khoảng giá từ thấp tới cao
+        this.prices = new TreeMap<>(Comparator.comparingInt(priceBands::indexOf));
+    }
+
+    public static String colorKey(String color) {
+        return String.join("-", SearchText.tokenize(color));
+    }
+
+    /**
+     * @param rows mọi variant của sản phẩm (một dòng với các cột variant null nếu chưa có variant)
+     */
+    public void upsert(String productId, List<ProductFacetRow> rows) {
+        Entry entry = analyze(rows);
+        lock.writeLock().lock();
+        try {
+            removeLocked(productId);
+            int ordinal = allocateOrdinal();
+            ordinals.put(productId, ordinal);
+            productIds[ordinal] = productId;
+            entries.put(ordinal, entry);
+
+            all.add(ordinal);
+            if (entry.inStock()) {
+                inStock.add(ordinal);
+            }
+            if (entry.categoryId() != null) {
+                categories.computeIfAbsent(entry.categoryId(), key -> new RoaringBitmap()).add(ordinal);
+            }
+            addValues(sizes, entry.sizes(), entry.availableSizes(), ordinal);
+            addValues(colors, entry.colors(), entry.availableColors(), ordinal);
+            addValues(prices, entry.prices(), entry.availablePrices(), ordinal);
+            colorLabels.putAll(entry.colorLabels());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String productId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ordinals.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param categoryIds category được chọn cùng mọi category con, null = không lọc theo category
+     */
+    public ProductFacetResponse query(Collection<String> selectedSizes, Collection<String> selectedColors,
+            Collection<String> selectedPrices, Collection<String> categoryIds, boolean onlyInStock, int limit) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap sizeFilter = variantFilter(sizes, selectedSizes, onlyInStock);
+            RoaringBitmap colorFilter = variantFilter(colors, selectedColors, onlyInStock);
+            RoaringBitmap priceFilter = variantFilter(prices, selectedPrices, onlyInStock);
+            RoaringBitmap categoryFilter = categoryFilter(categoryIds);
+            RoaringBitmap availabilityFilter = onlyInStock ? inStock : null;
+
+            RoaringBitmap matches = intersect(sizeFilter, colorFilter, priceFilter, categoryFilter, availabilityFilter);
+
+            // Đếm mỗi facet với bộ lọc của các facet còn lại (chọn thêm giá trị trong cùng facet là OR)
+            Map<String, List<FacetCount>> facets = new LinkedHashMap<>();
+            facets.put(SIZE, countVariants(sizes,
+                    intersect(colorFilter, priceFilter, categoryFilter, availabilityFilter), onlyInStock, null));
+            facets.put(COLOR, countVariants(colors,
+                    intersect(sizeFilter, priceFilter, categoryFilter, availabilityFilter), onlyInStock, colorLabels));
+            facets.put(PRICE, countVariants(prices,
+                    intersect(sizeFilter, colorFilter, categoryFilter, availabilityFilter), onlyInStock, null));
+
+            RoaringBitmap withoutCategory = intersect(sizeFilter, colorFilter, priceFilter, availabilityFilter);
+            List<FacetCount> categoryCounts = new ArrayList<>(categories.size());
+            categories.forEach((categoryId, bitmap) ->
+                    categoryCounts.add(new FacetCount(categoryId, null, RoaringBitmap.andCardinality(withoutCategory, bitmap))));
+            facets.put(CATEGORY, categoryCounts);
+
+            // Nếu bỏ chọn "còn hàng" thì size/màu/giá được lọc trên mọi variant
+            RoaringBitmap withoutAvailability = intersect(variantFilter(sizes, selectedSizes, false),
+                    variantFilter(colors, selectedColors, false), variantFilter(prices, selectedPrices, false),
+                    categoryFilter);
+            facets.put(AVAILABILITY, List.of(new FacetCount(IN_STOCK, null,
+                    RoaringBitmap.andCardinality(withoutAvailability, inStock))));
+
+            List<String> ids = new ArrayList<>(Math.min(limit, matches.getCardinality()));
+            var iterator = matches.getIntIterator();
+            while (iterator.hasNext() && ids.size() < limit) {
+                ids.add(productIds[iterator.next()]);
+            }
+
+            return ProductFacetResponse.builder()
+                    .total(matches.getCardinality())
+                    .productIds(ids)
+                    .facets(facets)
+                    .build();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public String priceBand(BigDecimal price) {
+        long value = price.longValue();
+        int band = 0;
+        while (band < priceBounds.length && value >= priceBounds[band]) {
+            band++;
+        }
+        return priceBands.get(band);
+    }
+
+    // OR các giá trị được chọn trong một facet, null = facet không được lọc
+    private static RoaringBitmap variantFilter(Map<String, VariantBitmaps> values, Collection<String> selected,
+            boolean onlyInStock) {
+        if (selected == null || selected.isEmpty()) {
+            return null;
+        }
+        List<RoaringBitmap> bitmaps = new ArrayList<>(selected.size());
+        for (String value : selected) {
+            VariantBitmaps variant = values.get(value);
+            if (variant != null) {
+                bitmaps.add(onlyInStock ? variant.available() : variant.any());
+            }
+        }
+        return union(bitmaps);
+    }
+
+    private RoaringBitmap categoryFilter(Collection<String> categoryIds) {
+        if (categoryIds == null) {
+            return null;
+        }
+        List<RoaringBitmap> bitmaps = new ArrayList<>(categoryIds.size());
+        for (String categoryId : categoryIds) {
+            RoaringBitmap bitmap = categories.get(categoryId);
+            if (bitmap != null) {
+                bitmaps.add(bitmap);
+            }
+        }
+        return union(bitmaps);
+    }
+
+    // OR nhiều bitmap một lượt, nhanh hơn nhiều so với or() lần lượt vào một bitmap
+    private static RoaringBitmap union(List<RoaringBitmap> bitmaps) {
+        return switch (bitmaps.size()) {
+            case 0 -> new RoaringBitmap();
+            case 1 -> bitmaps.get(0);
+            default -> FastAggregation.or(bitmaps.iterator());
+        };
+    }
+
+    // Các bitmap lọc đã là tập con của all nên chỉ cần AND với nhau, không lọc gì thì trả về all.
+    // AND từ bitmap nhỏ nhất để kết quả trung gian nhỏ (array container thay vì bitmap container 8KB)
+    private RoaringBitmap intersect(RoaringBitmap... filters) {
+        RoaringBitmap[] present = Arrays.stream(filters)
+                .filter(filter -> filter != null)
+                .sorted(Comparator.comparingLong(RoaringBitmap::getLongCardinality))
+                .toArray(RoaringBitmap[]::new);
+        if (present.length == 0) {
+            return all;
+        }
+        RoaringBitmap result = present[0];
+        for (int i = 1; i < present.length && !result.isEmpty(); i++) {
+            result = RoaringBitmap.and(result, present[i]);
+        }
+        return result;
+    }
+
+    private static List<FacetCount> countVariants(Map<String, VariantBitmaps> values, RoaringBitmap base,
+            boolean onlyInStock, Map<String, String> labels) {
+        List<FacetCount> counts = new ArrayList<>(values.size());
+        values.forEach((value, bitmaps) -> counts.add(new FacetCount(value,
+                labels == null ? value : labels.getOrDefault(value, value),
+                RoaringBitmap.andCardinality(base, onlyInStock ? bitmaps.available() : bitmaps.any()))));
+        return counts;
+    }
+
+    private static void addValues(Map<String, VariantBitmaps> values, Set<String> any, Set<String> available,
+            int ordinal) {
+        for (String value : any) {
+            VariantBitmaps bitmaps = values.computeIfAbsent(value,
+                    key -> new VariantBitmaps(new RoaringBitmap(), new RoaringBitmap()));
+            bitmaps.any().add(ordinal);
+            if (available.contains(value)) {
+                bitmaps.available().add(ordinal);
+            }
+        }
+    }
+
+    private static void removeValues(Map<String, VariantBitmaps> values, Set<String> keys, int ordinal) {
+        for (String value : keys) {
+            VariantBitmaps bitmaps = values.get(value);
+            if (bitmaps != null) {
+                bitmaps.any().remove(ordinal);
+                bitmaps.available().remove(ordinal);
+                if (bitmaps.any().isEmpty()) {
+                    values.remove(value);
+                }
+            }
+        }
+    }
+
+    private void removeLocked(String productId) {
+        Integer ordinal = ordinals.remove(productId);
+        if (ordinal == null) {
+            return;
+        }
+        Entry entry = entries.remove(ordinal);
+        all.remove(ordinal);
+        inStock.remove(ordinal);
+        if (entry.categoryId() != null) {
+            RoaringBitmap bitmap = categories.get(entry.categoryId());
+            if (bitmap != null) {
+                bitmap.remove(ordinal);
+                if (bitmap.isEmpty()) {
+                    categories.remove(entry.categoryId());
+                }
+            }
+        }
+        removeValues(sizes, entry.sizes(), ordinal);
+        removeValues(colors, entry.colors(), ordinal);
+        // Màu không còn sản phẩm nào thì bỏ luôn nhãn, tránh map nhãn chỉ tăng theo thời gian
+        for (String color : entry.colors()) {
+            if (!colors.containsKey(color)) {
+                colorLabels.remove(color);
+            }
+        }
+        removeValues(prices, entry.prices(), ordinal);
+        productIds[ordinal] = null;
+        if (freeCount == freeOrdinals.length) {
+            freeOrdinals = Arrays.copyOf(freeOrdinals, freeCount * 2);
+        }
+        freeOrdinals[freeCount++] = ordinal;
+    }
+
+    private int allocateOrdinal() {
+        if (freeCount > 0) {
+            return freeOrdinals[--freeCount];
+        }
+        if (nextOrdinal == productIds.length) {
+            productIds = Arrays.copyOf(productIds, productIds.length * 2);
+        }
+        return nextOrdinal++;
+    }
+
+    private Entry analyze(List<ProductFacetRow> rows) {
+        String categoryId = null;
+        Set<String> sizeValues = new HashSet<>();
+        Set<String> availableSizes = new HashSet<>();
+        Set<String> colorValues = new HashSet<>();
+        Set<String> availableColors = new HashSet<>();
+        Set<String> priceValues = new HashSet<>();
+        Set<String> availablePrices = new HashSet<>();
+        Map<String, String> labels = new HashMap<>();
+        boolean anyInStock = false;
+
+        for (ProductFacetRow row : rows) {
+            categoryId = row.categoryId();
+            boolean available = row.stockQuantity() != null && row.stockQuantity() > 0;
+            anyInStock |= available;
+            if (row.size() != null) {
+                add(sizeValues, availableSizes, row.size().name(), available);
+            }
+            if (row.color() != null && !colorKey(row.color()).isEmpty()) {
+                String key = colorKey(row.color());
+                labels.putIfAbsent(key, row.color().trim());
+                add(colorValues, availableColors, key, available);
+            }
+            if (row.price() != null) {
+                add(priceValues, availablePrices, priceBand(row.price()), available);
+            }
+        }
+        return new Entry(categoryId, anyInStock, sizeValues, availableSizes, colorValues, availableColors,
+                priceValues, availablePrices, labels);
+    }
+
+    private static void add(Set<String> any, Set<String> available, String value, boolean inStock) {
+        any.add(value);
+        if (inStock) {
+            available.add(value);
+        }
+    }
+
+    private record VariantBitmaps(RoaringBitmap any, RoaringBitmap available) {
+    }
+
+    // Các giá trị facet đã index của một sản phẩm, cần để gỡ ra khi cập nhật
+    private record Entry(String categoryId, boolean inStock, Set<String> sizes, Set<String> availableSizes,
+            Set<String> colors, Set<String> availableColors, Set<String> prices, Set<String> availablePrices,
+            Map<String, String> colorLabels) {
+    }
+}
@@ -1,17 +1,27 @@
 package com.brand.artifact.utils;
 
-import java.security.Key;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Date;
+import java.util.Optional;
+import java.util.UUID;
+
+import javax.crypto.SecretKey;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 
 @Component
 public class JwtUtil {
@@ -28,27 +38,52 @@ public class JwtUtil {
     @Value("${jwt.refresh.expiration-ms:604800000}")
     private long refreshExpirationMs;
 
-    private static final String CLAIM_TYPE = "type";
-    private static final String TYPE_ACCESS = "access";
-    private static final String TYPE_REFRESH = "refresh";
-
-    private Key getAccessSigningKey() {
-        return getSigningKey(accessSecret);
-    }
+    // Số token đã verify được giữ lại trong bộ nhớ (0 = tắt cache)
+    @Value("${jwt.claims-cache.max-size:10000}")
+    private long claimsCacheMaxSize;
 
-    private Key getRefreshSigningKey() {
-        String effectiveSecret = (refreshSecret == null || refreshSecret.isBlank()) ? accessSecret : refreshSecret;
-        return getSigningKey(effectiveSecret);
+    private static final String CLAIM_TYPE = "type";
+    // Epoch phiên của user lúc phát hành (bộ đếm logic trên Redis, không phụ thuộc đồng hồ của node)
+    private static final String CLAIM_EPOCH = "epoch";
+    static final String TYPE_ACCESS = "access";
+    static final String TYPE_REFRESH = "refresh";
+
+    // Key và parser được build một lần, không tạo lại cho mỗi request
+    private SecretKey accessSigningKey;
+    private SecretKey refreshSigningKey;
+    private JwtParser accessParser;
+    private JwtParser refreshParser;
+    private boolean sharedSigningKey;
+
+    // digest(token) -> claims đã verify, tự hết hạn đúng lúc token hết hạn; null khi cache bị tắt
+    private Cache<String, VerifiedToken> claimsCache;
+
+    @PostConstruct
+    void init() {
+        String effectiveRefreshSecret = (refreshSecret == null || refreshSecret.isBlank()) ? accessSecret : refreshSecret;
+        sharedSigningKey = effectiveRefreshSecret.equals(accessSecret);
+
+        accessSigningKey = getSigningKey(accessSecret);
+        refreshSigningKey = sharedSigningKey ? accessSigningKey : getSigningKey(effectiveRefreshSecret);
+        accessParser = Jwts.parser().verifyWith(accessSigningKey).build();
+        refreshParser = sharedSigningKey ? accessParser : Jwts.parser().verifyWith(refreshSigningKey).build();
+
+        // Caffeine với maximumSize(0) evict bất đồng bộ, entry vừa ghi vẫn có thể được đọc: không tạo cache
+        claimsCache = claimsCacheMaxSize <= 0 ? null : Caffeine.newBuilder()
+                .maximumSize(claimsCacheMaxSize)
+                .expireAfter(Expiry.<String, VerifiedToken>creating(
+                        (digest, token) -> Duration.ofMillis(token.remainingTtlMillis())))
+                .build();
     }
 
-    private Key getSigningKey(String secret) {
+    private SecretKey getSigningKey(String secret) {
         if (secret == null || secret.length() < 32) {
             throw new IllegalArgumentException("JWT secret must be at least 32 characters.");
         }
         return Keys.hmacShaKeyFor(secret.getBytes());
     }
 
-    public String generateAccessToken(String userId, String username, String email, String role) {
+    public String generateAccessToken(String userId, String username, String email, String role, long sessionEpoch) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + accessExpirationMs);
 
@@ -59,80 +94,110 @@ public class JwtUtil {
                 .claim("email", email)
                 .claim("role", role)
                 .claim(CLAIM_TYPE, TYPE_ACCESS)
+                .claim(CLAIM_EPOCH, sessionEpoch)
                 .setIssuedAt(now)
                 .setExpiration(expiryDate)
-                .signWith(getAccessSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(accessSigningKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
-    public String generateRefreshToken(String userId, String username) {
+    public String generateRefreshToken(String userId, String username, long sessionEpoch) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + refreshExpirationMs);
 
         return Jwts.builder()
+                // jti ngẫu nhiên: hai token phát cho cùng user trong cùng millisecond vẫn khác nhau (và khác HMAC)
+                .setId(UUID.randomUUID().toString())
                 .setSubject(username)
                 .claim("userId", userId)
                 .claim(CLAIM_TYPE, TYPE_REFRESH)
+                .claim(CLAIM_EPOCH, sessionEpoch)
                 .setIssuedAt(now)
                 .setExpiration(expiryDate)
-                .signWith(getRefreshSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(refreshSigningKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
+    /**
+     * Parse + verify token đúng một lần, kết quả được cache theo digest của token.
+     * Trả về empty nếu chữ ký sai, token hết hạn hoặc sai loại.
+     */
+    public Optional<VerifiedToken> parseToken(String token) {
+        if (token == null || token.isBlank()) {
+            return Optional.empty();
+        }
+        if (claimsCache == null) {
+            return Optional.ofNullable(verify(token));
+        }
+
+        String digest = TokenDigest.sha256(token);
+        VerifiedToken cached = claimsCache.getIfPresent(digest);
+        if (cached != null) {
+            return cached.isExpired() ? Optional.empty() : Optional.of(cached);
+        }
+
+        VerifiedToken verified = verify(token);
+        if (verified == null) {
+            return Optional.empty();
+        }
+        claimsCache.put(digest, verified);
+        return Optional.of(verified);
+    }
+
+    public Optional<VerifiedToken> parseAccessToken(String token) {
+        return parseToken(token).filter(VerifiedToken::isAccessToken);
+    }
+
+    public Optional<VerifiedToken> parseRefreshToken(String token) {
+        return parseToken(token).filter(VerifiedToken::isRefreshToken);
+    }
+
     public boolean validateAccessToken(String token) {
-        return parseAccessClaims(token) != null;
+        return parseAccessToken(token).isPresent();
     }
 
     public boolean validateAccessToken(String token, String username) {
-        Claims claims = parseAccessClaims(token);
-        return claims != null && username.equals(claims.getSubject());
+        return parseAccessToken(token)
+                .map(verified -> username.equals(verified.subject()))
+                .orElse(false);
     }
 
     public boolean validateRefreshToken(String token) {
-        return parseRefreshClaims(token) != null;
+        return parseRefreshToken(token).isPresent();
     }
 
     public String getUsernameFromToken(String token) {
-        Claims claims = resolveClaims(token);
-        return claims != null ? claims.getSubject() : null;
+        return parseToken(token).map(VerifiedToken::subject).orElse(null);
     }
 
     public String getUserIdFromToken(String token) {
-        Claims claims = resolveClaims(token);
-        return claims != null ? claims.get("userId", String.class) : null;
+        return parseToken(token).map(VerifiedToken::userId).orElse(null);
     }
 
     public String getEmailFromToken(String token) {
-        Claims claims = parseAccessClaims(token);
-        return claims != null ? claims.get("email", String.class) : null;
+        return parseAccessToken(token).map(VerifiedToken::email).orElse(null);
     }
 
     public String getRoleFromToken(String token) {
-        Claims claims = parseAccessClaims(token);
-        return claims != null ? claims.get("role", String.class) : null;
+        return parseAccessToken(token).map(VerifiedToken::role).orElse(null);
     }
 
     public Date getExpirationFromToken(String token) {
-        Claims claims = resolveClaims(token);
-        return claims != null ? claims.getExpiration() : null;
+        return parseToken(token).map(verified -> Date.from(verified.expiresAt())).orElse(null);
     }
 
     public LocalDateTime extractExpiration(String token) {
-        Claims claims = resolveClaims(token);
-        if (claims == null) {
-            return LocalDateTime.now().plusDays(1);
-        }
-        return claims.getExpiration().toInstant().atZone(java.time.ZoneId.systemDefault()).toLocalDateTime();
+        return parseToken(token)
+                .map(verified -> verified.expiresAt().atZone(java.time.ZoneId.systemDefault()).toLocalDateTime())
+                .orElseGet(() -> LocalDateTime.now().plusDays(1));
     }
 
     public boolean isRefreshToken(String token) {
-        Claims claims = parseRefreshClaims(token);
-        return claims != null && TYPE_REFRESH.equals(claims.get(CLAIM_TYPE, String.class));
+        return parseRefreshToken(token).isPresent();
     }
 
     public boolean isAccessToken(String token) {
-        Claims claims = parseAccessClaims(token);
-        return claims != null && TYPE_ACCESS.equals(claims.get(CLAIM_TYPE, String.class));
+        return parseAccessToken(token).isPresent();
     }
 
     public long getAccessExpirationMs() {
@@ -143,34 +208,34 @@ public class JwtUtil {
         return refreshExpirationMs;
     }
 
-    private Claims parseAccessClaims(String token) {
-        return parseClaims(token, getAccessSigningKey(), TYPE_ACCESS);
-    }
-
-    private Claims parseRefreshClaims(String token) {
-        return parseClaims(token, getRefreshSigningKey(), TYPE_REFRESH);
+    public long getRemainingTtl(String token) {
+        return parseToken(token).map(VerifiedToken::remainingTtlMillis).orElse(0L);
     }
 
-    private Claims resolveClaims(String token) {
-        Claims claims = parseAccessClaims(token);
+    private VerifiedToken verify(String token) {
+        Claims claims = parseClaims(token, accessParser);
         if (claims != null) {
-            return claims;
+            String type = claims.get(CLAIM_TYPE, String.class);
+            if (TYPE_ACCESS.equals(type) || (sharedSigningKey && TYPE_REFRESH.equals(type))) {
+                return toVerifiedToken(claims, type);
+            }
+            return null;
         }
-        return parseRefreshClaims(token);
+        if (sharedSigningKey) {
+            return null;
+        }
+
+        claims = parseClaims(token, refreshParser);
+        if (claims != null && TYPE_REFRESH.equals(claims.get(CLAIM_TYPE, String.class))) {
+            return toVerifiedToken(claims, TYPE_REFRESH);
+        }
+        return null;
     }
 
-    private Claims parseClaims(String token, Key key, String expectedType) {
+    private Claims parseClaims(String token, JwtParser parser) {
         try {
-            Claims claims = Jwts.parser()
-                    .setSigningKey(key)
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
-            if (claims.getExpiration().before(new Date())) {
-                return null;
-            }
-            String type = claims.get(CLAIM_TYPE, String.class);
-            if (expectedType != null && !expectedType.equals(type)) {
+            Claims claims = parser.parseSignedClaims(token).getPayload();
+            if (claims.getExpiration() == null || claims.getExpiration().before(new Date())) {
                 return null;
             }
             return claims;
@@ -179,23 +244,18 @@ public class JwtUtil {
         }
     }
 
-    public long getRemainingTtl(String token) {
-        try {
-            Claims claims = resolveClaims(token);
-            if (claims == null) {
-                return 0; 
-            }
-            
-            Date expiration = claims.getExpiration();
-            Date now = new Date();
-            
-            if (expiration.before(now)) {
-                return 0;
-            }
-            
-            return expiration.getTime() - now.getTime();
-        } catch (Exception e) {
-            return 0; 
-        }
+    private VerifiedToken toVerifiedToken(Claims claims, String type) {
+        // Token phát hành trước khi có claim epoch thuộc epoch 0
+        Long sessionEpoch = claims.get(CLAIM_EPOCH, Long.class);
+        return new VerifiedToken(
+                claims.getSubject(),
+                claims.get("userId", String.class),
+                claims.get("email", String.class),
+                claims.get("role", String.class),
+                type,
+                claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null,
+                claims.getExpiration().toInstant(),
+                sessionEpoch != null ? sessionEpoch : 0L
+        );
     }
 }
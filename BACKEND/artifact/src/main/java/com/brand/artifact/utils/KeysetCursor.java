@@ -0,0 +1,36 @@
+package com.brand.artifact.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+import com.brand.artifact.exception.ErrorCode;
+import com.brand.artifact.exception.WebServerException;
+
+/**
+ * Vị trí của dòng cuối cùng đã trả về theo thứ tự (createdAt, productId).
+ * Client chỉ thấy chuỗi base64 và gửi lại nguyên vẹn.
+ */
+public record KeysetCursor(LocalDateTime createdAt, String id) {
+
+    private static final char SEPARATOR = '|';
+
+    public String encode() {
+        String raw = createdAt + String.valueOf(SEPARATOR) + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static KeysetCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            if (separator <= 0 || separator == raw.length() - 1) {
+                throw new WebServerException(ErrorCode.INVALID_CURSOR);
+            }
+            return new KeysetCursor(LocalDateTime.parse(raw.substring(0, separator)), raw.substring(separator + 1));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new WebServerException(ErrorCode.INVALID_CURSOR);
+        }
+    }
+}
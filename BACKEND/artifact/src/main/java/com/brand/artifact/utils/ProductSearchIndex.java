@@ -0,0 +1,534 @@
+package com.brand.artifact.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.brand.artifact.dto.projection.ProductSearchDocument;
+import com.brand.artifact.dto.projection.ProductSummary;
+
+/**
+ * Inverted index trong bộ nhớ cho tìm kiếm sản phẩm, xếp hạng theo BM25 với tf có trọng số theo field
+ * (tên > category > mô tả). Token cuối của câu tìm kiếm được mở rộng theo prefix ("ao th" khớp "thun").
+ *
+ * Mỗi sản phẩm được gán một số thứ tự (ordinal), posting list là mảng primitive sắp theo ordinal
+ * nên một lần search không cấp phát theo số sản phẩm khớp và có thể bỏ qua phần lớn sản phẩm (MaxScore).
+ * Thread-safe: search song song dưới read lock, cập nhật một sản phẩm chỉ giữ write lock rất ngắn
+ * (phần phân tích text làm ngoài lock).
+ */
+public final class ProductSearchIndex {
+
+    private static final float NAME_WEIGHT = 3f;
+    private static final float CATEGORY_WEIGHT = 2f;
+    private static final float DESCRIPTION_WEIGHT = 1f;
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    // Khớp theo prefix xếp sau khớp nguyên từ
+    private static final double PREFIX_PENALTY = 0.8;
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final int MAX_PREFIX_EXPANSIONS = 32;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int NO_MORE_DOCS = Integer.MAX_VALUE;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Integer> ordinals = new HashMap<>();
+    private final NavigableMap<String, Postings> postings = new TreeMap<>();
+    private ProductSummary[] summaries = new ProductSummary[INITIAL_CAPACITY];
+    private String[][] documentTerms = new String[INITIAL_CAPACITY][];
+    private float[] lengths = new float[INITIAL_CAPACITY];
+    private int[] freeOrdinals = new int[16];
+    private int freeCount;
+    private int nextOrdinal;
+    private double totalLength;
+
+    public void upsert(ProductSearchDocument document) {
+        Analyzed analyzed = analyze(document);
+        lock.writeLock().lock();
+        try {
+            removeLocked(document.productId());
+            int ordinal = allocateOrdinal();
+            ordinals.put(document.productId(), ordinal);
+            summaries[ordinal] = analyzed.summary();
+            documentTerms[ordinal] = analyzed.terms();
+            lengths[ordinal] = analyzed.length();
+            for (int i = 0; i < analyzed.terms().length; i++) {
+                postings.computeIfAbsent(analyzed.terms()[i], term -> new Postings())
+                        .add(ordinal, analyzed.frequencies()[i]);
+            }
+            totalLength += analyzed.length();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String productId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ordinals.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Sản phẩm khớp nhiều token hơn đứng trước, cùng số token thì xếp theo điểm BM25.
+     *
+     * Duyệt theo sản phẩm (document-at-a-time) với MaxScore: token được xếp theo điểm tối đa có thể đóng góp,
+     * khi top-k đã đủ thì các token mà tổng điểm tối đa không vượt được ngưỡng chỉ được tra (nhảy bằng binary search)
+     * cho sản phẩm ứng viên, không duyệt hết posting list của chúng.
+     */
+    public List<ProductSummary> search(String query, int limit) {
+        List<String> tokens = new ArrayList<>(new LinkedHashSet<>(SearchText.tokenize(query)));
+        if (tokens.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            int documents = ordinals.size();
+            if (documents == 0) {
+                return List.of();
+            }
+            Scorer scorer = new Scorer(totalLength / documents);
+            List<TokenCursor> cursors = new ArrayList<>(tokens.size());
+            for (int i = 0; i < tokens.size(); i++) {
+                String token = tokens.get(i);
+                List<Postings> lists = new ArrayList<>();
+                List<Double> boosts = new ArrayList<>();
+                Postings exact = postings.get(token);
+                if (exact != null) {
+                    lists.add(exact);
+                    boosts.add(1.0);
+                }
+                if (i == tokens.size() - 1 && token.length() >= MIN_PREFIX_LENGTH) {
+                    for (Postings expansion
+                            : postings.subMap(token, false, token + Character.MAX_VALUE, false).values()) {
+                        if (lists.size() - (exact != null ? 1 : 0) >= MAX_PREFIX_EXPANSIONS) {
+                            break;
+                        }
+                        lists.add(expansion);
+                        boosts.add(PREFIX_PENALTY);
+                    }
+                }
+                if (!lists.isEmpty()) {
+                    cursors.add(new TokenCursor(lists, boosts, scorer, documents));
+                }
+            }
+            if (cursors.isEmpty()) {
+                return List.of();
+            }
+            return maxScore(cursors, scorer, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<ProductSummary> maxScore(List<TokenCursor> cursors, Scorer scorer, int limit) {
+        // Token có điểm tối đa thấp đứng trước: chúng là những token bị bỏ duyệt sớm nhất
+        cursors.sort(Comparator.comparingDouble(cursor -> cursor.upperBound));
+        int count = cursors.size();
+        // Khoá xếp hạng = matched * matchWeight + score, matchWeight lớn hơn mọi tổng điểm nên khớp thêm token luôn thắng
+        double matchWeight = 1;
+        for (TokenCursor cursor : cursors) {
+            matchWeight += cursor.upperBound;
+        }
+        double[] cumulativeBound = new double[count];
+        for (int i = 0; i < count; i++) {
+            cumulativeBound[i] = (i == 0 ? 0 : cumulativeBound[i - 1]) + matchWeight + cursors.get(i).upperBound;
+        }
+
+        double[] contributions = new double[count];
+        TopK top = new TopK(limit);
+        double threshold = Double.NEGATIVE_INFINITY;
+        int firstEssential = 0;
+        while (firstEssential < count) {
+            int doc = NO_MORE_DOCS;
+            for (int i = firstEssential; i < count; i++) {
+                doc = Math.min(doc, cursors.get(i).doc);
+            }
+            if (doc == NO_MORE_DOCS) {
+                break;
+            }
+
+            int matched = 0;
+            double partial = 0;
+            for (int i = firstEssential; i < count; i++) {
+                TokenCursor cursor = cursors.get(i);
+                contributions[i] = 0;
+                if (cursor.doc == doc) {
+                    matched++;
+                    contributions[i] = cursor.score(scorer, lengths[doc]);
+                    partial += contributions[i];
+                    cursor.next();
+                }
+            }
+            boolean competitive = true;
+            for (int i = firstEssential - 1; i >= 0; i--) {
+                // Giữ bằng nhau: cùng khoá vẫn có thể thắng nhờ productId
+                if (matched * matchWeight + partial + cumulativeBound[i] < threshold) {
+                    competitive = false;
+                    break;
+                }
+                TokenCursor cursor = cursors.get(i);
+                contributions[i] = 0;
+                cursor.advance(doc);
+                if (cursor.doc == doc) {
+                    matched++;
+                    contributions[i] = cursor.score(scorer, lengths[doc]);
+                    partial += contributions[i];
+                }
+            }
+            if (!competitive) {
+                continue;
+            }
+            // Cộng theo thứ tự token cố định để cùng một sản phẩm luôn có cùng điểm, dù token nào đang bị bỏ duyệt
+            double score = 0;
+            for (int i = 0; i < count; i++) {
+                score += contributions[i];
+            }
+
+            if (top.offer(doc, matched, score) && top.isFull()) {
+                threshold = top.minMatched() * matchWeight + top.minScore();
+                while (firstEssential < count && cumulativeBound[firstEssential] < threshold) {
+                    firstEssential++;
+                }
+            }
+        }
+        return top.results();
+    }
+
+    private int compare(int leftMatched, double leftScore, int leftDoc, int rightMatched, double rightScore,
+            int rightDoc) {
+        int byMatched = Integer.compare(leftMatched, rightMatched);
+        if (byMatched != 0) {
+            return byMatched;
+        }
+        int byScore = Double.compare(leftScore, rightScore);
+        if (byScore != 0) {
+            return byScore;
+        }
+        return summaries[rightDoc].productId().compareTo(summaries[leftDoc].productId());
+    }
+
+    private void removeLocked(String productId) {
+        Integer ordinal = ordinals.remove(productId);
+        if (ordinal == null) {
+            return;
+        }
+        for (String term : documentTerms[ordinal]) {
+            Postings posting = postings.get(term);
+            if (posting != null && posting.remove(ordinal) && posting.size == 0) {
+                postings.remove(term);
+            }
+        }
+        totalLength -= lengths[ordinal];
+        summaries[ordinal] = null;
+        documentTerms[ordinal] = null;
+        lengths[ordinal] = 0;
+        if (freeCount == freeOrdinals.length) {
+            freeOrdinals = Arrays.copyOf(freeOrdinals, freeCount * 2);
+        }
+        freeOrdinals[freeCount++] = ordinal;
+    }
+
+    private int allocateOrdinal() {
+        if (freeCount > 0) {
+            return freeOrdinals[--freeCount];
+        }
+        if (nextOrdinal == summaries.length) {
+            int capacity = summaries.length * 2;
+            summaries = Arrays.copyOf(summaries, capacity);
+            documentTerms = Arrays.copyOf(documentTerms, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+        }
+        return nextOrdinal++;
+    }
+
+    private static Analyzed analyze(ProductSearchDocument document) {
+        Map<String, Float> terms = new HashMap<>();
+        addField(terms, document.productName(), NAME_WEIGHT);
+        addField(terms, document.categoryName(), CATEGORY_WEIGHT);
+        addField(terms, document.parentCategoryName(), CATEGORY_WEIGHT);
+        addField(terms, document.description(), DESCRIPTION_WEIGHT);
+
+        String[] termArray = new String[terms.size()];
+        float[] frequencies = new float[terms.size()];
+        float length = 0;
+        int i = 0;
+        for (Map.Entry<String, Float> entry : terms.entrySet()) {
+            termArray[i] = entry.getKey();
+            frequencies[i] = entry.getValue();
+            length += entry.getValue();
+            i++;
+        }
+        return new Analyzed(document.toSummary(), termArray, frequencies, Math.max(length, 1f));
+    }
+
+    private static void addField(Map<String, Float> terms, String text, float weight) {
+        for (String token : SearchText.tokenize(text)) {
+            terms.merge(token, weight, Float::sum);
+        }
+    }
+
+    private record Analyzed(ProductSummary summary, String[] terms, float[] frequencies, float length) {
+    }
+
+    /**
+     * Danh sách (ordinal, tf) của một term, sắp theo ordinal để search nhảy bằng binary search
+     * và xoá không phải duyệt cả danh sách
+     */
+    private static final class Postings {
+        private int[] docs = new int[4];
+        private float[] frequencies = new float[4];
+        private int size;
+        // Chỉ tăng, không giảm khi xoá: vẫn là cận trên đúng cho điểm tối đa
+        private float maxFrequency;
+
+        void add(int doc, float frequency) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            // Build lại thêm theo ordinal tăng dần nên thường chỉ là ghi vào cuối
+            int index = size == 0 || docs[size - 1] < doc ? size : -Arrays.binarySearch(docs, 0, size, doc) - 1;
+            System.arraycopy(docs, index, docs, index + 1, size - index);
+            System.arraycopy(frequencies, index, frequencies, index + 1, size - index);
+            docs[index] = doc;
+            frequencies[index] = frequency;
+            size++;
+            maxFrequency = Math.max(maxFrequency, frequency);
+        }
+
+        boolean remove(int doc) {
+            int index = Arrays.binarySearch(docs, 0, size, doc);
+            if (index < 0) {
+                return false;
+            }
+            size--;
+            System.arraycopy(docs, index + 1, docs, index, size - index);
+            System.arraycopy(frequencies, index + 1, frequencies, index, size - index);
+            return true;
+        }
+
+        // Vị trí đầu tiên từ from có ordinal >= target. Ứng viên tăng dần nên nhảy lũy thừa 2 từ vị trí hiện tại
+        // rồi mới binary search trong khoảng nhỏ, thay vì binary search cả phần còn lại
+        int seek(int from, int target) {
+            if (from >= size || docs[from] >= target) {
+                return from;
+            }
+            int low = from;
+            int step = 1;
+            while (low + step < size && docs[low + step] < target) {
+                low += step;
+                step <<= 1;
+            }
+            int index = Arrays.binarySearch(docs, low + 1, Math.min(low + step + 1, size), target);
+            return index >= 0 ? index : -index - 1;
+        }
+    }
+
+    /**
+     * Phần tf của BM25 cho một lần search (độ dài trung bình cố định trong lần search đó)
+     */
+    private static final class Scorer {
+        private final double lengthFactor;
+        private final double constantFactor;
+
+        Scorer(double averageLength) {
+            this.lengthFactor = K1 * B / averageLength;
+            this.constantFactor = K1 * (1 - B);
+        }
+
+        double tf(float frequency, float length) {
+            return frequency / (frequency + constantFactor + lengthFactor * length);
+        }
+    }
+
+    /**
+     * Con trỏ trên các posting list của một token (nguyên từ + các term mở rộng theo prefix),
+     * điểm của token tại một sản phẩm là điểm cao nhất trong các term khớp
+     */
+    private static final class TokenCursor {
+        private final Postings[] lists;
+        private final double[] weights;
+        private final int[] positions;
+        private final double upperBound;
+        private int doc;
+
+        TokenCursor(List<Postings> lists, List<Double> boosts, Scorer scorer, int documents) {
+            this.lists = lists.toArray(Postings[]::new);
+            this.weights = new double[this.lists.length];
+            this.positions = new int[this.lists.length];
+            double bound = 0;
+            for (int i = 0; i < this.lists.length; i++) {
+                Postings posting = this.lists[i];
+                double idf = Math.log(1 + (documents - posting.size + 0.5) / (posting.size + 0.5));
+                weights[i] = boosts.get(i) * idf * (K1 + 1);
+                // Độ dài sản phẩm tối thiểu là 1 nên đây là cận trên của điểm term này
+                bound = Math.max(bound, weights[i] * scorer.tf(posting.maxFrequency, 1f));
+            }
+            this.upperBound = bound;
+            this.doc = currentDoc();
+        }
+
+        double score(Scorer scorer, float length) {
+            double best = 0;
+            for (int i = 0; i < lists.length; i++) {
+                Postings posting = lists[i];
+                if (positions[i] < posting.size && posting.docs[positions[i]] == doc) {
+                    best = Math.max(best, weights[i] * scorer.tf(posting.frequencies[positions[i]], length));
+                }
+            }
+            return best;
+        }
+
+        void next() {
+            for (int i = 0; i < lists.length; i++) {
+                if (positions[i] < lists[i].size && lists[i].docs[positions[i]] == doc) {
+                    positions[i]++;
+                }
+            }
+            doc = currentDoc();
+        }
+
+        void advance(int target) {
+            if (doc >= target) {
+                return;
+            }
+            for (int i = 0; i < lists.length; i++) {
+                positions[i] = lists[i].seek(positions[i], target);
+            }
+            doc = currentDoc();
+        }
+
+        private int currentDoc() {
+            int current = NO_MORE_DOCS;
+            for (int i = 0; i < lists.length; i++) {
+                if (positions[i] < lists[i].size) {
+                    current = Math.min(current, lists[i].docs[positions[i]]);
+                }
+            }
+            return current;
+        }
+    }
+
+    /**
+     * Min-heap k phần tử tốt nhất: phần tử xếp hạng thấp nhất ở gốc để bị thay thế trước
+     */
+    private final class TopK {
+        private final int[] docs;
+        private final int[] matched;
+        private final double[] scores;
+        private int size;
+
+        TopK(int limit) {
+            this.docs = new int[limit];
+            this.matched = new int[limit];
+            this.scores = new double[limit];
+        }
+
+        boolean isFull() {
+            return size == docs.length;
+        }
+
+        int minMatched() {
+            return matched[0];
+        }
+
+        double minScore() {
+            return scores[0];
+        }
+
+        boolean offer(int doc, int docMatched, double score) {
+            if (size < docs.length) {
+                set(size, doc, docMatched, score);
+                siftUp(size++);
+                return true;
+            }
+            if (compare(docMatched, score, doc, matched[0], scores[0], docs[0]) <= 0) {
+                return false;
+            }
+            set(0, doc, docMatched, score);
+            siftDown();
+            return true;
+        }
+
+        List<ProductSummary> results() {
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (left, right) -> compareAt(right, left));
+            List<ProductSummary> results = new ArrayList<>(size);
+            for (int i : order) {
+                results.add(summaries[docs[i]]);
+            }
+            return results;
+        }
+
+        private int compareAt(int left, int right) {
+            return compare(matched[left], scores[left], docs[left], matched[right], scores[right], docs[right]);
+        }
+
+        private void siftUp(int index) {
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (compareAt(index, parent) >= 0) {
+                    return;
+                }
+                swap(index, parent);
+                index = parent;
+            }
+        }
+
+        private void siftDown() {
+            int index = 0;
+            while (true) {
+                int smallest = index;
+                int left = 2 * index + 1;
+                int right = left + 1;
+                if (left < size && compareAt(left, smallest) < 0) {
+                    smallest = left;
+                }
+                if (right < size && compareAt(right, smallest) < 0) {
+                    smallest = right;
+                }
+                if (smallest == index) {
+                    return;
+                }
+                swap(index, smallest);
+                index = smallest;
+            }
+        }
+
+        private void set(int index, int doc, int docMatched, double score) {
+            docs[index] = doc;
+            matched[index] = docMatched;
+            scores[index] = score;
+        }
+
+        private void swap(int i, int j) {
+            int doc = docs[i];
+            int docMatched = matched[i];
+            double score = scores[i];
+            set(i, docs[j], matched[j], scores[j]);
+            set(j, doc, docMatched, score);
+        }
+    }
+}
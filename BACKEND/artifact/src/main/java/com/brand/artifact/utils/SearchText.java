@@ -0,0 +1,51 @@
+package com.brand.artifact.utils;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Chuẩn hoá text cho tìm kiếm: bỏ dấu tiếng Việt ("Áo Thun" -> "ao thun"), chữ thường, tách token
+ */
+public final class SearchText {
+
+    private SearchText() {
+    }
+
+    public static String fold(String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder folded = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            // đ/Đ không có dạng tổ hợp trong NFD
+            if (c == 'đ' || c == 'Đ') {
+                c = 'd';
+            }
+            folded.append(c);
+        }
+        return folded.toString().toLowerCase(Locale.ROOT);
+    }
+
+    public static List<String> tokenize(String text) {
+        String folded = fold(text);
+        List<String> tokens = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= folded.length(); i++) {
+            boolean letterOrDigit = i < folded.length() && Character.isLetterOrDigit(folded.charAt(i));
+            if (letterOrDigit && start < 0) {
+                start = i;
+            } else if (!letterOrDigit && start >= 0) {
+                tokens.add(folded.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,30 @@
+package com.brand.artifact.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+/**
+ * SHA-256 digest của token, dùng làm key cho cache/Redis thay vì lưu token gốc
+ */
+public final class TokenDigest {
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 algorithm not available", e);
+        }
+    });
+
+    private TokenDigest() {
+    }
+
+    public static String sha256(String token) {
+        MessageDigest digest = SHA_256.get();
+        digest.reset();
+        byte[] hash = digest.digest(token.getBytes(StandardCharsets.UTF_8));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+    }
+}
@@ -0,0 +1,35 @@
+package com.brand.artifact.utils;
+
+import java.time.Instant;
+
+/**
+ * Kết quả parse + verify chữ ký của một JWT (immutable, an toàn để cache)
+ */
+public record VerifiedToken(
+        String subject,
+        String userId,
+        String email,
+        String role,
+        String type,
+        Instant issuedAt,
+        Instant expiresAt,
+        long sessionEpoch
+) {
+
+    public boolean isAccessToken() {
+        return JwtUtil.TYPE_ACCESS.equals(type);
+    }
+
+    public boolean isRefreshToken() {
+        return JwtUtil.TYPE_REFRESH.equals(type);
+    }
+
+    public boolean isExpired() {
+        return !expiresAt.isAfter(Instant.now());
+    }
+
+    public long remainingTtlMillis() {
+        long remaining = expiresAt.toEpochMilli() - System.currentTimeMillis();
+        return Math.max(remaining, 0);
+    }
+}
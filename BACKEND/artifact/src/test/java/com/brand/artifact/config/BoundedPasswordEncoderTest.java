@@ -0,0 +1,136 @@
+package com.brand.artifact.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.brand.artifact.exception.ServiceBusyException;
+
+/**
+ * Pool BCrypt: đầy thì 503 ngay, quá hạn khi còn trong hàng đợi thì không hash nữa,
+ * hash đã bắt đầu thì luôn được đợi chạy xong (interrupt không dừng được BCrypt)
+ */
+class BoundedPasswordEncoderTest {
+
+    private static final long TIMEOUT_MS = 200;
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicInteger hashes = new AtomicInteger();
+    private BoundedPasswordEncoder encoder;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        encoder.destroy();
+    }
+
+    @Test
+    void saturatedPoolIsRejectedImmediately() throws Exception {
+        encoder = new BoundedPasswordEncoder(blockingDelegate(), 1, 1, 5_000, 3);
+        CountDownLatch running = occupyTheWorker();
+        running.await();
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("queued"));
+        awaitQueued(1);
+
+        ServiceBusyException error = assertThrows(ServiceBusyException.class, () -> encoder.encode("rejected"));
+
+        assertEquals(3, error.getRetryAfterSeconds());
+        assertEquals(1, encoder.getRejectedCount());
+        release.countDown();
+        assertEquals("hash:queued", queued.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void requestsThatTimeOutInTheQueueAreNeverHashed() throws Exception {
+        encoder = new BoundedPasswordEncoder(blockingDelegate(), 1, 4, TIMEOUT_MS, 2);
+        occupyTheWorker().await();
+
+        assertThrows(ServiceBusyException.class, () -> encoder.matches("late", "hash:late"));
+        release.countDown();
+        awaitQueued(0);
+
+        assertEquals("hash:after", encoder.encode("after"));
+        // Lượt chiếm worker và lượt "after", lượt quá hạn không chạy
+        assertEquals(2, hashes.get());
+        assertEquals(1, encoder.getRejectedCount());
+    }
+
+    @Test
+    void hashesAlreadyRunningAreAwaitedPastTheTimeout() throws Exception {
+        PasswordEncoder slow = new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                sleep(TIMEOUT_MS * 3);
+                return "hash:" + rawPassword;
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return encode(rawPassword).equals(encodedPassword);
+            }
+        };
+        encoder = new BoundedPasswordEncoder(slow, 1, 1, TIMEOUT_MS, 2);
+
+        assertTrue(encoder.matches("slow", "hash:slow"));
+        assertEquals(0, encoder.getRejectedCount());
+    }
+
+    // Giữ thread duy nhất của pool bận tới khi release
+    private CountDownLatch occupyTheWorker() {
+        CountDownLatch running = new CountDownLatch(1);
+        encoder.getExecutor().execute(() -> {
+            hashes.incrementAndGet();
+            running.countDown();
+            await(release);
+        });
+        return running;
+    }
+
+    private PasswordEncoder blockingDelegate() {
+        return new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                hashes.incrementAndGet();
+                return "hash:" + rawPassword;
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return encode(rawPassword).equals(encodedPassword);
+            }
+        };
+    }
+
+    private void awaitQueued(int size) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (encoder.getExecutor().getQueue().size() != size && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(size, encoder.getExecutor().getQueue().size());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.brand.artifact.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.brand.artifact.constant.AuthMode;
+import com.brand.artifact.constant.Role;
+import com.brand.artifact.dto.projection.UserStatus;
+import com.brand.artifact.service.CustomUserDetailsService;
+import com.brand.artifact.service.TokenBlacklistService;
+import com.brand.artifact.service.TokenRevocationService;
+import com.brand.artifact.service.UserStatusService;
+import com.brand.artifact.utils.JwtUtil;
+import com.brand.artifact.utils.VerifiedToken;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+
+/**
+ * Kết quả xác thực bearer token (cả hai chế độ STATELESS và DATABASE) và metric auth.filter tag theo kết quả đó
+ */
+@ExtendWith(MockitoExtension.class)
+class JwtAuthenticationFilterTest {
+
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> { };
+    private static final String TOKEN = "access-token";
+
+    @Mock
+    private JwtUtil jwtUtil;
+
+    @Mock
+    private CustomUserDetailsService userDetailsService;
+
+    @Mock
+    private TokenBlacklistService tokenBlacklistService;
+
+    @Mock
+    private TokenRevocationService tokenRevocationService;
+
+    @Mock
+    private UserStatusService userStatusService;
+
+    @InjectMocks
+    private JwtAuthenticationFilter filter;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        filter.setMeterRegistry(meterRegistry);
+        ReflectionTestUtils.setField(filter, "authMode", AuthMode.STATELESS);
+        SecurityContextHolder.clearContext();
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void validTokenAuthenticatesAndIsTimedAsAuthenticated() throws Exception {
+        when(jwtUtil.parseAccessToken(TOKEN)).thenReturn(Optional.of(token("USER")));
+        when(userStatusService.getStatus("user-1"))
+                .thenReturn(Optional.of(new UserStatus("user-1", "alice", Role.USER, true)));
+
+        filter.doFilter(bearerRequest(), new MockHttpServletResponse(), NO_OP_CHAIN);
+
+        assertNotNull(SecurityContextHolder.getContext().getAuthentication());
+        assertEquals(1, filterCount("authenticated"));
+        assertEquals(1, meterRegistry.get("auth.jwt.parse").timer().count());
+        assertEquals(1, meterRegistry.get("auth.blacklist.check").timer().count());
+    }
+
+    @Test
+    void blacklistedTokenSkipsParsing() throws Exception {
+        when(tokenBlacklistService.isTokenBlacklisted(TOKEN)).thenReturn(true);
+
+        filter.doFilter(bearerRequest(), new MockHttpServletResponse(), NO_OP_CHAIN);
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        assertEquals(1, filterCount("blacklisted"));
+        assertEquals(0, meterRegistry.get("auth.jwt.parse").timer().count());
+    }
+
+    @Test
+    void rejectedOutcomesAreTaggedSeparately() throws Exception {
+        when(jwtUtil.parseAccessToken(anyString())).thenReturn(Optional.empty());
+        filter.doFilter(bearerRequest(), new MockHttpServletResponse(), NO_OP_CHAIN);
+
+        when(jwtUtil.parseAccessToken(anyString())).thenReturn(Optional.of(token("USER")));
+        when(tokenRevocationService.isRevoked("user-1", 0L)).thenReturn(true);
+        filter.doFilter(bearerRequest(), new MockHttpServletResponse(), NO_OP_CHAIN);
+
+        // Role trong token khác role hiện tại của user
+        when(tokenRevocationService.isRevoked("user-1", 0L)).thenReturn(false);
+        when(jwtUtil.parseAccessToken(anyString())).thenReturn(Optional.of(token("ADMIN")));
+        lenient().when(userStatusService.getStatus("user-1"))
+                .thenReturn(Optional.of(new UserStatus("user-1", "alice", Role.USER, true)));
+        filter.doFilter(bearerRequest(), new MockHttpServletResponse(), NO_OP_CHAIN);
+
+        assertEquals(1, filterCount("invalid"));
+        assertEquals(1, filterCount("revoked"));
+        assertEquals(1, filterCount("rejected"));
+        assertEquals(0, filterCount("authenticated"));
+    }
+
+    @Test
+    void statelessModeRejectsDisabledUsersWithoutLoadingThem() throws Exception {
+        when(jwtUtil.parseAccessToken(TOKEN)).thenReturn(Optional.of(token("USER")));
+        when(userStatusService.getStatus("user-1"))
+                .thenReturn(Optional.of(new UserStatus("user-1", "alice", Role.USER, false)));
+
+        filter.doFilter(bearerRequest(), new MockHttpServletResponse(), NO_OP_CHAIN);
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        assertEquals(1, filterCount("rejected"));
+        verify(userDetailsService, never()).loadUserByUsername(anyString());
+    }
+
+    @Test
+    void databaseModeLoadsTheUserInsteadOfTrustingClaims() throws Exception {
+        ReflectionTestUtils.setField(filter, "authMode", AuthMode.DATABASE);
+        when(jwtUtil.parseAccessToken(TOKEN)).thenReturn(Optional.of(token("USER")));
+        when(userDetailsService.loadUserByUsername("alice")).thenReturn(new AuthenticatedUser("user-1", "alice", "x",
+                true, List.of(new SimpleGrantedAuthority("ROLE_ADMIN"))));
+
+        filter.doFilter(bearerRequest(), new MockHttpServletResponse(), NO_OP_CHAIN);
+
+        // Quyền lấy từ database, không lấy từ claim role của token
+        assertEquals(List.of(new SimpleGrantedAuthority("ROLE_ADMIN")),
+                List.copyOf(SecurityContextHolder.getContext().getAuthentication().getAuthorities()));
+        assertEquals(1, filterCount("authenticated"));
+        verify(userStatusService, never()).getStatus(anyString());
+    }
+
+    @Test
+    void databaseModeRejectsDisabledUsers() throws Exception {
+        ReflectionTestUtils.setField(filter, "authMode", AuthMode.DATABASE);
+        when(jwtUtil.parseAccessToken(TOKEN)).thenReturn(Optional.of(token("USER")));
+        when(userDetailsService.loadUserByUsername("alice")).thenReturn(new AuthenticatedUser("user-1", "alice", "x",
+                false, List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+
+        filter.doFilter(bearerRequest(), new MockHttpServletResponse(), NO_OP_CHAIN);
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        assertEquals(1, filterCount("rejected"));
+    }
+
+    private long filterCount(String outcome) {
+        return meterRegistry.get("auth.filter").tag("outcome", outcome).timer().count();
+    }
+
+    private static MockHttpServletRequest bearerRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users/me");
+        request.addHeader("Authorization", "Bearer " + TOKEN);
+        return request;
+    }
+
+    private static VerifiedToken token(String role) {
+        Instant issuedAt = Instant.parse("2026-01-01T00:00:00Z");
+        return new VerifiedToken("alice", "user-1", "alice@example.com", role, "access", issuedAt,
+                issuedAt.plusSeconds(900), 0L);
+    }
+}
@@ -0,0 +1,60 @@
+package com.brand.artifact.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Số câu SQL mỗi request tính cả query chạy trong filter (trước khi tới controller)
+ */
+class QueryCountFilterTest {
+
+    private final QueryCountStatementInspector inspector = new QueryCountStatementInspector();
+    private SimpleMeterRegistry meterRegistry;
+    private QueryCountFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new QueryCountFilter(meterRegistry);
+    }
+
+    @Test
+    void countsQueriesFromFiltersAndTheController() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users/me");
+
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            // Filter xác thực tra user, rồi controller chạy thêm hai query
+            inspector.inspect("select * from users where user_id = ?");
+            req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/users/me");
+            inspector.inspect("select * from addresses where user_id = ?");
+            inspector.inspect("select * from orders where user_id = ?");
+        });
+
+        DistributionSummary summary = summary("GET", "/api/users/me");
+        assertEquals(1, summary.count());
+        assertEquals(3, summary.totalAmount());
+    }
+
+    @Test
+    void eachRequestStartsFromZeroAndUnroutedRequestsAreStillRecorded() throws Exception {
+        inspector.inspect("select 1");
+
+        // Bị từ chối trong security filter chain, không tới DispatcherServlet
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/orders"), new MockHttpServletResponse(),
+                (req, res) -> inspector.inspect("select * from users where user_id = ?"));
+
+        assertEquals(1, summary("GET", "UNKNOWN").totalAmount());
+    }
+
+    private DistributionSummary summary(String method, String uri) {
+        return meterRegistry.get("http.server.requests.queries").tag("method", method).tag("uri", uri).summary();
+    }
+}
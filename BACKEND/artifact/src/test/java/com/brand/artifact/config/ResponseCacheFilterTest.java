@@ -0,0 +1,344 @@
+package com.brand.artifact.config;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import com.brand.artifact.event.CatalogChangedEvent;
+import com.brand.artifact.event.RemoteCatalogChangedEvent;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Cache byte response: hit không gọi controller, gzip, chuẩn hoá query, 304, invalidate theo sản phẩm, single-flight
+ */
+class ResponseCacheFilterTest {
+
+    private static final String ETAG = "W/\"abc\"";
+
+    private ResponseCacheFilter filter;
+    private AtomicInteger calls;
+    private volatile String body;
+    private volatile CountDownLatch gate;
+
+    @BeforeEach
+    void setUp() {
+        filter = new ResponseCacheFilter(true, new String[] { "/api/products/**=30", "/api/categories/**=300" },
+                new String[] { "/api/categories/tree" }, 1, 64, 5000, new SimpleMeterRegistry());
+        calls = new AtomicInteger();
+        body = "{\"result\":\"" + "x".repeat(200) + "\"}";
+        gate = null;
+    }
+
+    // Giả lập controller: đếm số lần được gọi, trả 304 nếu request còn header điều kiện
+    private final FilterChain controller = (request, response) -> {
+        calls.incrementAndGet();
+        CountDownLatch latch = gate;
+        if (latch != null) {
+            try {
+                latch.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        HttpServletResponse http = (HttpServletResponse) response;
+        if (ETAG.equals(((HttpServletRequest) request).getHeader(HttpHeaders.IF_NONE_MATCH))) {
+            http.setStatus(304);
+            return;
+        }
+        http.setStatus(200);
+        http.setHeader(HttpHeaders.ETAG, ETAG);
+        http.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        http.getOutputStream().write(body.getBytes(StandardCharsets.UTF_8));
+    };
+
+    @Test
+    void secondRequestIsServedFromCacheWithoutTheController() throws Exception {
+        MockHttpServletResponse first = perform(get("/api/products"));
+        MockHttpServletResponse second = perform(get("/api/products"));
+
+        assertEquals(1, calls.get());
+        assertEquals("MISS", first.getHeader(ResponseCacheFilter.CACHE_HEADER));
+        assertEquals("HIT", second.getHeader(ResponseCacheFilter.CACHE_HEADER));
+        assertEquals(body, second.getContentAsString());
+        assertEquals(ETAG, second.getHeader(HttpHeaders.ETAG));
+        assertEquals(MediaType.APPLICATION_JSON_VALUE, second.getContentType());
+    }
+
+    @Test
+    void queryParametersAreNormalized() throws Exception {
+        perform(get("/api/products/search", "q", "ao", "limit", "5", "cursor", ""));
+        perform(get("/api/products/search", "limit", "5", "q", "ao"));
+        perform(get("/api/products/search", "limit", "6", "q", "ao"));
+
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void servesPreCompressedBodyToGzipClients() throws Exception {
+        perform(get("/api/products"));
+        MockHttpServletRequest request = get("/api/products");
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "br, gzip");
+        MockHttpServletResponse response = perform(request);
+
+        assertEquals("gzip", response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(HttpHeaders.ACCEPT_ENCODING, response.getHeader(HttpHeaders.VARY));
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray()))) {
+            assertArrayEquals(body.getBytes(StandardCharsets.UTF_8), gzip.readAllBytes());
+        }
+
+        MockHttpServletRequest identity = get("/api/products");
+        identity.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0");
+        assertNull(perform(identity).getHeader(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    @Test
+    void matchingETagIsNotModifiedOnHitAndMiss() throws Exception {
+        MockHttpServletRequest revalidate = get("/api/products");
+        revalidate.addHeader(HttpHeaders.IF_NONE_MATCH, ETAG);
+        MockHttpServletResponse miss = perform(revalidate);
+
+        // Controller vẫn trả body đầy đủ để lấp cache, client nhận 304
+        assertEquals(304, miss.getStatus());
+        assertEquals(0, miss.getContentAsByteArray().length);
+        assertEquals("HIT", perform(get("/api/products")).getHeader(ResponseCacheFilter.CACHE_HEADER));
+
+        MockHttpServletRequest again = get("/api/products");
+        again.addHeader(HttpHeaders.IF_NONE_MATCH, ETAG);
+        assertEquals(304, perform(again).getStatus());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void catalogChangeDropsCachedResponses() throws Exception {
+        perform(get("/api/products"));
+        body = "{\"result\":\"changed\"}";
+        filter.onCatalogChanged(CatalogChangedEvent.product("p1"));
+
+        assertEquals(body, perform(get("/api/products")).getContentAsString());
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void productChangeKeepsOtherProductsAndCategoryOnlyRoutes() throws Exception {
+        perform(detail("p1"), productDetail("p1"));
+        perform(detail("p2"), productDetail("p2"));
+        perform(get("/api/products"));
+        perform(get("/api/categories/tree"));
+
+        filter.onCatalogChanged(CatalogChangedEvent.product("p1"));
+
+        assertEquals("MISS", perform(detail("p1"), productDetail("p1")).getHeader(ResponseCacheFilter.CACHE_HEADER));
+        assertEquals("MISS", perform(get("/api/products")).getHeader(ResponseCacheFilter.CACHE_HEADER));
+        assertEquals("HIT", perform(detail("p2"), productDetail("p2")).getHeader(ResponseCacheFilter.CACHE_HEADER));
+        assertEquals("HIT", perform(get("/api/categories/tree")).getHeader(ResponseCacheFilter.CACHE_HEADER));
+        assertEquals(6, calls.get());
+    }
+
+    @Test
+    void categoryChangeDropsEverything() throws Exception {
+        perform(detail("p1"), productDetail("p1"));
+        perform(get("/api/categories/tree"));
+
+        filter.onCatalogChanged(CatalogChangedEvent.category("c1"));
+
+        assertEquals("MISS", perform(detail("p1"), productDetail("p1")).getHeader(ResponseCacheFilter.CACHE_HEADER));
+        assertEquals("MISS", perform(get("/api/categories/tree")).getHeader(ResponseCacheFilter.CACHE_HEADER));
+        assertEquals(4, calls.get());
+    }
+
+    @Test
+    void changesOnOtherNodesInvalidateLikeLocalOnes() throws Exception {
+        perform(detail("p1"), productDetail("p1"));
+        perform(detail("p2"), productDetail("p2"));
+        perform(get("/api/products"));
+        perform(get("/api/categories/tree"));
+
+        filter.onRemoteCatalogChanged(RemoteCatalogChangedEvent.product("p1"));
+
+        assertEquals("MISS", perform(detail("p1"), productDetail("p1")).getHeader(ResponseCacheFilter.CACHE_HEADER));
+        assertEquals("MISS", perform(get("/api/products")).getHeader(ResponseCacheFilter.CACHE_HEADER));
+        assertEquals("HIT", perform(detail("p2"), productDetail("p2")).getHeader(ResponseCacheFilter.CACHE_HEADER));
+        assertEquals("HIT", perform(get("/api/categories/tree")).getHeader(ResponseCacheFilter.CACHE_HEADER));
+
+        filter.onRemoteCatalogChanged(RemoteCatalogChangedEvent.categories());
+
+        assertEquals("MISS", perform(get("/api/categories/tree")).getHeader(ResponseCacheFilter.CACHE_HEADER));
+        assertEquals("MISS", perform(detail("p2"), productDetail("p2")).getHeader(ResponseCacheFilter.CACHE_HEADER));
+    }
+
+    @Test
+    void responseBuiltBeforeAnInvalidationIsNotServed() throws Exception {
+        gate = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<MockHttpServletResponse> building = executor.submit(() -> perform(get("/api/products")));
+            Thread.sleep(200);
+            // Sản phẩm đổi trong lúc controller đang build danh sách: bản đó không được dùng cho request sau
+            filter.invalidateProduct("p1");
+            gate.countDown();
+            building.get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        gate = null;
+
+        assertEquals("MISS", perform(get("/api/products")).getHeader(ResponseCacheFilter.CACHE_HEADER));
+        assertEquals("HIT", perform(get("/api/products")).getHeader(ResponseCacheFilter.CACHE_HEADER));
+    }
+
+    @Test
+    void errorsAndOtherRoutesAreNotCached() throws Exception {
+        FilterChain failing = (request, response) -> {
+            calls.incrementAndGet();
+            ((HttpServletResponse) response).sendError(404);
+        };
+        filter.doFilter(get("/api/products/missing"), new MockHttpServletResponse(), failing);
+        filter.doFilter(get("/api/products/missing"), new MockHttpServletResponse(), failing);
+        perform(get("/api/users/me"));
+        perform(get("/api/users/me"));
+
+        assertEquals(4, calls.get());
+    }
+
+    @Test
+    void concurrentMissesRunTheControllerOnce() throws Exception {
+        gate = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<MockHttpServletResponse>> responses = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                responses.add(executor.submit(() -> perform(get("/api/products/facets", "sizes", "M"))));
+            }
+            // Đợi các request kia xếp hàng sau request dẫn đầu rồi mới cho controller trả về
+            Thread.sleep(300);
+            gate.countDown();
+            for (Future<MockHttpServletResponse> response : responses) {
+                assertEquals(body, response.get(5, TimeUnit.SECONDS).getContentAsString());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void concurrentMissesShareTheLeadersErrorResponse() throws Exception {
+        gate = new CountDownLatch(1);
+        FilterChain notFound = (request, response) -> {
+            controller.doFilter(request, new MockHttpServletResponse());
+            HttpServletResponse http = (HttpServletResponse) response;
+            http.setStatus(404);
+            http.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            http.getOutputStream().write("{\"code\":404}".getBytes(StandardCharsets.UTF_8));
+        };
+        List<Future<MockHttpServletResponse>> responses = concurrently(8, () -> perform(detail("gone"), notFound));
+
+        for (Future<MockHttpServletResponse> response : responses) {
+            MockHttpServletResponse result = response.get(5, TimeUnit.SECONDS);
+            assertEquals(404, result.getStatus());
+            assertEquals("{\"code\":404}", result.getContentAsString());
+        }
+        assertEquals(1, calls.get());
+        // Lỗi không được cache
+        perform(detail("gone"), notFound);
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void concurrentMissesShareTheLeadersFailure() throws Exception {
+        gate = new CountDownLatch(1);
+        FilterChain failing = (request, response) -> {
+            controller.doFilter(request, new MockHttpServletResponse());
+            throw new IllegalStateException("Database unavailable");
+        };
+        List<Future<MockHttpServletResponse>> responses = concurrently(8, () -> perform(get("/api/products"), failing));
+
+        for (Future<MockHttpServletResponse> response : responses) {
+            ExecutionException error = assertThrows(ExecutionException.class, () -> response.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalStateException.class, error.getCause());
+        }
+        assertEquals(1, calls.get());
+    }
+
+    // Chạy song song, đợi các request xếp hàng sau request dẫn đầu rồi mới mở gate
+    private List<Future<MockHttpServletResponse>> concurrently(int requests,
+            Callable<MockHttpServletResponse> request) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(requests);
+        List<Future<MockHttpServletResponse>> responses = new ArrayList<>();
+        for (int i = 0; i < requests; i++) {
+            responses.add(executor.submit(request));
+        }
+        Thread.sleep(300);
+        gate.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        return responses;
+    }
+
+    // Giả lập Spring MVC gán path variable của handler trang chi tiết sản phẩm
+    private FilterChain productDetail(String productId) {
+        return (request, response) -> {
+            request.setAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE,
+                    Map.of(ResponseCacheFilter.PRODUCT_ID_VARIABLE, productId));
+            controller.doFilter(request, response);
+        };
+    }
+
+    private static MockHttpServletRequest detail(String productId) {
+        return get("/api/products/" + productId);
+    }
+
+    private MockHttpServletResponse perform(MockHttpServletRequest request) throws IOException {
+        return perform(request, controller);
+    }
+
+    private MockHttpServletResponse perform(MockHttpServletRequest request, FilterChain chain) throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try {
+            filter.doFilter(request, response, chain);
+        } catch (ServletException e) {
+            throw new IllegalStateException(e);
+        }
+        return response;
+    }
+
+    private static MockHttpServletRequest get(String path, String... parameters) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        for (int i = 0; i < parameters.length; i += 2) {
+            request.addParameter(parameters[i], parameters[i + 1]);
+        }
+        return request;
+    }
+}
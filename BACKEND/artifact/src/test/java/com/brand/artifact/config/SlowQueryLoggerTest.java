@@ -0,0 +1,110 @@
+package com.brand.artifact.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.ResultSet;
+import java.util.List;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import com.brand.artifact.repository.UserRepository;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.proxy.ResultSetProxyLogic;
+
+/**
+ * Slow-query log: chỉ câu chậm (hoặc được lấy mẫu) được ghi, kèm repository method và số dòng đã đọc
+ */
+class SlowQueryLoggerTest {
+
+    private static final List<QueryInfo> SELECT = List.of(new QueryInfo("SELECT * FROM users WHERE username = ?"));
+
+    private final Logger logger = (Logger) LoggerFactory.getLogger("slow-query");
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+    @BeforeEach
+    void attachAppender() {
+        appender.start();
+        logger.addAppender(appender);
+    }
+
+    @AfterEach
+    void detachAppender() {
+        logger.detachAppender(appender);
+    }
+
+    @Test
+    void fastQueriesAreNotLogged() throws Throwable {
+        SlowQueryLogger slowQueryLogger = new SlowQueryLogger(100, 0.0, true, 64);
+
+        slowQueryLogger.beforeQuery(execution(5), SELECT);
+        slowQueryLogger.afterQuery(execution(5), SELECT);
+        readAndClose(slowQueryLogger, execution(5), 3);
+
+        assertTrue(appender.list.isEmpty());
+    }
+
+    @Test
+    void slowSelectIsLoggedWithRowsWhenTheResultSetCloses() throws Throwable {
+        SlowQueryLogger slowQueryLogger = new SlowQueryLogger(100, 0.0, true, 64);
+
+        readAndClose(slowQueryLogger, execution(250), 3);
+
+        assertEquals(1, appender.list.size());
+        String message = appender.list.get(0).getFormattedMessage();
+        assertTrue(message.startsWith("slow_query elapsed_ms=250"), message);
+        assertTrue(message.contains("rows=3"), message);
+        assertTrue(message.contains("repository=-"), message);
+    }
+
+    @Test
+    void slowStatementsNameTheRepositoryMethodThatRanThem() throws Throwable {
+        SlowQueryLogger slowQueryLogger = new SlowQueryLogger(100, 0.0, true, 64);
+        MethodInvocation invocation = mock(MethodInvocation.class);
+        when(invocation.getMethod()).thenReturn(UserRepository.class.getMethod("findByUsernameOrEmail", String.class));
+        when(invocation.proceed()).thenAnswer(call -> {
+            slowQueryLogger.afterQuery(execution(300), List.of(new QueryInfo("UPDATE users SET is_active = ?")));
+            return null;
+        });
+
+        slowQueryLogger.repositoryMethodTracker(UserRepository.class).invoke(invocation);
+        // Sau khi repository method kết thúc thì không còn gắn với câu SQL nào
+        slowQueryLogger.afterQuery(execution(300), List.of(new QueryInfo("UPDATE users SET is_active = ?")));
+
+        assertEquals(2, appender.list.size());
+        assertTrue(appender.list.get(0).getFormattedMessage().contains("repository=UserRepository.findByUsernameOrEmail"));
+        assertTrue(appender.list.get(1).getFormattedMessage().contains("repository=-"));
+    }
+
+    private static void readAndClose(SlowQueryLogger slowQueryLogger, ExecutionInfo execution, int rows)
+            throws Throwable {
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.next()).thenReturn(true);
+
+        slowQueryLogger.beforeQuery(execution, SELECT);
+        ResultSetProxyLogic logic = slowQueryLogger.create(resultSet, null, null);
+        slowQueryLogger.afterQuery(execution, SELECT);
+        for (int i = 0; i < rows; i++) {
+            logic.invoke(null, ResultSet.class.getMethod("next"), null);
+        }
+        logic.invoke(null, ResultSet.class.getMethod("close"), null);
+    }
+
+    private static ExecutionInfo execution(long elapsedMs) {
+        ExecutionInfo execution = new ExecutionInfo();
+        execution.setElapsedTime(elapsedMs);
+        execution.setResult(1);
+        return execution;
+    }
+}
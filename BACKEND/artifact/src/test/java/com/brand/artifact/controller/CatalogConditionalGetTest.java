@@ -0,0 +1,206 @@
+package com.brand.artifact.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.brand.artifact.dto.projection.CategoryView;
+import com.brand.artifact.dto.projection.ProductSummary;
+import com.brand.artifact.dto.response.CursorPage;
+import com.brand.artifact.dto.response.ProductDetailResponse;
+import com.brand.artifact.dto.response.Versioned;
+import com.brand.artifact.service.CatalogVersionService;
+import com.brand.artifact.service.ProductCatalogService;
+import com.brand.artifact.service.ProductFacetService;
+import com.brand.artifact.service.ProductSearchService;
+import com.brand.artifact.utils.CategoryTree;
+import com.brand.artifact.utils.ETags;
+
+/**
+ * If-None-Match / If-Modified-Since khớp thì trả 304 và không serialize body;
+ * danh sách sản phẩm và search còn không chạm tới service đọc dữ liệu
+ */
+@ExtendWith(MockitoExtension.class)
+class CatalogConditionalGetTest {
+
+    @Mock
+    private ProductCatalogService productCatalogService;
+
+    @Mock
+    private ProductSearchService productSearchService;
+
+    @Mock
+    private ProductFacetService productFacetService;
+
+    @Mock
+    private CatalogVersionService catalogVersionService;
+
+    @InjectMocks
+    private CategoryController categoryController;
+
+    @InjectMocks
+    private ProductController productController;
+
+    private MappingJackson2HttpMessageConverter jackson;
+    private MockMvc mockMvc;
+    private CategoryTree tree;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(categoryController, "categoriesMaxAgeSeconds", 300L);
+        ReflectionTestUtils.setField(categoryController, "productsMaxAgeSeconds", 30L);
+        ReflectionTestUtils.setField(productController, "productsMaxAgeSeconds", 30L);
+        ReflectionTestUtils.setField(productController, "productDetailMaxAgeSeconds", 60L);
+        jackson = spy(new MappingJackson2HttpMessageConverter());
+        mockMvc = MockMvcBuilders.standaloneSetup(categoryController, productController).setMessageConverters(jackson)
+                .build();
+
+        tree = CategoryTree.build(List.of(new CategoryView("c1", "Áo", "ao", null, null, 1)));
+        lenient().when(productCatalogService.listCategories())
+                .thenReturn(new Versioned<>(tree.all(), tree.etag(), tree.builtAt()));
+    }
+
+    @Test
+    void firstRequestCarriesValidatorsAndCachingHeaders() throws Exception {
+        mockMvc.perform(get("/api/categories"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, tree.etag()))
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=300, public"))
+                .andExpect(jsonPath("$.result[0].slug").value("ao"));
+    }
+
+    @Test
+    void matchingETagIsNotModifiedWithoutSerializing() throws Exception {
+        mockMvc.perform(get("/api/categories").header(HttpHeaders.IF_NONE_MATCH, tree.etag()))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, tree.etag()))
+                .andExpect(content().string(""));
+
+        verify(jackson, never()).write(any(), any(), any());
+    }
+
+    @Test
+    void unmodifiedSinceBuildIsNotModified() throws Exception {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfModifiedSince(tree.builtAt().plus(1, ChronoUnit.SECONDS));
+
+        mockMvc.perform(get("/api/categories").headers(headers))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void staleETagGetsTheFullBody() throws Exception {
+        mockMvc.perform(get("/api/categories").header(HttpHeaders.IF_NONE_MATCH, "W/\"stale\""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result[0].categoryId").value("c1"));
+    }
+
+    @Test
+    void changedTreeChangesTheETag() {
+        CategoryTree renamed = CategoryTree.build(List.of(new CategoryView("c1", "Áo thun", "ao", null, null, 1)));
+
+        assertNotEquals(tree.etag(), renamed.etag());
+        assertEquals(tree.etag(), CategoryTree.build(tree.all()).etag());
+    }
+
+    @Test
+    void productListIsNotModifiedBeforeQueryingWhenTheGenerationMatches() throws Exception {
+        when(catalogVersionService.current()).thenReturn(42L);
+
+        mockMvc.perform(get("/api/products").header(HttpHeaders.IF_NONE_MATCH, ETags.weak(42L)))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, ETags.weak(42L)))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=30, public"));
+        mockMvc.perform(get("/api/categories/c1/products").header(HttpHeaders.IF_NONE_MATCH, ETags.weak(42L)))
+                .andExpect(status().isNotModified());
+
+        verify(productCatalogService, never()).listProducts(any(), any(), any());
+        verify(jackson, never()).write(any(), any(), any());
+    }
+
+    @Test
+    void newerGenerationReturnsThePageWithTheNewETag() throws Exception {
+        when(catalogVersionService.current()).thenReturn(43L);
+        when(productCatalogService.listProducts(null, null, null)).thenReturn(page());
+
+        mockMvc.perform(get("/api/products").header(HttpHeaders.IF_NONE_MATCH, ETags.weak(42L)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, ETags.weak(43L)))
+                .andExpect(header().doesNotExist(HttpHeaders.LAST_MODIFIED))
+                .andExpect(jsonPath("$.result.items[0].productId").value("p1"));
+    }
+
+    @Test
+    void productListFallsBackToContentETagWithoutGeneration() throws Exception {
+        when(catalogVersionService.current()).thenReturn(null);
+        CursorPage<ProductSummary> page = page();
+        when(productCatalogService.listProducts(null, null, null)).thenReturn(page);
+        String etag = ETags.weak(page.getItems(), page.getNextCursor());
+
+        mockMvc.perform(get("/api/products").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag));
+
+        verify(jackson, never()).write(any(), any(), any());
+    }
+
+    @Test
+    void productDetailIsNotModifiedOnEveryNodeAndHasNoBuildTimestamp() throws Exception {
+        ProductDetailResponse detail = ProductDetailResponse.builder().productId("p1").productName("Áo thun").build();
+        when(productCatalogService.getProduct("p1")).thenReturn(new Versioned<>(detail, ETags.weak(detail), null));
+
+        mockMvc.perform(get("/api/products/p1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, ETags.weak(detail)))
+                .andExpect(header().doesNotExist(HttpHeaders.LAST_MODIFIED))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=60, public"));
+        mockMvc.perform(get("/api/products/p1").header(HttpHeaders.IF_NONE_MATCH, ETags.weak(detail)))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void searchIsNotModifiedBeforeSearchingWhenTheIndexIsUnchanged() throws Exception {
+        when(productSearchService.version()).thenReturn("node-1:7");
+
+        mockMvc.perform(get("/api/products/search").param("q", "ao").header(HttpHeaders.IF_NONE_MATCH,
+                ETags.weak("node-1:7")))
+                .andExpect(status().isNotModified());
+
+        verify(productSearchService, never()).search(any(), any());
+    }
+
+    private static CursorPage<ProductSummary> page() {
+        return CursorPage.<ProductSummary>builder()
+                .items(List.of(new ProductSummary("p1", "Áo thun", "c1", "Áo", null, null, false, null)))
+                .size(1)
+                .hasNext(false)
+                .build();
+    }
+}
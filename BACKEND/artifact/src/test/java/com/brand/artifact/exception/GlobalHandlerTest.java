@@ -0,0 +1,60 @@
+package com.brand.artifact.exception;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.brand.artifact.dto.response.ResponseAPITemplate;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Lỗi trả về qua GlobalHandler được đếm theo ErrorCode trong metric app.errors
+ */
+class GlobalHandlerTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private GlobalHandler globalHandler;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        globalHandler = new GlobalHandler();
+        ReflectionTestUtils.setField(globalHandler, "meterRegistry", meterRegistry);
+    }
+
+    @Test
+    void countsErrorsByErrorCode() {
+        globalHandler.handleWebServerException(new WebServerException(ErrorCode.PRODUCT_NOT_FOUND));
+        globalHandler.handleWebServerException(new WebServerException(ErrorCode.PRODUCT_NOT_FOUND));
+
+        assertEquals(2, errors(ErrorCode.PRODUCT_NOT_FOUND, "404"));
+    }
+
+    @Test
+    void unexpectedExceptionsAreCountedAsUnknownError() {
+        assertEquals(500, globalHandler.handleException(new IllegalStateException("Boom")).getStatusCode().value());
+
+        assertEquals(1, errors(ErrorCode.UNKNOWN_ERROR, "500"));
+    }
+
+    @Test
+    void busyPasswordPoolInsideTheAuthenticationProviderIsStillA503() {
+        ResponseEntity<ResponseAPITemplate<String>> response = globalHandler.handleInternalAuthenticationServiceException(
+                new InternalAuthenticationServiceException("Busy", new ServiceBusyException(2)));
+
+        assertEquals(503, response.getStatusCode().value());
+        assertEquals("2", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals(1, errors(ErrorCode.SERVICE_BUSY, "503"));
+    }
+
+    private double errors(ErrorCode errorCode, String status) {
+        return meterRegistry.get("app.errors").tag("error_code", errorCode.name()).tag("status", status).counter()
+                .count();
+    }
+}
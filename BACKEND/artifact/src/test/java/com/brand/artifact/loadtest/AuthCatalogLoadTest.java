@@ -0,0 +1,232 @@
+package com.brand.artifact.loadtest;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import redis.embedded.RedisServer;
+
+/**
+ * Load test end-to-end qua controller thật: app chạy trên H2 (MySQL mode) và Redis nhúng.
+ * Mỗi client ảo đăng ký một lần rồi lặp: login -> GET (có/không đăng nhập), refresh định kỳ -> logout.
+ *
+ * Chạy bằng: mvn test -Ploadtest
+ * Tuỳ chỉnh: -Dloadtest.clients=16 -Dloadtest.duration-seconds=30 -Dloadtest.warmup-seconds=5
+ * Kết quả: target/loadtest/loadtest-*.json, target/loadtest/latest.json
+ * và target/loadtest/latest-prometheus.txt (metric phía server cuối lần chạy)
+ */
+@Slf4j
+@Tag("loadtest")
+@AutoConfigureObservability
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:loadtest;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.format_sql=false",
+        "spring.data.redis.host=localhost",
+        "spring.data.redis.username=",
+        "spring.data.redis.password=",
+        "spring.security.oauth2.client.registration.google.client-id=loadtest",
+        "spring.security.oauth2.client.registration.google.client-secret=loadtest",
+        "logging.level.root=WARN",
+        "logging.level.com.brand.artifact.loadtest=INFO"
+})
+class AuthCatalogLoadTest {
+
+    private static final String PASSWORD = "LoadTest@123";
+    private static final int REFRESH_EVERY = 20;
+    private static final int REQUESTS_PER_SESSION = 100;
+    private static final List<String> AUTHENTICATED_GETS = List.of("/api/test/user", "/api/test/profile");
+    private static final List<String> PUBLIC_GETS = List.of("/api/test/public", "/api/products", "/api/categories");
+
+    private static RedisServer redisServer;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final LatencyReport report = new LatencyReport();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private PrometheusMeterRegistry prometheusMeterRegistry;
+
+    private volatile long measureFromNanos;
+
+    @DynamicPropertySource
+    static void redisProperties(DynamicPropertyRegistry registry) throws IOException {
+        int redisPort;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            redisPort = socket.getLocalPort();
+        }
+        redisServer = new RedisServer(redisPort);
+        redisServer.start();
+        registry.add("spring.data.redis.port", () -> redisPort);
+    }
+
+    @AfterAll
+    static void stopRedis() throws IOException {
+        if (redisServer != null) {
+            redisServer.stop();
+        }
+    }
+
+    @Test
+    void runAuthAndCatalogScenarios() throws Exception {
+        int clients = Integer.getInteger("loadtest.clients", 16);
+        int warmupSeconds = Integer.getInteger("loadtest.warmup-seconds", 5);
+        int durationSeconds = Integer.getInteger("loadtest.duration-seconds", 30);
+        Path outputDir = Path.of(System.getProperty("loadtest.output-dir", "target/loadtest"));
+
+        long start = System.nanoTime();
+        measureFromNanos = start + Duration.ofSeconds(warmupSeconds).toNanos();
+        long deadline = measureFromNanos + Duration.ofSeconds(durationSeconds).toNanos();
+
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            int clientId = i;
+            futures.add(executor.submit(() -> {
+                runClient(clientId, deadline);
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        Map<String, Object> config = new LinkedHashMap<>();
+        config.put("clients", clients);
+        config.put("warmupSeconds", warmupSeconds);
+        config.put("durationSeconds", durationSeconds);
+        Map<String, Object> summary = report.summary(config, durationSeconds);
+        Path file = report.write(summary, outputDir);
+
+        log.info("Load test report written to {}: {}", file.toAbsolutePath(), objectMapper.writeValueAsString(summary));
+
+        // Snapshot metric phía server (timer filter, Hibernate, HikariCP...) để đối chiếu với report.
+        // Đọc thẳng từ registry vì /actuator/prometheus cần token ADMIN
+        Files.writeString(outputDir.resolve("latest-prometheus.txt"), prometheusMeterRegistry.scrape());
+
+        assertTrue(report.totalCount() > 0, "No requests were measured");
+        assertTrue(report.totalErrors() <= report.totalCount() / 100,
+                "Error rate above 1%: " + report.totalErrors() + " of " + report.totalCount());
+    }
+
+    private void runClient(int clientId, long deadline) throws Exception {
+        String username = "load" + clientId + "_" + System.nanoTime();
+        call("register", post("/api/auth/register", Map.of(
+                "username", username,
+                "email", username + "@example.com",
+                "password", PASSWORD,
+                "confirmPassword", PASSWORD), null));
+
+        while (System.nanoTime() < deadline) {
+            JsonNode login = call("login", post("/api/auth/login",
+                    Map.of("username", username, "password", PASSWORD), null));
+            if (login == null) {
+                continue;
+            }
+            String accessToken = login.path("result").path("accessToken").asText();
+            String refreshToken = login.path("result").path("refreshToken").asText();
+
+            for (int i = 1; i <= REQUESTS_PER_SESSION && System.nanoTime() < deadline; i++) {
+                call("public_get", get(PUBLIC_GETS.get(i % PUBLIC_GETS.size()), null));
+                call("authenticated_get", get(AUTHENTICATED_GETS.get(i % AUTHENTICATED_GETS.size()), accessToken));
+
+                if (i % REFRESH_EVERY == 0) {
+                    JsonNode refreshed = call("refresh", post("/api/auth/refresh-token",
+                            Map.of("token", refreshToken), null));
+                    if (refreshed != null) {
+                        accessToken = refreshed.path("result").path("accessToken").asText();
+                        refreshToken = refreshed.path("result").path("refreshToken").asText();
+                    }
+                }
+            }
+
+            call("logout", post("/api/auth/logout",
+                    Map.of("refreshToken", refreshToken, "accessToken", accessToken), null));
+        }
+    }
+
+    /**
+     * Gửi request, ghi latency nếu đã qua thời gian warm-up; trả về body khi 2xx
+     */
+    private JsonNode call(String operation, HttpRequest request) throws Exception {
+        long start = System.nanoTime();
+        int status;
+        String body;
+        try {
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            status = response.statusCode();
+            body = response.body();
+        } catch (IOException e) {
+            status = -1;
+            body = null;
+        }
+        if (start >= measureFromNanos) {
+            report.record(operation, System.nanoTime() - start, status);
+        }
+        return status >= 200 && status < 300 && body != null ? objectMapper.readTree(body) : null;
+    }
+
+    private HttpRequest get(String path, String accessToken) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri(path)).GET();
+        if (accessToken != null) {
+            builder.header("Authorization", "Bearer " + accessToken);
+        }
+        return builder.build();
+    }
+
+    private HttpRequest post(String path, Map<String, String> body, String accessToken) throws IOException {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)));
+        if (accessToken != null) {
+            builder.header("Authorization", "Bearer " + accessToken);
+        }
+        return builder.build();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+}
@@ -0,0 +1,104 @@
+package com.brand.artifact.loadtest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Gom latency (HdrHistogram, đơn vị micro giây) và số lỗi theo từng thao tác,
+ * rồi ghi kết quả ra JSON để so sánh giữa các lần chạy
+ */
+class LatencyReport {
+
+    private static final long MAX_TRACKABLE_MICROS = 60_000_000L;
+
+    private final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> rejected = new ConcurrentHashMap<>();
+
+    void record(String operation, long elapsedNanos, int status) {
+        histograms.computeIfAbsent(operation, key -> new ConcurrentHistogram(MAX_TRACKABLE_MICROS, 3))
+                .recordValue(Math.min(Math.max(elapsedNanos / 1_000, 1), MAX_TRACKABLE_MICROS));
+        if (status == 503) {
+            rejected.computeIfAbsent(operation, key -> new LongAdder()).increment();
+        } else if (status < 200 || status >= 300) {
+            errors.computeIfAbsent(operation, key -> new LongAdder()).increment();
+        }
+    }
+
+    long totalCount() {
+        return histograms.values().stream().mapToLong(Histogram::getTotalCount).sum();
+    }
+
+    long totalErrors() {
+        return errors.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    Map<String, Object> summary(Map<String, Object> config, double durationSeconds) {
+        Map<String, Object> operations = new LinkedHashMap<>();
+        histograms.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(entry -> {
+                    Histogram histogram = entry.getValue();
+                    Map<String, Object> stats = new LinkedHashMap<>();
+                    stats.put("count", histogram.getTotalCount());
+                    stats.put("errors", count(errors, entry.getKey()));
+                    stats.put("rejected503", count(rejected, entry.getKey()));
+                    stats.put("throughputPerSec", round(histogram.getTotalCount() / durationSeconds));
+                    stats.put("meanMs", round(histogram.getMean() / 1_000));
+                    stats.put("p50Ms", percentileMillis(histogram, 50));
+                    stats.put("p90Ms", percentileMillis(histogram, 90));
+                    stats.put("p99Ms", percentileMillis(histogram, 99));
+                    stats.put("p999Ms", percentileMillis(histogram, 99.9));
+                    stats.put("maxMs", round(histogram.getMaxValue() / 1_000.0));
+                    operations.put(entry.getKey(), stats);
+                });
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("timestamp", LocalDateTime.now().toString());
+        summary.put("config", config);
+        summary.put("durationSeconds", round(durationSeconds));
+        summary.put("totalRequests", totalCount());
+        summary.put("totalThroughputPerSec", round(totalCount() / durationSeconds));
+        summary.put("operations", operations);
+        return summary;
+    }
+
+    /**
+     * Ghi loadtest-<thời gian>.json và cập nhật latest.json trong outputDir
+     */
+    Path write(Map<String, Object> summary, Path outputDir) throws IOException {
+        Files.createDirectories(outputDir);
+        String fileName = "loadtest-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".json";
+        Path file = outputDir.resolve(fileName);
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), summary);
+        Files.copy(file, outputDir.resolve("latest.json"), StandardCopyOption.REPLACE_EXISTING);
+        return file;
+    }
+
+    private static long count(Map<String, LongAdder> counters, String operation) {
+        LongAdder counter = counters.get(operation);
+        return counter != null ? counter.sum() : 0;
+    }
+
+    private static double percentileMillis(Histogram histogram, double percentile) {
+        return round(histogram.getValueAtPercentile(percentile) / 1_000.0);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
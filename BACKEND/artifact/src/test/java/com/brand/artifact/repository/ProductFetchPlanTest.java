@@ -0,0 +1,100 @@
+package com.brand.artifact.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import com.brand.artifact.constant.Size;
+import com.brand.artifact.entity.Category;
+import com.brand.artifact.entity.Product;
+import com.brand.artifact.entity.ProductItem;
+import com.brand.artifact.support.QueryBudget;
+import com.brand.artifact.support.QueryCounts;
+import com.brand.artifact.support.QueryCountingConfig;
+
+import net.ttddyy.dsproxy.QueryCount;
+
+/**
+ * Quan hệ mặc định LAZY, entity graph theo use case phải giữ số câu SQL cố định
+ * bất kể số sản phẩm (không N+1)
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+@Import(QueryCountingConfig.class)
+class ProductFetchPlanTest {
+
+    private static final int PRODUCTS = 10;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private String productId;
+
+    @BeforeEach
+    void seed() {
+        for (int i = 0; i < PRODUCTS; i++) {
+            Category category = entityManager.persist(Category.builder()
+                    .categoryName("Category " + i)
+                    .slug("category-" + i)
+                    .build());
+            Product product = entityManager.persist(Product.builder()
+                    .productName("Product " + i)
+                    .category(category)
+                    .isFeatured(true)
+                    .build());
+            for (Size size : List.of(Size.S, Size.M, Size.L)) {
+                entityManager.persist(ProductItem.builder()
+                        .sku("SKU-" + i + "-" + size)
+                        .price(BigDecimal.valueOf(100_000))
+                        .stockQuantity(10)
+                        .size(size)
+                        .product(product)
+                        .build());
+            }
+            productId = product.getProductId();
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    @QueryBudget(select = 1, total = 1)
+    void featuredProductsFetchCategoryInSameQuery() {
+        List<Product> products = productRepository.findByIsFeaturedTrue();
+
+        assertEquals(PRODUCTS, products.size());
+        products.forEach(product -> assertTrue(product.getCategory().getCategoryName().startsWith("Category")));
+    }
+
+    @Test
+    @QueryBudget(select = 1, total = 1)
+    void productWithItemsIsLoadedInOneQuery() {
+        Product product = productRepository.findWithItemsByProductId(productId).orElseThrow();
+
+        assertEquals(3, product.getProductItems().size());
+        assertTrue(product.getCategory().getCategoryName().startsWith("Category"));
+    }
+
+    @Test
+    void lazyCategoryWithoutGraphCostsOneQueryPerProduct() {
+        QueryCount count = QueryCounts.measure(() -> productRepository.findAll()
+                .forEach(product -> product.getCategory().getCategoryName()));
+
+        // Minh hoạ N+1 mà entity graph ở trên tránh được
+        assertEquals(1 + PRODUCTS, count.getSelect());
+    }
+}
@@ -0,0 +1,62 @@
+package com.brand.artifact.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.brand.artifact.dto.request.RefreshTokenRequest;
+import com.brand.artifact.entity.RefreshToken;
+import com.brand.artifact.exception.ErrorCode;
+import com.brand.artifact.exception.WebServerException;
+import com.brand.artifact.utils.JwtUtil;
+import com.brand.artifact.utils.VerifiedToken;
+
+/**
+ * Refresh token đã rotate bị gửi lại đi vào nhánh token đã thu hồi, không phải nhánh token lạ
+ */
+@ExtendWith(MockitoExtension.class)
+class AuthServiceImplTest {
+
+    @Mock
+    private JwtUtil jwtUtil;
+
+    @Mock
+    private RefreshTokenService refreshTokenService;
+
+    @Mock
+    private TokenRevocationService tokenRevocationService;
+
+    @InjectMocks
+    private AuthServiceImpl authService;
+
+    @Test
+    void replayedRevokedRefreshTokenIsRejectedAsRevoked() {
+        Instant now = Instant.now();
+        when(jwtUtil.parseRefreshToken("rotated-token")).thenReturn(Optional.of(new VerifiedToken(
+                "alice", "user-1", null, null, "refresh", now, now.plusSeconds(3600), 0L)));
+        when(refreshTokenService.findByToken("rotated-token")).thenReturn(Optional.of(RefreshToken.builder()
+                .expiresAt(LocalDateTime.now().plusDays(7))
+                .revoked(true)
+                .build()));
+
+        RefreshTokenRequest request = new RefreshTokenRequest();
+        request.setToken("rotated-token");
+        WebServerException error = assertThrows(WebServerException.class, () -> authService.refreshToken(request));
+
+        assertEquals(ErrorCode.TOKEN_EXPIRED, error.getErrorCode());
+        verify(refreshTokenService, never()).rotateToken(any(), any(), any());
+    }
+}
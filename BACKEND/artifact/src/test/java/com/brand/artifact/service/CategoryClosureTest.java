@@ -0,0 +1,168 @@
+package com.brand.artifact.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+
+import com.brand.artifact.dto.request.CategoryRequest;
+import com.brand.artifact.entity.Category;
+import com.brand.artifact.entity.Product;
+import com.brand.artifact.exception.ErrorCode;
+import com.brand.artifact.exception.WebServerException;
+import com.brand.artifact.repository.CategoryClosureRepository;
+import com.brand.artifact.repository.ProductRepository;
+import com.brand.artifact.support.QueryBudget;
+import com.brand.artifact.support.QueryCountingConfig;
+
+/**
+ * Closure table luôn khớp với cột parent_category_id sau khi thêm/di chuyển/xoá,
+ * và sản phẩm của cả cây con lấy được bằng một query bất kể độ sâu, bỏ qua nhánh đã ẩn
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+@Import({ QueryCountingConfig.class, CategoryAdminServiceImpl.class })
+class CategoryClosureTest {
+
+    private static final int DEPTH = 6;
+
+    @Autowired
+    private CategoryAdminService categoryAdminService;
+
+    @Autowired
+    private CategoryClosureRepository closureRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private String rootId;
+    private String otherRootId;
+    // chain[0] là con của root, chain[DEPTH - 1] là lá sâu nhất
+    private final String[] chain = new String[DEPTH];
+
+    @BeforeEach
+    void seed() {
+        rootId = create("Thời trang Nam", "thoi-trang-nam", null);
+        otherRootId = create("Thời trang Nữ", "thoi-trang-nu", null);
+        String parent = rootId;
+        for (int i = 0; i < DEPTH; i++) {
+            chain[i] = create("Level " + i, "level-" + i, parent);
+            parent = chain[i];
+        }
+        for (int i = 0; i < DEPTH; i++) {
+            entityManager.persist(Product.builder()
+                    .productName("Product " + i)
+                    .category(entityManager.find(Category.class, chain[i]))
+                    .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    @QueryBudget(select = 1, total = 1)
+    void subtreeProductsAreOneQueryRegardlessOfDepth() {
+        assertEquals(DEPTH, productRepository.findActiveSummariesInSubtree(rootId, Limit.of(50)).size());
+    }
+
+    @Test
+    void inactiveCategoriesHideTheirWholeSubtree() {
+        entityManager.find(Category.class, chain[3]).setIsActive(false);
+        entityManager.flush();
+
+        // chain[4], chain[5] vẫn active nhưng nằm dưới chain[3] nên cũng bị ẩn như trong CategoryTree
+        assertEquals(3, productRepository.findActiveSummariesInSubtree(rootId, Limit.of(50)).size());
+        assertEquals(3, productRepository.findActiveSummariesInSubtree(rootId, PageRequest.of(0, 10)).getTotalElements());
+    }
+
+    @Test
+    void subtreeProductsSupportOffsetPaging() {
+        assertEquals(DEPTH, productRepository.findActiveSummariesInSubtree(chain[0], PageRequest.of(0, 4)).getTotalElements());
+        assertEquals(2, productRepository.findActiveSummariesInSubtree(chain[0], PageRequest.of(1, 4)).getNumberOfElements());
+    }
+
+    @Test
+    void createMaintainsAncestorLinks() {
+        assertEquals(Set.of(chain[4], chain[3], chain[2], chain[1], chain[0], rootId),
+                new HashSet<>(closureRepository.findAncestorIds(chain[5])));
+        assertEquals(DEPTH + 1, closureRepository.findSubtreeIds(rootId).size());
+        assertClosureMatchesParents();
+    }
+
+    @Test
+    void moveRelinksTheWholeSubtree() {
+        categoryAdminService.updateCategory(chain[2], request("Level 2", "level-2", otherRootId));
+        entityManager.flush();
+
+        assertEquals(DEPTH - 2 + 1, closureRepository.findSubtreeIds(otherRootId).size());
+        assertEquals(3, closureRepository.findSubtreeIds(rootId).size());
+        assertEquals(DEPTH - 2, productRepository.findActiveSummariesInSubtree(otherRootId, Limit.of(50)).size());
+        assertClosureMatchesParents();
+
+        categoryAdminService.updateCategory(chain[2], request("Level 2", "level-2", null));
+        entityManager.flush();
+        assertClosureMatchesParents();
+    }
+
+    @Test
+    void cannotMoveUnderOwnSubtree() {
+        WebServerException exception = assertThrows(WebServerException.class,
+                () -> categoryAdminService.updateCategory(chain[1], request("Level 1", "level-1", chain[4])));
+
+        assertEquals(ErrorCode.CATEGORY_CYCLE, exception.getErrorCode());
+    }
+
+    @Test
+    void deleteOnlyRemovesEmptyLeaves() {
+        assertEquals(ErrorCode.CATEGORY_HAS_CHILDREN, assertThrows(WebServerException.class,
+                () -> categoryAdminService.deleteCategory(chain[4])).getErrorCode());
+        assertEquals(ErrorCode.CATEGORY_HAS_PRODUCTS, assertThrows(WebServerException.class,
+                () -> categoryAdminService.deleteCategory(chain[5])).getErrorCode());
+
+        String leaf = create("Empty", "empty", chain[5]);
+        categoryAdminService.deleteCategory(leaf);
+        entityManager.flush();
+
+        assertEquals(DEPTH + 1, closureRepository.findSubtreeIds(rootId).size());
+        assertClosureMatchesParents();
+    }
+
+    // So sánh closure được cập nhật từng bước với closure build lại từ đầu
+    private void assertClosureMatchesParents() {
+        Set<String> incremental = snapshot();
+        categoryAdminService.rebuildClosure();
+        entityManager.flush();
+        assertEquals(snapshot(), incremental);
+    }
+
+    private Set<String> snapshot() {
+        Set<String> rows = new HashSet<>();
+        closureRepository.findAll().forEach(link ->
+                rows.add(link.getAncestorId() + ">" + link.getDescendantId() + ":" + link.getDepth()));
+        entityManager.clear();
+        return rows;
+    }
+
+    private String create(String name, String slug, String parentId) {
+        return categoryAdminService.createCategory(request(name, slug, parentId)).categoryId();
+    }
+
+    private static CategoryRequest request(String name, String slug, String parentId) {
+        return new CategoryRequest(name, slug, null, null, 1, parentId, true);
+    }
+}
@@ -0,0 +1,109 @@
+package com.brand.artifact.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import com.brand.artifact.dto.projection.CategoryView;
+import com.brand.artifact.event.CatalogChangedEvent;
+import com.brand.artifact.event.RemoteCatalogChangedEvent;
+import com.brand.artifact.repository.CategoryRepository;
+import com.brand.artifact.utils.CategoryTree;
+
+class CategoryTreeServiceImplTest {
+
+    private CategoryRepository categoryRepository;
+    private RedisTemplate<String, String> redisTemplate;
+    private ApplicationEventPublisher eventPublisher;
+    private CategoryTreeServiceImpl categoryTreeService;
+    private final List<CategoryView> categories = new ArrayList<>();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        categories.add(new CategoryView("men", "Thời trang Nam", "thoi-trang-nam", null, null, 1));
+        categories.add(new CategoryView("women", "Thời trang Nữ", "thoi-trang-nu", null, null, 2));
+        categories.add(new CategoryView("men-shirts", "Áo nam", "ao-nam", null, "men", 1));
+        categories.add(new CategoryView("men-tees", "Áo thun nam", "ao-thun-nam", null, "men-shirts", 1));
+        categories.add(new CategoryView("men-pants", "Quần nam", "quan-nam", null, "men", 2));
+        // Cha không active (không có trong danh sách) thì cả nhánh bị ẩn
+        categories.add(new CategoryView("orphan", "Mồ côi", "mo-coi", null, "hidden", 1));
+
+        categoryRepository = mock(CategoryRepository.class);
+        redisTemplate = mock(RedisTemplate.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        when(categoryRepository.findActiveViews()).thenAnswer(invocation -> List.copyOf(categories));
+        categoryTreeService = new CategoryTreeServiceImpl(categoryRepository, redisTemplate, eventPublisher);
+        categoryTreeService.init();
+    }
+
+    @Test
+    void servesLookupsFromTheSnapshot() {
+        clearInvocations(categoryRepository);
+        CategoryTree tree = categoryTreeService.getTree();
+
+        assertEquals(List.of("men", "men-shirts", "men-tees", "men-pants"), tree.descendantIds("men"));
+        assertEquals(List.of("men-tees"), tree.descendantIds("men-tees"));
+        assertEquals(List.of("men", "men-shirts", "men-tees"),
+                tree.breadcrumbs("men-tees").stream().map(CategoryView::categoryId).toList());
+        assertEquals("men-pants", tree.resolveSlug("quan-nam").orElseThrow());
+        assertEquals(2, tree.roots().size());
+        assertEquals(2, tree.node("men").orElseThrow().getChildren().size());
+        assertTrue(tree.descendantIds("orphan").isEmpty());
+        assertTrue(tree.resolveSlug("mo-coi").isEmpty());
+        verify(categoryRepository, never()).findActiveViews();
+    }
+
+    @Test
+    void categoryChangeSwapsSnapshotAndNotifiesOtherNodes() {
+        CategoryTree before = categoryTreeService.getTree();
+        categories.add(new CategoryView("men-shoes", "Giày nam", "giay-nam", null, "men", 3));
+
+        categoryTreeService.onCatalogChanged(CatalogChangedEvent.category("men-shoes"));
+
+        assertEquals(4, before.descendantIds("men").size());
+        assertEquals(5, categoryTreeService.getTree().descendantIds("men").size());
+        verify(redisTemplate).convertAndSend(eq(CategoryTreeServiceImpl.CHANNEL), anyString());
+    }
+
+    @Test
+    void failedFirstBuildServesAnEmptyTreeWithoutTouchingTheDatabase() {
+        when(categoryRepository.findActiveViews()).thenThrow(new IllegalStateException("Database down"));
+        CategoryTreeServiceImpl service = new CategoryTreeServiceImpl(categoryRepository, redisTemplate, eventPublisher);
+        service.init();
+        clearInvocations(categoryRepository);
+
+        assertTrue(service.getTree().roots().isEmpty());
+        verify(categoryRepository, never()).findActiveViews();
+    }
+
+    @Test
+    void rebuildsOnlyForInvalidationsFromOtherNodes() {
+        clearInvocations(categoryRepository);
+
+        categoryTreeService.onMessage(new DefaultMessage(CategoryTreeServiceImpl.CHANNEL.getBytes(StandardCharsets.UTF_8),
+                "other-node".getBytes(StandardCharsets.UTF_8)), null);
+        categoryTreeService.onCatalogChanged(CatalogChangedEvent.product("product-1"));
+
+        verify(categoryRepository, times(1)).findActiveViews();
+        // Cache dẫn xuất trên node này được báo sau khi cây đã build lại
+        verify(eventPublisher).publishEvent(RemoteCatalogChangedEvent.categories());
+    }
+}
@@ -0,0 +1,318 @@
+package com.brand.artifact.service;
+
+import static com.brand.artifact.support.TestTransactions.deleteAll;
+import static com.brand.artifact.support.TestTransactions.inTransaction;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.verify;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.brand.artifact.constant.Role;
+import com.brand.artifact.constant.Size;
+import com.brand.artifact.dto.response.FlashSaleClaimResponse;
+import com.brand.artifact.entity.Address;
+import com.brand.artifact.entity.Category;
+import com.brand.artifact.entity.Product;
+import com.brand.artifact.entity.ProductItem;
+import com.brand.artifact.entity.User;
+import com.brand.artifact.exception.ErrorCode;
+import com.brand.artifact.exception.WebServerException;
+import com.brand.artifact.repository.OrderRepository;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Flash sale với bộ đếm local: lượt mua không chạm database, không bán quá số đã nạp,
+ * đơn hàng được ghi theo lô và số chưa bán được trả lại tồn kho khi kết thúc.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        "app.flash-sale.counter=local",
+        "app.flash-sale.writer.batch-size=16",
+        "app.flash-sale.writer.initial-backoff-ms=" + FlashSaleServiceImplTest.BACKOFF_MS,
+        "app.flash-sale.writer.max-backoff-ms=" + FlashSaleServiceImplTest.BACKOFF_MS,
+        "app.flash-sale.writer.max-attempts=2"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ LocalFlashSaleStockCounter.class, FlashSaleServiceImpl.class, FlashSaleOrderWriter.class })
+class FlashSaleServiceImplTest {
+
+    static final long BACKOFF_MS = 50;
+    private static final int INITIAL_STOCK = 50;
+
+    @Autowired
+    private FlashSaleService flashSaleService;
+
+    @Autowired
+    private FlashSaleOrderWriter orderWriter;
+
+    @Autowired
+    private LocalFlashSaleStockCounter stockCounter;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockitoSpyBean
+    private OrderRepository orderRepository;
+
+    private String userId;
+    private String addressId;
+    private String itemId;
+
+    @BeforeEach
+    void seed() {
+        inTransaction(entityManagerFactory, entityManager -> {
+            User user = User.builder().username("buyer").email("buyer@example.com").password("x").role(Role.USER)
+                    .build();
+            entityManager.persist(user);
+            Address address = Address.builder().recipientName("Buyer").phone("0900000000").address("1 Lê Lợi")
+                    .district("Q1").province("HCM").user(user).build();
+            entityManager.persist(address);
+            Category category = Category.builder().categoryName("Áo").slug("ao").build();
+            entityManager.persist(category);
+            Product product = Product.builder().productName("Áo flash sale").category(category).build();
+            entityManager.persist(product);
+            ProductItem item = ProductItem.builder()
+                    .sku("SKU-FS")
+                    .price(BigDecimal.valueOf(100_000))
+                    .stockQuantity(INITIAL_STOCK)
+                    .size(Size.M)
+                    .product(product)
+                    .build();
+            entityManager.persist(item);
+            userId = user.getUserId();
+            addressId = address.getAddressId();
+            itemId = item.getProductItemId();
+            return null;
+        });
+    }
+
+    @AfterEach
+    void cleanUp() {
+        if (flashSaleService.getStock(itemId).isActive()) {
+            flashSaleService.endSale(itemId);
+        }
+        orderWriter.flush();
+        deleteAll(entityManagerFactory, "OrderItem", "Order", "Address", "User", "ProductItem", "Product", "Category");
+    }
+
+    @Test
+    void concurrentClaimsNeverOversellAndSkipTheDatabase() throws Exception {
+        flashSaleService.startSale(itemId, 30);
+        assertEquals(INITIAL_STOCK - 30, stock());
+
+        AtomicInteger won = new AtomicInteger();
+        AtomicInteger soldOut = new AtomicInteger();
+        ConcurrentLinkedQueue<Throwable> unexpected = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+        long statements = statements(() -> {
+            ExecutorService executor = Executors.newFixedThreadPool(32);
+            for (int buyer = 0; buyer < 400; buyer++) {
+                executor.submit(() -> {
+                    try {
+                        start.await();
+                        flashSaleService.claim(userId, itemId, 1, addressId);
+                        won.incrementAndGet();
+                    } catch (WebServerException e) {
+                        if (e.getErrorCode() == ErrorCode.INSUFFICIENT_STOCK) {
+                            soldOut.incrementAndGet();
+                        } else {
+                            unexpected.add(e);
+                        }
+                    } catch (Throwable e) {
+                        unexpected.add(e);
+                    }
+                });
+            }
+            start.countDown();
+            executor.shutdown();
+            try {
+                assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        assertTrue(unexpected.isEmpty(), () -> "Unexpected failures: " + unexpected);
+        assertEquals(0, statements);
+        assertEquals(30, won.get());
+        assertEquals(370, soldOut.get());
+
+        assertEquals(30, orderWriter.flush());
+        assertEquals(30L, count("SELECT COUNT(o) FROM Order o WHERE o.orderNumber LIKE 'FS-%'"));
+        assertEquals(30L, count("SELECT SUM(i.quantity) FROM OrderItem i"));
+        assertEquals(0, orderWriter.flush());
+
+        assertEquals(0L, flashSaleService.endSale(itemId).getRemaining());
+        assertEquals(INITIAL_STOCK - 30, stock());
+    }
+
+    @Test
+    void unsoldUnitsReturnToStockWhenTheSaleEnds() {
+        flashSaleService.startSale(itemId, null);
+        assertEquals(0, stock());
+
+        FlashSaleClaimResponse claim = flashSaleService.claim(userId, itemId, 2, addressId);
+        assertEquals(INITIAL_STOCK - 2, claim.getRemaining());
+        flashSaleService.claim(userId, itemId, 1, addressId);
+
+        assertEquals(INITIAL_STOCK - 3, flashSaleService.endSale(itemId).getRemaining());
+        assertEquals(INITIAL_STOCK - 3, stock());
+        WebServerException error = assertThrows(WebServerException.class,
+                () -> flashSaleService.claim(userId, itemId, 1, addressId));
+        assertEquals(ErrorCode.FLASH_SALE_NOT_ACTIVE, error.getErrorCode());
+
+        // Đơn của các lượt đã thắng vẫn được ghi sau khi sale kết thúc
+        assertEquals(2, orderWriter.flush());
+        assertEquals(1L, count("SELECT COUNT(o) FROM Order o WHERE o.orderNumber = '" + claim.getOrderNumber() + "'"));
+    }
+
+    @Test
+    void rejectedClaimsGiveTheirUnitsBack() {
+        flashSaleService.startSale(itemId, 10);
+
+        flashSaleService.claim(userId, itemId, 2, "missing-address");
+        assertEquals(8L, flashSaleService.getStock(itemId).getRemaining());
+        assertEquals(0, orderWriter.flush());
+        assertEquals(10L, flashSaleService.getStock(itemId).getRemaining());
+
+        // Sale đã kết thúc: số lượng được trả thẳng về database
+        flashSaleService.claim(userId, itemId, 2, "missing-address");
+        flashSaleService.endSale(itemId);
+        assertEquals(INITIAL_STOCK - 2, stock());
+        orderWriter.flush();
+        assertEquals(INITIAL_STOCK, stock());
+        assertEquals(0L, count("SELECT COUNT(o) FROM Order o"));
+    }
+
+    @Test
+    void claimsAreLimitedPerOrder() {
+        flashSaleService.startSale(itemId, 10);
+
+        WebServerException error = assertThrows(WebServerException.class,
+                () -> flashSaleService.claim(userId, itemId, 3, addressId));
+
+        assertEquals(ErrorCode.FLASH_SALE_LIMIT_EXCEEDED, error.getErrorCode());
+        assertEquals(10L, flashSaleService.getStock(itemId).getRemaining());
+    }
+
+    @Test
+    void transientWriteFailuresRequeueClaimsInsteadOfCancellingThem() throws Exception {
+        assertClaimSurvivesWriteFailure(new QueryTimeoutException("Statement timed out"));
+    }
+
+    @Test
+    void claimsFailingOnTheirOwnMoveToTheDeadLetterListAndGiveTheirUnitsBack() {
+        flashSaleService.startSale(itemId, 10);
+        String failing = claim(2);
+        doThrow(new DataIntegrityViolationException("Duplicate entry")).when(orderRepository).saveAll(any());
+
+        assertEquals(0, orderWriter.flush());
+
+        assertTrue(deadLetterIds().contains(failing));
+        assertEquals(10L, flashSaleService.getStock(itemId).getRemaining());
+        // Không backoff, hàng đợi không còn lượt hỏng
+        reset(orderRepository);
+        claim(1);
+        assertEquals(1, orderWriter.flush());
+    }
+
+    @Test
+    void claimsFailingTransientlyOnTheirOwnMoveToTheDeadLetterListAfterMaxAttempts() throws Exception {
+        flashSaleService.startSale(itemId, 10);
+        String failing = claim(2);
+        // Cả lô lỗi không tạm thời nên ghi từng lượt, lượt đó lại lỗi tạm thời
+        AtomicInteger calls = new AtomicInteger();
+        doAnswer(invocation -> {
+            throw calls.getAndIncrement() % 2 == 0
+                    ? new IllegalStateException("Unexpected")
+                    : new QueryTimeoutException("Statement timed out");
+        }).when(orderRepository).saveAll(any());
+
+        assertEquals(0, orderWriter.flush());
+        assertFalse(deadLetterIds().contains(failing));
+        assertEquals(8L, flashSaleService.getStock(itemId).getRemaining());
+
+        Thread.sleep(BACKOFF_MS * 2);
+        assertEquals(0, orderWriter.flush());
+        assertTrue(deadLetterIds().contains(failing));
+        assertEquals(10L, flashSaleService.getStock(itemId).getRemaining());
+    }
+
+    private void assertClaimSurvivesWriteFailure(RuntimeException failure) throws Exception {
+        flashSaleService.startSale(itemId, 10);
+        FlashSaleClaimResponse claim = flashSaleService.claim(userId, itemId, 2, addressId);
+        doThrow(failure).when(orderRepository).saveAll(any());
+
+        assertEquals(0, orderWriter.flush());
+        // Số lượng vẫn thuộc về người mua, không được bán lại
+        assertEquals(8L, flashSaleService.getStock(itemId).getRemaining());
+        reset(orderRepository);
+        // Đang backoff: không thử ghi lại ngay
+        assertEquals(0, orderWriter.flush());
+        verify(orderRepository, never()).saveAll(any());
+
+        Thread.sleep(BACKOFF_MS * 2);
+        assertEquals(1, orderWriter.flush());
+        assertEquals(1L, count("SELECT COUNT(o) FROM Order o WHERE o.orderNumber = '" + claim.getOrderNumber() + "'"));
+        assertEquals(8L, flashSaleService.getStock(itemId).getRemaining());
+    }
+
+    private String claim(int quantity) {
+        return flashSaleService.claim(userId, itemId, quantity, addressId).getClaimId();
+    }
+
+    private List<String> deadLetterIds() {
+        return stockCounter.deadLetters().stream().map(FlashSaleClaim::claimId).toList();
+    }
+
+    // Mọi lệnh SQL trên mọi thread, kể cả lấy connection để mở transaction
+    private long statements(Runnable action) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        long before = statistics.getPrepareStatementCount() + statistics.getTransactionCount();
+        action.run();
+        return statistics.getPrepareStatementCount() + statistics.getTransactionCount() - before;
+    }
+
+    private int stock() {
+        return inTransaction(entityManagerFactory, entityManager -> entityManager.createQuery(
+                "SELECT pi.stockQuantity FROM ProductItem pi WHERE pi.productItemId = :id", Integer.class)
+                .setParameter("id", itemId)
+                .getSingleResult());
+    }
+
+    private long count(String query) {
+        return inTransaction(entityManagerFactory,
+                entityManager -> entityManager.createQuery(query, Long.class).getSingleResult());
+    }
+}
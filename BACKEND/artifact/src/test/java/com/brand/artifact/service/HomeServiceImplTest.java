@@ -0,0 +1,304 @@
+package com.brand.artifact.service;
+
+import static com.brand.artifact.support.TestTransactions.deleteAll;
+import static com.brand.artifact.support.TestTransactions.inTransaction;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import javax.sql.DataSource;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.brand.artifact.constant.OrderStatus;
+import com.brand.artifact.controller.HomeController;
+import com.brand.artifact.constant.Role;
+import com.brand.artifact.constant.Size;
+import com.brand.artifact.dto.projection.CategoryView;
+import com.brand.artifact.dto.projection.ProductSummary;
+import com.brand.artifact.dto.response.HomeResponse;
+import com.brand.artifact.dto.response.ResponseAPITemplate;
+import com.brand.artifact.dto.response.Versioned;
+import com.brand.artifact.entity.Address;
+import com.brand.artifact.entity.Category;
+import com.brand.artifact.entity.Order;
+import com.brand.artifact.entity.OrderItem;
+import com.brand.artifact.entity.Product;
+import com.brand.artifact.entity.ProductItem;
+import com.brand.artifact.entity.Review;
+import com.brand.artifact.entity.User;
+import com.brand.artifact.event.CatalogChangedEvent;
+import com.brand.artifact.repository.ProductRepository;
+import com.brand.artifact.repository.ReviewRepository;
+import com.brand.artifact.support.QueryCountingConfig;
+import com.brand.artifact.utils.CategoryTree;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+
+/**
+ * Trang chủ: các mục được load song song từ dữ liệu đã commit, request đọc snapshot không query,
+ * thay đổi catalog chỉ được áp dụng ở lần kiểm tra dirty kế tiếp.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        "app.home.section-size=2",
+        "app.home.top-rated.min-reviews=2",
+        "app.home.load-timeout-ms=2500"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ QueryCountingConfig.class, HomeServiceImpl.class, HomeServiceImplTest.QueryTimeoutRecorder.class })
+class HomeServiceImplTest {
+
+    // Query timeout (giây) của từng câu SELECT, đọc từ Statement ngay sau khi chạy
+    private static final Queue<Integer> SELECT_TIMEOUTS = new ConcurrentLinkedQueue<>();
+
+    @TestConfiguration(proxyBeanMethods = false)
+    static class QueryTimeoutRecorder {
+
+        @Bean
+        static BeanPostProcessor queryTimeoutRecordingPostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (bean instanceof DataSource dataSource) {
+                        return ProxyDataSourceBuilder.create(dataSource)
+                                .afterQuery((execution, queries) -> {
+                                    if (queries.get(0).getQuery().trim().toLowerCase().startsWith("select")) {
+                                        try {
+                                            SELECT_TIMEOUTS.add(execution.getStatement().getQueryTimeout());
+                                        } catch (SQLException e) {
+                                            throw new IllegalStateException(e);
+                                        }
+                                    }
+                                })
+                                .build();
+                    }
+                    return bean;
+                }
+            };
+        }
+    }
+
+    @Autowired
+    private HomeServiceImpl homeService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockitoBean
+    private CategoryTreeService categoryTreeService;
+
+    private String featuredId;
+    private String newestId;
+    private String bestRatedId;
+
+    @BeforeEach
+    void seed() {
+        when(categoryTreeService.getTree()).thenReturn(CategoryTree.build(List.of(
+                new CategoryView("root", "Áo", "ao", null, null, 1),
+                new CategoryView("child", "Áo thun", "ao-thun", null, "root", 1))));
+
+        inTransaction(entityManagerFactory, entityManager -> {
+            Category category = Category.builder().categoryName("Áo").slug("ao").build();
+            entityManager.persist(category);
+            LocalDateTime now = LocalDateTime.now();
+            featuredId = product(entityManager, category, "Áo nổi bật", true, true, now.minusDays(3));
+            product(entityManager, category, "Áo ẩn", true, false, now.minusDays(2));
+            bestRatedId = product(entityManager, category, "Áo được khen", false, true, now.minusDays(1));
+            newestId = product(entityManager, category, "Áo mới", false, true, now);
+
+            User user = User.builder().username("buyer").email("buyer@example.com").password("x").role(Role.USER)
+                    .build();
+            entityManager.persist(user);
+            Address address = Address.builder().recipientName("Buyer").phone("0900000000").address("1 Lê Lợi")
+                    .district("Q1").province("HCM").user(user).build();
+            entityManager.persist(address);
+            Order order = Order.builder().orderNumber("ORD-1").orderDate(now).status(OrderStatus.SUCCESS)
+                    .subtotal(BigDecimal.ONE).shippingFee(BigDecimal.ZERO).total(BigDecimal.ONE)
+                    .shippingAddress(address).user(user).build();
+            entityManager.persist(order);
+            review(entityManager, order, user, bestRatedId, 5, 5);
+            review(entityManager, order, user, newestId, 4, 5);
+            // Chỉ có một review, chưa đủ min-reviews
+            review(entityManager, order, user, featuredId, 1, 5);
+            return null;
+        });
+    }
+
+    @AfterEach
+    void cleanUp() {
+        deleteAll(entityManagerFactory, "Review", "OrderItem", "Order", "Address", "User", "ProductItem", "Product",
+                "Category");
+    }
+
+    @Test
+    void assemblesAllSectionsAndServesThemFromMemory() {
+        homeService.refresh();
+
+        HomeResponse[] result = new HomeResponse[1];
+        assertEquals(0, queries(() -> result[0] = homeService.getHome().body()));
+        HomeResponse home = result[0];
+        assertEquals(List.of(featuredId), ids(home.getFeaturedProducts()));
+        assertEquals(List.of(newestId, bestRatedId), ids(home.getNewArrivals()));
+        assertEquals(List.of("root"), home.getCategories().stream().map(CategoryView::categoryId).toList());
+        assertEquals(List.of(bestRatedId, newestId),
+                home.getTopRated().stream().map(rated -> rated.product().productId()).toList());
+        assertEquals(5.0, home.getTopRated().get(0).averageRating());
+        assertEquals(5, home.getTopRated().get(0).reviewCount());
+    }
+
+    @Test
+    void catalogChangesAreCoalescedIntoTheNextDirtyCheck() {
+        homeService.refresh();
+        Versioned<HomeResponse> before = homeService.getHome();
+
+        inTransaction(entityManagerFactory, entityManager -> entityManager.createQuery(
+                "UPDATE Product p SET p.isFeatured = true WHERE p.productId = :id")
+                .setParameter("id", newestId)
+                .executeUpdate());
+        homeService.onCatalogChanged(CatalogChangedEvent.product(newestId));
+        homeService.onCatalogChanged(CatalogChangedEvent.product(newestId));
+        assertSame(before, homeService.getHome());
+
+        homeService.refreshIfChanged();
+        Versioned<HomeResponse> after = homeService.getHome();
+        assertNotSame(before, after);
+        assertEquals(List.of(newestId, featuredId), ids(after.body().getFeaturedProducts()));
+
+        // Không còn thay đổi: không build lại
+        assertEquals(0, queries(homeService::refreshIfChanged));
+    }
+
+    @Test
+    void unchangedContentKeepsTheSameSnapshot() {
+        homeService.refresh();
+        Versioned<HomeResponse> first = homeService.getHome();
+        homeService.refresh();
+
+        assertSame(first, homeService.getHome());
+    }
+
+    @Test
+    void sectionQueriesRunWithAQueryTimeout() {
+        SELECT_TIMEOUTS.clear();
+
+        homeService.refresh();
+
+        assertFalse(SELECT_TIMEOUTS.isEmpty());
+        // load-timeout-ms=2500 làm tròn lên 3 giây, thời gian còn lại của transaction không vượt quá
+        assertTrue(SELECT_TIMEOUTS.stream().allMatch(timeout -> timeout > 0 && timeout <= 3),
+                () -> "Query timeouts: " + SELECT_TIMEOUTS);
+    }
+
+    @Test
+    void failedColdStartServesAnEmptyHomeThatIsNotCached() {
+        when(categoryTreeService.getTree()).thenThrow(new IllegalStateException("Tree unavailable"));
+        // Instance mới, chưa có snapshot như lúc node vừa khởi động
+        HomeServiceImpl coldHomeService = new HomeServiceImpl(productRepository, reviewRepository, categoryTreeService,
+                transactionManager, 2, 2, 2_500);
+        HomeController controller = new HomeController();
+        ReflectionTestUtils.setField(controller, "homeService", coldHomeService);
+        ReflectionTestUtils.setField(controller, "maxAgeSeconds", 30L);
+
+        ResponseEntity<ResponseAPITemplate<HomeResponse>> empty = controller.getHome();
+        assertTrue(empty.getBody().getResult().getFeaturedProducts().isEmpty());
+        assertEquals("no-store", empty.getHeaders().getCacheControl());
+        assertNull(empty.getHeaders().getETag());
+
+        // Lần build sau thành công thì thay snapshot rỗng và được cache bình thường
+        doReturn(CategoryTree.empty()).when(categoryTreeService).getTree();
+        coldHomeService.refreshIfChanged();
+        ResponseEntity<ResponseAPITemplate<HomeResponse>> built = controller.getHome();
+        assertNotNull(built.getHeaders().getETag());
+        assertEquals("max-age=30, public", built.getHeaders().getCacheControl());
+    }
+
+    // Các mục được load trên virtual thread nên đếm qua statistics của Hibernate thay vì theo thread
+    private long queries(Runnable action) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        long before = statistics.getQueryExecutionCount();
+        action.run();
+        return statistics.getQueryExecutionCount() - before;
+    }
+
+    private static List<String> ids(List<ProductSummary> products) {
+        return products.stream().map(ProductSummary::productId).toList();
+    }
+
+    private static String product(EntityManager entityManager, Category category, String name, boolean featured,
+            boolean active, LocalDateTime createdAt) {
+        Product product = Product.builder()
+                .productName(name)
+                .category(category)
+                .isFeatured(featured)
+                .isActive(active)
+                .build();
+        entityManager.persist(product);
+        entityManager.flush();
+        // createdAt do Hibernate gán khi insert, sửa lại để cố định thứ tự "hàng mới về"
+        entityManager.createQuery("UPDATE Product p SET p.createdAt = :createdAt WHERE p.productId = :id")
+                .setParameter("createdAt", createdAt)
+                .setParameter("id", product.getProductId())
+                .executeUpdate();
+        return product.getProductId();
+    }
+
+    private static void review(EntityManager entityManager, Order order, User user, String productId, int count,
+            int rating) {
+        ProductItem item = ProductItem.builder()
+                .sku("SKU-" + productId.substring(0, 8) + "-" + count)
+                .price(BigDecimal.valueOf(100_000))
+                .stockQuantity(1)
+                .size(Size.M)
+                .product(entityManager.find(Product.class, productId))
+                .build();
+        entityManager.persist(item);
+        for (int i = 0; i < count; i++) {
+            OrderItem orderItem = OrderItem.builder().order(order).productItem(item).quantity(1)
+                    .unitPrice(100_000.0).totalPrice(100_000.0).build();
+            entityManager.persist(orderItem);
+            entityManager.persist(Review.builder().rating(rating).orderItem(orderItem).user(user).build());
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.brand.artifact.service;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import com.brand.artifact.constant.Role;
+import com.brand.artifact.dto.request.UserLoginRequest;
+import com.brand.artifact.entity.RefreshToken;
+import com.brand.artifact.entity.User;
+import com.brand.artifact.repository.RefreshTokenRepository;
+import com.brand.artifact.repository.UserRepository;
+import com.brand.artifact.utils.JwtUtil;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * So sánh số câu SQL và throughput của luồng login cũ (2 lần tìm user + load/saveAll token)
+ * với luồng hiện tại (1 truy vấn username-or-email + 1 câu UPDATE hàng loạt).
+ * BCrypt dùng strength thấp để kết quả phản ánh phần database.
+ * Chạy bằng: mvn test -Pbenchmarks -Dtest=LoginThroughputBenchmarkTest
+ */
+@Slf4j
+@Tag("benchmark")
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.show-sql=false"
+})
+@Import({ JwtUtil.class, RefreshTokenServiceImpl.class, AuthServiceImpl.class,
+        LoginThroughputBenchmarkTest.FastPasswordEncoderConfig.class })
+class LoginThroughputBenchmarkTest {
+
+    private static final int USERS = 50;
+    private static final int TOKENS_PER_USER = 20;
+    private static final int WARMUP_LOGINS = 200;
+    private static final int MEASURED_LOGINS = 1_000;
+    private static final String PASSWORD = "password";
+
+    @TestConfiguration
+    static class FastPasswordEncoderConfig {
+        @Bean
+        PasswordEncoder passwordEncoder() {
+            return new BCryptPasswordEncoder(4);
+        }
+    }
+
+    @MockitoBean
+    private TokenBlacklistService tokenBlacklistService;
+
+    @MockitoBean
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private List<User> users;
+
+    @BeforeEach
+    void seed() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        String encodedPassword = passwordEncoder.encode(PASSWORD);
+        users = IntStream.range(0, USERS)
+                .mapToObj(i -> userRepository.save(User.builder()
+                        .username("login" + i)
+                        .email("login" + i + "@example.com")
+                        .password(encodedPassword)
+                        .role(Role.USER)
+                        .build()))
+                .toList();
+        users.forEach(user -> refreshTokenRepository.saveAll(IntStream.range(0, TOKENS_PER_USER)
+                .mapToObj(i -> RefreshToken.builder()
+                        .token(UUID.randomUUID().toString())
+                        .user(user)
+                        .expiresAt(LocalDateTime.now().plusDays(7))
+                        .build())
+                .toList()));
+        refreshTokenRepository.flush();
+    }
+
+    @Test
+    void loginUsesFewerStatementsThanLegacyPath() {
+        Result legacy = measure("legacy", this::legacyLogin);
+        Result current = measure("current", this::currentLogin);
+
+        for (Result result : List.of(legacy, current)) {
+            log.info("path={} statements_per_login={} logins_per_sec={}", result.name,
+                    String.format("%.1f", result.statementsPerLogin), String.format("%.0f", result.loginsPerSecond));
+        }
+
+        assertTrue(current.statementsPerLogin < legacy.statementsPerLogin,
+                "Expected fewer statements per login: legacy=" + legacy.statementsPerLogin
+                        + " current=" + current.statementsPerLogin);
+    }
+
+    /**
+     * Luồng login trước đây: tìm theo username rồi mới tới email,
+     * revoke bằng cách load toàn bộ token và saveAll
+     */
+    private void legacyLogin(int i) {
+        User user = userRepository.findByUsername(users.get(i % USERS).getEmail())
+                .or(() -> userRepository.findByEmail(users.get(i % USERS).getEmail()))
+                .orElseThrow();
+        assertTrue(passwordEncoder.matches(PASSWORD, user.getPassword()));
+        String refreshToken = jwtUtil.generateRefreshToken(user.getUserId(), user.getUsername(), 0L);
+        List<RefreshToken> tokens = refreshTokenRepository.findByUser(user);
+        tokens.forEach(token -> token.setRevoked(true));
+        refreshTokenRepository.saveAll(tokens);
+        refreshTokenService.save(user, refreshToken, jwtUtil.extractExpiration(refreshToken));
+        refreshTokenRepository.flush();
+    }
+
+    private void currentLogin(int i) {
+        UserLoginRequest request = new UserLoginRequest();
+        request.setUsername(users.get(i % USERS).getEmail());
+        request.setPassword(PASSWORD);
+        authService.authenticateUser(request);
+        refreshTokenRepository.flush();
+    }
+
+    private Result measure(String name, IntConsumer login) {
+        for (int i = 0; i < WARMUP_LOGINS; i++) {
+            login.accept(i);
+        }
+        statistics.clear();
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_LOGINS; i++) {
+            login.accept(i);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        return new Result(name,
+                (double) statistics.getPrepareStatementCount() / MEASURED_LOGINS,
+                MEASURED_LOGINS / seconds);
+    }
+
+    private record Result(String name, double statementsPerLogin, double loginsPerSecond) {
+    }
+}
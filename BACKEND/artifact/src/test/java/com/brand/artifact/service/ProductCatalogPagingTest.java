@@ -0,0 +1,141 @@
+package com.brand.artifact.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import com.brand.artifact.constant.Size;
+import com.brand.artifact.dto.projection.ProductSummary;
+import com.brand.artifact.dto.request.CategoryRequest;
+import com.brand.artifact.dto.response.CursorPage;
+import com.brand.artifact.entity.Category;
+import com.brand.artifact.entity.Product;
+import com.brand.artifact.entity.ProductItem;
+import com.brand.artifact.exception.WebServerException;
+import com.brand.artifact.support.QueryCounts;
+import com.brand.artifact.support.QueryCountingConfig;
+
+import net.ttddyy.dsproxy.QueryCount;
+
+/**
+ * Seek pagination: duyệt hết catalog không sót/trùng sản phẩm, mỗi trang đúng một câu SELECT (không COUNT)
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+@Import({ QueryCountingConfig.class, ProductCatalogServiceImpl.class, CategoryTreeServiceImpl.class,
+        CategoryAdminServiceImpl.class })
+class ProductCatalogPagingTest {
+
+    private static final int PRODUCTS = 25;
+
+    @Autowired
+    private ProductCatalogService productCatalogService;
+
+    @Autowired
+    private CategoryTreeService categoryTreeService;
+
+    @Autowired
+    private CategoryAdminService categoryAdminService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @MockitoBean
+    private RedisTemplate<String, String> redisTemplate;
+
+    private String categoryId;
+    private String childCategoryId;
+
+    @BeforeEach
+    void seed() {
+        categoryId = categoryAdminService.createCategory(
+                new CategoryRequest("Áo thun", "ao-thun", null, null, 1, null, true)).categoryId();
+        childCategoryId = categoryAdminService.createCategory(
+                new CategoryRequest("Áo thun nam", "ao-thun-nam", null, null, 1, categoryId, true)).categoryId();
+        Category category = entityManager.find(Category.class, categoryId);
+        Category child = entityManager.find(Category.class, childCategoryId);
+        for (int i = 0; i < PRODUCTS; i++) {
+            Product product = entityManager.persist(Product.builder()
+                    .productName("Product " + i)
+                    .category(i % 4 == 0 ? child : (i % 2 == 0 ? category : null))
+                    .isActive(i != 3)
+                    .build());
+            entityManager.persist(ProductItem.builder()
+                    .sku("SKU-" + i)
+                    .price(BigDecimal.valueOf(100_000 + i))
+                    .stockQuantity(10)
+                    .size(Size.M)
+                    .product(product)
+                    .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+        // Transaction của test không commit nên event thay đổi category không tới được snapshot
+        categoryTreeService.refresh();
+    }
+
+    @Test
+    void walkingAllPagesReturnsEveryActiveProductOnce() {
+        List<ProductSummary> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            String current = cursor;
+            CursorPage<ProductSummary>[] page = new CursorPage[1];
+            QueryCount count = QueryCounts.measure(() -> page[0] = productCatalogService.listProducts(null, current, 10));
+
+            assertEquals(1, count.getSelect());
+            seen.addAll(page[0].getItems());
+            cursor = page[0].getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(3, pages);
+        assertEquals(PRODUCTS - 1, seen.size());
+        assertEquals(PRODUCTS - 1, new HashSet<>(seen.stream().map(ProductSummary::productId).toList()).size());
+        for (int i = 1; i < seen.size(); i++) {
+            ProductSummary previous = seen.get(i - 1);
+            ProductSummary next = seen.get(i);
+            int byTime = previous.createdAt().compareTo(next.createdAt());
+            assertTrue(byTime > 0 || (byTime == 0 && previous.productId().compareTo(next.productId()) > 0));
+        }
+        assertTrue(seen.stream().allMatch(summary -> summary.minPrice() != null));
+    }
+
+    @Test
+    void categoryFilterUsesTheSameCursor() {
+        CursorPage<ProductSummary> first = productCatalogService.listProducts(categoryId, null, 10);
+        CursorPage<ProductSummary> second = productCatalogService.listProducts(categoryId, first.getNextCursor(), 10);
+
+        assertTrue(first.isHasNext());
+        assertFalse(second.isHasNext());
+        assertNull(second.getNextCursor());
+        // Category cha gồm cả sản phẩm của category con
+        assertEquals(13, first.getSize() + second.getSize());
+        assertTrue(second.getItems().stream().allMatch(summary -> summary.categoryId() != null));
+        assertEquals(7, productCatalogService.listProducts(childCategoryId, null, 20).getSize());
+    }
+
+    @Test
+    void tamperedCursorIsRejected() {
+        assertThrows(WebServerException.class, () -> productCatalogService.listProducts(null, "not-a-cursor", 10));
+    }
+}
@@ -0,0 +1,163 @@
+package com.brand.artifact.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import com.brand.artifact.constant.Size;
+import com.brand.artifact.dto.projection.ProductItemView;
+import com.brand.artifact.dto.response.ProductDetailResponse;
+import com.brand.artifact.dto.response.VariantMatrix;
+import com.brand.artifact.dto.response.Versioned;
+import com.brand.artifact.entity.Category;
+import com.brand.artifact.entity.Product;
+import com.brand.artifact.entity.ProductImage;
+import com.brand.artifact.entity.ProductItem;
+import com.brand.artifact.event.CatalogChangedEvent;
+import com.brand.artifact.event.RemoteCatalogChangedEvent;
+import com.brand.artifact.exception.WebServerException;
+import com.brand.artifact.support.QueryCounts;
+import com.brand.artifact.support.QueryCountingConfig;
+
+import net.ttddyy.dsproxy.QueryCount;
+
+/**
+ * Chi tiết sản phẩm: số query cố định khi cache miss, không query khi cache hit, bỏ cache khi sản phẩm đổi
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+@Import({ QueryCountingConfig.class, ProductCatalogServiceImpl.class })
+class ProductDetailTest {
+
+    @Autowired
+    private ProductCatalogServiceImpl productCatalogService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @MockitoBean
+    private CategoryTreeService categoryTreeService;
+
+    private String productId;
+    private String itemId;
+
+    @BeforeEach
+    void seed() {
+        Category category = entityManager.persist(Category.builder().categoryName("Áo").slug("ao").build());
+        Product product = entityManager.persist(Product.builder()
+                .productName("Áo thun")
+                .category(category)
+                .isActive(true)
+                .build());
+        productId = product.getProductId();
+        image(product, "side.jpg", 2, false);
+        image(product, "front.jpg", 1, false);
+        image(product, "main.jpg", 3, true);
+        itemId = item(product, "TEE-L-DEN", Size.L, "Đen", 160_000, 0);
+        item(product, "TEE-M-DEN", Size.M, "Đen", 150_000, 4);
+        item(product, "TEE-M-TRANG", Size.M, "Trắng", 155_000, 2);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void loadsTheAggregateInAFixedNumberOfQueries() {
+        ProductDetailResponse[] detail = new ProductDetailResponse[1];
+        QueryCount count = QueryCounts.measure(() -> detail[0] = productCatalogService.getProduct(productId).body());
+
+        assertEquals(3, count.getSelect());
+        assertEquals("Áo", detail[0].getCategoryName());
+        assertEquals("main.jpg", detail[0].getPrimaryImageUrl());
+        assertEquals(List.of("front.jpg", "side.jpg", "main.jpg"),
+                detail[0].getImages().stream().map(image -> image.imageUrl()).toList());
+        assertEquals(new BigDecimal("150000.00"), detail[0].getMinPrice());
+
+        VariantMatrix variants = detail[0].getVariants();
+        assertEquals(List.of(Size.M, Size.L), variants.getSizes());
+        assertEquals(List.of("Đen", "Trắng"), variants.getColors());
+        assertEquals("TEE-M-TRANG", variants.getCells().get(0).get(1).sku());
+        assertEquals(0, variants.getCells().get(1).get(0).stockQuantity());
+        assertNull(variants.getCells().get(1).get(1));
+    }
+
+    @Test
+    void servesRepeatedReadsFromCacheUntilTheProductChanges() {
+        String etag = productCatalogService.getProduct(productId).etag();
+        assertEquals(0, QueryCounts.measure(() -> productCatalogService.getProduct(productId)).getTotal());
+
+        entityManager.find(ProductItem.class, itemId).setStockQuantity(7);
+        entityManager.flush();
+        productCatalogService.onCatalogChanged(CatalogChangedEvent.product(productId));
+
+        Versioned<ProductDetailResponse> changed = productCatalogService.getProduct(productId);
+        assertEquals(7, changed.body().getVariants().getCells().get(1).get(0).stockQuantity());
+        // Chỉ tồn kho của variant đổi, ETag vẫn phải đổi theo
+        assertNotEquals(etag, changed.etag());
+    }
+
+    @Test
+    void changesOnOtherNodesDropTheCachedDetail() {
+        productCatalogService.getProduct(productId);
+        entityManager.find(ProductItem.class, itemId).setStockQuantity(7);
+        entityManager.flush();
+
+        productCatalogService.onRemoteCatalogChanged(RemoteCatalogChangedEvent.product(productId));
+
+        assertEquals(7, productCatalogService.getProduct(productId).body().getVariants().getCells().get(1).get(0)
+                .stockQuantity());
+    }
+
+    @Test
+    void variantsWithoutSizeGetTheirOwnRow() {
+        VariantMatrix variants = ProductCatalogServiceImpl.toVariantMatrix(List.of(
+                new ProductItemView("free", "TOTE-DEN", BigDecimal.ONE, 3, null, "Đen"),
+                new ProductItemView("m", "TEE-M-DEN", BigDecimal.TEN, 1, Size.M, "Đen")));
+
+        assertEquals(Arrays.asList(Size.M, null), variants.getSizes());
+        assertEquals("TEE-M-DEN", variants.getCells().get(0).get(0).sku());
+        assertEquals("TOTE-DEN", variants.getCells().get(1).get(0).sku());
+    }
+
+    @Test
+    void inactiveProductIsNotFound() {
+        entityManager.find(Product.class, productId).setIsActive(false);
+        entityManager.flush();
+
+        assertThrows(WebServerException.class, () -> productCatalogService.getProduct(productId));
+    }
+
+    private void image(Product product, String url, int sortOrder, boolean primary) {
+        entityManager.persist(ProductImage.builder()
+                .imageUrl(url)
+                .sortOrder(sortOrder)
+                .isPrimary(primary)
+                .product(product)
+                .build());
+    }
+
+    private String item(Product product, String sku, Size size, String color, long price, int stock) {
+        return entityManager.persist(ProductItem.builder()
+                .sku(sku)
+                .price(BigDecimal.valueOf(price))
+                .stockQuantity(stock)
+                .size(size)
+                .color(color)
+                .product(product)
+                .build()).getProductItemId();
+    }
+}
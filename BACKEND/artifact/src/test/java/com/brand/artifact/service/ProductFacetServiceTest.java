@@ -0,0 +1,240 @@
+package com.brand.artifact.service;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import com.brand.artifact.constant.Size;
+import com.brand.artifact.dto.projection.CategoryView;
+import com.brand.artifact.dto.projection.ProductFacetRow;
+import com.brand.artifact.dto.request.ProductFacetRequest;
+import com.brand.artifact.dto.response.FacetCount;
+import com.brand.artifact.dto.response.ProductFacetResponse;
+import com.brand.artifact.entity.Category;
+import com.brand.artifact.entity.Product;
+import com.brand.artifact.entity.ProductItem;
+import com.brand.artifact.event.StockChangedEvent;
+import com.brand.artifact.exception.WebServerException;
+import com.brand.artifact.repository.ProductRepository;
+import com.brand.artifact.support.QueryCounts;
+import com.brand.artifact.support.QueryCountingConfig;
+import com.brand.artifact.utils.CategoryTree;
+import com.brand.artifact.utils.FacetIndex;
+
+import net.ttddyy.dsproxy.QueryCount;
+
+/**
+ * Facet: OR trong một facet, AND giữa các facet, số đếm không tính bộ lọc của chính facet đó,
+ * thay đổi trong lúc build lại không bị mất, tồn kho thay đổi được cập nhật bất đồng bộ
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        "app.catalog.facets.rebuild-batch-size=2",
+        "app.catalog.facets.price-bands=200000,500000"
+})
+@Import({ QueryCountingConfig.class, ProductFacetServiceImpl.class })
+class ProductFacetServiceTest {
+
+    @Autowired
+    private ProductFacetServiceImpl productFacetService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @MockitoBean
+    private CategoryTreeService categoryTreeService;
+
+    @MockitoSpyBean
+    private ProductRepository productRepository;
+
+    private Category men;
+    private Category shirts;
+    private Category dresses;
+    private Product tee;
+    private Product shirt;
+    private Product jeans;
+    private Product dress;
+
+    @BeforeEach
+    void seed() {
+        men = entityManager.persist(Category.builder().categoryName("Thời trang nam").slug("nam").build());
+        shirts = entityManager.persist(Category.builder().categoryName("Áo").slug("ao").parentCategory(men).build());
+        dresses = entityManager.persist(Category.builder().categoryName("Đầm").slug("dam").build());
+
+        tee = product("Áo thun", shirts, true);
+        item(tee, Size.M, "Đen", 150_000, 3);
+        item(tee, Size.L, "Trắng", 150_000, 0);
+        shirt = product("Áo sơ mi", shirts, true);
+        item(shirt, Size.L, "Xanh Navy", 350_000, 2);
+        jeans = product("Quần jean", men, true);
+        item(jeans, Size.M, "đen", 600_000, 0);
+        dress = product("Đầm dự tiệc", dresses, true);
+        item(dress, Size.S, "Đỏ", 900_000, 1);
+        Product hidden = product("Áo ngừng bán", shirts, false);
+        item(hidden, Size.M, "Đen", 150_000, 10);
+        entityManager.flush();
+        entityManager.clear();
+
+        when(categoryTreeService.getTree()).thenReturn(CategoryTree.build(List.of(
+                view(men, null), view(shirts, men), view(dresses, null))));
+        productFacetService.rebuild();
+    }
+
+    @Test
+    void combinesFacetsWithOrWithinAndAndAcross() {
+        ProductFacetResponse response = productFacetService.filter(
+                request(List.of(Size.M, Size.L), List.of("den"), null, null, null));
+
+        assertEquals(2, response.getTotal());
+        assertTrue(response.getProductIds().containsAll(List.of(tee.getProductId(), jeans.getProductId())));
+
+        // Màu đếm theo size đã chọn (bỏ qua bộ lọc màu), size đếm theo màu đã chọn
+        Map<String, Integer> colors = counts(response, FacetIndex.COLOR);
+        assertEquals(Map.of("den", 2, "trang", 1, "xanh-navy", 1, "do", 0), colors);
+        assertEquals(Map.of("M", 2, "L", 1, "S", 0), counts(response, FacetIndex.SIZE));
+        assertEquals("Xanh Navy", response.getFacets().get(FacetIndex.COLOR).stream()
+                .filter(count -> count.value().equals("xanh-navy")).findFirst().orElseThrow().label());
+    }
+
+    @Test
+    void inStockOnlyMatchesVariantsWithStock() {
+        // Áo thun còn size M nhưng size L đã hết
+        ProductFacetResponse response = productFacetService.filter(
+                request(List.of(Size.L), null, null, null, true));
+
+        assertEquals(List.of(shirt.getProductId()), response.getProductIds());
+        assertEquals(2, counts(response, FacetIndex.AVAILABILITY).get(FacetIndex.IN_STOCK));
+        assertEquals(Map.of("M", 1, "L", 1, "S", 1), counts(response, FacetIndex.SIZE));
+    }
+
+    @Test
+    void categoryFilterIncludesDescendantsAndPriceBands() {
+        ProductFacetResponse response = productFacetService.filter(
+                request(null, null, List.of("0-200000", "500000-"), men.getCategoryId(), null));
+
+        assertEquals(2, response.getTotal());
+        assertTrue(response.getProductIds().containsAll(List.of(tee.getProductId(), jeans.getProductId())));
+        assertEquals(Map.of("0-200000", 1, "200000-500000", 1, "500000-", 1), counts(response, FacetIndex.PRICE));
+        assertEquals("Đầm", response.getFacets().get(FacetIndex.CATEGORY).stream()
+                .filter(count -> count.value().equals(dresses.getCategoryId())).findFirst().orElseThrow().label());
+
+        assertThrows(WebServerException.class,
+                () -> productFacetService.filter(request(null, null, null, "missing", null)));
+    }
+
+    @Test
+    void filterNeverTouchesTheDatabase() {
+        QueryCount count = QueryCounts.measure(() -> productFacetService.filter(
+                request(List.of(Size.M), List.of("Đen"), List.of("0-200000"), shirts.getCategoryId(), true)));
+
+        assertEquals(0, count.getTotal());
+    }
+
+    @Test
+    void reindexProductAppliesChangesIncrementally() {
+        Product coat = product("Áo khoác", shirts, true);
+        item(coat, Size.XL, "Be", 450_000, 4);
+        entityManager.flush();
+        productFacetService.reindexProduct(coat.getProductId());
+        assertEquals(List.of(coat.getProductId()),
+                productFacetService.filter(request(List.of(Size.XL), null, null, null, true)).getProductIds());
+
+        coat.setIsActive(false);
+        entityManager.flush();
+        productFacetService.reindexProduct(coat.getProductId());
+        assertEquals(0, productFacetService.filter(request(List.of(Size.XL), null, null, null, null)).getTotal());
+    }
+
+    @Test
+    void changesDuringRebuildAreNotOverwrittenByTheStaleSnapshot() {
+        List<String> ids = productRepository.findActiveIdsAfter("", Limit.of(100));
+        List<ProductFacetRow> snapshot = productRepository.findFacetRows(ids);
+
+        // Trong lúc rebuild đọc dữ liệu (bản chụp cũ), áo thun hết hàng và được reindex
+        doAnswer(invocation -> {
+            entityManager.getEntityManager()
+                    .createQuery("UPDATE ProductItem pi SET pi.stockQuantity = 0 WHERE pi.product.productId = :id")
+                    .setParameter("id", tee.getProductId())
+                    .executeUpdate();
+            productFacetService.reindexProduct(tee.getProductId());
+            return ids;
+        }).doReturn(List.of()).when(productRepository).findActiveIdsAfter(any(), any());
+        doReturn(snapshot).when(productRepository).findFacetRows(ids);
+        productFacetService.rebuild();
+
+        assertEquals(List.of(), productFacetService.filter(request(List.of(Size.M), null, null, null, true))
+                .getProductIds());
+    }
+
+    @Test
+    void stockChangesAreAppliedInTheBackground() {
+        entityManager.getEntityManager()
+                .createQuery("UPDATE ProductItem pi SET pi.stockQuantity = 0 WHERE pi.product.productId = :id")
+                .setParameter("id", tee.getProductId())
+                .executeUpdate();
+        // Luồng nền không thấy transaction chưa commit của test nên trả về dữ liệu đã đọc trong transaction
+        List<String> changed = List.of(tee.getProductId());
+        doReturn(productRepository.findFacetRows(changed)).when(productRepository).findFacetRows(changed);
+
+        productFacetService.onStockChanged(StockChangedEvent.of(changed, List.of()));
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> productFacetService
+                .filter(request(List.of(Size.M), null, null, null, true)).getProductIds().isEmpty());
+    }
+
+    private static Map<String, Integer> counts(ProductFacetResponse response, String facet) {
+        return response.getFacets().get(facet).stream()
+                .collect(Collectors.toMap(FacetCount::value, FacetCount::count));
+    }
+
+    private static ProductFacetRequest request(List<Size> sizes, List<String> colors, List<String> prices,
+            String categoryId, Boolean inStock) {
+        return new ProductFacetRequest(sizes, colors, prices, categoryId, inStock, null);
+    }
+
+    private static CategoryView view(Category category, Category parent) {
+        return new CategoryView(category.getCategoryId(), category.getCategoryName(), category.getSlug(), null,
+                parent == null ? null : parent.getCategoryId(), 0);
+    }
+
+    private Product product(String name, Category category, boolean active) {
+        return entityManager.persist(Product.builder()
+                .productName(name)
+                .category(category)
+                .isActive(active)
+                .build());
+    }
+
+    private void item(Product product, Size size, String color, long price, int stock) {
+        entityManager.persist(ProductItem.builder()
+                .sku("SKU-" + product.getProductName().hashCode() + "-" + size + "-" + color.hashCode())
+                .price(BigDecimal.valueOf(price))
+                .stockQuantity(stock)
+                .size(size)
+                .color(color)
+                .product(product)
+                .build());
+    }
+}
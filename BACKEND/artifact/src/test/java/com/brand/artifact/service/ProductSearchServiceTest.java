@@ -0,0 +1,163 @@
+package com.brand.artifact.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import com.brand.artifact.constant.Size;
+import com.brand.artifact.dto.projection.ProductSearchDocument;
+import com.brand.artifact.dto.projection.ProductSummary;
+import com.brand.artifact.entity.Category;
+import com.brand.artifact.entity.Product;
+import com.brand.artifact.entity.ProductItem;
+import com.brand.artifact.event.CatalogChangedEvent;
+import com.brand.artifact.repository.ProductRepository;
+import com.brand.artifact.support.QueryCounts;
+import com.brand.artifact.support.QueryCountingConfig;
+
+import net.ttddyy.dsproxy.QueryCount;
+
+/**
+ * Search trong bộ nhớ: bỏ dấu tiếng Việt, xếp hạng, cập nhật từng sản phẩm, không chạm database,
+ * thay đổi trong lúc build lại không bị mất
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        "app.catalog.search.rebuild-batch-size=2"
+})
+@Import({ QueryCountingConfig.class, ProductSearchServiceImpl.class })
+class ProductSearchServiceTest {
+
+    @Autowired
+    private ProductSearchService productSearchService;
+
+    @Autowired
+    private ProductSearchServiceImpl productSearchServiceImpl;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @MockitoSpyBean
+    private ProductRepository productRepository;
+
+    private Category shirts;
+
+    @BeforeEach
+    void seed() {
+        Category men = entityManager.persist(Category.builder().categoryName("Thời trang nam").slug("nam").build());
+        shirts = entityManager.persist(Category.builder()
+                .categoryName("Áo")
+                .slug("ao")
+                .parentCategory(men)
+                .build());
+        product("Áo Thun Cổ Tròn", "Cotton 100%, thấm hút tốt", shirts, true);
+        product("Áo sơ mi trắng", "Sơ mi công sở", shirts, true);
+        product("Quần jean đen", "Jean co giãn, mặc cùng áo thun", null, true);
+        product("Áo thun ngừng bán", "Đã ẩn", shirts, false);
+        product("Đầm dự tiệc", "Đầm đỏ", null, true);
+        entityManager.flush();
+        entityManager.clear();
+        productSearchService.rebuild();
+    }
+
+    @Test
+    void foldsDiacriticsAndRanksNameMatchesFirst() {
+        List<ProductSummary> results = productSearchService.search("ao thun", 10);
+
+        assertEquals("Áo Thun Cổ Tròn", results.get(0).productName());
+        assertTrue(results.stream().noneMatch(summary -> summary.productName().contains("ngừng bán")));
+        assertEquals("Đầm dự tiệc", productSearchService.search("DAM", 10).get(0).productName());
+    }
+
+    @Test
+    void matchesCategoryNamesAndPrefixOfLastToken() {
+        assertEquals(2, productSearchService.search("thoi trang nam", 10).size());
+        assertEquals("Quần jean đen", productSearchService.search("quan je", 10).get(0).productName());
+    }
+
+    @Test
+    void searchNeverTouchesTheDatabase() {
+        QueryCount count = QueryCounts.measure(() -> productSearchService.search("áo sơ mi", 10));
+
+        assertEquals(0, count.getTotal());
+    }
+
+    @Test
+    void reindexProductAppliesChangesIncrementally() {
+        Product product = product("Áo khoác gió", "Chống nước", shirts, true);
+        entityManager.flush();
+        productSearchService.reindexProduct(product.getProductId());
+        assertEquals("Áo khoác gió", productSearchService.search("khoac", 10).get(0).productName());
+
+        product.setIsActive(false);
+        entityManager.flush();
+        productSearchService.reindexProduct(product.getProductId());
+        assertTrue(productSearchService.search("khoac", 10).isEmpty());
+    }
+
+    @Test
+    void changesDuringRebuildAreNotOverwrittenByTheStaleSnapshot() {
+        Product product = product("Áo len cũ", "Len", shirts, true);
+        entityManager.flush();
+        List<ProductSearchDocument> snapshot = productRepository.findSearchDocumentsAfter("", Limit.of(100));
+
+        // Trong lúc rebuild đọc dữ liệu (bản chụp cũ), sản phẩm được đổi tên và reindex
+        doAnswer(invocation -> {
+            product.setProductName("Áo len mới");
+            entityManager.flush();
+            productSearchService.reindexProduct(product.getProductId());
+            return snapshot;
+        }).doReturn(List.of()).when(productRepository).findSearchDocumentsAfter(any(), any());
+        productSearchService.rebuild();
+
+        assertEquals("Áo len mới", productSearchService.search("ao len", 10).get(0).productName());
+    }
+
+    @Test
+    void categoryChangeReindexesInTheBackgroundWithBatchedQueries() {
+        // Thread nền không thấy dữ liệu chưa commit của test, chỉ kiểm tra cách query
+        doReturn(List.of("p1", "p2", "p3")).when(productRepository).findIdsByCategoryOrParent(shirts.getCategoryId());
+        QueryCount count = QueryCounts.measure(
+                () -> productSearchServiceImpl.onCatalogChanged(CatalogChangedEvent.category(shirts.getCategoryId())));
+
+        assertEquals(0, count.getTotal());
+        verify(productRepository, timeout(5_000)).findSearchDocuments(List.of("p1", "p2"));
+        verify(productRepository, timeout(5_000)).findSearchDocuments(List.of("p3"));
+        verify(productRepository, never()).findSearchDocument(any());
+    }
+
+    private Product product(String name, String description, Category category, boolean active) {
+        Product product = entityManager.persist(Product.builder()
+                .productName(name)
+                .description(description)
+                .category(category)
+                .isActive(active)
+                .build());
+        entityManager.persist(ProductItem.builder()
+                .sku("SKU-" + name.hashCode())
+                .price(BigDecimal.valueOf(150_000))
+                .stockQuantity(5)
+                .size(Size.M)
+                .product(product)
+                .build());
+        return product;
+    }
+}
@@ -0,0 +1,148 @@
+package com.brand.artifact.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import redis.embedded.RedisServer;
+
+/**
+ * Hàng đợi flash sale trên Redis: lượt mua đã lấy ra nằm trong danh sách đang xử lý của node
+ * cho tới khi được acknowledge, node khởi động lại thì các lượt bỏ dở quay về hàng đợi.
+ */
+class RedisFlashSaleStockCounterTest {
+
+    private static final String ITEM_ID = "item-1";
+    private static final String PROCESSING_KEY = RedisFlashSaleStockCounter.PROCESSING_KEY_PREFIX + "node-a";
+
+    private static RedisServer redisServer;
+    private static LettuceConnectionFactory connectionFactory;
+
+    private StringRedisTemplate redisTemplate;
+    private RedisFlashSaleStockCounter counter;
+
+    @BeforeAll
+    static void startRedis() throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        redisServer = new RedisServer(port);
+        redisServer.start();
+
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", port));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+    }
+
+    @AfterAll
+    static void stopRedis() throws IOException {
+        connectionFactory.destroy();
+        redisServer.stop();
+    }
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+        redisTemplate.getConnectionFactory().getConnection().serverCommands().flushAll();
+        counter = new RedisFlashSaleStockCounter(redisTemplate, "node-a");
+    }
+
+    @Test
+    void claimsNeverOversell() {
+        assertEquals(FlashSaleStockCounter.NOT_ACTIVE, counter.claim(claim("c-0", 1)));
+        counter.load(ITEM_ID, 3);
+
+        assertEquals(1, counter.claim(claim("c-1", 2)));
+        assertEquals(FlashSaleStockCounter.SOLD_OUT, counter.claim(claim("c-2", 2)));
+        assertEquals(0, counter.claim(claim("c-3", 1)));
+        assertEquals(2L, redisTemplate.opsForList().size(RedisFlashSaleStockCounter.QUEUE_KEY));
+
+        assertEquals(0, counter.drain(ITEM_ID));
+        assertEquals(FlashSaleStockCounter.NOT_ACTIVE, counter.remaining(ITEM_ID));
+    }
+
+    @Test
+    void polledClaimsStayInProcessingUntilAcknowledged() {
+        counter.load(ITEM_ID, 10);
+        counter.claim(claim("c-1", 1));
+        counter.claim(claim("c-2", 1));
+
+        List<FlashSaleClaim> polled = counter.poll(10);
+
+        assertEquals(List.of("c-1", "c-2"), ids(polled));
+        assertEquals(0L, redisTemplate.opsForList().size(RedisFlashSaleStockCounter.QUEUE_KEY));
+        assertEquals(2L, redisTemplate.opsForList().size(PROCESSING_KEY));
+
+        counter.acknowledge(polled.subList(0, 1));
+        assertEquals(List.of(polled.get(1).encode()), redisTemplate.opsForList().range(PROCESSING_KEY, 0, -1));
+    }
+
+    @Test
+    void restartedNodeRecoversClaimsLeftInProcessingInOrder() {
+        counter.load(ITEM_ID, 10);
+        for (int i = 1; i <= 3; i++) {
+            counter.claim(claim("c-" + i, 1));
+        }
+        counter.poll(2);
+
+        // Node dừng trước khi commit: lần khởi động sau (cùng node-id) đưa hai lượt lại đầu hàng đợi
+        RedisFlashSaleStockCounter restarted = new RedisFlashSaleStockCounter(redisTemplate, "node-a");
+        assertEquals(0, new RedisFlashSaleStockCounter(redisTemplate, "node-b").recover());
+        assertEquals(2, restarted.recover());
+
+        assertEquals(0L, redisTemplate.opsForList().size(PROCESSING_KEY));
+        assertEquals(List.of("c-1", "c-2", "c-3"), ids(restarted.poll(10)));
+    }
+
+    @Test
+    void requeueMovesClaimsBackAndCountsAttempts() {
+        counter.load(ITEM_ID, 10);
+        counter.claim(claim("c-1", 1));
+        counter.claim(claim("c-2", 1));
+        List<FlashSaleClaim> polled = counter.poll(10);
+
+        counter.requeue(polled.subList(0, 1), true);
+        counter.requeue(polled.subList(1, 2), false);
+
+        assertEquals(0L, redisTemplate.opsForList().size(PROCESSING_KEY));
+        List<FlashSaleClaim> requeued = counter.poll(10);
+        assertEquals(List.of("c-1", "c-2"), ids(requeued));
+        assertEquals(List.of(1, 0), requeued.stream().map(FlashSaleClaim::attempts).toList());
+    }
+
+    @Test
+    void deadLetteredClaimsLeaveProcessing() {
+        counter.load(ITEM_ID, 10);
+        counter.claim(claim("c-1", 1));
+        List<FlashSaleClaim> polled = counter.poll(10);
+
+        counter.deadLetter(polled);
+
+        assertEquals(0L, redisTemplate.opsForList().size(PROCESSING_KEY));
+        assertEquals(List.of(polled.get(0).encode()),
+                redisTemplate.opsForList().range(RedisFlashSaleStockCounter.DEAD_LETTER_KEY, 0, -1));
+        assertTrue(counter.poll(10).isEmpty());
+        assertEquals(0, counter.recover());
+    }
+
+    private static FlashSaleClaim claim(String claimId, int quantity) {
+        return new FlashSaleClaim(claimId, "user-1", ITEM_ID, quantity, LocalDateTime.now(), "address|1", 0);
+    }
+
+    private static List<String> ids(List<FlashSaleClaim> claims) {
+        return claims.stream().map(FlashSaleClaim::claimId).toList();
+    }
+}
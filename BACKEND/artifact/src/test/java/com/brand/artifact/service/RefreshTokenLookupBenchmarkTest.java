@@ -0,0 +1,112 @@
+package com.brand.artifact.service;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import com.brand.artifact.config.PasswordEncoderConfig;
+import com.brand.artifact.constant.Role;
+import com.brand.artifact.entity.RefreshToken;
+import com.brand.artifact.entity.User;
+import com.brand.artifact.repository.RefreshTokenRepository;
+import com.brand.artifact.repository.UserRepository;
+import com.brand.artifact.utils.JwtUtil;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Đo thời gian tra cứu refresh token khi số bản ghi lịch sử của user tăng dần.
+ * Chạy bằng: mvn test -Pbenchmarks
+ */
+@Slf4j
+@Tag("benchmark")
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+@Import({ JwtUtil.class, PasswordEncoderConfig.class, RefreshTokenServiceImpl.class })
+class RefreshTokenLookupBenchmarkTest {
+
+    private static final int[] HISTORY_SIZES = { 1, 20, 100, 1_000 };
+    private static final int WARMUP_LOOKUPS = 200;
+    private static final int MEASURED_LOOKUPS = 1_000;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void refreshTokenLookupStaysFlatAsHistoryGrows() {
+        Map<Integer, Double> averageMicros = new LinkedHashMap<>();
+
+        for (int historySize : HISTORY_SIZES) {
+            User user = userRepository.save(User.builder()
+                    .username("bench" + historySize)
+                    .email("bench" + historySize + "@example.com")
+                    .password("not-used")
+                    .role(Role.USER)
+                    .build());
+
+            // Các bản ghi đã bị revoke sau mỗi lần login/rotate
+            List<RefreshToken> history = IntStream.range(0, historySize)
+                    .mapToObj(i -> RefreshToken.builder()
+                            .token(UUID.randomUUID().toString())
+                            .user(user)
+                            .expiresAt(LocalDateTime.now().plusDays(7))
+                            .revoked(true)
+                            .build())
+                    .toList();
+            refreshTokenRepository.saveAll(history);
+
+            String token = jwtUtil.generateRefreshToken(user.getUserId(), user.getUsername(), 0L);
+            refreshTokenService.save(user, token, jwtUtil.extractExpiration(token));
+            entityManager.flush();
+            entityManager.clear();
+
+            for (int i = 0; i < WARMUP_LOOKUPS; i++) {
+                lookup(token);
+            }
+            long start = System.nanoTime();
+            for (int i = 0; i < MEASURED_LOOKUPS; i++) {
+                lookup(token);
+            }
+            averageMicros.put(historySize, (System.nanoTime() - start) / 1_000.0 / MEASURED_LOOKUPS);
+        }
+
+        averageMicros.forEach((size, micros) -> log.info("history_size={} avg_lookup_us={}", size,
+                String.format("%.1f", micros)));
+
+        double smallest = averageMicros.get(HISTORY_SIZES[0]);
+        double largest = averageMicros.get(HISTORY_SIZES[HISTORY_SIZES.length - 1]);
+        assertTrue(largest < smallest * 3,
+                "Lookup latency grew with token history: " + averageMicros);
+    }
+
+    private void lookup(String token) {
+        assertTrue(refreshTokenService.findByToken(token).isPresent());
+        entityManager.clear();
+    }
+}
@@ -0,0 +1,187 @@
+package com.brand.artifact.service;
+
+import static com.brand.artifact.support.TestTransactions.deleteAll;
+import static com.brand.artifact.support.TestTransactions.inTransaction;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.brand.artifact.constant.Role;
+import com.brand.artifact.entity.RefreshToken;
+import com.brand.artifact.entity.User;
+import com.brand.artifact.repository.RefreshTokenRepository;
+
+import jakarta.persistence.EntityManagerFactory;
+import redis.embedded.RedisServer;
+
+/**
+ * Job dọn refresh token: xoá token hết hạn và token đã revoke quá thời gian giữ lại theo lô,
+ * giữ nguyên token còn dùng được, và chỉ trả lease Redis khi lease vẫn là của node này.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RefreshTokenPurgeServiceImplTest {
+
+    private static RedisServer redisServer;
+    private static LettuceConnectionFactory connectionFactory;
+
+    @MockitoSpyBean
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private StringRedisTemplate redisTemplate;
+    private User user;
+
+    @BeforeAll
+    static void startRedis() throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        redisServer = new RedisServer(port);
+        redisServer.start();
+
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", port));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+    }
+
+    @AfterAll
+    static void stopRedis() throws IOException {
+        connectionFactory.destroy();
+        redisServer.stop();
+    }
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+        redisTemplate.getConnectionFactory().getConnection().serverCommands().flushAll();
+        user = inTransaction(entityManagerFactory, entityManager -> {
+            User owner = User.builder().username("owner").email("owner@example.com").password("x").role(Role.USER)
+                    .build();
+            entityManager.persist(owner);
+            return owner;
+        });
+    }
+
+    @AfterEach
+    void cleanUp() {
+        deleteAll(entityManagerFactory, "RefreshToken", "User");
+    }
+
+    @Test
+    void purgesExpiredAndOldRevokedTokensOnly() {
+        LocalDateTime now = LocalDateTime.now();
+        String active = save("active", now.plusDays(7), false, now);
+        String recentlyRevoked = save("recently-revoked", now.plusDays(7), true, now.minusHours(1));
+        save("expired", now.minusMinutes(1), false, now.minusDays(8));
+        save("old-revoked", now.plusDays(7), true, now.minusDays(2));
+
+        assertEquals(2, service(500, 200).purgeExpiredTokens());
+
+        assertEquals(List.of(active, recentlyRevoked).stream().sorted().toList(), remainingIds());
+    }
+
+    @Test
+    void stopsAfterMaxBatchesPerRun() {
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < 4; i++) {
+            save("expired-" + i, now.minusMinutes(1), false, now.minusDays(8));
+            save("revoked-" + i, now.plusDays(7), true, now.minusDays(2));
+        }
+
+        // Giới hạn số lô tính chung cho cả hai loại token
+        assertEquals(6, service(2, 3).purgeExpiredTokens());
+        assertEquals(2, remainingIds().size());
+        assertEquals(2, service(2, 3).purgeExpiredTokens());
+        assertEquals(List.of(), remainingIds());
+    }
+
+    @Test
+    void releasesItsOwnLeaseAfterTheRun() {
+        save("expired", LocalDateTime.now().minusMinutes(1), false, LocalDateTime.now().minusDays(8));
+
+        service(500, 200).scheduledPurge();
+
+        assertEquals(List.of(), remainingIds());
+        assertNull(redisTemplate.opsForValue().get(RefreshTokenPurgeServiceImpl.LEASE_KEY));
+    }
+
+    @Test
+    void skipsTheRunWhileAnotherNodeHoldsTheLease() {
+        redisTemplate.opsForValue().set(RefreshTokenPurgeServiceImpl.LEASE_KEY, "other-node");
+
+        service(500, 200).scheduledPurge();
+
+        verify(refreshTokenRepository, never()).findExpiredIds(any(), any());
+        assertEquals("other-node", redisTemplate.opsForValue().get(RefreshTokenPurgeServiceImpl.LEASE_KEY));
+    }
+
+    @Test
+    void keepsALeaseTakenOverByAnotherNodeDuringTheRun() {
+        // Lease hết hạn giữa chừng và node khác lấy được: không được xoá lease của node đó
+        doAnswer(invocation -> {
+            redisTemplate.opsForValue().set(RefreshTokenPurgeServiceImpl.LEASE_KEY, "other-node");
+            return List.of();
+        }).when(refreshTokenRepository).findExpiredIds(any(), any());
+
+        service(500, 200).scheduledPurge();
+
+        assertEquals("other-node", redisTemplate.opsForValue().get(RefreshTokenPurgeServiceImpl.LEASE_KEY));
+    }
+
+    private RefreshTokenPurgeServiceImpl service(int batchSize, int maxBatches) {
+        return new RefreshTokenPurgeServiceImpl(refreshTokenRepository, transactionTemplate, redisTemplate,
+                true, batchSize, maxBatches, 0, 24, 600);
+    }
+
+    private String save(String token, LocalDateTime expiresAt, boolean revoked, LocalDateTime createdAt) {
+        return inTransaction(entityManagerFactory, entityManager -> {
+            RefreshToken refreshToken = RefreshToken.builder()
+                    .token(token)
+                    .user(entityManager.getReference(User.class, user.getUserId()))
+                    .expiresAt(expiresAt)
+                    .revoked(revoked)
+                    .createdAt(createdAt)
+                    .build();
+            entityManager.persist(refreshToken);
+            return refreshToken.getId();
+        });
+    }
+
+    private List<String> remainingIds() {
+        return inTransaction(entityManagerFactory, entityManager -> entityManager.createQuery(
+                "SELECT rt.id FROM RefreshToken rt ORDER BY rt.id", String.class).getResultList());
+    }
+}
@@ -0,0 +1,60 @@
+package com.brand.artifact.service;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import com.brand.artifact.config.PasswordEncoderConfig;
+import com.brand.artifact.constant.Role;
+import com.brand.artifact.entity.RefreshToken;
+import com.brand.artifact.entity.User;
+import com.brand.artifact.repository.UserRepository;
+import com.brand.artifact.utils.JwtUtil;
+
+/**
+ * Tra cứu refresh token trả về cả bản ghi đã revoke để caller nhận ra token bị dùng lại
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+@Import({ JwtUtil.class, PasswordEncoderConfig.class, RefreshTokenServiceImpl.class })
+class RefreshTokenServiceImplTest {
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void rotatedTokensAreStillFoundButRevoked() {
+        User user = userRepository.save(User.builder()
+                .username("alice")
+                .email("alice@example.com")
+                .password("not-used")
+                .role(Role.USER)
+                .build());
+        String oldToken = jwtUtil.generateRefreshToken(user.getUserId(), user.getUsername(), 0L);
+        RefreshToken stored = refreshTokenService.save(user, oldToken, jwtUtil.extractExpiration(oldToken));
+        String newToken = oldToken + "-rotated";
+        refreshTokenService.rotateToken(stored, newToken, jwtUtil.extractExpiration(oldToken));
+        entityManager.flush();
+        entityManager.clear();
+
+        assertTrue(refreshTokenService.findByToken(oldToken).orElseThrow().isRevoked());
+        assertFalse(refreshTokenService.findByToken(newToken).orElseThrow().isRevoked());
+        assertTrue(refreshTokenService.findByToken("unknown-token").isEmpty());
+    }
+}
@@ -0,0 +1,229 @@
+package com.brand.artifact.service;
+
+import static com.brand.artifact.support.TestTransactions.deleteAll;
+import static com.brand.artifact.support.TestTransactions.inTransaction;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.brand.artifact.constant.Size;
+import com.brand.artifact.entity.Category;
+import com.brand.artifact.entity.Product;
+import com.brand.artifact.entity.ProductItem;
+import com.brand.artifact.event.CatalogChangedEvent;
+import com.brand.artifact.event.RemoteCatalogChangedEvent;
+import com.brand.artifact.event.StockChangedEvent;
+import com.brand.artifact.repository.CategoryClosureRepository;
+import com.brand.artifact.support.QueryCounts;
+import com.brand.artifact.support.QueryCountingConfig;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Second-level cache: đọc lại không chạm database, thay đổi tồn kho (kể cả bulk update) không để lại dữ liệu cũ,
+ * message từ node khác xoá entry tương ứng.
+ * Hibernate không cache entity được insert trong transaction chưa commit nên test tự commit dữ liệu.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ QueryCountingConfig.class, SecondLevelCacheServiceImpl.class })
+@RecordApplicationEvents
+class SecondLevelCacheTest {
+
+    @Autowired
+    private SecondLevelCacheServiceImpl secondLevelCacheService;
+
+    @Autowired
+    private CategoryClosureRepository categoryClosureRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @MockitoBean
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    private String productId;
+    private String itemId;
+    private String categoryId;
+
+    @BeforeEach
+    void seed() {
+        inTransaction(entityManagerFactory, entityManager -> {
+            Category category = Category.builder().categoryName("Áo").slug("ao").build();
+            entityManager.persist(category);
+            Product product = Product.builder().productName("Áo thun").category(category).isActive(true).build();
+            entityManager.persist(product);
+            ProductItem item = ProductItem.builder()
+                    .sku("TEE-M")
+                    .price(BigDecimal.valueOf(150_000))
+                    .stockQuantity(5)
+                    .size(Size.M)
+                    .product(product)
+                    .build();
+            entityManager.persist(item);
+            categoryId = category.getCategoryId();
+            productId = product.getProductId();
+            itemId = item.getProductItemId();
+            return null;
+        });
+        entityManagerFactory.getCache().evictAll();
+
+        // Lần đọc đầu đưa entity vào cache
+        inTransaction(entityManagerFactory,
+                entityManager -> entityManager.find(Product.class, productId).getCategory().getCategoryName()
+                        + entityManager.find(ProductItem.class, itemId).getSku());
+    }
+
+    @AfterEach
+    void cleanUp() {
+        deleteAll(entityManagerFactory, "CategoryClosure", "ProductItem", "Product", "Category");
+    }
+
+    @Test
+    void repeatedLoadsAreServedFromTheCache() {
+        long selects = QueryCounts.measure(() -> inTransaction(entityManagerFactory, entityManager -> {
+            assertEquals("Áo", entityManager.find(Product.class, productId).getCategory().getCategoryName());
+            return entityManager.find(ProductItem.class, itemId).getStockQuantity();
+        })).getSelect();
+
+        assertEquals(0, selects);
+        assertTrue(statistics().getDomainDataRegionStatistics("catalog-product").getHitCount() > 0);
+    }
+
+    @Test
+    void stockChangesNeverServeStaleQuantities() {
+        inTransaction(entityManagerFactory, entityManager -> {
+            entityManager.find(ProductItem.class, itemId).setStockQuantity(4);
+            return null;
+        });
+        assertEquals(4, stockOf(itemId));
+        assertEquals(0, QueryCounts.measure(() -> stockOf(itemId)).getSelect());
+
+        inTransaction(entityManagerFactory, entityManager -> entityManager.createQuery(
+                "UPDATE ProductItem pi SET pi.stockQuantity = pi.stockQuantity - 1 WHERE pi.productItemId = :id")
+                .setParameter("id", itemId)
+                .executeUpdate());
+        assertEquals(3, stockOf(itemId));
+    }
+
+    @Test
+    void nativeClosureWritesDoNotFlushTheWholeCache() {
+        transactionTemplate.executeWithoutResult(status -> categoryClosureRepository.insertLink(categoryId, categoryId, 0));
+
+        assertEquals(0, QueryCounts.measure(() -> inTransaction(entityManagerFactory, 
+                entityManager -> entityManager.find(Product.class, productId))).getSelect());
+    }
+
+    @Test
+    void evictionMessagesFromOtherNodesDropTheProductEntries() {
+        String payload = publishedPayload();
+        secondLevelCacheService.onMessage(message(payload), null);
+        assertEquals(0, QueryCounts.measure(() -> inTransaction(entityManagerFactory, 
+                entityManager -> entityManager.find(Product.class, productId))).getSelect());
+
+        // Id variant / ảnh đi kèm message: node nhận không query database
+        String fromOtherNode = "other-node" + payload.substring(payload.indexOf(':'));
+        assertEquals(0, QueryCounts.measure(() -> secondLevelCacheService.onMessage(message(fromOtherNode), null))
+                .getSelect());
+        assertEquals(2, QueryCounts.measure(() -> inTransaction(entityManagerFactory, 
+                entityManager -> entityManager.find(Product.class, productId).getProductName()
+                        + entityManager.find(ProductItem.class, itemId).getSku())).getSelect());
+        // Chỉ message của node khác mới báo cho cache dẫn xuất
+        assertEquals(List.of(RemoteCatalogChangedEvent.product(productId)),
+                events.stream(RemoteCatalogChangedEvent.class).toList());
+    }
+
+    @Test
+    void messagesWithoutIdsStillEvictTheVariants() {
+        secondLevelCacheService.onMessage(message("other-node:product:" + productId), null);
+
+        assertEquals(1, QueryCounts.measure(() -> inTransaction(entityManagerFactory, 
+                entityManager -> entityManager.find(ProductItem.class, itemId).getSku())).getSelect());
+    }
+
+    @Test
+    void stockMessagesEvictOnlyTheVariantsWithoutQueries() {
+        clearInvocations(redisTemplate);
+        assertEquals(0, QueryCounts.measure(() -> secondLevelCacheService.onStockChanged(
+                StockChangedEvent.of(List.of(productId), List.of(itemId)))).getTotal());
+        ArgumentCaptor<String> payload = ArgumentCaptor.forClass(String.class);
+        verify(redisTemplate).convertAndSend(eq(SecondLevelCacheServiceImpl.CHANNEL), payload.capture());
+        assertTrue(payload.getValue().endsWith(":stock:" + productId + ":" + itemId));
+
+        String fromOtherNode = "other-node" + payload.getValue().substring(payload.getValue().indexOf(':'));
+        secondLevelCacheService.onMessage(message(fromOtherNode), null);
+        assertEquals(1, QueryCounts.measure(() -> inTransaction(entityManagerFactory, 
+                entityManager -> entityManager.find(Product.class, productId).getProductName()
+                        + entityManager.find(ProductItem.class, itemId).getSku())).getSelect());
+        assertEquals(List.of(StockChangedEvent.remote(List.of(productId), List.of(itemId))),
+                events.stream(StockChangedEvent.class).filter(StockChangedEvent::remote).toList());
+
+        // Sự kiện nhận từ node khác không được gửi lại
+        clearInvocations(redisTemplate);
+        secondLevelCacheService.onStockChanged(StockChangedEvent.remote(List.of(productId), List.of(itemId)));
+        verify(redisTemplate, never()).convertAndSend(any(), any());
+    }
+
+    // Payload mà node này publish sau khi sản phẩm thay đổi
+    private String publishedPayload() {
+        clearInvocations(redisTemplate);
+        secondLevelCacheService.onCatalogChanged(CatalogChangedEvent.product(productId));
+        ArgumentCaptor<String> payload = ArgumentCaptor.forClass(String.class);
+        verify(redisTemplate).convertAndSend(eq(SecondLevelCacheServiceImpl.CHANNEL), payload.capture());
+        assertTrue(payload.getValue().endsWith(":product:" + productId + ":" + itemId + ":"));
+        return payload.getValue();
+    }
+
+    private int stockOf(String id) {
+        return inTransaction(entityManagerFactory,
+                entityManager -> entityManager.find(ProductItem.class, id).getStockQuantity());
+    }
+
+    // Mỗi lần gọi là một session mới, giống một request khác
+
+    private org.hibernate.stat.Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    private static Message message(String body) {
+        Message message = mock(Message.class);
+        when(message.getBody()).thenReturn(body.getBytes(StandardCharsets.UTF_8));
+        return message;
+    }
+}
@@ -0,0 +1,261 @@
+package com.brand.artifact.service;
+
+import static com.brand.artifact.support.TestTransactions.deleteAll;
+import static com.brand.artifact.support.TestTransactions.inTransaction;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.brand.artifact.constant.ReservationStatus;
+import com.brand.artifact.constant.Size;
+import com.brand.artifact.dto.response.StockReservationResponse;
+import com.brand.artifact.entity.Category;
+import com.brand.artifact.entity.Product;
+import com.brand.artifact.entity.ProductItem;
+import com.brand.artifact.entity.StockReservation;
+import com.brand.artifact.event.CatalogChangedEvent;
+import com.brand.artifact.event.StockChangedEvent;
+import com.brand.artifact.exception.ErrorCode;
+import com.brand.artifact.exception.WebServerException;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Giữ hàng dưới tải: hàng trăm người mua tranh nhau vài SKU, giỏ nhiều dòng theo thứ tự ngẫu nhiên.
+ * Không bán quá tồn kho, không deadlock, lượt giữ quá hạn được trả lại kho đúng một lần.
+ * Giữ / trả hàng chỉ báo tồn kho thay đổi, không báo cả sản phẩm thay đổi.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        "spring.datasource.hikari.maximum-pool-size=16"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(StockReservationServiceImpl.class)
+@RecordApplicationEvents
+class StockReservationConcurrencyTest {
+
+    private static final int BUYERS = 300;
+    private static final int[] INITIAL_STOCK = { 40, 25, 10 };
+
+    @Autowired
+    private StockReservationService reservationService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    private List<String> itemIds;
+
+    @BeforeEach
+    void seed() {
+        itemIds = inTransaction(entityManagerFactory, entityManager -> {
+            Category category = Category.builder().categoryName("Áo").slug("ao").build();
+            entityManager.persist(category);
+            Product product = Product.builder().productName("Áo flash sale").category(category).build();
+            entityManager.persist(product);
+            List<String> ids = new ArrayList<>();
+            for (int i = 0; i < INITIAL_STOCK.length; i++) {
+                ProductItem item = ProductItem.builder()
+                        .sku("SKU-" + i)
+                        .price(BigDecimal.valueOf(100_000))
+                        .stockQuantity(INITIAL_STOCK[i])
+                        .size(Size.values()[i])
+                        .product(product)
+                        .build();
+                entityManager.persist(item);
+                ids.add(item.getProductItemId());
+            }
+            return ids;
+        });
+    }
+
+    @AfterEach
+    void cleanUp() {
+        deleteAll(entityManagerFactory, "StockReservationItem", "StockReservation", "ProductItem", "Product",
+                "Category");
+    }
+
+    @Test
+    void concurrentBuyersNeverOversell() throws Exception {
+        Map<String, AtomicInteger> reserved = new ConcurrentHashMap<>();
+        itemIds.forEach(id -> reserved.put(id, new AtomicInteger()));
+        AtomicInteger rejected = new AtomicInteger();
+        ConcurrentLinkedQueue<Throwable> unexpected = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(32);
+        try {
+            for (int buyer = 0; buyer < BUYERS; buyer++) {
+                executor.submit(() -> {
+                    Map<String, Integer> cart = randomCart();
+                    try {
+                        start.await();
+                        StockReservationResponse response = reservationService.reserve("buyer", cart);
+                        response.getQuantities().forEach((id, quantity) -> reserved.get(id).addAndGet(quantity));
+                    } catch (WebServerException e) {
+                        if (e.getErrorCode() == ErrorCode.INSUFFICIENT_STOCK) {
+                            rejected.incrementAndGet();
+                        } else {
+                            unexpected.add(e);
+                        }
+                    } catch (Throwable e) {
+                        // Deadlock hay lock timeout đều rơi vào đây
+                        unexpected.add(e);
+                    }
+                });
+            }
+            start.countDown();
+        } finally {
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(60, TimeUnit.SECONDS));
+        }
+
+        assertTrue(unexpected.isEmpty(), () -> "Unexpected failures: " + unexpected);
+        // Nhu cầu vượt xa tồn kho nên phải có người bị từ chối
+        assertTrue(rejected.get() > 0);
+        for (int i = 0; i < itemIds.size(); i++) {
+            String id = itemIds.get(i);
+            int remaining = stockOf(id);
+            assertTrue(remaining >= 0, "Stock went negative for " + id);
+            assertEquals(INITIAL_STOCK[i] - remaining, reserved.get(id).get());
+            assertEquals(reserved.get(id).get(), heldQuantity(id));
+        }
+    }
+
+    @Test
+    void cartIsReservedAllOrNothing() {
+        Map<String, Integer> cart = new LinkedHashMap<>();
+        cart.put(itemIds.get(0), 5);
+        cart.put(itemIds.get(2), INITIAL_STOCK[2] + 1);
+
+        WebServerException error = assertThrows(WebServerException.class,
+                () -> reservationService.reserve("buyer", cart));
+
+        assertEquals(ErrorCode.INSUFFICIENT_STOCK, error.getErrorCode());
+        assertEquals(INITIAL_STOCK[0], stockOf(itemIds.get(0)));
+        assertEquals(INITIAL_STOCK[2], stockOf(itemIds.get(2)));
+    }
+
+    @Test
+    void expiredHoldsAreReturnedToStockOnce() {
+        StockReservationResponse reservation = reservationService.reserve("buyer",
+                Map.of(itemIds.get(0), 3, itemIds.get(1), 2));
+        assertEquals(INITIAL_STOCK[0] - 3, stockOf(itemIds.get(0)));
+
+        expire(reservation.getReservationId());
+        assertEquals(1, reservationService.releaseExpired());
+        assertEquals(0, reservationService.releaseExpired());
+
+        assertEquals(INITIAL_STOCK[0], stockOf(itemIds.get(0)));
+        assertEquals(INITIAL_STOCK[1], stockOf(itemIds.get(1)));
+        assertEquals(ReservationStatus.EXPIRED, statusOf(reservation.getReservationId()));
+        WebServerException error = assertThrows(WebServerException.class,
+                () -> reservationService.confirm(reservation.getReservationId()));
+        assertEquals(ErrorCode.RESERVATION_NOT_ACTIVE, error.getErrorCode());
+    }
+
+    @Test
+    void confirmedHoldsKeepTheStockAndCannotBeReleased() {
+        StockReservationResponse reservation = reservationService.reserve("buyer", Map.of(itemIds.get(2), 4));
+
+        reservationService.confirm(reservation.getReservationId());
+        expire(reservation.getReservationId());
+
+        assertEquals(0, reservationService.releaseExpired());
+        assertThrows(WebServerException.class, () -> reservationService.release(reservation.getReservationId()));
+        assertEquals(INITIAL_STOCK[2] - 4, stockOf(itemIds.get(2)));
+        assertEquals(ReservationStatus.CONFIRMED, statusOf(reservation.getReservationId()));
+    }
+
+    @Test
+    void releasedHoldsAreReturnedToStock() {
+        events.clear();
+        StockReservationResponse reservation = reservationService.reserve("buyer",
+                Map.of(itemIds.get(1), 2, itemIds.get(2), 1));
+
+        reservationService.release(reservation.getReservationId());
+
+        assertEquals(INITIAL_STOCK[1], stockOf(itemIds.get(1)));
+        assertEquals(INITIAL_STOCK[2], stockOf(itemIds.get(2)));
+        WebServerException error = assertThrows(WebServerException.class,
+                () -> reservationService.release(reservation.getReservationId()));
+        assertEquals(ErrorCode.RESERVATION_NOT_ACTIVE, error.getErrorCode());
+
+        List<StockChangedEvent> stockChanges = events.stream(StockChangedEvent.class).toList();
+        assertEquals(2, stockChanges.size());
+        stockChanges.forEach(event -> assertEquals(Set.of(itemIds.get(1), itemIds.get(2)), event.productItemIds()));
+        assertEquals(0, events.stream(CatalogChangedEvent.class).count());
+    }
+
+    // Giỏ 1-3 dòng, thứ tự dòng ngẫu nhiên để các giỏ chồng chéo nhau
+    private Map<String, Integer> randomCart() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<String> shuffled = new ArrayList<>(itemIds);
+        Collections.shuffle(shuffled, random);
+        Map<String, Integer> cart = new LinkedHashMap<>();
+        for (String id : shuffled.subList(0, random.nextInt(1, shuffled.size() + 1))) {
+            cart.put(id, random.nextInt(1, 4));
+        }
+        return cart;
+    }
+
+    private void expire(String reservationId) {
+        inTransaction(entityManagerFactory, entityManager -> entityManager.createQuery(
+                "UPDATE StockReservation r SET r.expiresAt = :past WHERE r.reservationId = :id")
+                .setParameter("past", LocalDateTime.now().minusMinutes(1))
+                .setParameter("id", reservationId)
+                .executeUpdate());
+    }
+
+    private int stockOf(String productItemId) {
+        return inTransaction(entityManagerFactory, entityManager -> entityManager.createQuery(
+                "SELECT pi.stockQuantity FROM ProductItem pi WHERE pi.productItemId = :id", Integer.class)
+                .setParameter("id", productItemId)
+                .getSingleResult());
+    }
+
+    private int heldQuantity(String productItemId) {
+        return inTransaction(entityManagerFactory, entityManager -> entityManager.createQuery(
+                "SELECT COALESCE(SUM(i.quantity), 0) FROM StockReservationItem i "
+                        + "WHERE i.productItem.productItemId = :id", Long.class)
+                .setParameter("id", productItemId)
+                .getSingleResult()
+                .intValue());
+    }
+
+    private ReservationStatus statusOf(String reservationId) {
+        return inTransaction(entityManagerFactory,
+                entityManager -> entityManager.find(StockReservation.class, reservationId).getStatus());
+    }
+}
@@ -0,0 +1,196 @@
+package com.brand.artifact.service;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import com.brand.artifact.utils.TokenDigest;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import redis.embedded.RedisServer;
+
+class TokenBlacklistServiceImplTest {
+
+    private static RedisServer redisServer;
+    private static LettuceConnectionFactory connectionFactory;
+
+    private StringRedisTemplate redisTemplate;
+    private RedisMessageListenerContainer listenerContainer;
+
+    @BeforeAll
+    static void startRedis() throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        redisServer = new RedisServer(port);
+        redisServer.start();
+
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", port));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+    }
+
+    @AfterAll
+    static void stopRedis() throws IOException {
+        connectionFactory.destroy();
+        redisServer.stop();
+    }
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+        redisTemplate.getConnectionFactory().getConnection().serverCommands().flushAll();
+
+        listenerContainer = new RedisMessageListenerContainer();
+        listenerContainer.setConnectionFactory(connectionFactory);
+        listenerContainer.afterPropertiesSet();
+        listenerContainer.start();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        listenerContainer.destroy();
+    }
+
+    @Test
+    void blacklistedTokenIsDetected() {
+        TokenBlacklistServiceImpl node = newNode(redisTemplate);
+
+        node.blacklistToken("access-token", 60_000);
+
+        assertTrue(node.isTokenBlacklisted("access-token"));
+        assertTrue(redisTemplate.hasKey(TokenBlacklistServiceImpl.KEY_PREFIX + TokenDigest.sha256("access-token")));
+    }
+
+    @Test
+    void unknownTokenIsAnsweredWithoutRedis() {
+        StringRedisTemplate redisSpy = spy(redisTemplate);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        TokenBlacklistServiceImpl node = new TokenBlacklistServiceImpl(redisSpy, 10_000, 0.001, 1_000, 300_000,
+                meterRegistry);
+        node.blacklistToken("revoked-token", 60_000);
+        node.rebuild();
+        clearInvocations(redisSpy);
+
+        for (int i = 0; i < 1_000; i++) {
+            assertFalse(node.isTokenBlacklisted("valid-token-" + i));
+        }
+        assertTrue(node.isTokenBlacklisted("revoked-token"));
+
+        verify(redisSpy, never()).getExpire(anyString(), any(TimeUnit.class));
+        // Metric theo lớp đã trả lời: Bloom filter cho token hợp lệ, near-cache cho token vừa blacklist
+        assertEquals(1_000, meterRegistry.get("token.blacklist.lookups").tag("source", "bloom_filter").counter().count());
+        assertEquals(1, meterRegistry.get("token.blacklist.lookups").tag("source", "near_cache").counter().count());
+        assertEquals(0, meterRegistry.get("token.blacklist.redis.lookup").timer().count());
+    }
+
+    @Test
+    void entriesPropagateToOtherNodes() {
+        TokenBlacklistServiceImpl nodeA = newNode(redisTemplate);
+        StringRedisTemplate redisSpy = spy(redisTemplate);
+        TokenBlacklistServiceImpl nodeB = newNode(redisSpy);
+        nodeA.rebuild();
+        nodeB.rebuild();
+
+        nodeA.blacklistToken("shared-token", 60_000);
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> nodeB.isTokenBlacklisted("shared-token"));
+        verify(redisSpy, never()).getExpire(anyString(), any(TimeUnit.class));
+    }
+
+    @Test
+    void lostMessagesAreRecoveredByTheNextSync() {
+        TokenBlacklistServiceImpl nodeA = newNode(redisTemplate);
+        // Node B không subscribe: mọi message pub/sub tới nó đều bị mất
+        StringRedisTemplate redisSpy = spy(redisTemplate);
+        TokenBlacklistServiceImpl nodeB = new TokenBlacklistServiceImpl(redisSpy, 10_000, 0.001, 1_000, 300_000,
+                new SimpleMeterRegistry());
+        nodeA.rebuild();
+        nodeB.rebuild();
+
+        nodeA.blacklistToken("lost-token", 60_000);
+        assertFalse(nodeB.isTokenBlacklisted("lost-token"));
+
+        nodeB.sync();
+        clearInvocations(redisSpy);
+
+        assertTrue(nodeB.isTokenBlacklisted("lost-token"));
+        verify(redisSpy, never()).getExpire(anyString(), any(TimeUnit.class));
+    }
+
+    @Test
+    void malformedRecentEntriesAreSkipped() {
+        TokenBlacklistServiceImpl nodeA = newNode(redisTemplate);
+        TokenBlacklistServiceImpl nodeB = new TokenBlacklistServiceImpl(redisTemplate, 10_000, 0.001, 1_000, 300_000,
+                new SimpleMeterRegistry());
+        nodeA.rebuild();
+        nodeB.rebuild();
+
+        // Entry hỏng đứng trước entry hợp lệ trong zset
+        long now = System.currentTimeMillis();
+        redisTemplate.opsForZSet().add(TokenBlacklistServiceImpl.RECENT_KEY, "digest:not-a-number", now - 1);
+        redisTemplate.opsForZSet().add(TokenBlacklistServiceImpl.RECENT_KEY, "no-separator", now - 1);
+        nodeA.blacklistToken("after-malformed", 60_000);
+
+        nodeB.sync();
+        redisTemplate.delete(TokenBlacklistServiceImpl.KEY_PREFIX + TokenDigest.sha256("after-malformed"));
+
+        // Chỉ còn near-cache của node B biết token này
+        assertTrue(nodeB.isTokenBlacklisted("after-malformed"));
+    }
+
+    @Test
+    void rebuildLoadsEntriesWrittenBeforeStartup() {
+        newNode(redisTemplate).blacklistToken("old-token", 60_000);
+
+        TokenBlacklistServiceImpl restartedNode = newNode(redisTemplate);
+        restartedNode.rebuild();
+
+        assertTrue(restartedNode.isTokenBlacklisted("old-token"));
+        assertFalse(restartedNode.isTokenBlacklisted("other-token"));
+    }
+
+    @Test
+    void legacyRawTokenKeysAreMigrated() {
+        String legacyToken = "eyJhbGciOiJIUzI1NiJ9.legacy.signature";
+        redisTemplate.opsForValue().set(legacyToken, "blacklisted", 60_000, TimeUnit.MILLISECONDS);
+
+        TokenBlacklistServiceImpl node = newNode(redisTemplate);
+        node.rebuild();
+
+        assertTrue(node.isTokenBlacklisted(legacyToken));
+        assertFalse(redisTemplate.hasKey(legacyToken));
+    }
+
+    private TokenBlacklistServiceImpl newNode(StringRedisTemplate template) {
+        TokenBlacklistServiceImpl node = new TokenBlacklistServiceImpl(template, 10_000, 0.001, 1_000, 300_000,
+                new SimpleMeterRegistry());
+        listenerContainer.addMessageListener(node, new ChannelTopic(TokenBlacklistServiceImpl.CHANNEL));
+        return node;
+    }
+}
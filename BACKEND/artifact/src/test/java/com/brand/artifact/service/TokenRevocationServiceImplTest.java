@@ -0,0 +1,183 @@
+package com.brand.artifact.service;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.brand.artifact.utils.JwtUtil;
+
+import redis.embedded.RedisServer;
+
+/**
+ * Thu hồi phiên theo epoch logic: token mang epoch cũ hơn bị từ chối bất kể đồng hồ của node,
+ * node khác thấy epoch mới qua pub/sub, và Redis lỗi thì xử lý theo cấu hình fail-open.
+ */
+class TokenRevocationServiceImplTest {
+
+    private static RedisServer redisServer;
+    private static LettuceConnectionFactory connectionFactory;
+
+    private StringRedisTemplate redisTemplate;
+    private RedisMessageListenerContainer listenerContainer;
+
+    @BeforeAll
+    static void startRedis() throws IOException {
+        int port = freePort();
+        redisServer = new RedisServer(port);
+        redisServer.start();
+
+        connectionFactory = connectionFactory(port);
+    }
+
+    @AfterAll
+    static void stopRedis() throws IOException {
+        connectionFactory.destroy();
+        redisServer.stop();
+    }
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+        redisTemplate.getConnectionFactory().getConnection().serverCommands().flushAll();
+
+        listenerContainer = new RedisMessageListenerContainer();
+        listenerContainer.setConnectionFactory(connectionFactory);
+        listenerContainer.afterPropertiesSet();
+        listenerContainer.start();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        listenerContainer.destroy();
+    }
+
+    @Test
+    void revocationRejectsTokensOfOlderEpochsOnly() {
+        TokenRevocationServiceImpl node = newNode(redisTemplate, true);
+        long before = node.currentEpoch("user-1");
+        assertFalse(node.isRevoked("user-1", before));
+
+        node.revokeAllSessions("user-1");
+        // Token phát hành ngay sau lệnh thu hồi (cùng millisecond) vẫn hợp lệ vì so sánh epoch, không so thời gian
+        long after = node.currentEpoch("user-1");
+
+        assertEquals(before + 1, after);
+        assertTrue(node.isRevoked("user-1", before));
+        assertFalse(node.isRevoked("user-1", after));
+        assertFalse(node.isRevoked("user-2", 0L));
+    }
+
+    @Test
+    void revocationPropagatesToOtherNodes() {
+        TokenRevocationServiceImpl nodeA = newNode(redisTemplate, true);
+        TokenRevocationServiceImpl nodeB = newNode(redisTemplate, true);
+        // Node B đã cache epoch 0
+        assertFalse(nodeB.isRevoked("user-1", 0L));
+
+        nodeA.revokeAllSessions("user-1");
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> nodeB.isRevoked("user-1", 0L));
+    }
+
+    @Test
+    void issuingReadsTheEpochFromRedisInsteadOfTheCache() {
+        // Node B không subscribe: cache của nó vẫn giữ epoch cũ
+        TokenRevocationServiceImpl nodeA = newNode(redisTemplate, true);
+        TokenRevocationServiceImpl nodeB = new TokenRevocationServiceImpl(redisTemplate, 60, 1_000, true);
+        assertFalse(nodeB.isRevoked("user-1", 0L));
+
+        nodeA.revokeAllSessions("user-1");
+
+        assertEquals(1L, nodeB.currentEpoch("user-1"));
+        assertTrue(nodeB.isRevoked("user-1", 0L));
+    }
+
+    @Test
+    void tokensCarryTheEpochTheyWereIssuedWith() {
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "accessSecret",
+                "a-string-secret-at-least-256-bits-long-for-jwt-token-generation");
+        ReflectionTestUtils.setField(jwtUtil, "refreshSecret", "");
+        ReflectionTestUtils.setField(jwtUtil, "accessExpirationMs", 900_000L);
+        ReflectionTestUtils.setField(jwtUtil, "refreshExpirationMs", 604_800_000L);
+        ReflectionTestUtils.setField(jwtUtil, "claimsCacheMaxSize", 0L);
+        ReflectionTestUtils.invokeMethod(jwtUtil, "init");
+
+        String accessToken = jwtUtil.generateAccessToken("user-1", "alice", "alice@example.com", "USER", 3L);
+        String refreshToken = jwtUtil.generateRefreshToken("user-1", "alice", 3L);
+
+        assertEquals(3L, jwtUtil.parseAccessToken(accessToken).orElseThrow().sessionEpoch());
+        assertEquals(3L, jwtUtil.parseRefreshToken(refreshToken).orElseThrow().sessionEpoch());
+    }
+
+    @Test
+    void redisFailuresFollowTheConfiguredPolicy() throws IOException {
+        LettuceConnectionFactory unreachable = connectionFactory(freePort());
+        try {
+            StringRedisTemplate brokenTemplate = new StringRedisTemplate(unreachable);
+
+            assertFalse(new TokenRevocationServiceImpl(brokenTemplate, 60, 1_000, true).isRevoked("user-1", 0L));
+            assertTrue(new TokenRevocationServiceImpl(brokenTemplate, 60, 1_000, false).isRevoked("user-1", 0L));
+            // Không đọc được epoch khi phát hành: dùng epoch 0, token có thể bị từ chối sớm nhưng không lỗi
+            assertEquals(0L, new TokenRevocationServiceImpl(brokenTemplate, 60, 1_000, false).currentEpoch("user-1"));
+        } finally {
+            unreachable.destroy();
+        }
+    }
+
+    @Test
+    void cachedEpochsStillApplyWhileRedisIsDown() throws IOException {
+        LettuceConnectionFactory unreachable = connectionFactory(freePort());
+        try {
+            TokenRevocationServiceImpl node = new TokenRevocationServiceImpl(new StringRedisTemplate(unreachable),
+                    60, 1_000, true);
+            // Epoch nhận qua pub/sub trước khi Redis lỗi vẫn được áp dụng dù fail-open
+            node.onMessage(new DefaultMessage(TokenRevocationServiceImpl.CHANNEL.getBytes(StandardCharsets.UTF_8),
+                    "user-1:2".getBytes(StandardCharsets.UTF_8)), null);
+
+            assertTrue(node.isRevoked("user-1", 1L));
+            assertFalse(node.isRevoked("user-1", 2L));
+        } finally {
+            unreachable.destroy();
+        }
+    }
+
+    private TokenRevocationServiceImpl newNode(StringRedisTemplate template, boolean failOpen) {
+        TokenRevocationServiceImpl node = new TokenRevocationServiceImpl(template, 60, 1_000, failOpen);
+        listenerContainer.addMessageListener(node, new ChannelTopic(TokenRevocationServiceImpl.CHANNEL));
+        return node;
+    }
+
+    private static LettuceConnectionFactory connectionFactory(int port) {
+        LettuceConnectionFactory factory = new LettuceConnectionFactory(
+                new RedisStandaloneConfiguration("localhost", port));
+        factory.afterPropertiesSet();
+        factory.start();
+        return factory;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
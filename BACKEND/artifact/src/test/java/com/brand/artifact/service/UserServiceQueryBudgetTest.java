@@ -0,0 +1,64 @@
+package com.brand.artifact.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import com.brand.artifact.constant.Role;
+import com.brand.artifact.dto.response.UserInfoResponse;
+import com.brand.artifact.entity.User;
+import com.brand.artifact.entity.UserInfo;
+import com.brand.artifact.support.QueryBudget;
+import com.brand.artifact.support.QueryCountingConfig;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+@Import({ UserServiceImpl.class, QueryCountingConfig.class })
+class UserServiceQueryBudgetTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private String userId;
+
+    @BeforeEach
+    void seed() {
+        User user = entityManager.persist(User.builder()
+                .username("budget")
+                .email("budget@example.com")
+                .password("not-used")
+                .role(Role.USER)
+                .build());
+        entityManager.persist(UserInfo.builder()
+                .firstName("Văn")
+                .lastName("A")
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .user(user)
+                .build());
+        userId = user.getUserId();
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    @QueryBudget(select = 1, total = 1)
+    void getUserInfoLoadsUserAndInfoInOneQuery() {
+        UserInfoResponse response = userService.getUserInfo(userId);
+
+        assertEquals("budget", response.getUsername());
+        assertEquals("Văn", response.getFirstName());
+    }
+}
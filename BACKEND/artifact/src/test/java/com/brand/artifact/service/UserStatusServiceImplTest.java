@@ -0,0 +1,72 @@
+package com.brand.artifact.service;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import com.brand.artifact.constant.Role;
+import com.brand.artifact.dto.projection.UserStatus;
+import com.brand.artifact.event.UserChangedEvent;
+import com.brand.artifact.repository.UserRepository;
+
+/**
+ * Cache trạng thái user cho xác thực stateless: bị xoá khi user đổi trên node này lẫn node khác
+ */
+@ExtendWith(MockitoExtension.class)
+class UserStatusServiceImplTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+
+    private UserStatusServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        service = new UserStatusServiceImpl(userRepository, redisTemplate, 30, 1_000);
+    }
+
+    @Test
+    void changesEvictLocallyAndNotifyOtherNodes() {
+        when(userRepository.findStatusByUserId("user-1")).thenReturn(
+                Optional.of(new UserStatus("user-1", "alice", Role.USER, true)),
+                Optional.of(new UserStatus("user-1", "alice", Role.USER, false)));
+        assertTrue(service.getStatus("user-1").orElseThrow().active());
+        assertTrue(service.getStatus("user-1").orElseThrow().active());
+
+        service.onUserChanged(new UserChangedEvent("user-1"));
+
+        assertFalse(service.getStatus("user-1").orElseThrow().active());
+        verify(userRepository, times(2)).findStatusByUserId("user-1");
+        verify(redisTemplate).convertAndSend(UserStatusServiceImpl.CHANNEL, "user-1");
+    }
+
+    @Test
+    void evictionsFromOtherNodesDropTheCachedStatus() {
+        when(userRepository.findStatusByUserId("user-1")).thenReturn(
+                Optional.of(new UserStatus("user-1", "alice", Role.USER, true)),
+                Optional.of(new UserStatus("user-1", "alice", Role.USER, false)));
+        assertTrue(service.getStatus("user-1").orElseThrow().active());
+
+        service.onMessage(new DefaultMessage(UserStatusServiceImpl.CHANNEL.getBytes(StandardCharsets.UTF_8),
+                "user-1".getBytes(StandardCharsets.UTF_8)), null);
+
+        // Không phải chờ hết TTL
+        assertFalse(service.getStatus("user-1").orElseThrow().active());
+    }
+}
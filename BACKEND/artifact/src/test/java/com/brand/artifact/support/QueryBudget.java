@@ -0,0 +1,27 @@
+package com.brand.artifact.support;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+
+/**
+ * Số câu SQL tối đa mà thân test method được phép chạy (không tính @BeforeEach).
+ * -1 = không giới hạn. Cần import QueryCountingConfig vào context của test.
+ */
+@Target({ ElementType.METHOD, ElementType.ANNOTATION_TYPE })
+@Retention(RetentionPolicy.RUNTIME)
+@ExtendWith(QueryBudgetExtension.class)
+public @interface QueryBudget {
+    int select() default -1;
+
+    int insert() default -1;
+
+    int update() default -1;
+
+    int delete() default -1;
+
+    int total() default -1;
+}
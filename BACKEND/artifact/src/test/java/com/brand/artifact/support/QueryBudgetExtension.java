@@ -0,0 +1,27 @@
+package com.brand.artifact.support;
+
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.platform.commons.support.AnnotationSupport;
+
+/**
+ * Đếm câu SQL trong thân test method và fail nếu vượt @QueryBudget
+ */
+public class QueryBudgetExtension implements BeforeTestExecutionCallback, AfterTestExecutionCallback {
+
+    @Override
+    public void beforeTestExecution(ExtensionContext context) {
+        QueryCounts.reset();
+    }
+
+    @Override
+    public void afterTestExecution(ExtensionContext context) {
+        if (context.getExecutionException().isPresent()) {
+            return;
+        }
+        AnnotationSupport.findAnnotation(context.getRequiredTestMethod(), QueryBudget.class)
+                .ifPresent(budget -> QueryCounts.assertWithinBudget(QueryCounts.current(),
+                        budget.select(), budget.insert(), budget.update(), budget.delete(), budget.total()));
+    }
+}
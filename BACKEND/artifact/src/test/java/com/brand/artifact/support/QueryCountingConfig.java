@@ -0,0 +1,34 @@
+package com.brand.artifact.support;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+
+/**
+ * Bọc DataSource của test bằng datasource-proxy để đếm câu SQL theo thread.
+ * Dùng kèm @QueryBudget hoặc QueryCounts.
+ */
+@TestConfiguration(proxyBeanMethods = false)
+public class QueryCountingConfig {
+
+    @Bean
+    static BeanPostProcessor queryCountingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource) {
+                    // Có thể đã được SlowQueryLogConfig bọc trước, bọc thêm một lớp vẫn đếm đúng
+                    return ProxyDataSourceBuilder.create(dataSource)
+                            .name(beanName)
+                            .countQuery()
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+}
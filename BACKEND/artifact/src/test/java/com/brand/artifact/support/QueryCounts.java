@@ -0,0 +1,51 @@
+package com.brand.artifact.support;
+
+import net.ttddyy.dsproxy.QueryCount;
+import net.ttddyy.dsproxy.QueryCountHolder;
+
+/**
+ * API đếm câu SQL đã chạy trên thread hiện tại (service call hoặc request MockMvc)
+ */
+public final class QueryCounts {
+
+    private QueryCounts() {
+    }
+
+    public static void reset() {
+        QueryCountHolder.clear();
+    }
+
+    public static QueryCount current() {
+        return QueryCountHolder.getGrandTotal();
+    }
+
+    /**
+     * Chạy action và trả về số câu SQL nó phát sinh
+     */
+    public static QueryCount measure(Runnable action) {
+        reset();
+        action.run();
+        return current();
+    }
+
+    public static void assertWithinBudget(QueryCount count, int select, int insert, int update, int delete, int total) {
+        StringBuilder violations = new StringBuilder();
+        check(violations, "select", count.getSelect(), select);
+        check(violations, "insert", count.getInsert(), insert);
+        check(violations, "update", count.getUpdate(), update);
+        check(violations, "delete", count.getDelete(), delete);
+        check(violations, "total", count.getTotal(), total);
+        if (!violations.isEmpty()) {
+            throw new AssertionError("Query budget exceeded:" + violations
+                    + " (select=" + count.getSelect() + ", insert=" + count.getInsert()
+                    + ", update=" + count.getUpdate() + ", delete=" + count.getDelete()
+                    + ", other=" + count.getOther() + ")");
+        }
+    }
+
+    private static void check(StringBuilder violations, String type, long actual, int budget) {
+        if (budget >= 0 && actual > budget) {
+            violations.append(' ').append(type).append(' ').append(actual).append(" > ").append(budget);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.brand.artifact.support;
+
+import java.util.function.Function;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Transaction tự quản cho test chạy ngoài transaction của Spring (Propagation.NOT_SUPPORTED):
+ * dữ liệu được commit thật để thread khác / service dưới test đọc được
+ */
+public final class TestTransactions {
+
+    private TestTransactions() {
+    }
+
+    /**
+     * Chạy work trong một EntityManager + transaction riêng rồi commit
+     */
+    public static <T> T inTransaction(EntityManagerFactory entityManagerFactory, Function<EntityManager, T> work) {
+        try (EntityManager entityManager = entityManagerFactory.createEntityManager()) {
+            entityManager.getTransaction().begin();
+            T result = work.apply(entityManager);
+            entityManager.getTransaction().commit();
+            return result;
+        }
+    }
+
+    /**
+     * Xoá toàn bộ bản ghi của các entity theo đúng thứ tự truyền vào (bảng con trước bảng cha)
+     */
+    public static void deleteAll(EntityManagerFactory entityManagerFactory, String... entities) {
+        inTransaction(entityManagerFactory, entityManager -> {
+            for (String entity : entities) {
+                entityManager.createQuery("DELETE FROM " + entity).executeUpdate();
+            }
+            return null;
+        });
+    }
+}
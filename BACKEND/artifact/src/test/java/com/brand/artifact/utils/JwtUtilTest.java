@@ -0,0 +1,45 @@
+package com.brand.artifact.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Cache claims: token verify một lần rồi dùng lại, jwt.claims-cache.max-size=0 tắt hẳn cache
+ */
+class JwtUtilTest {
+
+    @Test
+    void verifiedClaimsAreReusedFromTheCache() {
+        JwtUtil jwtUtil = newJwtUtil(100);
+        String token = jwtUtil.generateAccessToken("user-1", "alice", "alice@example.com", "USER", 0L);
+
+        assertSame(jwtUtil.parseAccessToken(token).orElseThrow(), jwtUtil.parseAccessToken(token).orElseThrow());
+    }
+
+    @Test
+    void zeroMaxSizeVerifiesEveryToken() {
+        JwtUtil jwtUtil = newJwtUtil(0);
+        String token = jwtUtil.generateAccessToken("user-1", "alice", "alice@example.com", "USER", 0L);
+
+        VerifiedToken first = jwtUtil.parseAccessToken(token).orElseThrow();
+        VerifiedToken second = jwtUtil.parseAccessToken(token).orElseThrow();
+        assertNotSame(first, second);
+        assertEquals(first, second);
+    }
+
+    private static JwtUtil newJwtUtil(long claimsCacheMaxSize) {
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "accessSecret",
+                "a-string-secret-at-least-256-bits-long-for-jwt-token-generation");
+        ReflectionTestUtils.setField(jwtUtil, "refreshSecret", "");
+        ReflectionTestUtils.setField(jwtUtil, "accessExpirationMs", 900_000L);
+        ReflectionTestUtils.setField(jwtUtil, "refreshExpirationMs", 604_800_000L);
+        ReflectionTestUtils.setField(jwtUtil, "claimsCacheMaxSize", claimsCacheMaxSize);
+        jwtUtil.init();
+        return jwtUtil;
+    }
+}
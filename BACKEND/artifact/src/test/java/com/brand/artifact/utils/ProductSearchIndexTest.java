@@ -0,0 +1,74 @@
+package com.brand.artifact.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.brand.artifact.dto.projection.ProductSearchDocument;
+import com.brand.artifact.dto.projection.ProductSummary;
+
+/**
+ * MaxScore chỉ bỏ qua sản phẩm không thể vào top-k: kết quả phải trùng với xếp hạng đầy đủ
+ */
+class ProductSearchIndexTest {
+
+    private static final String[] WORDS = { "áo", "thun", "sơ mi", "quần", "jean", "đen", "trắng", "oversize",
+            "cotton", "basic", "nam", "nữ", "khoác", "jacket", "jeans" };
+    private static final List<String> QUERIES = List.of("ao thun", "ao thun den", "quan je", "jean", "so mi trang",
+            "khoac nam cotton", "ja", "oversize basic nu", "den");
+
+    @Test
+    void topKMatchesTheFullRanking() {
+        ProductSearchIndex index = new ProductSearchIndex();
+        Random random = new Random(7);
+        int products = 3_000;
+        for (int i = 0; i < products; i++) {
+            index.upsert(document(i, random));
+        }
+        // Xoá / cập nhật xen kẽ để ordinal được dùng lại và posting list không còn chỉ thêm vào cuối
+        for (int i = 0; i < products; i += 7) {
+            index.remove("product-" + i);
+        }
+        for (int i = 0; i < products; i += 11) {
+            index.upsert(document(i, random));
+        }
+
+        for (String query : QUERIES) {
+            List<ProductSummary> full = index.search(query, products);
+            for (int limit : new int[] { 1, 5, 20, 50 }) {
+                assertEquals(full.subList(0, Math.min(limit, full.size())), index.search(query, limit), query);
+            }
+        }
+    }
+
+    @Test
+    void removedProductsAreNotReturned() {
+        ProductSearchIndex index = new ProductSearchIndex();
+        Random random = new Random(3);
+        for (int i = 0; i < 100; i++) {
+            index.upsert(document(i, random));
+        }
+        for (int i = 0; i < 100; i++) {
+            index.remove("product-" + i);
+        }
+
+        assertTrue(index.search("ao thun", 20).isEmpty());
+        assertEquals(0, index.size());
+    }
+
+    private static ProductSearchDocument document(int i, Random random) {
+        StringBuilder name = new StringBuilder();
+        for (int word = 0, words = random.nextInt(2, 6); word < words; word++) {
+            name.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+        }
+        return new ProductSearchDocument("product-" + i, name.toString().trim(),
+                random.nextBoolean() ? "Chất liệu cotton thoáng mát" : null, "category-" + (i % 5),
+                WORDS[i % WORDS.length], null, BigDecimal.valueOf(199_000), null, false, LocalDateTime.now());
+    }
+}